@@ -0,0 +1,71 @@
+package com.example.oktaapi.benchmark;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.Authentication;
+
+import com.example.oktaapi.audit.AccessAuditLog;
+
+/**
+ * Measures what recording an access decision costs a request thread, alone and with several
+ * threads recording at once. The background writer runs throughout, so the buffer is drained to
+ * memory-mapped segments as it would be in production.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccessAuditBenchmark {
+
+    private Path directory;
+    private AccessAuditLog auditLog;
+    private Authentication authentication;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("audit");
+        auditLog = new AccessAuditLog(true, directory, 65_536, 64L * 1024 * 1024, 4, Duration.ofMillis(100));
+        auditLog.start();
+        authentication = BenchmarkFixtures.authenticationConverter(BenchmarkFixtures.authorizationPolicies())
+            .convert(BenchmarkFixtures.userJwt());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        auditLog.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void recordDecision() {
+        auditLog.record(System.nanoTime(), "/api/private", 200, authentication);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void recordDecisionContended() {
+        auditLog.record(System.nanoTime(), "/api/private", 200, authentication);
+    }
+}
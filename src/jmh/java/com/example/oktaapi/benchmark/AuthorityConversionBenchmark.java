@@ -0,0 +1,83 @@
+package com.example.oktaapi.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+
+import com.example.oktaapi.security.CachingJwtGrantedAuthoritiesConverter;
+import com.example.oktaapi.security.OktaAuthenticationConverter;
+import com.example.oktaapi.security.policy.AuthorizationPolicies;
+
+/**
+ * Measures the conversion of a decoded token's {@code scp} and {@code groups} claims into granted
+ * authorities: the per-request conversion performed by the Okta starter's converter, compared with
+ * the memoizing {@link CachingJwtGrantedAuthoritiesConverter} and the full
+ * {@link OktaAuthenticationConverter} used in production.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthorityConversionBenchmark {
+
+    private Jwt jwt;
+    private JwtAuthenticationConverter oktaStyleConverter;
+    private CachingJwtGrantedAuthoritiesConverter cachingConverter;
+    private OktaAuthenticationConverter authenticationConverter;
+
+    @Setup
+    public void setUp() {
+        jwt = BenchmarkFixtures.userJwt();
+
+        // Equivalent to the Okta starter's converter: SCOPE_ authorities plus one per group
+        JwtGrantedAuthoritiesConverter scopesConverter = new JwtGrantedAuthoritiesConverter();
+        oktaStyleConverter = new JwtAuthenticationConverter();
+        oktaStyleConverter.setJwtGrantedAuthoritiesConverter(token -> {
+            Collection<GrantedAuthority> authorities = new ArrayList<>(scopesConverter.convert(token));
+            List<String> groups = token.getClaimAsStringList("groups");
+            if (groups != null) {
+                groups.forEach(group -> authorities.add(new SimpleGrantedAuthority(group)));
+            }
+            return authorities;
+        });
+
+        AuthorizationPolicies policies = BenchmarkFixtures.authorizationPolicies();
+        cachingConverter = BenchmarkFixtures.authoritiesConverter(policies);
+        authenticationConverter = new OktaAuthenticationConverter(cachingConverter);
+    }
+
+    @Benchmark
+    public AbstractAuthenticationToken oktaStyleConversion() {
+        return oktaStyleConverter.convert(jwt);
+    }
+
+    @Benchmark
+    public Collection<GrantedAuthority> cachingAuthoritiesConversion() {
+        return cachingConverter.convert(jwt);
+    }
+
+    @Benchmark
+    public AbstractAuthenticationToken oktaAuthenticationConversion() {
+        return authenticationConverter.convert(jwt);
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.oktaapi.benchmark;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.method.PreAuthorizeAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.util.SimpleMethodInvocation;
+
+import com.example.oktaapi.controller.SecuredController;
+import com.example.oktaapi.controller.TokenInfoCache;
+import com.example.oktaapi.model.Message;
+import com.example.oktaapi.security.JwtUtils;
+import com.example.oktaapi.security.policy.AuthorizationPolicies;
+import com.example.oktaapi.security.policy.PolicyAuthorizationManager;
+
+/**
+ * Compares the authorization check on {@code SecuredController.getPrivateMessage}: the original
+ * SpEL {@code @PreAuthorize} expression, evaluated by Spring Security's
+ * {@link PreAuthorizeAuthorizationManager}, versus the compiled {@code @RequirePolicy} policy.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthorizationBenchmark {
+
+    @Param({"user", "client_credentials"})
+    public String tokenType;
+
+    private Supplier<Authentication> authentication;
+
+    private PreAuthorizeAuthorizationManager spelManager;
+    private MethodInvocation spelInvocation;
+
+    private PolicyAuthorizationManager policyManager;
+    private MethodInvocation policyInvocation;
+
+    @Setup
+    public void setUp() throws Exception {
+        AuthorizationPolicies policies = BenchmarkFixtures.authorizationPolicies();
+        Jwt jwt = "user".equals(tokenType) ? BenchmarkFixtures.userJwt() : BenchmarkFixtures.clientCredentialsJwt();
+        Authentication token = BenchmarkFixtures.authenticationConverter(policies).convert(jwt);
+        authentication = () -> token;
+        // @jwtUtils.isClientCredentials() reads the security context of the calling thread
+        SecurityContextHolder.setContext(new SecurityContextImpl(token));
+
+        StaticApplicationContext context = new StaticApplicationContext();
+        context.getBeanFactory().registerSingleton("userAuthorities", BenchmarkFixtures.USER_GROUPS.toArray(new String[0]));
+        context.getBeanFactory().registerSingleton("jwtUtils", new JwtUtils());
+        context.refresh();
+        DefaultMethodSecurityExpressionHandler expressionHandler = new DefaultMethodSecurityExpressionHandler();
+        expressionHandler.setApplicationContext(context);
+        spelManager = new PreAuthorizeAuthorizationManager();
+        spelManager.setExpressionHandler(expressionHandler);
+        Method legacyMethod = LegacySecuredController.class.getMethod("getPrivateMessage", Jwt.class);
+        spelInvocation = new SimpleMethodInvocation(new LegacySecuredController(), legacyMethod, jwt);
+
+        policyManager = new PolicyAuthorizationManager(() -> policies);
+        Method method = SecuredController.class.getMethod("getPrivateMessage", Jwt.class);
+        SecuredController controller = new SecuredController(null, new TokenInfoCache(false, 1));
+        policyInvocation = new SimpleMethodInvocation(controller, method, jwt);
+    }
+
+    @TearDown
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public AuthorizationDecision spelPreAuthorize() {
+        return spelManager.check(authentication, spelInvocation);
+    }
+
+    @Benchmark
+    public AuthorizationDecision compiledPolicy() {
+        return policyManager.check(authentication, policyInvocation);
+    }
+
+    /**
+     * The endpoint as it was declared before authorization policies were compiled.
+     */
+    public static class LegacySecuredController {
+
+        @PreAuthorize("hasAuthority('SCOPE_data.read') and (hasAnyAuthority(@userAuthorities) or @jwtUtils.isClientCredentials())")
+        public Message getPrivateMessage(Jwt jwt) {
+            return new Message("This is a private endpoint that requires authentication");
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.oktaapi.benchmark;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import com.example.oktaapi.config.AppAuthoritiesConfig;
+import com.example.oktaapi.config.AuthorizationPolicyConfig;
+import com.example.oktaapi.security.CachingJwtGrantedAuthoritiesConverter;
+import com.example.oktaapi.security.OktaAuthenticationConverter;
+import com.example.oktaapi.security.policy.AuthorizationPolicies;
+
+/**
+ * Shared fixtures for the benchmarks: the application's compiled policies (built with the same
+ * definitions as {@link AuthorizationPolicyConfig}) and representative decoded tokens.
+ */
+final class BenchmarkFixtures {
+
+    static final List<String> USER_GROUPS = List.of("SampleUserGroup", "SampleAdminGroup");
+    static final List<String> ADMIN_GROUPS = List.of("SampleAdminGroup");
+
+    /** Groups a typical user token carries; only one of them is bound to an application role. */
+    static final List<String> TOKEN_GROUPS = List.of("Everyone", "Engineering", "SampleUserGroup", "VPN Users");
+    static final List<String> TOKEN_SCOPES = List.of("openid", "profile", "email", "data.read");
+
+    private BenchmarkFixtures() {
+    }
+
+    static AppAuthoritiesConfig appAuthoritiesConfig() {
+        AppAuthoritiesConfig config = new AppAuthoritiesConfig();
+        Map<String, List<String>> roles = new LinkedHashMap<>();
+        roles.put(AppAuthoritiesConfig.USER_ROLE, USER_GROUPS);
+        roles.put(AppAuthoritiesConfig.ADMIN_ROLE, ADMIN_GROUPS);
+        config.setRoles(roles);
+        return config;
+    }
+
+    static AuthorizationPolicies authorizationPolicies() {
+        return AuthorizationPolicies.compile(appAuthoritiesConfig().roleGroups(),
+            AuthorizationPolicyConfig.policyDefinitions());
+    }
+
+    static CachingJwtGrantedAuthoritiesConverter authoritiesConverter(AuthorizationPolicies policies) {
+        return new CachingJwtGrantedAuthoritiesConverter("scp", "groups", 1024, 4096, () -> policies);
+    }
+
+    static OktaAuthenticationConverter authenticationConverter(AuthorizationPolicies policies) {
+        return new OktaAuthenticationConverter(authoritiesConverter(policies));
+    }
+
+    static Jwt userJwt() {
+        return jwtBuilder("00u1a2b3c4d5e6f7g8h9", "0oa1a2b3c4d5e6f7g8h9")
+            .claim("scp", TOKEN_SCOPES)
+            .claim("groups", TOKEN_GROUPS)
+            .claim("name", "Jane Doe")
+            .claim("email", "jane.doe@example.com")
+            .build();
+    }
+
+    static Jwt clientCredentialsJwt() {
+        return jwtBuilder("0oa1a2b3c4d5e6f7g8h9", "0oa1a2b3c4d5e6f7g8h9")
+            .claim("scp", List.of("data.read"))
+            .build();
+    }
+
+    private static Jwt.Builder jwtBuilder(String subject, String clientId) {
+        Instant now = Instant.now();
+        return Jwt.withTokenValue("token")
+            .header("alg", "RS256")
+            .header("kid", "benchmark")
+            .issuer("https://example.okta.com/oauth2/default")
+            .audience(List.of("api://default"))
+            .subject(subject)
+            .claim("cid", clientId)
+            .claim("ver", 1)
+            .jti(UUID.randomUUID().toString())
+            .issuedAt(now)
+            .expiresAt(now.plus(Duration.ofHours(1)));
+    }
+}
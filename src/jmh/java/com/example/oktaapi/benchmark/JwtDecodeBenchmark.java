@@ -0,0 +1,120 @@
+package com.example.oktaapi.benchmark;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.web.client.RestTemplate;
+
+import com.example.oktaapi.config.AppAuthoritiesConfig;
+import com.example.oktaapi.config.JwksConfig;
+import com.example.oktaapi.security.CachingJwtDecoder;
+import com.example.oktaapi.security.JwksKeySource;
+import com.example.oktaapi.security.JwtPrevalidator;
+import com.example.oktaapi.security.PrevalidatingJwtDecoder;
+import com.example.oktaapi.security.VerifiedJwtCache;
+import com.example.oktaapi.support.MockOktaIssuer;
+import com.nimbusds.jose.JWSAlgorithm;
+
+/**
+ * Measures JWT decoding: parsing plus RS256 signature and claim verification with the production
+ * decoder from {@link JwksConfig}, and the same decode when served from the verified-JWT cache.
+ * The {@code reject*} benchmarks measure the rejection of a validly signed token from a foreign
+ * issuer: by the decoder alone, by pre-validation, and by pre-validation's negative cache when the
+ * token is replayed. Tokens are minted locally by a {@link MockOktaIssuer}, which also serves the
+ * signing key.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtDecodeBenchmark {
+
+    private MockOktaIssuer issuer;
+    private JwksKeySource keySource;
+    private JwtDecoder decoder;
+    private JwtDecoder cachingDecoder;
+    private JwtDecoder prevalidatingDecoder;
+    private JwtDecoder negativeCachingDecoder;
+    private String token;
+    private String foreignToken;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        issuer = MockOktaIssuer.start();
+        keySource = new JwksKeySource(issuer.jwksUri(), new RestTemplate(), null, Duration.ofHours(1),
+            Duration.ofSeconds(30), Duration.ofSeconds(5));
+        keySource.refresh().get();
+
+        decoder = new JwksConfig().jwtDecoder(keySource, issuer.issuer(), MockOktaIssuer.AUDIENCE,
+            new AppAuthoritiesConfig());
+        cachingDecoder = new CachingJwtDecoder(decoder, new VerifiedJwtCache(true, 10_000));
+        // A zero TTL keeps the negative cache empty, so every rejection is pre-validated afresh
+        prevalidatingDecoder = new PrevalidatingJwtDecoder(decoder, prevalidator(Duration.ZERO));
+        negativeCachingDecoder = new PrevalidatingJwtDecoder(decoder, prevalidator(Duration.ofMinutes(5)));
+        token = issuer.mintUserToken("00u1a2b3c4d5e6f7g8h9", BenchmarkFixtures.TOKEN_SCOPES, BenchmarkFixtures.TOKEN_GROUPS);
+        foreignToken = issuer.mint(issuer.claims("00u1a2b3c4d5e6f7g8h9", "client123")
+            .issuer("https://attacker.example.com/oauth2/default").build());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        keySource.close();
+        issuer.close();
+    }
+
+    @Benchmark
+    public Jwt decodeAndVerify() {
+        return decoder.decode(token);
+    }
+
+    @Benchmark
+    public Jwt decodeFromCache() {
+        return cachingDecoder.decode(token);
+    }
+
+    @Benchmark
+    public String rejectByVerification() {
+        return reject(decoder);
+    }
+
+    @Benchmark
+    public String rejectByPrevalidation() {
+        return reject(prevalidatingDecoder);
+    }
+
+    @Benchmark
+    public String rejectFromNegativeCache() {
+        return reject(negativeCachingDecoder);
+    }
+
+    private String reject(JwtDecoder decoder) {
+        try {
+            decoder.decode(foreignToken);
+            throw new IllegalStateException("Token from a foreign issuer was accepted");
+        } catch (BadJwtException e) {
+            return e.getMessage();
+        }
+    }
+
+    private JwtPrevalidator prevalidator(Duration negativeCacheTtl) {
+        return new JwtPrevalidator(true, issuer.issuer(), MockOktaIssuer.AUDIENCE, JWSAlgorithm.RS256,
+            Duration.ofSeconds(60), 10_000, negativeCacheTtl, keySource::hasKey);
+    }
+}
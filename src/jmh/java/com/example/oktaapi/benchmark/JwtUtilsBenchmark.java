@@ -0,0 +1,61 @@
+package com.example.oktaapi.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import com.example.oktaapi.security.JwtUtils;
+
+/**
+ * Measures {@link JwtUtils#isClientCredentials()} when the security context holds the
+ * {@code OktaAuthenticationToken} produced in production (a field read) and when it holds a plain
+ * {@link JwtAuthenticationToken} (the token is classified from its claims on every call).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtUtilsBenchmark {
+
+    @Param({"okta", "jwt"})
+    public String authenticationType;
+
+    private final JwtUtils jwtUtils = new JwtUtils();
+
+    @Setup
+    public void setUp() {
+        Jwt jwt = BenchmarkFixtures.clientCredentialsJwt();
+        Authentication authentication = "okta".equals(authenticationType)
+            ? BenchmarkFixtures.authenticationConverter(BenchmarkFixtures.authorizationPolicies()).convert(jwt)
+            : new JwtAuthenticationToken(jwt);
+        SecurityContextHolder.setContext(new SecurityContextImpl(authentication));
+    }
+
+    @TearDown
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public boolean isClientCredentials() {
+        return jwtUtils.isClientCredentials();
+    }
+}
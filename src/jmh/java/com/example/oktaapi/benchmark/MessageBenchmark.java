@@ -0,0 +1,92 @@
+package com.example.oktaapi.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.example.oktaapi.model.Message;
+import com.example.oktaapi.model.TimestampFormat;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * Compares creating and serializing a response message as the original mutable bean (reflection
+ * and {@code JavaTimeModule} formatting of a {@code LocalDateTime}) with the {@link Message}
+ * record and its dedicated serializer, in both timestamp formats.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageBenchmark {
+
+    private static final String CONTENT = "This is a private endpoint that requires authentication";
+
+    private ObjectWriter writer;
+    private ObjectWriter epochMillisWriter;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = objectMapper.writer();
+        epochMillisWriter = TimestampFormat.customize(writer, TimestampFormat.APPLICATION_JSON_EPOCH_MILLIS);
+    }
+
+    @Benchmark
+    public byte[] bean() throws JsonProcessingException {
+        return writer.writeValueAsBytes(new BeanMessage(CONTENT));
+    }
+
+    @Benchmark
+    public byte[] record() throws JsonProcessingException {
+        return writer.writeValueAsBytes(new Message(CONTENT));
+    }
+
+    @Benchmark
+    public byte[] recordEpochMillis() throws JsonProcessingException {
+        return epochMillisWriter.writeValueAsBytes(new Message(CONTENT));
+    }
+
+    /**
+     * The {@code Message} bean as it was before it became a record.
+     */
+    public static class BeanMessage {
+        private String content;
+        private LocalDateTime timestamp;
+
+        public BeanMessage(String content) {
+            this.content = content;
+            this.timestamp = LocalDateTime.now();
+        }
+
+        public String getContent() {
+            return content;
+        }
+
+        public void setContent(String content) {
+            this.content = content;
+        }
+
+        public LocalDateTime getTimestamp() {
+            return timestamp;
+        }
+
+        public void setTimestamp(LocalDateTime timestamp) {
+            this.timestamp = timestamp;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.oktaapi.benchmark;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.web.client.RestTemplate;
+
+import com.example.oktaapi.config.AppAuthoritiesConfig;
+import com.example.oktaapi.config.AuthorizationPolicyConfig;
+import com.example.oktaapi.config.JwksConfig;
+import com.example.oktaapi.security.CachingJwtGrantedAuthoritiesConverter;
+import com.example.oktaapi.security.CachingJwtGrantedAuthoritiesConverter.ResolvedAuthorities;
+import com.example.oktaapi.security.JwksKeySource;
+import com.example.oktaapi.security.MultiIssuerJwtDecoder;
+import com.example.oktaapi.security.MultiIssuerJwtDecoder.IssuerDecoder;
+import com.example.oktaapi.security.MultiIssuerJwtDecoder.TrustedIssuer;
+import com.example.oktaapi.security.policy.AuthorizationPolicies;
+import com.example.oktaapi.security.policy.RoleRegistry;
+import com.example.oktaapi.support.MockOktaIssuer;
+
+/**
+ * Measures the per-request cost of accepting tokens from several issuers, for 1, 10 and 100
+ * configured issuers (the default one plus tenants, each with role mappings of its own). A token
+ * from the last tenant is read for its issuer, routed to that tenant's decoder (a stub, so that
+ * only routing is measured), resolved to the tenant's policies and converted to authorities; it is
+ * also fully verified by the production decoder from {@link JwksConfig}. With a single issuer the
+ * token comes from the default one. None of these should get slower as issuers are added.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MultiIssuerBenchmark {
+
+    @Param({ "1", "10", "100" })
+    public int issuers;
+
+    private MockOktaIssuer issuer;
+    private JwksKeySource keySource;
+    private MultiIssuerJwtDecoder decoder;
+    private MultiIssuerJwtDecoder routingDecoder;
+    private RoleRegistry roleRegistry;
+    private CachingJwtGrantedAuthoritiesConverter converter;
+    private String token;
+    private Jwt jwt;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        issuer = MockOktaIssuer.start();
+        keySource = new JwksKeySource(issuer.jwksUri(), new RestTemplate(), null, Duration.ofHours(1),
+            Duration.ofSeconds(30), Duration.ofSeconds(5));
+        keySource.refresh().get();
+
+        // Every tenant's keys are served by the mock issuer, which signs tokens for any of them
+        AppAuthoritiesConfig config = BenchmarkFixtures.appAuthoritiesConfig();
+        Map<String, AppAuthoritiesConfig.Tenant> tenants = new LinkedHashMap<>();
+        List<TrustedIssuer> trustedIssuers = new ArrayList<>();
+        String tokenIssuer = issuer.issuer();
+        for (int i = 1; i < issuers; i++) {
+            AppAuthoritiesConfig.Tenant tenant = new AppAuthoritiesConfig.Tenant();
+            tenant.setIssuer(String.format("https://tenant%03d.example.com/oauth2/default", i));
+            tenant.setJwksUri(issuer.jwksUri().toString());
+            tenant.setRoles(Map.of(AppAuthoritiesConfig.USER_ROLE, List.of("SampleUserGroup"),
+                AppAuthoritiesConfig.ADMIN_ROLE, List.of("SampleAdminGroup")));
+            tenants.put("tenant" + i, tenant);
+            trustedIssuers.add(new TrustedIssuer(tenant.getIssuer(), MockOktaIssuer.AUDIENCE, issuer.jwksUri()));
+            tokenIssuer = tenant.getIssuer();
+        }
+        config.setTenants(tenants);
+
+        decoder = new JwksConfig().jwtDecoder(keySource, issuer.issuer(), MockOktaIssuer.AUDIENCE, config);
+        token = issuer.mint(issuer.claims("00u1a2b3c4d5e6f7g8h9", "client123").issuer(tokenIssuer)
+            .claim("scp", BenchmarkFixtures.TOKEN_SCOPES).claim("groups", BenchmarkFixtures.TOKEN_GROUPS).build());
+        // Builds the tenant's decoder and fetches its keys
+        jwt = decoder.decode(token);
+
+        JwtDecoder stub = ignored -> jwt;
+        routingDecoder = new MultiIssuerJwtDecoder(new TrustedIssuer(issuer.issuer(), MockOktaIssuer.AUDIENCE,
+            issuer.jwksUri()), new IssuerDecoder(stub, keySource), trustedIssuers,
+            tenant -> new IssuerDecoder(stub, keySource), issuers);
+        routingDecoder.decode(token);
+
+        roleRegistry = new RoleRegistry(config.roleGroups(), config.issuerRoleGroups(),
+            AuthorizationPolicyConfig.policyDefinitions(), null, Duration.ofMinutes(1),
+            Jackson2ObjectMapperBuilder.json().build());
+        converter = new CachingJwtGrantedAuthoritiesConverter("scp", "groups", 1024, 4096, roleRegistry);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        decoder.close();
+        routingDecoder.close();
+        roleRegistry.close();
+        keySource.close();
+        issuer.close();
+    }
+
+    @Benchmark
+    public String resolveIssuer() {
+        return MultiIssuerJwtDecoder.issuerOf(token);
+    }
+
+    @Benchmark
+    public Jwt route() {
+        return routingDecoder.decode(token);
+    }
+
+    @Benchmark
+    public AuthorizationPolicies resolvePolicies() {
+        return roleRegistry.forJwt(jwt);
+    }
+
+    @Benchmark
+    public ResolvedAuthorities convertAuthorities() {
+        return converter.resolve(jwt);
+    }
+
+    @Benchmark
+    public Jwt decodeAndVerify() {
+        return decoder.decode(token);
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.oktaapi.benchmark;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.oktaapi.security.policy.AuthorizationPolicies;
+import com.example.oktaapi.security.ratelimit.RateLimitDecision;
+import com.example.oktaapi.security.ratelimit.RateLimitTier;
+import com.example.oktaapi.security.ratelimit.RateLimitTiers;
+import com.example.oktaapi.security.ratelimit.RateLimiter;
+
+/**
+ * Measures the rate limiter under contention: 64 threads acquiring against a pool of principals.
+ * With a single principal every thread competes for the same bucket; with more principals the
+ * threads mostly touch different buckets. The lock-free {@link RateLimiter} is compared with a
+ * conventional token bucket guarded by one global lock.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(64)
+@Fork(1)
+public class RateLimiterBenchmark {
+
+    @Param({ "1", "64", "4096" })
+    private int principals;
+
+    private RateLimitTier tier;
+    private RateLimiter rateLimiter;
+    private LockingRateLimiter lockingRateLimiter;
+    private String[] keys;
+
+    @Setup
+    public void setUp() {
+        // High enough that most requests are admitted, as in normal operation
+        tier = new RateLimitTier("benchmark", 10_000_000, Duration.ofSeconds(1));
+        AuthorizationPolicies policies = AuthorizationPolicies.compile(Map.of(), List.of());
+        RateLimitTiers tiers = new RateLimitTiers(Map.of(), tier, null, List.of(), () -> policies);
+        rateLimiter = new RateLimiter(true, tiers, 100_000, Duration.ofMinutes(1));
+        lockingRateLimiter = new LockingRateLimiter(tier.getLimit(), tier.getPeriodNanos());
+        keys = new String[principals];
+        for (int i = 0; i < principals; i++) {
+            keys[i] = "sub:user" + i;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Caller {
+        private int next = ThreadLocalRandom.current().nextInt(1 << 16);
+
+        String key(String[] keys) {
+            return keys[next++ % keys.length];
+        }
+    }
+
+    @Benchmark
+    public RateLimitDecision lockFree(Caller caller) {
+        return rateLimiter.tryAcquire(caller.key(keys), tier);
+    }
+
+    @Benchmark
+    public boolean globalLock(Caller caller) {
+        return lockingRateLimiter.tryAcquire(caller.key(keys));
+    }
+
+    /**
+     * A classic token bucket per principal (tokens plus last-refill time), with the map and all
+     * buckets guarded by a single lock.
+     */
+    static final class LockingRateLimiter {
+
+        private final Map<String, long[]> buckets = new HashMap<>();
+        private final long capacity;
+        private final long periodNanos;
+
+        LockingRateLimiter(long capacity, long periodNanos) {
+            this.capacity = capacity;
+            this.periodNanos = periodNanos;
+        }
+
+        synchronized boolean tryAcquire(String key) {
+            long now = System.nanoTime();
+            long[] bucket = buckets.computeIfAbsent(key, k -> new long[] { capacity, now });
+            long refill = (now - bucket[1]) * capacity / periodNanos;
+            if (refill > 0) {
+                bucket[0] = Math.min(capacity, bucket[0] + refill);
+                bucket[1] = now;
+            }
+            if (bucket[0] == 0) {
+                return false;
+            }
+            bucket[0]--;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.oktaapi.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.GrantedAuthority;
+
+import com.example.oktaapi.security.OktaAuthenticationToken;
+import com.example.oktaapi.security.policy.Policies;
+import com.example.oktaapi.tracing.RequestTrace;
+import com.example.oktaapi.tracing.RequestTraceFilter;
+import com.example.oktaapi.tracing.TraceEvent;
+import com.example.oktaapi.tracing.TraceStore;
+
+import jakarta.servlet.FilterChain;
+
+/**
+ * Measures what tracing costs a request: recording the events of a typical authenticated request
+ * and then discarding the trace (as for most successful requests) or keeping it (as for failed
+ * and sampled ones). For comparison, {@code debugLogging} builds the strings the previous
+ * {@code DEBUG} logging of the caller's authorities built on every request, without writing them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestTraceBenchmark {
+
+    private OktaAuthenticationToken authentication;
+    private RequestTraceFilter discardingFilter;
+    private RequestTraceFilter keepingFilter;
+    private FilterChain chain;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        authentication = BenchmarkFixtures.authenticationConverter(BenchmarkFixtures.authorizationPolicies())
+            .convert(BenchmarkFixtures.userJwt());
+        discardingFilter = new RequestTraceFilter(new TraceStore(256), 0, 32, 256);
+        keepingFilter = new RequestTraceFilter(new TraceStore(256), 1, 32, 256);
+        chain = (request, response) -> {
+            RequestTrace.event(TraceEvent.TOKEN_RESOLVED, 900, null);
+            RequestTrace.event(TraceEvent.JWT_DECODED, 50_000, authentication.getToken().getClaims().get("iss"));
+            RequestTrace.event(TraceEvent.AUTHENTICATED, authentication.getAuthorityMask().cardinality(),
+                authentication.getTokenType().getValue());
+            RequestTrace.event(TraceEvent.AUTHORITIES, authentication.getAuthorities().size(),
+                authentication.getAuthorities());
+            RequestTrace.event(TraceEvent.POLICY_GRANTED, authentication.getAuthorityMask().cardinality(),
+                Policies.PRIVATE_READ);
+        };
+        request = new MockHttpServletRequest("GET", "/api/private");
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public void traceDiscarded() throws Exception {
+        discardingFilter.doFilter(request, response, chain);
+    }
+
+    @Benchmark
+    public void traceKept() throws Exception {
+        keepingFilter.doFilter(request, response, chain);
+    }
+
+    @Benchmark
+    public void debugLogging(Blackhole blackhole) {
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            blackhole.consume("Authority: " + authority.getAuthority());
+        }
+    }
+}
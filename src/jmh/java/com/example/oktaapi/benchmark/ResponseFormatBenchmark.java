@@ -0,0 +1,83 @@
+package com.example.oktaapi.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.example.oktaapi.model.Message;
+import com.example.oktaapi.model.ResponseFormat;
+import com.example.oktaapi.model.TokenInfo;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Compares encoding and decoding the API's response bodies as JSON, CBOR and Smile. Decoding
+ * reads the body into a tree, as a generic client would. The payload size of each body in each
+ * format is printed when the benchmark is set up.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseFormatBenchmark {
+
+    @Param({ "JSON", "CBOR", "SMILE" })
+    private ResponseFormat format;
+
+    private ObjectMapper objectMapper;
+    private Message message;
+    private TokenInfo tokenInfo;
+    private byte[] encodedMessage;
+    private byte[] encodedTokenInfo;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = switch (format) {
+            case JSON -> Jackson2ObjectMapperBuilder.json().build();
+            case CBOR -> Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+            case SMILE -> Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build();
+        };
+        message = new Message("This is a private endpoint that requires authentication");
+        tokenInfo = new TokenInfo(BenchmarkFixtures.userJwt());
+        encodedMessage = objectMapper.writeValueAsBytes(message);
+        encodedTokenInfo = objectMapper.writeValueAsBytes(tokenInfo);
+        System.out.printf("%n%s payload sizes: message=%d bytes, tokenInfo=%d bytes%n", format,
+            encodedMessage.length, encodedTokenInfo.length);
+    }
+
+    @Benchmark
+    public byte[] encodeMessage() throws IOException {
+        return objectMapper.writeValueAsBytes(message);
+    }
+
+    @Benchmark
+    public JsonNode decodeMessage() throws IOException {
+        return objectMapper.readTree(encodedMessage);
+    }
+
+    @Benchmark
+    public byte[] encodeTokenInfo() throws IOException {
+        return objectMapper.writeValueAsBytes(tokenInfo);
+    }
+
+    @Benchmark
+    public JsonNode decodeTokenInfo() throws IOException {
+        return objectMapper.readTree(encodedTokenInfo);
+    }
+}
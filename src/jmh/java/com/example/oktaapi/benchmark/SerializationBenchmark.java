@@ -0,0 +1,96 @@
+package com.example.oktaapi.benchmark;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import com.example.oktaapi.model.Message;
+import com.example.oktaapi.model.TokenInfo;
+import com.example.oktaapi.util.CoarseClock;
+import com.example.oktaapi.util.TimestampedJson;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Measures JSON serialization of the API's response bodies with an {@link ObjectMapper} configured
+ * the way Spring Boot configures the one used by Spring MVC, and compares serializing a new public
+ * {@link Message} on every request with rendering it from a pre-encoded {@link TimestampedJson}
+ * template, and building the token-info body as a map with streaming it from the token.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private static final String PUBLIC_MESSAGE = "This is a public endpoint that doesn't require authentication";
+
+    private ObjectMapper objectMapper;
+    private Message message;
+    private Jwt jwt;
+    private TimestampedJson publicMessageTemplate;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        message = new Message("This is a private endpoint that requires authentication");
+        jwt = BenchmarkFixtures.userJwt();
+        publicMessageTemplate = TimestampedJson.of(objectMapper, new Message(PUBLIC_MESSAGE), "timestamp",
+            millis -> LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault()), CoarseClock.system());
+    }
+
+    @Benchmark
+    public byte[] message() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(message);
+    }
+
+    @Benchmark
+    public byte[] publicMessage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(new Message(PUBLIC_MESSAGE));
+    }
+
+    @Benchmark
+    public byte[] publicMessageTemplate() {
+        return publicMessageTemplate.render();
+    }
+
+    @Benchmark
+    public byte[] tokenInfoMap() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(tokenInfoMap(jwt));
+    }
+
+    @Benchmark
+    public byte[] tokenInfoStreaming() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(new TokenInfo(jwt));
+    }
+
+    /**
+     * The token-info body as it was built before it was streamed from the token.
+     */
+    private static Map<String, Object> tokenInfoMap(Jwt jwt) {
+        Map<String, Object> tokenInfo = new HashMap<>();
+        tokenInfo.put("subject", jwt.getSubject());
+        tokenInfo.put("name", jwt.getClaimAsString("name"));
+        tokenInfo.put("email", jwt.getClaimAsString("email"));
+        tokenInfo.put("claims", jwt.getClaims());
+        return tokenInfo;
+    }
+}
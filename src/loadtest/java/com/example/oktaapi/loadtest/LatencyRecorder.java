@@ -0,0 +1,65 @@
+package com.example.oktaapi.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Records request latencies for one load-generating thread and computes percentiles from them.
+ *
+ * <p>Every sample is kept, so percentiles are exact. A recorder is not thread-safe; each worker
+ * thread owns one, and the recorders are {@linkplain #merge merged} once the scenario ends.</p>
+ */
+final class LatencyRecorder {
+
+    private long[] samples = new long[1 << 14];
+    private int count;
+    private int errors;
+
+    void record(long latencyNanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, samples.length * 2);
+        }
+        samples[count++] = latencyNanos;
+    }
+
+    void recordError() {
+        errors++;
+    }
+
+    int count() {
+        return count;
+    }
+
+    int errors() {
+        return errors;
+    }
+
+    static LatencyRecorder merge(Iterable<LatencyRecorder> recorders) {
+        LatencyRecorder merged = new LatencyRecorder();
+        for (LatencyRecorder recorder : recorders) {
+            if (merged.samples.length < merged.count + recorder.count) {
+                merged.samples = Arrays.copyOf(merged.samples, merged.count + recorder.count);
+            }
+            System.arraycopy(recorder.samples, 0, merged.samples, merged.count, recorder.count);
+            merged.count += recorder.count;
+            merged.errors += recorder.errors;
+        }
+        Arrays.sort(merged.samples, 0, merged.count);
+        return merged;
+    }
+
+    /**
+     * Returns the latency at the given percentile (0-100) in nanoseconds. Only valid on a merged
+     * recorder, whose samples are sorted.
+     */
+    long percentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * count) - 1;
+        return samples[Math.max(0, Math.min(index, count - 1))];
+    }
+
+    long max() {
+        return count == 0 ? 0 : samples[count - 1];
+    }
+}
@@ -0,0 +1,271 @@
+package com.example.oktaapi.loadtest;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.oktaapi.OktaApiApplication;
+import com.example.oktaapi.support.MockOktaIssuer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Drives the API's endpoints at a fixed concurrency and reports throughput and latency
+ * percentiles for each endpoint and token mix.
+ *
+ * <p>The harness starts a {@link MockOktaIssuer} (over HTTPS, see {@link SelfSignedKeyStore}),
+ * boots {@link OktaApiApplication} against it on a random port, mints pools of distinct user,
+ * admin and client credentials tokens, and then runs each {@linkplain #scenarios scenario} in
+ * turn: a warm-up period whose results are discarded, followed by a measured period. Each of the {@code concurrency} client threads sends requests
+ * back to back (a closed workload), cycling through the scenario's tokens.</p>
+ *
+ * <p>Settings are read from system properties:</p>
+ * <ul>
+ *   <li>{@code loadtest.concurrency} - number of concurrent client threads (default 64)</li>
+ *   <li>{@code loadtest.warmup} - warm-up period per scenario (default 10s)</li>
+ *   <li>{@code loadtest.duration} - measured period per scenario (default 30s)</li>
+ *   <li>{@code loadtest.tokens} - number of distinct tokens in each token pool (default 200)</li>
+ *   <li>{@code loadtest.scenarios} - regular expression selecting scenarios by name (default all)</li>
+ *   <li>{@code loadtest.stack} - {@code servlet} (Spring MVC on Tomcat) or {@code reactive}
+ *       (Spring WebFlux on Netty) (default servlet)</li>
+ *   <li>{@code loadtest.threads} - for the servlet stack, {@code platform} (Tomcat's thread pool)
+ *       or {@code virtual} (a virtual thread per request) (default platform)</li>
+ *   <li>{@code loadtest.jwksDelay} - how long the mock issuer takes to serve its keys (default 0ms)</li>
+ *   <li>{@code loadtest.rotateKeys} - if {@code true}, the issuer rotates its signing key before each
+ *       measured period, so the period opens with every client waiting on a key fetch (default false)</li>
+ *   <li>{@code loadtest.result} - file to write JSON results to (default target/loadtest-result.json)</li>
+ * </ul>
+ * <p>Any program arguments are passed to the application, e.g. {@code --server.tomcat.threads.max=400}.</p>
+ *
+ * <p>Client and server share a JVM and its CPUs, so absolute numbers understate what a dedicated
+ * server achieves. The harness is meant for comparing configurations on the same machine.</p>
+ */
+public final class LoadTestHarness {
+
+    private final HttpClient client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+
+    private final MockOktaIssuer issuer;
+    private final URI baseUri;
+    private final String stack;
+    private final int concurrency;
+    private final Duration warmup;
+    private final Duration duration;
+    private final boolean rotateKeys;
+
+    LoadTestHarness(MockOktaIssuer issuer, URI baseUri, String stack, int concurrency, Duration warmup,
+            Duration duration, boolean rotateKeys) {
+        this.issuer = issuer;
+        this.baseUri = baseUri;
+        this.stack = stack;
+        this.concurrency = concurrency;
+        this.warmup = warmup;
+        this.duration = duration;
+        this.rotateKeys = rotateKeys;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = Integer.getInteger("loadtest.concurrency", 64);
+        Duration warmup = DurationStyle.detectAndParse(System.getProperty("loadtest.warmup", "10s"));
+        Duration duration = DurationStyle.detectAndParse(System.getProperty("loadtest.duration", "30s"));
+        int poolSize = Integer.getInteger("loadtest.tokens", 200);
+        Pattern selected = Pattern.compile(System.getProperty("loadtest.scenarios", ".*"));
+        Path resultFile = Path.of(System.getProperty("loadtest.result", "target/loadtest-result.json"));
+        boolean reactive = "reactive".equals(System.getProperty("loadtest.stack", "servlet"));
+        String threads = System.getProperty("loadtest.threads", "platform");
+        String stack = reactive ? "reactive" : "servlet/" + threads;
+        Duration jwksDelay = DurationStyle.detectAndParse(System.getProperty("loadtest.jwksDelay", "0ms"));
+        boolean rotateKeys = Boolean.getBoolean("loadtest.rotateKeys");
+
+        // The application runs in this JVM, so it must trust the issuer's certificate, and DevTools
+        // (on the class path when run from the build) must not restart it, which would run this
+        // method again
+        Path directory = resultFile.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        SelfSignedKeyStore keyStore = SelfSignedKeyStore.generate(directory.resolve("loadtest-issuer.p12"));
+        keyStore.trust();
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        try (MockOktaIssuer issuer = MockOktaIssuer.start(keyStore.sslContext());
+                ConfigurableApplicationContext context = new SpringApplicationBuilder(OktaApiApplication.class)
+                    .run(applicationArguments(issuer, reactive, threads, rotateKeys, args))) {
+            issuer.setJwksDelay(jwksDelay);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            LoadTestHarness harness = new LoadTestHarness(issuer, URI.create("http://localhost:" + port), stack,
+                concurrency, warmup, duration, rotateKeys);
+
+            List<ScenarioResult> results = new ArrayList<>();
+            for (Scenario scenario : scenarios(new TokenFactory(issuer, poolSize))) {
+                if (selected.matcher(scenario.name()).matches()) {
+                    ScenarioResult result = harness.run(scenario);
+                    results.add(result);
+                    System.out.println(format(result));
+                }
+            }
+            report(results, resultFile);
+        }
+    }
+
+    /**
+     * The endpoints and token mixes to measure.
+     */
+    static List<Scenario> scenarios(TokenFactory tokens) {
+        return List.of(
+            new Scenario("public", "/api/public", "anonymous", List::of, 200),
+            new Scenario("private", "/api/private", "user", tokens::users, 200),
+            new Scenario("private", "/api/private", "client-credentials", tokens::clients, 200),
+            new Scenario("private", "/api/private", "mixed", tokens::mixed, 200),
+            new Scenario("admin", "/api/admin", "admin", tokens::admins, 200),
+            new Scenario("admin", "/api/admin", "user", tokens::users, 403),
+            new Scenario("token-info", "/api/token-info", "user", tokens::users, 200),
+            new Scenario("token-info", "/api/token-info", "mixed", tokens::mixed, 200));
+    }
+
+    ScenarioResult run(Scenario scenario) throws Exception {
+        drive(scenario, requests(scenario), warmup);
+        if (rotateKeys) {
+            // The server does not know the new key yet, so the first requests wait on a key fetch
+            issuer.rotateKey();
+        }
+        List<HttpRequest> requests = requests(scenario);
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+        threadBean.resetPeakThreadCount();
+        long start = System.nanoTime();
+        List<LatencyRecorder> recorders = drive(scenario, requests, duration);
+        long elapsed = System.nanoTime() - start;
+        long heapUsed = memoryBean.getHeapMemoryUsage().getUsed();
+        memoryBean.gc();
+        long heapRetained = memoryBean.getHeapMemoryUsage().getUsed();
+        return ScenarioResult.of(scenario, stack, concurrency, LatencyRecorder.merge(recorders), elapsed,
+            threadBean.getPeakThreadCount(), heapUsed, heapRetained);
+    }
+
+    private List<LatencyRecorder> drive(Scenario scenario, List<HttpRequest> requests, Duration period)
+            throws Exception {
+        long deadline = System.nanoTime() + period.toNanos();
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<LatencyRecorder>> futures = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                int offset = i * requests.size() / concurrency;
+                futures.add(executor.submit(() -> drive(scenario, requests, offset, deadline)));
+            }
+            List<LatencyRecorder> recorders = new ArrayList<>();
+            for (Future<LatencyRecorder> future : futures) {
+                recorders.add(future.get());
+            }
+            return recorders;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private LatencyRecorder drive(Scenario scenario, List<HttpRequest> requests, int offset, long deadline) {
+        LatencyRecorder recorder = new LatencyRecorder();
+        int next = offset;
+        while (System.nanoTime() < deadline) {
+            HttpRequest request = requests.get(next++ % requests.size());
+            long start = System.nanoTime();
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                long latency = System.nanoTime() - start;
+                if (response.statusCode() == scenario.expectedStatus()) {
+                    recorder.record(latency);
+                } else {
+                    recorder.recordError();
+                }
+            } catch (IOException e) {
+                recorder.recordError();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return recorder;
+    }
+
+    private List<HttpRequest> requests(Scenario scenario) {
+        URI uri = baseUri.resolve(scenario.path());
+        List<String> tokens = scenario.tokens().get();
+        if (tokens.isEmpty()) {
+            return List.of(HttpRequest.newBuilder(uri).GET().build());
+        }
+        List<HttpRequest> requests = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            requests.add(HttpRequest.newBuilder(uri).header("Authorization", "Bearer " + token).GET().build());
+        }
+        return requests;
+    }
+
+    private static String[] applicationArguments(MockOktaIssuer issuer, boolean reactive, String threads,
+            boolean rotateKeys, String[] args) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("spring.profiles.active", reactive ? "loadtest,reactive" : "loadtest");
+        properties.put("server.port", "0");
+        properties.put("spring.threads.virtual.enabled", String.valueOf("virtual".equals(threads)));
+        properties.put("okta.oauth2.issuer", issuer.issuer());
+        properties.put("okta.oauth2.audience", MockOktaIssuer.AUDIENCE);
+        properties.put("okta.oauth2.client-id", "0oaloadtest");
+        properties.put("app.roles.user[0]", TokenFactory.USER_GROUP);
+        properties.put("app.roles.user[1]", TokenFactory.ADMIN_GROUP);
+        properties.put("app.roles.admin[0]", TokenFactory.ADMIN_GROUP);
+        properties.put("app.security.jwks.snapshot-file", "");
+        if (rotateKeys) {
+            // Let every rotation trigger a fetch rather than waiting out the unknown-kid back-off
+            properties.put("app.security.jwks.min-kid-miss-interval", "0s");
+        }
+        // The harness measures throughput, so a handful of tokens must not be throttled, and the
+        // latency it provokes on purpose must not be mistaken for overload
+        properties.put("app.security.rate-limit.enabled", "false");
+        properties.put("app.security.concurrency-limit.enabled", "false");
+        // Request-level DEBUG logging would dominate the measurements
+        properties.put("logging.level.org.springframework.security", "WARN");
+        properties.put("logging.level.org.springframework.security.oauth2", "WARN");
+        properties.put("logging.level.com.example.oktaapi", "INFO");
+
+        List<String> arguments = new ArrayList<>();
+        properties.forEach((name, value) -> arguments.add("--" + name + "=" + value));
+        arguments.addAll(List.of(args));
+        return arguments.toArray(new String[0]);
+    }
+
+    private static String format(ScenarioResult result) {
+        return String.format("%-30s %-16s %10d req %6d err %10.1f req/s   p50 %8.3f ms   p99 %8.3f ms   "
+                + "p999 %8.3f ms   max %8.3f ms   %5d threads   heap %7.1f MB (%7.1f MB retained)",
+            result.scenario(), result.stack(), result.requests(), result.errors(), result.throughput(),
+            result.p50(), result.p99(), result.p999(), result.max(), result.peakThreads(),
+            result.heapUsedMb(), result.heapRetainedMb());
+    }
+
+    private static void report(List<ScenarioResult> results, Path resultFile) throws IOException {
+        if (resultFile.getParent() != null) {
+            Files.createDirectories(resultFile.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(resultFile.toFile(), results);
+        System.out.println("Results written to " + resultFile.toAbsolutePath());
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.oktaapi.loadtest;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * One endpoint driven with one token mix.
+ *
+ * @param endpoint the endpoint name used in reports (e.g., "private")
+ * @param path the request path
+ * @param tokenMix the token mix name used in reports (e.g., "user")
+ * @param tokens supplies the bearer tokens to cycle through (an empty list for anonymous requests),
+ *        signed with the issuer's current key
+ * @param expectedStatus the HTTP status every response should have
+ */
+record Scenario(String endpoint, String path, String tokenMix, Supplier<List<String>> tokens, int expectedStatus) {
+
+    String name() {
+        return endpoint + "/" + tokenMix;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.oktaapi.loadtest;
+
+/**
+ * The measured outcome of a {@link Scenario}. Latencies are in milliseconds.
+ *
+ * <p>Memory and thread figures are for the whole JVM, which includes the load-generating client;
+ * the client's share is the same for every stack, so differences between stacks are the server's.
+ * {@code heapUsedMb} is sampled at the end of the measured period and {@code heapRetainedMb} after
+ * a subsequent full GC.</p>
+ */
+record ScenarioResult(String scenario, String endpoint, String tokenMix, String stack, int concurrency, long requests,
+        long errors, double throughput, double p50, double p99, double p999, double max, int peakThreads,
+        double heapUsedMb, double heapRetainedMb) {
+
+    static ScenarioResult of(Scenario scenario, String stack, int concurrency, LatencyRecorder recorder,
+            long elapsedNanos, int peakThreads, long heapUsedBytes, long heapRetainedBytes) {
+        return new ScenarioResult(
+            scenario.name(),
+            scenario.endpoint(),
+            scenario.tokenMix(),
+            stack,
+            concurrency,
+            recorder.count(),
+            recorder.errors(),
+            recorder.count() / (elapsedNanos / 1e9),
+            millis(recorder.percentile(50)),
+            millis(recorder.percentile(99)),
+            millis(recorder.percentile(99.9)),
+            millis(recorder.max()),
+            peakThreads,
+            megabytes(heapUsedBytes),
+            megabytes(heapRetainedBytes));
+    }
+
+    private static double megabytes(long bytes) {
+        return bytes / (1024.0 * 1024.0);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.oktaapi.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.List;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+
+/**
+ * A key store holding a throwaway, self-signed certificate for {@code localhost}, so that the
+ * {@link com.example.oktaapi.support.MockOktaIssuer} can be served over HTTPS: the Okta starter only
+ * accepts an {@code https} issuer.
+ *
+ * <p>The same key store serves as the issuer's key store and as the application's trust store.</p>
+ */
+final class SelfSignedKeyStore {
+
+    private static final String PASSWORD = "changeit";
+
+    private final Path path;
+
+    private SelfSignedKeyStore(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Generates a new key pair and certificate into {@code path} (replacing any file there), with the
+     * JDK's {@code keytool}.
+     */
+    static SelfSignedKeyStore generate(Path path) throws IOException, InterruptedException {
+        Files.deleteIfExists(path);
+        Process keytool = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "keytool").toString(),
+            "-genkeypair", "-alias", "localhost", "-keyalg", "RSA", "-keysize", "2048", "-validity", "1",
+            "-dname", "CN=localhost", "-ext", "san=dns:localhost", "-storetype", "PKCS12",
+            "-keystore", path.toString(), "-storepass", PASSWORD).inheritIO().start();
+        if (keytool.waitFor() != 0) {
+            throw new IllegalStateException("keytool exited with status " + keytool.exitValue());
+        }
+        return new SelfSignedKeyStore(path);
+    }
+
+    /**
+     * Returns a context that presents the certificate, for the issuer's server.
+     */
+    SSLContext sslContext() throws IOException, GeneralSecurityException {
+        KeyStore store = KeyStore.getInstance("PKCS12");
+        try (InputStream in = Files.newInputStream(path)) {
+            store.load(in, PASSWORD.toCharArray());
+        }
+        KeyManagerFactory keyManagers = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keyManagers.init(store, PASSWORD.toCharArray());
+        SSLContext context = SSLContext.getInstance("TLS");
+        context.init(keyManagers.getKeyManagers(), null, null);
+        return context;
+    }
+
+    /**
+     * Returns the JVM options that make the certificate the only one a JVM trusts by default.
+     */
+    List<String> trustStoreOptions() {
+        return List.of("-Djavax.net.ssl.trustStore=" + path, "-Djavax.net.ssl.trustStorePassword=" + PASSWORD);
+    }
+
+    /**
+     * Does the same for this JVM; must be called before its default {@link SSLContext} is first used.
+     */
+    void trust() {
+        System.setProperty("javax.net.ssl.trustStore", path.toString());
+        System.setProperty("javax.net.ssl.trustStorePassword", PASSWORD);
+    }
+}
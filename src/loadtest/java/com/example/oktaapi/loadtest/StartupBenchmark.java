@@ -0,0 +1,222 @@
+package com.example.oktaapi.loadtest;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.example.oktaapi.support.MockOktaIssuer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Measures how soon a freshly started instance of the API can serve traffic.
+ *
+ * <p>The benchmark starts a {@link MockOktaIssuer} (over HTTPS, see {@link SelfSignedKeyStore}),
+ * then repeatedly starts the packaged application
+ * in a new JVM against it and polls two endpoints from the moment the process is launched: the
+ * time to the first {@code 200} from {@code /api/public} (the server is up) and to the first
+ * {@code 200} from {@code /api/private} with a user token (the issuer's keys are in hand and the
+ * security pipeline is warm enough to authorize a request). It also records how many times the
+ * issuer's keys had been fetched when the public endpoint first answered. Each mode is measured
+ * {@code runs} times and reported as the median, min and max:</p>
+ * <ul>
+ *   <li>{@code jar} - {@code java -jar} on the packaged application</li>
+ *   <li>{@code jar+faststart-profile} - the same, with the keys fetched by the first request rather
+ *       than on startup</li>
+ *   <li>{@code faststart} - the extracted application with its AOT-processed bean definitions and
+ *       CDS archive, if the {@code faststart} Maven profile built them</li>
+ * </ul>
+ *
+ * <p>Settings are read from system properties:</p>
+ * <ul>
+ *   <li>{@code startup.runs} - number of starts per mode (default 5)</li>
+ *   <li>{@code startup.jar} - the packaged application</li>
+ *   <li>{@code startup.faststart} - where the {@code faststart} profile extracted the application</li>
+ *   <li>{@code startup.result} - file to write JSON results to (default target/startup-result.json)</li>
+ * </ul>
+ * <p>Application logs are written next to the result file, one per run.</p>
+ */
+public final class StartupBenchmark {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(60);
+    private static final long POLL_INTERVAL_MILLIS = 5;
+
+    private final HttpClient client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(1))
+        .build();
+
+    private final MockOktaIssuer issuer;
+    private final SelfSignedKeyStore keyStore;
+    private final String token;
+    private final Path logDirectory;
+
+    StartupBenchmark(MockOktaIssuer issuer, SelfSignedKeyStore keyStore, Path logDirectory) {
+        this.issuer = issuer;
+        this.keyStore = keyStore;
+        this.token = new TokenFactory(issuer, 1).users().get(0);
+        this.logDirectory = logDirectory;
+    }
+
+    /**
+     * The startup times of one mode, in milliseconds from process launch.
+     */
+    record StartupResult(String mode, int runs, double firstOkMedian, double firstOkMin, double firstOkMax,
+            double firstAuthenticatedOkMedian, double firstAuthenticatedOkMin, double firstAuthenticatedOkMax,
+            int jwksFetchesAtFirstOk) {
+    }
+
+    private record Run(long firstOkNanos, long firstAuthenticatedOkNanos, int jwksFetchesAtFirstOk) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int runs = Integer.getInteger("startup.runs", 5);
+        Path jar = Path.of(System.getProperty("startup.jar"));
+        Path faststart = Path.of(System.getProperty("startup.faststart", "target/faststart"));
+        Path resultFile = Path.of(System.getProperty("startup.result", "target/startup-result.json"));
+        Path logDirectory = resultFile.toAbsolutePath().getParent().resolve("startup-logs");
+        Files.createDirectories(logDirectory);
+
+        Map<String, List<String>> modes = new LinkedHashMap<>();
+        modes.put("jar", List.of("-jar", jar.toString()));
+        modes.put("jar+faststart-profile", List.of("-jar", jar.toString(), "--spring.profiles.active=faststart"));
+        Path archive = faststart.resolve("application.jsa");
+        if (Files.isRegularFile(archive)) {
+            modes.put("faststart", List.of("-XX:SharedArchiveFile=" + archive, "-Dspring.aot.enabled=true", "-jar",
+                faststart.resolve(jar.getFileName()).toString(), "--spring.profiles.active=faststart"));
+        } else {
+            System.out.println("No CDS archive at " + archive + "; build with -Pfaststart to measure the fast-start mode");
+        }
+
+        SelfSignedKeyStore keyStore = SelfSignedKeyStore.generate(logDirectory.resolve("issuer.p12"));
+        try (MockOktaIssuer issuer = MockOktaIssuer.start(keyStore.sslContext())) {
+            StartupBenchmark benchmark = new StartupBenchmark(issuer, keyStore, logDirectory);
+            List<StartupResult> results = new ArrayList<>();
+            for (Map.Entry<String, List<String>> mode : modes.entrySet()) {
+                StartupResult result = benchmark.measure(mode.getKey(), mode.getValue(), runs);
+                results.add(result);
+                System.out.println(format(result));
+            }
+            report(results, resultFile);
+        }
+    }
+
+    StartupResult measure(String mode, List<String> command, int runs) throws Exception {
+        long[] firstOk = new long[runs];
+        long[] firstAuthenticatedOk = new long[runs];
+        int jwksFetches = 0;
+        for (int i = 0; i < runs; i++) {
+            Run run = start(command, logDirectory.resolve(mode + "-" + i + ".log"));
+            firstOk[i] = run.firstOkNanos();
+            firstAuthenticatedOk[i] = run.firstAuthenticatedOkNanos();
+            jwksFetches = Math.max(jwksFetches, run.jwksFetchesAtFirstOk());
+        }
+        Arrays.sort(firstOk);
+        Arrays.sort(firstAuthenticatedOk);
+        return new StartupResult(mode, runs, millis(firstOk[runs / 2]), millis(firstOk[0]), millis(firstOk[runs - 1]),
+            millis(firstAuthenticatedOk[runs / 2]), millis(firstAuthenticatedOk[0]),
+            millis(firstAuthenticatedOk[runs - 1]), jwksFetches);
+    }
+
+    private Run start(List<String> command, Path log) throws Exception {
+        int port = freePort();
+        List<String> process = new ArrayList<>();
+        process.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        process.addAll(keyStore.trustStoreOptions());
+        process.addAll(command);
+        process.addAll(applicationArguments(port));
+        URI baseUri = URI.create("http://localhost:" + port);
+
+        int jwksRequestsBefore = issuer.jwksRequestCount();
+        long start = System.nanoTime();
+        Process application = new ProcessBuilder(process).redirectErrorStream(true).redirectOutput(log.toFile())
+            .start();
+        try {
+            long firstOk = awaitOk(application, HttpRequest.newBuilder(baseUri.resolve("/api/public")).GET().build(),
+                start);
+            int jwksFetches = issuer.jwksRequestCount() - jwksRequestsBefore;
+            long firstAuthenticatedOk = awaitOk(application, HttpRequest.newBuilder(baseUri.resolve("/api/private"))
+                .header("Authorization", "Bearer " + token).GET().build(), start);
+            return new Run(firstOk, firstAuthenticatedOk, jwksFetches);
+        } finally {
+            application.destroy();
+            if (!application.waitFor(10, TimeUnit.SECONDS)) {
+                application.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private long awaitOk(Process application, HttpRequest request, long start) throws Exception {
+        long deadline = start + TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!application.isAlive()) {
+                throw new IllegalStateException("The application exited with status " + application.exitValue());
+            }
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() == 200) {
+                    return System.nanoTime() - start;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(POLL_INTERVAL_MILLIS);
+        }
+        throw new IllegalStateException("No 200 from " + request.uri() + " within " + TIMEOUT);
+    }
+
+    private List<String> applicationArguments(int port) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("server.port", String.valueOf(port));
+        properties.put("okta.oauth2.issuer", issuer.issuer());
+        properties.put("okta.oauth2.audience", MockOktaIssuer.AUDIENCE);
+        properties.put("okta.oauth2.client-id", "0oastartup");
+        properties.put("app.roles.user[0]", TokenFactory.USER_GROUP);
+        properties.put("app.roles.user[1]", TokenFactory.ADMIN_GROUP);
+        properties.put("app.roles.admin[0]", TokenFactory.ADMIN_GROUP);
+        // Every run must get its keys from the issuer, not from the previous run's snapshot
+        properties.put("app.security.jwks.snapshot-file", "");
+
+        List<String> arguments = new ArrayList<>();
+        properties.forEach((name, value) -> arguments.add("--" + name + "=" + value));
+        return arguments;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static String format(StartupResult result) {
+        return String.format("%-24s %3d runs   first 200 %8.1f ms (%8.1f - %8.1f)   first authenticated 200 %8.1f ms "
+                + "(%8.1f - %8.1f)   %d JWKS fetch(es) at first 200",
+            result.mode(), result.runs(), result.firstOkMedian(), result.firstOkMin(), result.firstOkMax(),
+            result.firstAuthenticatedOkMedian(), result.firstAuthenticatedOkMin(), result.firstAuthenticatedOkMax(),
+            result.jwksFetchesAtFirstOk());
+    }
+
+    private static void report(List<StartupResult> results, Path resultFile) throws IOException {
+        if (resultFile.getParent() != null) {
+            Files.createDirectories(resultFile.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(resultFile.toFile(), results);
+        System.out.println("Results written to " + resultFile.toAbsolutePath());
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.oktaapi.loadtest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import com.example.oktaapi.support.MockOktaIssuer;
+
+/**
+ * Mints pools of distinct tokens from the mock issuer, one token per simulated user or client, so
+ * that the server sees a realistic number of distinct bearer tokens rather than a single one.
+ *
+ * <p>Each pool is minted once per issuer signing key; after the issuer rotates its key, the next
+ * request for a pool mints it again with the new key.</p>
+ */
+final class TokenFactory {
+
+    static final String USER_GROUP = "LoadTestUserGroup";
+    static final String ADMIN_GROUP = "LoadTestAdminGroup";
+
+    /** Okta users usually belong to several groups that are not bound to any application role. */
+    private static final List<String> OTHER_GROUPS = List.of("Everyone", "Engineering", "VPN Users");
+    private static final List<String> USER_SCOPES = List.of("openid", "profile", "email", "data.read");
+    private static final List<String> CLIENT_SCOPES = List.of("data.read");
+
+    private final MockOktaIssuer issuer;
+    private final int poolSize;
+    private final Map<String, List<String>> pools = new HashMap<>();
+    private String keyId;
+
+    TokenFactory(MockOktaIssuer issuer, int poolSize) {
+        this.issuer = issuer;
+        this.poolSize = poolSize;
+    }
+
+    List<String> users() {
+        return pool("users", () -> users(poolSize, USER_GROUP));
+    }
+
+    List<String> admins() {
+        return pool("admins", () -> users(poolSize, ADMIN_GROUP));
+    }
+
+    List<String> clients() {
+        return pool("clients", () -> clients(poolSize));
+    }
+
+    /**
+     * Returns a shuffled mix of 80% user, 5% admin and 15% client credentials tokens.
+     */
+    List<String> mixed() {
+        return pool("mixed", this::mintMixed);
+    }
+
+    private synchronized List<String> pool(String name, Supplier<List<String>> mint) {
+        String currentKeyId = issuer.signingKey().getKeyID();
+        if (!currentKeyId.equals(keyId)) {
+            pools.clear();
+            keyId = currentKeyId;
+        }
+        return pools.computeIfAbsent(name, n -> mint.get());
+    }
+
+    private List<String> mintMixed() {
+        List<String> tokens = new ArrayList<>(poolSize);
+        int admins = Math.max(1, poolSize / 20);
+        int clients = Math.max(1, poolSize * 3 / 20);
+        tokens.addAll(users(poolSize - admins - clients, USER_GROUP));
+        tokens.addAll(users(admins, ADMIN_GROUP));
+        tokens.addAll(clients(clients));
+        Collections.shuffle(tokens, new Random(poolSize));
+        return tokens;
+    }
+
+    private List<String> users(int count, String roleGroup) {
+        List<String> tokens = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            List<String> groups = new ArrayList<>(OTHER_GROUPS);
+            groups.add(roleGroup);
+            tokens.add(issuer.mintUserToken("00uloadtest" + roleGroup.hashCode() + "_" + i, USER_SCOPES, groups));
+        }
+        return tokens;
+    }
+
+    private List<String> clients(int count) {
+        List<String> tokens = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tokens.add(issuer.mintClientCredentialsToken("0oaloadtest" + i, CLIENT_SCOPES));
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.oktaapi.audit;
+
+import java.io.IOException;
+
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Records every request's access decision in the {@link AccessAuditLog}, once the response status
+ * is known.
+ *
+ * <p>This filter must be added right after the {@code SecurityContextHolderFilter}, so that it
+ * sees the requests the rest of the security filter chain rejects, and the authentication is still
+ * in the security context when the request completes.</p>
+ */
+public class AccessAuditFilter extends OncePerRequestFilter {
+
+    private final AccessAuditLog auditLog;
+
+    public AccessAuditFilter(AccessAuditLog auditLog) {
+        this.auditLog = auditLog;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        int status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+        try {
+            filterChain.doFilter(request, response);
+            status = response.getStatus();
+        } finally {
+            auditLog.record(start, request.getRequestURI(), status,
+                SecurityContextHolder.getContext().getAuthentication());
+        }
+    }
+}
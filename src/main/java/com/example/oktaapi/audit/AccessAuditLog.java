@@ -0,0 +1,182 @@
+package com.example.oktaapi.audit;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import com.example.oktaapi.security.OktaAuthenticationToken;
+import com.example.oktaapi.security.TokenType;
+import com.example.oktaapi.util.CoarseClock;
+import com.example.oktaapi.util.TokenDigest;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Records the access decision made for every request: when it completed, the endpoint, a hash of
+ * the caller's subject, the token type, the decision and response status, and the latency.
+ *
+ * <p>Key Features:
+ * <ul>
+ *   <li>Request threads only encode a fixed-size {@link AccessRecord} into a lock-free
+ *       {@link AuditRingBuffer}; they never block on I/O, and nothing is logged as text.</li>
+ *   <li>A background thread drains the buffer every {@code flushInterval} and appends the
+ *       records, in batches, to rotating memory-mapped segment files (see
+ *       {@link AuditSegmentWriter}).</li>
+ *   <li>If the writer falls a whole buffer behind, records are dropped rather than slowing
+ *       requests down. Written and dropped records are counted as {@code security.audit.records}
+ *       (tagged with {@code result}), so any loss is visible.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>Segments are decoded offline with {@link AuditSegmentReader}.</p>
+ */
+public class AccessAuditLog implements MeterBinder, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccessAuditLog.class);
+
+    private static final int BATCH_RECORDS = 1024;
+
+    private final boolean enabled;
+    private final AuditRingBuffer buffer;
+    private final AuditSegmentWriter writer;
+    private final Duration flushInterval;
+    private final LongSupplier clock;
+    private final ByteBuffer batch = ByteBuffer.allocateDirect(BATCH_RECORDS * AccessRecord.SIZE);
+    private final LongAdder written = new LongAdder();
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * @param enabled whether decisions are recorded at all
+     * @param directory where segment files are written
+     * @param bufferCapacity how many records can wait to be written; rounded up to a power of two
+     * @param segmentSize the size of each segment file, in bytes
+     * @param maxSegments how many segment files to keep
+     * @param flushInterval how often buffered records are written out
+     */
+    public AccessAuditLog(boolean enabled, Path directory, int bufferCapacity, long segmentSize, int maxSegments,
+            Duration flushInterval) {
+        this(enabled, directory, bufferCapacity, segmentSize, maxSegments, flushInterval, CoarseClock.system());
+    }
+
+    AccessAuditLog(boolean enabled, Path directory, int bufferCapacity, long segmentSize, int maxSegments,
+            Duration flushInterval, LongSupplier clock) {
+        this.enabled = enabled;
+        this.buffer = new AuditRingBuffer(bufferCapacity);
+        this.writer = new AuditSegmentWriter(directory, segmentSize, maxSegments, clock);
+        this.flushInterval = flushInterval;
+        this.clock = clock;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "access-audit-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts writing recorded decisions out in the background.
+     */
+    public void start() {
+        if (enabled) {
+            scheduler.scheduleWithFixedDelay(this::flushQuietly, flushInterval.toMillis(), flushInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Records the decision made for a completed request. Never blocks.
+     *
+     * @param startNanos the {@link System#nanoTime()} at which the request started
+     * @param endpoint the request path
+     * @param status the response status
+     * @param authentication the caller's authentication, or {@code null} if the request was not
+     *        authenticated
+     */
+    public void record(long startNanos, String endpoint, int status, Authentication authentication) {
+        if (!enabled) {
+            return;
+        }
+        long latency = System.nanoTime() - startNanos;
+        long subjectHash = 0;
+        TokenType tokenType = null;
+        if (authentication instanceof OktaAuthenticationToken okta) {
+            subjectHash = TokenDigest.sha256Prefix(okta.getSubject());
+            tokenType = okta.getTokenType();
+        } else if (authentication instanceof JwtAuthenticationToken jwt && jwt.getName() != null) {
+            subjectHash = TokenDigest.sha256Prefix(jwt.getName());
+            tokenType = TokenType.of(jwt.getToken());
+        }
+        buffer.offer(clock.getAsLong(), latency, subjectHash, status, AccessDecision.of(status), tokenType,
+            AccessRecord.encodeEndpoint(endpoint));
+    }
+
+    /**
+     * Writes out the records buffered so far.
+     */
+    synchronized void flush() throws IOException {
+        int drained;
+        do {
+            batch.clear();
+            drained = buffer.drainTo(batch);
+            batch.flip();
+            writer.write(batch);
+            written.add(drained);
+        } while (drained == BATCH_RECORDS);
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException | RuntimeException e) {
+            // The batch in hand is lost; later records stay buffered (or are dropped once the
+            // buffer fills up) until the next attempt
+            logger.error("Unable to write the access audit log", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (enabled) {
+            flush();
+            writer.close();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("security.audit.records", written, LongAdder::sum)
+            .tag("result", "written")
+            .description("Access decisions recorded in the audit log")
+            .register(registry);
+        FunctionCounter.builder("security.audit.records", buffer, AuditRingBuffer::dropped)
+            .tag("result", "dropped")
+            .description("Access decisions recorded in the audit log")
+            .register(registry);
+        Gauge.builder("security.audit.buffer.size", buffer, AuditRingBuffer::size)
+            .description("Access decisions waiting to be written to the audit log")
+            .register(registry);
+    }
+}
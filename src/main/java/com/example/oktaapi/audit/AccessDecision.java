@@ -0,0 +1,27 @@
+package com.example.oktaapi.audit;
+
+/**
+ * The outcome of the access checks for a request, as recorded in the access audit log.
+ */
+public enum AccessDecision {
+
+    /** The request passed authentication and authorization. */
+    ALLOW,
+
+    /** The request was rejected as unauthenticated ({@code 401}) or unauthorized ({@code 403}). */
+    DENY,
+
+    /** The request was rejected by the rate or concurrency limits ({@code 429} or {@code 503}). */
+    THROTTLE;
+
+    /**
+     * Classifies a request by its response status.
+     */
+    public static AccessDecision of(int status) {
+        return switch (status) {
+            case 401, 403 -> DENY;
+            case 429, 503 -> THROTTLE;
+            default -> ALLOW;
+        };
+    }
+}
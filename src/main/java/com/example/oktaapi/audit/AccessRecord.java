@@ -0,0 +1,91 @@
+package com.example.oktaapi.audit;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import com.example.oktaapi.security.TokenType;
+
+/**
+ * One entry of the access audit log, and its fixed-size binary layout.
+ *
+ * <p>Every record takes {@value #SIZE} bytes, big-endian:</p>
+ * <pre>
+ *  offset  size  field
+ *       0     8  timestamp, epoch milliseconds
+ *       8     8  latency, nanoseconds
+ *      16     8  subject hash (first 64 bits of the SHA-256 of the token's subject; 0 if none)
+ *      24     2  response status
+ *      26     1  decision (ordinal of {@link AccessDecision})
+ *      27     1  token type (ordinal of {@link TokenType} + 1; 0 if unauthenticated)
+ *      28     1  length of the endpoint, in bytes
+ *      29    99  endpoint (request path, UTF-8, truncated)
+ * </pre>
+ *
+ * @param timestamp when the request completed
+ * @param latencyNanos how long the request took
+ * @param subjectHash identifies the caller without naming it; 0 if the request was not
+ *        authenticated
+ * @param status the response status
+ * @param decision the outcome of the access checks
+ * @param tokenType the type of the caller's token, or {@code null} if unauthenticated
+ * @param endpoint the request path
+ */
+public record AccessRecord(Instant timestamp, long latencyNanos, long subjectHash, int status,
+        AccessDecision decision, TokenType tokenType, String endpoint) {
+
+    public static final int SIZE = 128;
+
+    static final int MAX_ENDPOINT_BYTES = SIZE - 29;
+
+    private static final AccessDecision[] DECISIONS = AccessDecision.values();
+    private static final TokenType[] TOKEN_TYPES = TokenType.values();
+
+    /**
+     * Writes a record at an absolute offset, without changing the buffer's position.
+     *
+     * @param endpoint the UTF-8 encoded request path, see {@link #encodeEndpoint}
+     */
+    static void write(ByteBuffer buffer, int offset, long timestampMillis, long latencyNanos, long subjectHash,
+            int status, AccessDecision decision, TokenType tokenType, byte[] endpoint) {
+        buffer.putLong(offset, timestampMillis);
+        buffer.putLong(offset + 8, latencyNanos);
+        buffer.putLong(offset + 16, subjectHash);
+        buffer.putShort(offset + 24, (short) status);
+        buffer.put(offset + 26, (byte) decision.ordinal());
+        buffer.put(offset + 27, (byte) (tokenType != null ? tokenType.ordinal() + 1 : 0));
+        buffer.put(offset + 28, (byte) endpoint.length);
+        buffer.put(offset + 29, endpoint, 0, endpoint.length);
+    }
+
+    /**
+     * Reads the record at an absolute offset.
+     */
+    static AccessRecord read(ByteBuffer buffer, int offset) {
+        int tokenType = buffer.get(offset + 27);
+        byte[] endpoint = new byte[Math.min(buffer.get(offset + 28) & 0xFF, MAX_ENDPOINT_BYTES)];
+        buffer.get(offset + 29, endpoint);
+        return new AccessRecord(Instant.ofEpochMilli(buffer.getLong(offset)), buffer.getLong(offset + 8),
+            buffer.getLong(offset + 16), buffer.getShort(offset + 24) & 0xFFFF, DECISIONS[buffer.get(offset + 26)],
+            tokenType > 0 ? TOKEN_TYPES[tokenType - 1] : null, new String(endpoint, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Encodes a request path for a record, truncating it (on a character boundary) to the space
+     * available.
+     */
+    static byte[] encodeEndpoint(String endpoint) {
+        byte[] bytes = endpoint.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= MAX_ENDPOINT_BYTES) {
+            return bytes;
+        }
+        int length = MAX_ENDPOINT_BYTES;
+        // Do not split a multi-byte character: back off over continuation bytes
+        while (length > 0 && (bytes[length] & 0xC0) == 0x80) {
+            length--;
+        }
+        byte[] truncated = new byte[length];
+        System.arraycopy(bytes, 0, truncated, 0, length);
+        return truncated;
+    }
+}
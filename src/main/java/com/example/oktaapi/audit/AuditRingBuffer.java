@@ -0,0 +1,108 @@
+package com.example.oktaapi.audit;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.example.oktaapi.security.TokenType;
+
+/**
+ * A bounded, lock-free ring buffer of {@link AccessRecord}s with any number of producers and a
+ * single consumer.
+ *
+ * <p>Records are written in place into preallocated slots, so offering one allocates nothing and
+ * never blocks: a producer claims the next sequence number with a compare-and-set, writes its
+ * slot, and publishes it by storing the sequence number in the slot's marker. When the consumer
+ * has fallen a full buffer behind, new records are dropped (and counted) rather than waiting for
+ * space, so a slow disk can never hold up a request.</p>
+ *
+ * <p>The consumer copies published records out in order and then releases their slots by
+ * advancing its position.</p>
+ */
+final class AuditRingBuffer {
+
+    private final int capacity;
+    private final int mask;
+    private final ByteBuffer slots;
+    private final AtomicLongArray published;
+    private final AtomicLong claimed = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+
+    /** The sequence number of the next record to consume; written by the consumer only. */
+    private volatile long consumed;
+
+    /**
+     * @param capacity the number of records the buffer holds; rounded up to a power of two
+     */
+    AuditRingBuffer(int capacity) {
+        if (capacity < 1 || capacity > (1 << 24)) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^24: " + capacity);
+        }
+        this.capacity = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.slots = ByteBuffer.allocate(this.capacity * AccessRecord.SIZE);
+        this.published = new AtomicLongArray(this.capacity);
+    }
+
+    /**
+     * Adds a record, or drops it if the buffer is full.
+     *
+     * @return {@code false} if the record was dropped
+     */
+    boolean offer(long timestampMillis, long latencyNanos, long subjectHash, int status, AccessDecision decision,
+            TokenType tokenType, byte[] endpoint) {
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed >= capacity) {
+                dropped.increment();
+                return false;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+
+        int index = (int) (sequence & mask);
+        AccessRecord.write(slots, index * AccessRecord.SIZE, timestampMillis, latencyNanos, subjectHash, status,
+            decision, tokenType, endpoint);
+        // Publishes the slot's contents to the consumer
+        published.setRelease(index, sequence + 1);
+        return true;
+    }
+
+    /**
+     * Moves published records, in order, into a buffer, up to the space remaining in it. Must
+     * only be called from one thread at a time.
+     *
+     * @return the number of records moved
+     */
+    int drainTo(ByteBuffer target) {
+        long sequence = consumed;
+        int count = 0;
+        while (target.remaining() >= AccessRecord.SIZE) {
+            int index = (int) (sequence & mask);
+            if (published.getAcquire(index) != sequence + 1) {
+                // Not yet claimed, or claimed but still being written
+                break;
+            }
+            target.put(target.position(), slots, index * AccessRecord.SIZE, AccessRecord.SIZE);
+            target.position(target.position() + AccessRecord.SIZE);
+            sequence++;
+            count++;
+        }
+        // Releases the slots to producers
+        consumed = sequence;
+        return count;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    int size() {
+        return (int) (claimed.get() - consumed);
+    }
+
+    long dropped() {
+        return dropped.sum();
+    }
+}
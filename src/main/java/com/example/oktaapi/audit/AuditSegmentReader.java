@@ -0,0 +1,107 @@
+package com.example.oktaapi.audit;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import com.example.oktaapi.util.TokenDigest;
+
+/**
+ * Decodes the segment files of the access audit log (see {@link AuditSegmentWriter}).
+ *
+ * <p>This is also an offline tool, which needs nothing but the application's classes:</p>
+ * <pre>
+ * java -cp target/classes com.example.oktaapi.audit.AuditSegmentReader [--subject SUB] [--denied] PATH...
+ * </pre>
+ * <p>Each PATH is a segment file or a directory of them. Records are printed one per line, tab
+ * separated: timestamp, decision, status, token type, subject hash, latency in microseconds and
+ * endpoint. {@code --subject} keeps only the records of the given token subject (by comparing
+ * its hash), and {@code --denied} only the requests that were not allowed.</p>
+ */
+public final class AuditSegmentReader {
+
+    private AuditSegmentReader() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Predicate<AccessRecord> filter = record -> true;
+        List<Path> paths = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--subject" -> {
+                    long hash = TokenDigest.sha256Prefix(args[++i]);
+                    filter = filter.and(record -> record.subjectHash() == hash);
+                }
+                case "--denied" -> filter = filter.and(record -> record.decision() != AccessDecision.ALLOW);
+                default -> paths.add(Path.of(args[i]));
+            }
+        }
+        if (paths.isEmpty()) {
+            System.err.println("Usage: AuditSegmentReader [--subject SUB] [--denied] PATH...");
+            System.exit(2);
+        }
+
+        PrintStream out = System.out;
+        for (Path path : paths) {
+            for (Path segment : Files.isDirectory(path) ? segments(path) : List.of(path)) {
+                for (AccessRecord record : read(segment)) {
+                    if (filter.test(record)) {
+                        out.printf("%s\t%s\t%d\t%s\t%016x\t%d\t%s%n", record.timestamp(), record.decision(),
+                            record.status(), record.tokenType() != null ? record.tokenType().getValue() : "none",
+                            record.subjectHash(), TimeUnit.NANOSECONDS.toMicros(record.latencyNanos()),
+                            record.endpoint());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the records in a segment file, in the order they were written.
+     *
+     * @throws IOException if the file is not a segment of a supported version
+     */
+    public static List<AccessRecord> read(Path segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.limit() < AuditSegmentWriter.HEADER_SIZE || buffer.getInt(0) != AuditSegmentWriter.MAGIC) {
+                throw new IOException(segment + " is not an audit segment");
+            }
+            if (buffer.getShort(4) != AuditSegmentWriter.VERSION || buffer.getShort(6) != AccessRecord.SIZE) {
+                throw new IOException(segment + " has unsupported version " + buffer.getShort(4));
+            }
+            // A segment cut short (e.g., copied while being written) holds fewer records than counted
+            long available = (buffer.limit() - AuditSegmentWriter.HEADER_SIZE) / AccessRecord.SIZE;
+            int count = (int) Math.min(buffer.getLong(AuditSegmentWriter.COUNT_OFFSET), available);
+            List<AccessRecord> records = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                records.add(AccessRecord.read(buffer, AuditSegmentWriter.HEADER_SIZE + i * AccessRecord.SIZE));
+            }
+            return records;
+        }
+    }
+
+    /**
+     * Returns the segment files in a directory, oldest first.
+     */
+    public static List<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .filter(file -> file.getFileName().toString().endsWith(AuditSegmentWriter.SUFFIX))
+                .sorted()
+                .toList();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.oktaapi.audit;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Appends {@link AccessRecord}s to a rotating set of memory-mapped segment files.
+ *
+ * <p>Each segment is a file of a fixed size, mapped into memory when it is created. A
+ * {@value #HEADER_SIZE}-byte header identifies the format and counts the records written so far,
+ * and the records follow it back to back. Writing a batch is a memory copy plus an update of the
+ * count; the operating system writes the pages back to disk, so records survive the process
+ * crashing, and each segment is forced to disk when it is completed. When a segment is full the
+ * next one is started, and the oldest segments are deleted beyond {@code maxSegments}.</p>
+ *
+ * <p>Segments are named {@code access-<created millis>-<sequence>.audit}, so they sort in the
+ * order they were written. See {@link AuditSegmentReader} for decoding them.</p>
+ *
+ * <p>Not thread-safe: the access audit log writes from a single background thread.</p>
+ */
+final class AuditSegmentWriter implements Closeable {
+
+    static final int MAGIC = 0x4F4B4155; // "OKAU"
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int COUNT_OFFSET = 16;
+    static final String SUFFIX = ".audit";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final LongSupplier clock;
+
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private long count;
+    private int sequence;
+
+    /**
+     * @param directory where segments are written; created if it does not exist
+     * @param segmentSize the size of each segment file, in bytes
+     * @param maxSegments how many segments to keep, including the one being written
+     * @param clock supplies the current time in epoch milliseconds
+     */
+    AuditSegmentWriter(Path directory, long segmentSize, int maxSegments, LongSupplier clock) {
+        if (segmentSize < HEADER_SIZE + AccessRecord.SIZE || segmentSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Segment size must be between " + (HEADER_SIZE + AccessRecord.SIZE)
+                + " bytes and 2 GB: " + segmentSize);
+        }
+        if (maxSegments < 1) {
+            throw new IllegalArgumentException("At least one segment must be kept: " + maxSegments);
+        }
+        this.directory = directory;
+        // Whole records only
+        this.segmentSize = HEADER_SIZE + (int) ((segmentSize - HEADER_SIZE) / AccessRecord.SIZE) * AccessRecord.SIZE;
+        this.maxSegments = maxSegments;
+        this.clock = clock;
+    }
+
+    /**
+     * Appends the records between the position and the limit of a buffer, starting new segments
+     * as needed.
+     */
+    void write(ByteBuffer records) throws IOException {
+        while (records.hasRemaining()) {
+            if (segment == null || !segment.hasRemaining()) {
+                rotate();
+            }
+            int length = Math.min(records.remaining(), segment.remaining());
+            segment.put(records.slice(records.position(), length));
+            records.position(records.position() + length);
+            count += length / AccessRecord.SIZE;
+            segment.putLong(COUNT_OFFSET, count);
+        }
+    }
+
+    /**
+     * Starts a new segment, completing the current one (if any).
+     */
+    void rotate() throws IOException {
+        complete();
+        Files.createDirectories(directory);
+        long now = clock.getAsLong();
+        Path file = directory.resolve(String.format("access-%013d-%06d%s", now, ++sequence, SUFFIX));
+        channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        segment.putInt(0, MAGIC);
+        segment.putShort(4, VERSION);
+        segment.putShort(6, (short) AccessRecord.SIZE);
+        segment.putLong(8, now);
+        segment.putLong(COUNT_OFFSET, 0);
+        segment.position(HEADER_SIZE);
+        count = 0;
+        deleteOldSegments();
+    }
+
+    @Override
+    public void close() throws IOException {
+        complete();
+    }
+
+    private void complete() throws IOException {
+        if (segment != null) {
+            segment.force();
+            channel.close();
+            segment = null;
+            channel = null;
+        }
+    }
+
+    private void deleteOldSegments() throws IOException {
+        List<Path> segments = AuditSegmentReader.segments(directory);
+        for (int i = 0; i < segments.size() - maxSegments; i++) {
+            Files.deleteIfExists(segments.get(i));
+        }
+    }
+}
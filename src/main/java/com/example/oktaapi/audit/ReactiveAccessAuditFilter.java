@@ -0,0 +1,53 @@
+package com.example.oktaapi.audit;
+
+import org.springframework.http.HttpStatusCode;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * The reactive equivalent of {@link AccessAuditFilter}, for the WebFlux security filter chain.
+ *
+ * <p>On the reactive stack the authentication only exists downstream of the
+ * {@code AUTHENTICATION} filter, so this filter comes in two parts: this one must be added before
+ * the {@code AUTHENTICATION} filter, to see the requests it rejects, and the one returned by
+ * {@link #captureAuthentication()} right after it, to hand the authentication back out.</p>
+ */
+public class ReactiveAccessAuditFilter implements WebFilter {
+
+    private static final String AUTHENTICATION_ATTRIBUTE = ReactiveAccessAuditFilter.class.getName() + ".authentication";
+
+    private final AccessAuditLog auditLog;
+
+    public ReactiveAccessAuditFilter(AccessAuditLog auditLog) {
+        this.auditLog = auditLog;
+    }
+
+    /**
+     * Returns the filter that records the authentication of each request for the audit log.
+     */
+    public static WebFilter captureAuthentication() {
+        return (exchange, chain) -> ReactiveSecurityContextHolder.getContext()
+            .mapNotNull(SecurityContext::getAuthentication)
+            .doOnNext(authentication -> exchange.getAttributes().put(AUTHENTICATION_ATTRIBUTE, authentication))
+            .then(chain.filter(exchange));
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+            .doFinally(signal -> {
+                HttpStatusCode status = exchange.getResponse().getStatusCode();
+                int value = signal == SignalType.ON_ERROR ? 500 : status != null ? status.value() : 200;
+                auditLog.record(start, exchange.getRequest().getPath().value(), value,
+                    exchange.<Authentication>getAttribute(AUTHENTICATION_ATTRIBUTE));
+            });
+    }
+}
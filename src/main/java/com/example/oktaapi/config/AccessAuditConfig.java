@@ -0,0 +1,89 @@
+package com.example.oktaapi.config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import com.example.oktaapi.audit.AccessAuditLog;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * <p>Configuration class for the access audit log.</p>
+ *
+ * <p>This class binds properties prefixed with "app.security.audit" from the application's
+ * configuration. See application.yml for the available settings.</p>
+ *
+ * <p>When enabled, {@link SecurityConfig} and {@link ReactiveSecurityConfig} record the access
+ * decision made for every request, including the ones rejected before they reach a
+ * controller.</p>
+ *
+ * @see AccessAuditLog
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.security.audit")
+public class AccessAuditConfig {
+    private boolean enabled = true;
+    private Path directory = Path.of(System.getProperty("java.io.tmpdir"), "okta-api", "audit");
+    private int bufferCapacity = 65_536;
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+    private int maxSegments = 16;
+    private Duration flushInterval = Duration.ofMillis(100);
+
+    @Bean(initMethod = "start")
+    public AccessAuditLog accessAuditLog() {
+        return new AccessAuditLog(enabled, directory, bufferCapacity, segmentSize.toBytes(), maxSegments,
+            flushInterval);
+    }
+
+    // Getters and setters required for property binding
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(Path directory) {
+        this.directory = directory;
+    }
+
+    public int getBufferCapacity() {
+        return bufferCapacity;
+    }
+
+    public void setBufferCapacity(int bufferCapacity) {
+        this.bufferCapacity = bufferCapacity;
+    }
+
+    public DataSize getSegmentSize() {
+        return segmentSize;
+    }
+
+    public void setSegmentSize(DataSize segmentSize) {
+        this.segmentSize = segmentSize;
+    }
+
+    public int getMaxSegments() {
+        return maxSegments;
+    }
+
+    public void setMaxSegments(int maxSegments) {
+        this.maxSegments = maxSegments;
+    }
+
+    public Duration getFlushInterval() {
+        return flushInterval;
+    }
+
+    public void setFlushInterval(Duration flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+}
@@ -1,49 +1,147 @@
 package com.example.oktaapi.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
-import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * <p>Configuration class for defining application roles and their associated authorities (which
  * for this app correspond to Okta groups).</p>
  * 
- * <p>This class binds properties prefixed with "app.roles" from the application's configuration
- * and provides a bean for each role that holds the associated authorities (i.e., Okta groups).</p>
+ * <p>This class binds the "app.roles" map from the application's configuration: each key names a
+ * logical role, and its value lists the Okta groups bound to the role. Any number of roles can be
+ * defined; the compiled policies in {@link AuthorizationPolicyConfig} refer to the "user" and
+ * "admin" roles.</p>
+ *
+ * <p>These are the mappings the application starts with. At runtime the current mappings are held
+ * by the {@link com.example.oktaapi.security.policy.RoleRegistry}, which can replace them without
+ * a restart.</p>
+ *
+ * <p>It also binds "app.tenants": each entry names an additional Okta authorization server whose
+ * tokens are accepted (see {@link JwksConfig}), and may give it role mappings of its own. Tenants
+ * without roles use the mappings above. A tenant's own mappings are fixed at startup.</p>
  *
  * <p>Note: Ensure that getters and setters are present for property binding to work correctly.</p>
  */
 @Configuration
-@ConfigurationProperties(prefix = "app.roles")
+@ConfigurationProperties(prefix = "app")
 public class AppAuthoritiesConfig {
-    private List<String> user;
-    private List<String> admin;
+    public static final String USER_ROLE = "user";
+    public static final String ADMIN_ROLE = "admin";
+
+    private Map<String, List<String>> roles = new LinkedHashMap<>();
+    private Map<String, Tenant> tenants = new LinkedHashMap<>();
 
-    @Bean
-    public String[] userAuthorities() {
-        return user.toArray(new String[0]);
+    /**
+     * Returns the Okta groups bound to each logical role, keyed by role name.
+     */
+    public Map<String, List<String>> roleGroups() {
+        Map<String, List<String>> roleGroups = new LinkedHashMap<>();
+        roles.forEach((role, groups) -> roleGroups.put(role, List.copyOf(groups)));
+        return roleGroups;
     }
 
-    @Bean
-    public String[] adminAuthorities() {
-        return admin.toArray(new String[0]);
+    /**
+     * Returns the Okta groups bound to each logical role for each tenant that has mappings of its
+     * own, keyed by the tenant's issuer and then by role name.
+     */
+    public Map<String, Map<String, List<String>>> issuerRoleGroups() {
+        Map<String, Map<String, List<String>>> issuerRoleGroups = new LinkedHashMap<>();
+        tenants.forEach((name, tenant) -> {
+            if (!tenant.getRoles().isEmpty()) {
+                Map<String, List<String>> roleGroups = new LinkedHashMap<>();
+                tenant.getRoles().forEach((role, groups) -> roleGroups.put(role, List.copyOf(groups)));
+                issuerRoleGroups.put(tenant.getIssuer(), roleGroups);
+            }
+        });
+        return issuerRoleGroups;
     }
 
     // Getters and setters required for property binding
-    public List<String> getUser() {
-        return user;
+    public Map<String, List<String>> getRoles() {
+        return roles;
     }
 
-    public void setUser(List<String> user) {
-        this.user = user;
+    public void setRoles(Map<String, List<String>> roles) {
+        this.roles = roles;
     }
 
-    public List<String> getAdmin() {
-        return admin;
+    public Map<String, Tenant> getTenants() {
+        return tenants;
     }
 
-    public void setAdmin(List<String> admin) {
-        this.admin = admin;
+    public void setTenants(Map<String, Tenant> tenants) {
+        this.tenants = tenants;
+    }
+
+    /**
+     * An additional Okta authorization server. Only the issuer is required: the audience defaults
+     * to {@code okta.oauth2.audience} and the key set URI to where Okta publishes the issuer's keys
+     * (see {@link JwksConfig#oktaJwksUri}).
+     */
+    public static class Tenant {
+        private String issuer;
+        private String audience;
+        private String jwksUri;
+        private Map<String, List<String>> roles = new LinkedHashMap<>();
+
+        /**
+         * Returns the tenant's audience, or the given default if none is configured.
+         */
+        public String audienceOr(String defaultAudience) {
+            return StringUtils.hasText(audience) ? audience : defaultAudience;
+        }
+
+        /**
+         * Returns the URI of the tenant's key set.
+         *
+         * @throws IllegalStateException if none is configured and the issuer is not an Okta
+         *         authorization server
+         */
+        public String jwksUriOrDefault() {
+            String uri = StringUtils.hasText(jwksUri) ? jwksUri : JwksConfig.oktaJwksUri(issuer);
+            if (uri == null) {
+                throw new IllegalStateException("Cannot derive the JWKS URI of tenant issuer " + issuer
+                    + "; set its jwks-uri");
+            }
+            return uri;
+        }
+
+        // Getters and setters required for property binding
+        public String getIssuer() {
+            return issuer;
+        }
+
+        public void setIssuer(String issuer) {
+            this.issuer = issuer;
+        }
+
+        public String getAudience() {
+            return audience;
+        }
+
+        public void setAudience(String audience) {
+            this.audience = audience;
+        }
+
+        public String getJwksUri() {
+            return jwksUri;
+        }
+
+        public void setJwksUri(String jwksUri) {
+            this.jwksUri = jwksUri;
+        }
+
+        public Map<String, List<String>> getRoles() {
+            return roles;
+        }
+
+        public void setRoles(Map<String, List<String>> roles) {
+            this.roles = roles;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,155 @@
+package com.example.oktaapi.config;
+
+import static com.example.oktaapi.config.AppAuthoritiesConfig.ADMIN_ROLE;
+import static com.example.oktaapi.config.AppAuthoritiesConfig.USER_ROLE;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.authorization.method.AuthorizationInterceptorsOrder;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeReactiveMethodInterceptor;
+import org.springframework.security.core.Authentication;
+import org.springframework.util.function.SingletonSupplier;
+
+import com.example.oktaapi.metrics.PipelineStage;
+import com.example.oktaapi.metrics.RequestTimings;
+import com.example.oktaapi.security.policy.Policies;
+import com.example.oktaapi.security.policy.PolicyAuthorizationManager;
+import com.example.oktaapi.security.policy.PolicyDefinition;
+import com.example.oktaapi.security.policy.ReactivePolicyAuthorizationManager;
+import com.example.oktaapi.security.policy.RequirePolicy;
+import com.example.oktaapi.security.policy.RoleRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * <p>Configuration class for the application's compiled authorization policies.</p>
+ *
+ * <p>The policies are defined here in terms of scopes and the logical roles from
+ * {@link AppAuthoritiesConfig}, and compiled into bit masks over the Okta groups bound to those
+ * roles. Controller methods opt in with {@link RequirePolicy}; an advisor registered alongside
+ * Spring Security's own method-security interceptors evaluates the policy before the method is
+ * invoked.</p>
+ *
+ * <p>The role-to-group mappings are held by a {@link RoleRegistry}, which recompiles the policies
+ * whenever the mappings are replaced (through the admin API or by editing the
+ * {@code app.role-registry.file}), so a group can be granted or withdrawn a role without a
+ * restart.</p>
+ *
+ * <p>On the reactive stack the same policies are evaluated by a reactive advisor, against the
+ * authentication in the reactive security context; the annotated methods must return a
+ * {@code Mono} or {@code Flux}.</p>
+ *
+ * <p>Note: {@code @EnableMethodSecurity} (see {@link SecurityConfig}) or
+ * {@code @EnableReactiveMethodSecurity} (see {@link ReactiveSecurityConfig}) is required, as it
+ * registers the infrastructure that applies the advisor to controller beans.</p>
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.role-registry")
+public class AuthorizationPolicyConfig {
+
+    private Path file;
+    private Duration pollInterval = Duration.ofSeconds(10);
+
+    /**
+     * Returns the application's policies, in terms of logical roles.
+     */
+    public static List<PolicyDefinition> policyDefinitions() {
+        return List.of(
+            PolicyDefinition.named(Policies.PRIVATE_READ)
+                .requireAuthority("SCOPE_data.read")
+                .requireAnyRole(USER_ROLE)
+                .orClientCredentials(),
+            PolicyDefinition.named(Policies.ADMIN)
+                .requireAnyRole(ADMIN_ROLE)
+        );
+    }
+
+    @Bean(initMethod = "start")
+    public RoleRegistry roleRegistry(AppAuthoritiesConfig appAuthoritiesConfig, ObjectMapper objectMapper) {
+        return new RoleRegistry(appAuthoritiesConfig.roleGroups(), appAuthoritiesConfig.issuerRoleGroups(),
+            policyDefinitions(), file, pollInterval, objectMapper);
+    }
+
+    @Bean
+    public PolicyAuthorizationManager policyAuthorizationManager(RoleRegistry roleRegistry) {
+        return new PolicyAuthorizationManager(roleRegistry);
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public static Advisor requirePolicyAuthorizationAdvisor(ObjectProvider<PolicyAuthorizationManager> policyAuthorizationManager) {
+        // Resolved lazily: infrastructure advisors are created before the beans the policies depend on
+        Supplier<PolicyAuthorizationManager> manager = SingletonSupplier.of(policyAuthorizationManager::getObject);
+        AuthorizationManager<MethodInvocation> lazyManager = new AuthorizationManager<>() {
+
+            @Override
+            public AuthorizationResult authorize(Supplier<Authentication> authentication, MethodInvocation invocation) {
+                long start = System.nanoTime();
+                try {
+                    return manager.get().authorize(authentication, invocation);
+                } finally {
+                    RequestTimings.record(PipelineStage.METHOD_AUTHORIZATION, System.nanoTime() - start);
+                }
+            }
+
+            @Deprecated
+            @Override
+            public AuthorizationDecision check(Supplier<Authentication> authentication, MethodInvocation invocation) {
+                long start = System.nanoTime();
+                try {
+                    return manager.get().check(authentication, invocation);
+                } finally {
+                    RequestTimings.record(PipelineStage.METHOD_AUTHORIZATION, System.nanoTime() - start);
+                }
+            }
+        };
+        AuthorizationManagerBeforeMethodInterceptor interceptor = new AuthorizationManagerBeforeMethodInterceptor(
+            AnnotationMatchingPointcut.forMethodAnnotation(RequirePolicy.class), lazyManager);
+        interceptor.setOrder(AuthorizationInterceptorsOrder.PRE_AUTHORIZE.getOrder());
+        return interceptor;
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    public static Advisor reactiveRequirePolicyAuthorizationAdvisor(ObjectProvider<PolicyAuthorizationManager> policyAuthorizationManager) {
+        Supplier<PolicyAuthorizationManager> manager = SingletonSupplier.of(policyAuthorizationManager::getObject);
+        return new AuthorizationManagerBeforeReactiveMethodInterceptor(
+            AnnotationMatchingPointcut.forMethodAnnotation(RequirePolicy.class),
+            new ReactivePolicyAuthorizationManager(manager));
+    }
+
+    // Getters and setters required for property binding
+    public Path getFile() {
+        return file;
+    }
+
+    public void setFile(Path file) {
+        this.file = file;
+    }
+
+    public Duration getPollInterval() {
+        return pollInterval;
+    }
+
+    public void setPollInterval(Duration pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+}
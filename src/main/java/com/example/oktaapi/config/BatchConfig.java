@@ -0,0 +1,52 @@
+package com.example.oktaapi.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.example.oktaapi.audit.AccessAuditLog;
+import com.example.oktaapi.controller.BatchExecutor;
+import com.example.oktaapi.security.policy.PolicyAuthorizationManager;
+import com.example.oktaapi.security.ratelimit.RateLimiter;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+
+/**
+ * <p>Configuration class for the batch endpoint ({@code POST /api/private/batch}).</p>
+ *
+ * <p>On the servlet stack the sub-operations of a batch run concurrently on virtual threads. The
+ * executor propagates the request's security context to them, so code that reads it from
+ * {@code SecurityContextHolder} sees the caller who submitted the batch. (It is not exposed as a
+ * bean, which would replace Spring Boot's application task executor.)</p>
+ *
+ * <p>Each sub-operation counts against the caller's rate limit (see {@link RateLimitConfig}) and
+ * is recorded in the access audit log (see {@link AccessAuditConfig}).</p>
+ *
+ * <p>This class binds properties prefixed with "app.batch" from the application's configuration.
+ * See application.yml for the available settings.</p>
+ *
+ * @see BatchExecutor
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.batch")
+public class BatchConfig {
+    private int maxOperations = 50;
+
+    @Bean
+    public BatchExecutor batchExecutor(PolicyAuthorizationManager policyAuthorizationManager, RateLimiter rateLimiter,
+            AccessAuditLog accessAuditLog) {
+        ExecutorService executor = new DelegatingSecurityContextExecutorService(Executors.newVirtualThreadPerTaskExecutor());
+        return new BatchExecutor(policyAuthorizationManager, rateLimiter, accessAuditLog, maxOperations, executor);
+    }
+
+    // Getters and setters required for property binding
+    public int getMaxOperations() {
+        return maxOperations;
+    }
+
+    public void setMaxOperations(int maxOperations) {
+        this.maxOperations = maxOperations;
+    }
+}
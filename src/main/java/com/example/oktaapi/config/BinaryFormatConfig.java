@@ -0,0 +1,64 @@
+package com.example.oktaapi.config;
+
+import com.example.oktaapi.model.ResponseFormat;
+import com.example.oktaapi.model.ResponseMappers;
+import com.example.oktaapi.model.TimestampFormat;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.lang.Nullable;
+
+/**
+ * <p>Configuration class for the binary response formats, CBOR and Smile (see
+ * {@link ResponseFormat}).</p>
+ *
+ * <p>The mappers for both formats are built from Spring Boot's {@link Jackson2ObjectMapperBuilder},
+ * so they have the same modules and {@code spring.jackson.*} settings as the JSON mapper and
+ * produce the same schema. On the servlet stack they are registered as message converters (which
+ * replace Spring MVC's defaults for these formats), and on the reactive stack as codecs by
+ * {@link ReactiveCodecConfig}. Like JSON, both honour the {@link TimestampFormat} parameter
+ * (e.g., {@code application/cbor;timestamp=epoch-millis}).</p>
+ */
+@Configuration
+public class BinaryFormatConfig {
+
+    @Bean
+    public ResponseMappers responseMappers(ObjectMapper objectMapper, ObjectProvider<Jackson2ObjectMapperBuilder> builder) {
+        return new ResponseMappers(objectMapper,
+            builder.getObject().factory(new CBORFactory()).build(),
+            builder.getObject().factory(new SmileFactory()).build());
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(ResponseMappers responseMappers) {
+        return new MappingJackson2CborHttpMessageConverter(responseMappers.get(ResponseFormat.CBOR)) {
+            @Override
+            protected ObjectWriter customizeWriter(ObjectWriter writer, JavaType javaType, @Nullable MediaType contentType) {
+                return TimestampFormat.customize(super.customizeWriter(writer, javaType, contentType), contentType);
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(ResponseMappers responseMappers) {
+        return new MappingJackson2SmileHttpMessageConverter(responseMappers.get(ResponseFormat.SMILE)) {
+            @Override
+            protected ObjectWriter customizeWriter(ObjectWriter writer, JavaType javaType, @Nullable MediaType contentType) {
+                return TimestampFormat.customize(super.customizeWriter(writer, javaType, contentType), contentType);
+            }
+        };
+    }
+}
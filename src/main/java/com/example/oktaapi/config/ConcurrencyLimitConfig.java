@@ -0,0 +1,152 @@
+package com.example.oktaapi.config;
+
+import java.time.Duration;
+
+import com.example.oktaapi.security.concurrency.AdaptiveConcurrencyLimiter;
+import com.example.oktaapi.security.concurrency.ConcurrencyLimitEndpoint;
+import com.example.oktaapi.security.concurrency.ConcurrencyLimits;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * <p>Configuration class for adaptive concurrency limiting (load shedding).</p>
+ *
+ * <p>This class binds properties prefixed with "app.security.concurrency-limit" from the
+ * application's configuration. The public endpoints and the rest of the API each get their own
+ * limiter; the algorithm's parameters are shared. See application.yml for the available
+ * settings.</p>
+ *
+ * <p>The limiters are added to the security filter chain, ahead of bearer token authentication,
+ * by {@link SecurityConfig} and {@link ReactiveSecurityConfig} when enabled. Their state is
+ * available from the {@code concurrencylimits} actuator endpoint and as metrics.</p>
+ *
+ * @see AdaptiveConcurrencyLimiter
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.security.concurrency-limit")
+public class ConcurrencyLimitConfig {
+    private boolean enabled = true;
+    private Limit api = new Limit(100, 10, 1_000);
+    private Limit publicPaths = new Limit(200, 20, 2_000);
+    private double tolerance = 2.0;
+    private double backoffRatio = 0.9;
+    private int windowSize = 500;
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    @Bean
+    public ConcurrencyLimits concurrencyLimits() {
+        return new ConcurrencyLimits(enabled, publicPaths.toLimiter("public", this), api.toLimiter("api", this),
+            retryAfter);
+    }
+
+    @Bean
+    public ConcurrencyLimitEndpoint concurrencyLimitEndpoint(ConcurrencyLimits concurrencyLimits) {
+        return new ConcurrencyLimitEndpoint(concurrencyLimits);
+    }
+
+    // Getters and setters required for property binding
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Limit getApi() {
+        return api;
+    }
+
+    public void setApi(Limit api) {
+        this.api = api;
+    }
+
+    public Limit getPublicPaths() {
+        return publicPaths;
+    }
+
+    public void setPublicPaths(Limit publicPaths) {
+        this.publicPaths = publicPaths;
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    public void setTolerance(double tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    public double getBackoffRatio() {
+        return backoffRatio;
+    }
+
+    public void setBackoffRatio(double backoffRatio) {
+        this.backoffRatio = backoffRatio;
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    public void setWindowSize(int windowSize) {
+        this.windowSize = windowSize;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public void setRetryAfter(Duration retryAfter) {
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * The bounds of one limiter.
+     */
+    public static class Limit {
+        private int initial;
+        private int min;
+        private int max;
+
+        public Limit() {
+        }
+
+        public Limit(int initial, int min, int max) {
+            this.initial = initial;
+            this.min = min;
+            this.max = max;
+        }
+
+        AdaptiveConcurrencyLimiter toLimiter(String name, ConcurrencyLimitConfig config) {
+            return new AdaptiveConcurrencyLimiter(name, initial, min, max, config.tolerance, config.backoffRatio,
+                config.windowSize);
+        }
+
+        public int getInitial() {
+            return initial;
+        }
+
+        public void setInitial(int initial) {
+            this.initial = initial;
+        }
+
+        public int getMin() {
+            return min;
+        }
+
+        public void setMin(int min) {
+            this.min = min;
+        }
+
+        public int getMax() {
+            return max;
+        }
+
+        public void setMax(int max) {
+            this.max = max;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.oktaapi.config;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimNames;
+import org.springframework.security.oauth2.jwt.JwtClaimValidator;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.RestTemplate;
+
+import com.example.oktaapi.security.JwksKeySource;
+import com.example.oktaapi.security.MultiIssuerJwtDecoder;
+import com.example.oktaapi.security.MultiIssuerJwtDecoder.IssuerDecoder;
+import com.example.oktaapi.security.MultiIssuerJwtDecoder.TrustedIssuer;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+
+/**
+ * <p>Configuration class for the issuer's signing keys and the {@link JwtDecoder} that uses them.</p>
+ *
+ * <p>This class binds properties prefixed with "app.security.jwks" from the application's
+ * configuration and replaces the decoder that the Okta starter would otherwise create. The decoder
+ * built here applies the same validation as the Okta default (signature, timestamps, issuer and
+ * audience), but obtains its keys from a {@link JwksKeySource}, which refreshes them in the
+ * background and persists them locally. See application.yml for the available settings.</p>
+ *
+ * <p>Tokens from the tenants configured in {@link AppAuthoritiesConfig} are accepted as well. The
+ * decoder routes each token by its issuer, and builds a decoder and key source for a tenant (with
+ * the same settings, but no snapshot file) when its first token arrives; at most
+ * {@code max-decoders} of these are kept. With no tenants configured, only the
+ * {@code okta.oauth2.issuer} is accepted, as before.</p>
+ *
+ * <p>With {@code fetch-on-start} off (as in the {@code faststart} profile), the issuer's keys are
+ * first fetched when the first token arrives rather than during startup. Startup still makes one
+ * request to the issuer, for its discovery document (the Okta starter's, see
+ * {@code application-faststart.yml}), but does not wait for the keys.</p>
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.security.jwks")
+public class JwksConfig {
+    private static final Pattern CUSTOM_AUTHORIZATION_SERVER_PATH = Pattern.compile("/oauth2/[^/]+");
+
+    private String uri;
+    private String snapshotFile;
+    private Duration refreshInterval = Duration.ofMinutes(5);
+    private Duration minKidMissInterval = Duration.ofSeconds(30);
+    private Duration fetchTimeout = Duration.ofSeconds(5);
+    private int maxDecoders = 16;
+    private boolean fetchOnStart = true;
+
+    @Bean(initMethod = "start")
+    public JwksKeySource jwksKeySource(@Value("${okta.oauth2.issuer}") String issuer) {
+        Path snapshot = StringUtils.hasText(snapshotFile) ? Path.of(snapshotFile) : null;
+        return keySource(defaultJwksUri(issuer), snapshot);
+    }
+
+    @Bean
+    public MultiIssuerJwtDecoder jwtDecoder(JwksKeySource jwksKeySource, @Value("${okta.oauth2.issuer}") String issuer,
+            @Value("${okta.oauth2.audience}") String audience, AppAuthoritiesConfig appAuthoritiesConfig) {
+        List<TrustedIssuer> tenants = new ArrayList<>();
+        appAuthoritiesConfig.getTenants().forEach((name, tenant) -> tenants.add(new TrustedIssuer(tenant.getIssuer(),
+            tenant.audienceOr(audience), URI.create(tenant.jwksUriOrDefault()))));
+
+        return new MultiIssuerJwtDecoder(new TrustedIssuer(issuer, audience, defaultJwksUri(issuer)),
+            new IssuerDecoder(verifyingDecoder(jwksKeySource, issuer, audience), jwksKeySource), tenants,
+            this::tenantDecoder, maxDecoders);
+    }
+
+    private IssuerDecoder tenantDecoder(TrustedIssuer tenant) {
+        JwksKeySource keySource = keySource(tenant.jwksUri(), null);
+        keySource.start();
+        return new IssuerDecoder(verifyingDecoder(keySource, tenant.issuer(), tenant.audience()), keySource);
+    }
+
+    private URI defaultJwksUri(String issuer) {
+        String jwksUri = StringUtils.hasText(uri) ? uri : oktaJwksUri(issuer);
+        if (jwksUri == null) {
+            throw new IllegalStateException("Cannot derive the JWKS URI of issuer " + issuer
+                + "; set app.security.jwks.uri");
+        }
+        return URI.create(jwksUri);
+    }
+
+    private JwksKeySource keySource(URI jwksUri, Path snapshot) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout((int) fetchTimeout.toMillis());
+        requestFactory.setReadTimeout((int) fetchTimeout.toMillis());
+
+        return new JwksKeySource(jwksUri, new RestTemplate(requestFactory), snapshot, refreshInterval,
+            minKidMissInterval, fetchTimeout, fetchOnStart);
+    }
+
+    /**
+     * Returns the URI at which Okta publishes an issuer's signing keys: {@code {issuer}/v1/keys}
+     * for a custom authorization server ({@code https://{org}/oauth2/{id}}), and
+     * {@code {issuer}/oauth2/v1/keys} for the org authorization server ({@code https://{org}}).
+     *
+     * @return the URI, or {@code null} if the issuer is neither, in which case the URI must be
+     *         configured
+     */
+    @Nullable
+    static String oktaJwksUri(String issuer) {
+        String base = StringUtils.trimTrailingCharacter(issuer, '/');
+        String path = URI.create(base).getPath();
+        if (!StringUtils.hasLength(path)) {
+            return base + "/oauth2/v1/keys";
+        }
+        return CUSTOM_AUTHORIZATION_SERVER_PATH.matcher(path).matches() ? base + "/v1/keys" : null;
+    }
+
+    private static JwtDecoder verifyingDecoder(JwksKeySource jwksKeySource, String issuer, String audience) {
+        DefaultJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+        jwtProcessor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, jwksKeySource));
+        // Okta access tokens do not use the standard "JWT" type header
+        jwtProcessor.setJWSTypeVerifier((type, context) -> { });
+        // Claims are validated by the Spring Security validators below
+        jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> { });
+
+        OAuth2TokenValidator<Jwt> audienceValidator = new JwtClaimValidator<List<String>>(JwtClaimNames.AUD,
+            aud -> aud != null && aud.contains(audience));
+
+        NimbusJwtDecoder decoder = new NimbusJwtDecoder(jwtProcessor);
+        decoder.setJwtValidator(new DelegatingOAuth2TokenValidator<>(
+            JwtValidators.createDefaultWithIssuer(issuer), audienceValidator));
+        return decoder;
+    }
+
+    // Getters and setters required for property binding
+    public String getUri() {
+        return uri;
+    }
+
+    public void setUri(String uri) {
+        this.uri = uri;
+    }
+
+    public String getSnapshotFile() {
+        return snapshotFile;
+    }
+
+    public void setSnapshotFile(String snapshotFile) {
+        this.snapshotFile = snapshotFile;
+    }
+
+    public Duration getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    public void setRefreshInterval(Duration refreshInterval) {
+        this.refreshInterval = refreshInterval;
+    }
+
+    public Duration getMinKidMissInterval() {
+        return minKidMissInterval;
+    }
+
+    public void setMinKidMissInterval(Duration minKidMissInterval) {
+        this.minKidMissInterval = minKidMissInterval;
+    }
+
+    public Duration getFetchTimeout() {
+        return fetchTimeout;
+    }
+
+    public void setFetchTimeout(Duration fetchTimeout) {
+        this.fetchTimeout = fetchTimeout;
+    }
+
+    public int getMaxDecoders() {
+        return maxDecoders;
+    }
+
+    public void setMaxDecoders(int maxDecoders) {
+        this.maxDecoders = maxDecoders;
+    }
+
+    public boolean isFetchOnStart() {
+        return fetchOnStart;
+    }
+
+    public void setFetchOnStart(boolean fetchOnStart) {
+        this.fetchOnStart = fetchOnStart;
+    }
+}
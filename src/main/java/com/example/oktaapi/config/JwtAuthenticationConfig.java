@@ -0,0 +1,76 @@
+package com.example.oktaapi.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+
+import com.example.oktaapi.security.CachingJwtGrantedAuthoritiesConverter;
+import com.example.oktaapi.security.OktaAuthenticationConverter;
+import com.example.oktaapi.security.policy.RoleRegistry;
+
+/**
+ * <p>Configuration class for converting validated JWTs into authentication objects.</p>
+ *
+ * <p>This class binds properties prefixed with "app.security.authorities" from the application's
+ * configuration. It defines a {@link CachingJwtGrantedAuthoritiesConverter}, which interns
+ * authorities and memoizes them per distinct combination of scopes and groups, and the two
+ * converters built on it: the {@link OktaAuthenticationConverter} that SecurityConfig uses for the
+ * resource server, and the production {@link JwtAuthenticationConverter}. The Okta starter already
+ * defines a bean named "jwtAuthenticationConverter" and bean overriding is disabled, so ours has
+ * its own name and is {@link Primary}. See application.yml for the available settings.</p>
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.security.authorities")
+public class JwtAuthenticationConfig {
+    private String scopesClaim = "scp";
+    private int maxCombinations = 1024;
+    private int maxInternedAuthorities = 4096;
+
+    @Bean
+    public CachingJwtGrantedAuthoritiesConverter cachingJwtGrantedAuthoritiesConverter(
+            @Value("${okta.oauth2.groupsClaim:groups}") String groupsClaim, RoleRegistry roleRegistry) {
+        return new CachingJwtGrantedAuthoritiesConverter(scopesClaim, groupsClaim, maxCombinations,
+            maxInternedAuthorities, roleRegistry);
+    }
+
+    @Bean
+    @Primary
+    public JwtAuthenticationConverter cachingJwtAuthenticationConverter(CachingJwtGrantedAuthoritiesConverter authoritiesConverter) {
+        JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
+        converter.setJwtGrantedAuthoritiesConverter(authoritiesConverter);
+        return converter;
+    }
+
+    @Bean
+    public OktaAuthenticationConverter oktaAuthenticationConverter(CachingJwtGrantedAuthoritiesConverter authoritiesConverter) {
+        return new OktaAuthenticationConverter(authoritiesConverter);
+    }
+
+    // Getters and setters required for property binding
+    public String getScopesClaim() {
+        return scopesClaim;
+    }
+
+    public void setScopesClaim(String scopesClaim) {
+        this.scopesClaim = scopesClaim;
+    }
+
+    public int getMaxCombinations() {
+        return maxCombinations;
+    }
+
+    public void setMaxCombinations(int maxCombinations) {
+        this.maxCombinations = maxCombinations;
+    }
+
+    public int getMaxInternedAuthorities() {
+        return maxInternedAuthorities;
+    }
+
+    public void setMaxInternedAuthorities(int maxInternedAuthorities) {
+        this.maxInternedAuthorities = maxInternedAuthorities;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.oktaapi.config;
+
+import com.example.oktaapi.security.VerifiedJwtCache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * <p>Configuration class for the verified-JWT cache that sits in front of the resource server's
+ * {@link org.springframework.security.oauth2.jwt.JwtDecoder}.</p>
+ *
+ * <p>This class binds properties prefixed with "app.security.jwt-cache" from the application's
+ * configuration. See application.yml for the available settings.</p>
+ *
+ * @see com.example.oktaapi.security.CachingJwtDecoder
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.security.jwt-cache")
+public class JwtCacheConfig {
+    private boolean enabled = true;
+    private int maxSize = 10_000;
+
+    @Bean
+    public VerifiedJwtCache verifiedJwtCache() {
+        return new VerifiedJwtCache(enabled, maxSize);
+    }
+
+    // Getters and setters required for property binding
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.oktaapi.config;
+
+import java.time.Duration;
+
+import com.example.oktaapi.security.JwtPrevalidator;
+import com.example.oktaapi.security.MultiIssuerJwtDecoder;
+import com.nimbusds.jose.JWSAlgorithm;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * <p>Configuration class for the checks applied to bearer tokens before their signature is
+ * verified, and the cache of recently rejected tokens.</p>
+ *
+ * <p>This class binds properties prefixed with "app.security.jwt-prevalidation" from the
+ * application's configuration. The accepted issuers, and the audience expected of each, are those
+ * of the decoder configured by {@link JwksConfig} (the Okta starter's {@code okta.oauth2.issuer}
+ * and {@code okta.oauth2.audience}, plus any tenants), and the algorithm is the one it verifies
+ * signatures with. See application.yml for the available settings.</p>
+ *
+ * @see com.example.oktaapi.security.PrevalidatingJwtDecoder
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.security.jwt-prevalidation")
+public class JwtPrevalidationConfig {
+    private boolean enabled = true;
+    private Duration clockSkew = Duration.ofSeconds(60);
+    private int negativeCacheSize = 10_000;
+    private Duration negativeCacheTtl = Duration.ofMinutes(5);
+
+    @Bean
+    public JwtPrevalidator jwtPrevalidator(MultiIssuerJwtDecoder jwtDecoder) {
+        return new JwtPrevalidator(enabled, jwtDecoder.audiences(), JWSAlgorithm.RS256, clockSkew, negativeCacheSize,
+            negativeCacheTtl, jwtDecoder::hasKey);
+    }
+
+    // Getters and setters required for property binding
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getClockSkew() {
+        return clockSkew;
+    }
+
+    public void setClockSkew(Duration clockSkew) {
+        this.clockSkew = clockSkew;
+    }
+
+    public int getNegativeCacheSize() {
+        return negativeCacheSize;
+    }
+
+    public void setNegativeCacheSize(int negativeCacheSize) {
+        this.negativeCacheSize = negativeCacheSize;
+    }
+
+    public Duration getNegativeCacheTtl() {
+        return negativeCacheTtl;
+    }
+
+    public void setNegativeCacheTtl(Duration negativeCacheTtl) {
+        this.negativeCacheTtl = negativeCacheTtl;
+    }
+}
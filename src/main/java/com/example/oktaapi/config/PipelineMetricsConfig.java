@@ -0,0 +1,94 @@
+package com.example.oktaapi.config;
+
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import com.example.oktaapi.metrics.PipelineStage;
+import com.example.oktaapi.metrics.SecurityPipelineEndpoint;
+import com.example.oktaapi.metrics.SecurityPipelineMetrics;
+import com.example.oktaapi.metrics.SecurityPipelineMetricsFilter;
+import com.example.oktaapi.metrics.StageTimingInterceptor;
+import com.example.oktaapi.metrics.TimedMappingJackson2HttpMessageConverter;
+
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.util.function.SingletonSupplier;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * <p>Configuration class for the per-stage metrics of the security pipeline on the servlet stack.</p>
+ *
+ * <p>The stages before the controller (token extraction, JWT decoding, authority conversion and
+ * URL authorization) are instrumented where {@link SecurityConfig} assembles the filter chain,
+ * method authorization by the {@code @RequirePolicy} advisor (see {@link AuthorizationPolicyConfig}),
+ * and JWKS fetches by {@link com.example.oktaapi.security.JwksKeySource}. This class adds the
+ * remaining pieces: the controller and serialization timers and the actuator endpoint.
+ * Percentiles and histograms are configured in application.yml under
+ * {@code management.metrics.distribution}.</p>
+ *
+ * @see SecurityPipelineMetrics
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class PipelineMetricsConfig {
+
+    @Bean
+    public SecurityPipelineMetrics securityPipelineMetrics() {
+        return new SecurityPipelineMetrics();
+    }
+
+    @Bean
+    public FilterRegistrationBean<SecurityPipelineMetricsFilter> securityPipelineMetricsFilter(
+            SecurityPipelineMetrics securityPipelineMetrics,
+            @Qualifier("requestMappingHandlerMapping") ObjectProvider<RequestMappingHandlerMapping> handlerMapping) {
+        // Resolved on first use: the handler mapping is created after the servlet filters
+        Supplier<Set<String>> endpoints = SingletonSupplier.of(() -> handlerMapping.getObject().getHandlerMethods().keySet()
+            .stream()
+            .flatMap(mapping -> mapping.getPatternValues().stream())
+            .collect(Collectors.toUnmodifiableSet()));
+        FilterRegistrationBean<SecurityPipelineMetricsFilter> registration = new FilterRegistrationBean<>(
+            new SecurityPipelineMetricsFilter(securityPipelineMetrics, endpoints));
+        // Just outside Spring Security's filter chain, so that rejected requests are recorded too
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
+
+    @Bean
+    public SecurityPipelineEndpoint securityPipelineEndpoint(MeterRegistry meterRegistry) {
+        return new SecurityPipelineEndpoint(meterRegistry);
+    }
+
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        return new TimedMappingJackson2HttpMessageConverter(objectMapper);
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor controllerTimingAdvisor() {
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(
+            new AnnotationMatchingPointcut(RestController.class, true),
+            new StageTimingInterceptor(PipelineStage.CONTROLLER));
+        // Innermost, so that only the controller method itself is timed
+        advisor.setOrder(Ordered.LOWEST_PRECEDENCE);
+        return advisor;
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.oktaapi.config;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.example.oktaapi.security.policy.RoleRegistry;
+import com.example.oktaapi.security.ratelimit.RateLimitTier;
+import com.example.oktaapi.security.ratelimit.RateLimitTiers;
+import com.example.oktaapi.security.ratelimit.RateLimiter;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * <p>Configuration class for per-principal rate limiting.</p>
+ *
+ * <p>This class binds properties prefixed with "app.security.rate-limit" from the application's
+ * configuration. Tiers are configured per logical role (see {@link AppAuthoritiesConfig}); a
+ * caller gets the fastest tier of any of their roles. See application.yml for the available
+ * settings.</p>
+ *
+ * <p>The limiter is added to the security filter chain by {@link SecurityConfig} and
+ * {@link ReactiveSecurityConfig} when it is enabled.</p>
+ *
+ * @see RateLimiter
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.security.rate-limit")
+public class RateLimitConfig {
+    private boolean enabled = true;
+    private Tier defaultTier = new Tier(60, Duration.ofMinutes(1));
+    private Tier clientCredentialsTier;
+    private Map<String, Tier> tiers = new LinkedHashMap<>();
+    private int maxPrincipals = 100_000;
+    private Duration evictionInterval = Duration.ofMinutes(1);
+
+    @Bean
+    public RateLimiter rateLimiter(AppAuthoritiesConfig appAuthoritiesConfig, RoleRegistry roleRegistry) {
+        Map<String, RateLimitTier> roleTiers = new LinkedHashMap<>();
+        tiers.forEach((role, tier) -> roleTiers.put(role, tier.toRateLimitTier(role)));
+        RateLimitTiers rateLimitTiers = new RateLimitTiers(roleTiers, defaultTier.toRateLimitTier("default"),
+            clientCredentialsTier != null ? clientCredentialsTier.toRateLimitTier("client-credentials") : null,
+            appAuthoritiesConfig.roleGroups().keySet(), roleRegistry);
+        return new RateLimiter(enabled, rateLimitTiers, maxPrincipals, evictionInterval);
+    }
+
+    // Getters and setters required for property binding
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Tier getDefaultTier() {
+        return defaultTier;
+    }
+
+    public void setDefaultTier(Tier defaultTier) {
+        this.defaultTier = defaultTier;
+    }
+
+    public Tier getClientCredentialsTier() {
+        return clientCredentialsTier;
+    }
+
+    public void setClientCredentialsTier(Tier clientCredentialsTier) {
+        this.clientCredentialsTier = clientCredentialsTier;
+    }
+
+    public Map<String, Tier> getTiers() {
+        return tiers;
+    }
+
+    public void setTiers(Map<String, Tier> tiers) {
+        this.tiers = tiers;
+    }
+
+    public int getMaxPrincipals() {
+        return maxPrincipals;
+    }
+
+    public void setMaxPrincipals(int maxPrincipals) {
+        this.maxPrincipals = maxPrincipals;
+    }
+
+    public Duration getEvictionInterval() {
+        return evictionInterval;
+    }
+
+    public void setEvictionInterval(Duration evictionInterval) {
+        this.evictionInterval = evictionInterval;
+    }
+
+    /**
+     * A rate limit tier: {@code limit} requests per {@code period}.
+     */
+    public static class Tier {
+        private long limit;
+        private Duration period = Duration.ofMinutes(1);
+
+        public Tier() {
+        }
+
+        public Tier(long limit, Duration period) {
+            this.limit = limit;
+            this.period = period;
+        }
+
+        RateLimitTier toRateLimitTier(String name) {
+            return new RateLimitTier(name, limit, period);
+        }
+
+        public long getLimit() {
+            return limit;
+        }
+
+        public void setLimit(long limit) {
+            this.limit = limit;
+        }
+
+        public Duration getPeriod() {
+            return period;
+        }
+
+        public void setPeriod(Duration period) {
+            this.period = period;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.oktaapi.config;
+
+import java.util.Map;
+
+import com.example.oktaapi.model.ResponseFormat;
+import com.example.oktaapi.model.ResponseMappers;
+import com.example.oktaapi.model.TimestampFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import org.reactivestreams.Publisher;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.lang.Nullable;
+import org.springframework.util.MimeType;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Configuration class for the Jackson codecs on the reactive stack.
+ *
+ * <p>Replaces the default Jackson encoder with one that passes the negotiated
+ * {@link TimestampFormat} on to the serializers, as
+ * {@link com.example.oktaapi.metrics.TimedMappingJackson2HttpMessageConverter} does on the servlet
+ * stack. It is ordered after Spring Boot's own Jackson customizer so that it takes effect.</p>
+ *
+ * <p>Also registers the CBOR and Smile codecs for the binary {@link ResponseFormat}s, with the
+ * mappers from {@link BinaryFormatConfig}. There is no default CBOR codec to replace, and custom
+ * codecs are consulted before the default ones, so the JSON encoder is registered ahead of CBOR
+ * as a custom codec too: JSON stays the format of responses to requests that accept any type,
+ * as on the servlet stack.</p>
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCodecConfig {
+
+    @Bean
+    @Order(1)
+    public CodecCustomizer timestampFormatCodecCustomizer(ObjectMapper objectMapper) {
+        return configurer -> configurer.defaultCodecs().jackson2JsonEncoder(jsonEncoder(objectMapper));
+    }
+
+    @Bean
+    public CodecCustomizer binaryFormatCodecCustomizer(ObjectMapper objectMapper, ResponseMappers responseMappers) {
+        ObjectMapper cbor = responseMappers.get(ResponseFormat.CBOR);
+        ObjectMapper smile = responseMappers.get(ResponseFormat.SMILE);
+        // Without media types, these codecs would claim the JSON ones
+        MediaType cborType = ResponseFormat.CBOR.getMediaType();
+        MediaType smileType = ResponseFormat.SMILE.getMediaType();
+        return configurer -> {
+            configurer.customCodecs().register(jsonEncoder(objectMapper));
+            configurer.customCodecs().register(new Jackson2CborEncoder(cbor, cborType) {
+                @Override
+                public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory,
+                        ResolvableType elementType, @Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
+                    // Jackson2CborEncoder refuses any publisher, but a single value needs no streaming
+                    if (inputStream instanceof Mono<?> value) {
+                        return value.map(v -> encodeValue(v, bufferFactory, elementType, mimeType, hints)).flux();
+                    }
+                    return super.encode(inputStream, bufferFactory, elementType, mimeType, hints);
+                }
+
+                @Override
+                protected ObjectWriter customizeWriter(ObjectWriter writer, @Nullable MimeType mimeType,
+                        ResolvableType elementType, @Nullable Map<String, Object> hints) {
+                    return TimestampFormat.customize(super.customizeWriter(writer, mimeType, elementType, hints), mimeType);
+                }
+            });
+            configurer.customCodecs().register(new Jackson2CborDecoder(cbor, cborType));
+            configurer.defaultCodecs().jackson2SmileEncoder(new Jackson2SmileEncoder(smile, smileType) {
+                @Override
+                protected ObjectWriter customizeWriter(ObjectWriter writer, @Nullable MimeType mimeType,
+                        ResolvableType elementType, @Nullable Map<String, Object> hints) {
+                    return TimestampFormat.customize(super.customizeWriter(writer, mimeType, elementType, hints), mimeType);
+                }
+            });
+            configurer.defaultCodecs().jackson2SmileDecoder(new Jackson2SmileDecoder(smile, smileType));
+        };
+    }
+
+    private static Jackson2JsonEncoder jsonEncoder(ObjectMapper objectMapper) {
+        return new Jackson2JsonEncoder(objectMapper) {
+            @Override
+            protected ObjectWriter customizeWriter(ObjectWriter writer, @Nullable MimeType mimeType,
+                    ResolvableType elementType, @Nullable Map<String, Object> hints) {
+                return TimestampFormat.customize(super.customizeWriter(writer, mimeType, elementType, hints), mimeType);
+            }
+        };
+    }
+}
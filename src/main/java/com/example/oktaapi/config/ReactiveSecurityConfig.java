@@ -0,0 +1,119 @@
+package com.example.oktaapi.config;
+
+import com.example.oktaapi.audit.AccessAuditLog;
+import com.example.oktaapi.audit.ReactiveAccessAuditFilter;
+import com.example.oktaapi.security.CachingJwtDecoder;
+import com.example.oktaapi.security.JwtPrevalidator;
+import com.example.oktaapi.security.MultiIssuerJwtDecoder;
+import com.example.oktaapi.security.NonBlockingJwtDecoder;
+import com.example.oktaapi.security.OktaAuthenticationConverter;
+import com.example.oktaapi.security.PrevalidatingJwtDecoder;
+import com.example.oktaapi.security.VerifiedJwtCache;
+import com.example.oktaapi.security.concurrency.ConcurrencyLimits;
+import com.example.oktaapi.security.concurrency.ReactiveConcurrencyLimitFilter;
+import com.example.oktaapi.security.policy.Policies;
+import com.example.oktaapi.security.policy.PolicyAuthorizationManager;
+import com.example.oktaapi.security.policy.ReactivePolicyAuthorizationManager;
+import com.example.oktaapi.security.ratelimit.RateLimiter;
+import com.example.oktaapi.security.ratelimit.ReactiveRateLimitFilter;
+import com.example.oktaapi.security.revocation.RevokingJwtDecoder;
+import com.example.oktaapi.security.revocation.TokenRevocations;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.annotation.method.configuration.EnableReactiveMethodSecurity;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.ReactiveJwtAuthenticationConverterAdapter;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+
+/**
+ * Security configuration class for the application when it runs on the reactive stack (WebFlux on
+ * Netty), selected with the "reactive" profile. See application-reactive.yml.
+ *
+ * <p>This is the reactive equivalent of {@link SecurityConfig}, with the same rules:
+ * <ul>
+ *   <li>Endpoints under "/api/public/**" are accessible to everyone without authentication.</li>
+ *   <li>Endpoints under "/api/private/**" require authentication. (See
+ *       {@link com.example.oktaapi.controller.ReactiveSecuredController} endpoints for further
+ *       restrictions.)</li>
+ *   <li>Endpoints under "/api/admin/**" require the {@link Policies#ADMIN} policy, evaluated by the
+ *       same {@link PolicyAuthorizationManager}.</li>
+ *   <li>All other requests require authentication.</li>
+ * </ul>
+ * Tokens are decoded by the same {@link JwtDecoder}, {@link JwtPrevalidator},
+ * {@link VerifiedJwtCache} and {@link TokenRevocations}, wrapped in a
+ * {@link NonBlockingJwtDecoder}, and authenticated by the same
+ * {@link OktaAuthenticationConverter}, so the two stacks authenticate and authorize identically. The same {@link RateLimiter} is applied after authentication, and the same
+ * {@link ConcurrencyLimits} before it, and every decision is recorded in the same
+ * {@link AccessAuditLog}.
+ * </p>
+ */
+@Configuration
+@EnableWebFluxSecurity
+@EnableReactiveMethodSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveSecurityConfig {
+
+    private final OktaAuthenticationConverter authenticationConverter;
+    private final PolicyAuthorizationManager policyAuthorizationManager;
+    private final RateLimiter rateLimiter;
+    private final ConcurrencyLimits concurrencyLimits;
+    private final AccessAuditLog accessAuditLog;
+
+    public ReactiveSecurityConfig(OktaAuthenticationConverter authenticationConverter,
+            PolicyAuthorizationManager policyAuthorizationManager, RateLimiter rateLimiter,
+            ConcurrencyLimits concurrencyLimits, AccessAuditLog accessAuditLog) {
+        this.authenticationConverter = authenticationConverter;
+        this.policyAuthorizationManager = policyAuthorizationManager;
+        this.rateLimiter = rateLimiter;
+        this.concurrencyLimits = concurrencyLimits;
+        this.accessAuditLog = accessAuditLog;
+    }
+
+    @Bean
+    public ReactiveJwtDecoder reactiveJwtDecoder(MultiIssuerJwtDecoder jwtDecoder, VerifiedJwtCache verifiedJwtCache,
+            JwtPrevalidator jwtPrevalidator, TokenRevocations tokenRevocations) {
+        JwtDecoder decoder = jwtPrevalidator.isEnabled() ? new PrevalidatingJwtDecoder(jwtDecoder, jwtPrevalidator) : jwtDecoder;
+        decoder = verifiedJwtCache.isEnabled() ? new CachingJwtDecoder(decoder, verifiedJwtCache) : decoder;
+        decoder = tokenRevocations.isEnabled() ? new RevokingJwtDecoder(decoder, tokenRevocations) : decoder;
+        return new NonBlockingJwtDecoder(decoder, jwtDecoder);
+    }
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http, ReactiveJwtDecoder reactiveJwtDecoder) {
+        http
+            .csrf(ServerHttpSecurity.CsrfSpec::disable)
+            .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+            .authorizeExchange(exchange -> exchange
+                .pathMatchers("/api/public/**").permitAll()
+                .pathMatchers("/api/private/**").authenticated()
+                .pathMatchers("/api/admin/**").access(
+                    ReactivePolicyAuthorizationManager.requiring(this.policyAuthorizationManager, Policies.ADMIN))
+                .anyExchange().authenticated()
+            )
+            .oauth2ResourceServer(oauth2 -> oauth2
+                .jwt(jwt -> jwt
+                    .jwtDecoder(reactiveJwtDecoder)
+                    .jwtAuthenticationConverter(new ReactiveJwtAuthenticationConverterAdapter(this.authenticationConverter::convert))
+                )
+            );
+        if (this.accessAuditLog.isEnabled()) {
+            http.addFilterAt(new ReactiveAccessAuditFilter(this.accessAuditLog), SecurityWebFiltersOrder.FIRST);
+            http.addFilterAfter(ReactiveAccessAuditFilter.captureAuthentication(), SecurityWebFiltersOrder.AUTHENTICATION);
+        }
+        if (this.concurrencyLimits.isEnabled()) {
+            http.addFilterBefore(new ReactiveConcurrencyLimitFilter(this.concurrencyLimits), SecurityWebFiltersOrder.AUTHENTICATION);
+        }
+        if (this.rateLimiter.isEnabled()) {
+            http.addFilterAfter(new ReactiveRateLimitFilter(this.rateLimiter), SecurityWebFiltersOrder.AUTHENTICATION);
+        }
+
+        return http.build();
+    }
+}
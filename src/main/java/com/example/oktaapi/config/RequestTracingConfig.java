@@ -0,0 +1,100 @@
+package com.example.oktaapi.config;
+
+import com.example.oktaapi.tracing.RequestTrace;
+import com.example.oktaapi.tracing.RequestTraceFilter;
+import com.example.oktaapi.tracing.SecurityTraceEndpoint;
+import com.example.oktaapi.tracing.TraceStore;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * <p>Configuration class for sampled request tracing on the servlet stack.</p>
+ *
+ * <p>This class binds properties prefixed with "app.security.tracing" from the application's
+ * configuration. See application.yml for the available settings.</p>
+ *
+ * <p>When enabled, the security-pipeline events of every request (token extraction, JWT decoding,
+ * authentication, policy decisions, rate limiting and load shedding) are recorded in a pooled,
+ * per-request buffer by the components that {@link SecurityConfig} and
+ * {@link AuthorizationPolicyConfig} assemble. Failed requests and a sample of the others are kept
+ * and served by the {@code securitytraces} actuator endpoint.</p>
+ *
+ * @see RequestTrace
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConfigurationProperties(prefix = "app.security.tracing")
+public class RequestTracingConfig {
+    private boolean enabled = true;
+    private double sampleRate = 0.01;
+    private int capacity = 256;
+    private int maxEvents = 32;
+    private int poolSize = 256;
+
+    @Bean
+    public TraceStore traceStore() {
+        return new TraceStore(capacity);
+    }
+
+    @Bean
+    public FilterRegistrationBean<RequestTraceFilter> requestTraceFilter(TraceStore traceStore) {
+        FilterRegistrationBean<RequestTraceFilter> registration = new FilterRegistrationBean<>(
+            new RequestTraceFilter(traceStore, sampleRate, maxEvents, poolSize));
+        registration.setEnabled(enabled);
+        // Outside Spring Security's filter chain and the pipeline metrics filter, so that rejected
+        // requests are traced too
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 2);
+        return registration;
+    }
+
+    @Bean
+    public SecurityTraceEndpoint securityTraceEndpoint(TraceStore traceStore) {
+        return new SecurityTraceEndpoint(traceStore);
+    }
+
+    // Getters and setters required for property binding
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    public void setSampleRate(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public int getMaxEvents() {
+        return maxEvents;
+    }
+
+    public void setMaxEvents(int maxEvents) {
+        this.maxEvents = maxEvents;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public void setPoolSize(int poolSize) {
+        this.poolSize = poolSize;
+    }
+}
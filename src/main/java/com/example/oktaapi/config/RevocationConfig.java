@@ -0,0 +1,81 @@
+package com.example.oktaapi.config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import com.example.oktaapi.security.revocation.TokenRevocations;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+/**
+ * <p>Configuration class for the token deny-list.</p>
+ *
+ * <p>This class binds properties prefixed with "app.security.revocation" from the application's
+ * configuration. See application.yml for the available settings.</p>
+ *
+ * <p>When enabled, {@link SecurityConfig} and {@link ReactiveSecurityConfig} reject revoked tokens
+ * after decoding them, and the deny-list is managed through the endpoints under
+ * "/api/admin/revocations" (see {@link com.example.oktaapi.controller.RevocationController}).</p>
+ *
+ * @see com.example.oktaapi.security.revocation.RevokingJwtDecoder
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.security.revocation")
+public class RevocationConfig {
+    private boolean enabled = true;
+    private String file;
+    private Duration subjectTtl = Duration.ofHours(24);
+    private Duration purgeInterval = Duration.ofMinutes(1);
+    private double falsePositiveProbability = 0.01;
+
+    @Bean(initMethod = "start")
+    public TokenRevocations tokenRevocations(ObjectMapper objectMapper) {
+        Path path = StringUtils.hasText(file) ? Path.of(file) : null;
+        return new TokenRevocations(enabled, path, objectMapper, subjectTtl, purgeInterval, falsePositiveProbability);
+    }
+
+    // Getters and setters required for property binding
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public void setFile(String file) {
+        this.file = file;
+    }
+
+    public Duration getSubjectTtl() {
+        return subjectTtl;
+    }
+
+    public void setSubjectTtl(Duration subjectTtl) {
+        this.subjectTtl = subjectTtl;
+    }
+
+    public Duration getPurgeInterval() {
+        return purgeInterval;
+    }
+
+    public void setPurgeInterval(Duration purgeInterval) {
+        this.purgeInterval = purgeInterval;
+    }
+
+    public double getFalsePositiveProbability() {
+        return falsePositiveProbability;
+    }
+
+    public void setFalsePositiveProbability(double falsePositiveProbability) {
+        this.falsePositiveProbability = falsePositiveProbability;
+    }
+}
@@ -1,28 +1,77 @@
 package com.example.oktaapi.config;
 
-import org.springframework.beans.factory.annotation.Qualifier;
+import com.example.oktaapi.audit.AccessAuditFilter;
+import com.example.oktaapi.audit.AccessAuditLog;
+import com.example.oktaapi.metrics.PipelineStage;
+import com.example.oktaapi.metrics.StageBoundaryFilter;
+import com.example.oktaapi.metrics.TimedAuthenticationConverter;
+import com.example.oktaapi.metrics.TimedBearerTokenResolver;
+import com.example.oktaapi.metrics.TimedJwtDecoder;
+import com.example.oktaapi.security.CachingJwtDecoder;
+import com.example.oktaapi.security.JwtPrevalidator;
+import com.example.oktaapi.security.OktaAuthenticationConverter;
+import com.example.oktaapi.security.PrevalidatingJwtDecoder;
+import com.example.oktaapi.security.VerifiedJwtCache;
+import com.example.oktaapi.security.concurrency.ConcurrencyLimitFilter;
+import com.example.oktaapi.security.concurrency.ConcurrencyLimits;
+import com.example.oktaapi.security.policy.Policies;
+import com.example.oktaapi.security.policy.PolicyAuthorizationManager;
+import com.example.oktaapi.security.ratelimit.RateLimitFilter;
+import com.example.oktaapi.security.ratelimit.RateLimiter;
+import com.example.oktaapi.security.revocation.RevokingJwtDecoder;
+import com.example.oktaapi.security.revocation.TokenRevocations;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.config.ObjectPostProcessor;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationProvider;
+import org.springframework.security.oauth2.server.resource.web.DefaultBearerTokenResolver;
+import org.springframework.security.oauth2.server.resource.web.authentication.BearerTokenAuthenticationFilter;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
+import org.springframework.security.web.context.SecurityContextHolderFilter;
 
 /**
- * Security configuration class for the application.
+ * Security configuration class for the application when it runs on the servlet stack (the default).
+ * See {@link ReactiveSecurityConfig} for the equivalent configuration for the reactive stack.
  * 
  * <p>Key Features:
  * <ul>
  *   <li>Configures the application to use OAuth2 resource server with JWT authentication.</li>
+ *   <li>Authenticates each token as an {@link com.example.oktaapi.security.OktaAuthenticationToken},
+ *       which records the token type, client ID and application roles once, at authentication time.</li>
+ *   <li>Rejects tokens that cannot pass verification (wrong algorithm, issuer or audience, missing
+ *       {@code kid}, expired) and replays of recently rejected tokens with a {@code 401} before
+ *       any signature is checked (see {@link JwtPrevalidationConfig}).</li>
+ *   <li>Serves previously verified tokens from a {@link VerifiedJwtCache} (when enabled) so that
+ *       repeat requests with the same bearer token skip parsing and signature verification.</li>
+ *   <li>Sheds load with a {@code 503} once the adaptive concurrency limits are reached, before
+ *       any token is parsed or verified (see {@link ConcurrencyLimitConfig}).</li>
+ *   <li>Rejects revoked tokens, including cached ones, with a {@code 401} (see
+ *       {@link RevocationConfig}).</li>
+ *   <li>Enforces per-principal rate limits right after the bearer token is authenticated (see
+ *       {@link RateLimitConfig}).</li>
+ *   <li>Records the access decision for every request, including rejected ones, in the
+ *       {@link AccessAuditLog} (see {@link AccessAuditConfig}).</li>
+ *   <li>Times token extraction, JWT decoding, authority conversion and URL authorization as
+ *       stages of the security pipeline (see {@link PipelineMetricsConfig}).</li>
  *   <li>Configures session management to use {@link SessionCreationPolicy#STATELESS}.</li>
  *   <li>Defines authorization rules for different API endpoints:
  *     <ul>
  *       <li>Endpoints under "/api/public/**" are accessible to everyone without authentication.</li>
  *       <li>Endpoints under "/api/private/**" require authentication. (See {@link com.example.oktaapi.controller.SecuredController}
  *           endpoints for further restrictions.)</li>
- *       <li>Endpoints under "/api/admin/**" require the user to have one of the specified admin authorities.</li>
+ *       <li>Endpoints under "/api/admin/**" require the {@link Policies#ADMIN} policy, i.e. one of
+ *           the Okta groups currently bound to the admin role (see {@link AuthorizationPolicyConfig}).</li>
  *       <li>All other requests require authentication.</li>
  *     </ul>
  *   </li>
@@ -32,27 +81,49 @@ import org.springframework.security.oauth2.server.resource.authentication.JwtAut
  * 
  * <p>Dependencies:
  * <ul>
- *   <li>{@link JwtAuthenticationConverter} for converting JWT tokens into authentication objects.</li>
- *   <li>An array of admin authorities injected via the {@code adminAuthorities} qualifier.</li>
+ *   <li>{@link OktaAuthenticationConverter} for converting JWT tokens into authentication objects
+ *       (see {@link JwtAuthenticationConfig}).</li>
+ *   <li>The {@link PolicyAuthorizationManager} configured by {@link AuthorizationPolicyConfig}.</li>
+ *   <li>The {@link JwtDecoder} configured by {@link JwksConfig}.</li>
+ *   <li>The {@link VerifiedJwtCache} configured by {@link JwtCacheConfig}.</li>
+ *   <li>The {@link JwtPrevalidator} configured by {@link JwtPrevalidationConfig}.</li>
+ *   <li>The {@link TokenRevocations} configured by {@link RevocationConfig}.</li>
+ *   <li>The {@link RateLimiter} configured by {@link RateLimitConfig}.</li>
+ *   <li>The {@link ConcurrencyLimits} configured by {@link ConcurrencyLimitConfig}.</li>
+ *   <li>The {@link AccessAuditLog} configured by {@link AccessAuditConfig}.</li>
  * </ul>
  * </p>
  * 
  * @see org.springframework.security.config.annotation.web.configuration.EnableWebSecurity
  * @see org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity
- * @see org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter
+ * @see com.example.oktaapi.security.OktaAuthenticationConverter
  * @see org.springframework.security.config.http.SessionCreationPolicy
  */
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class SecurityConfig {
 
-    private final JwtAuthenticationConverter jwtAuthenticationConverter;
-    private final String[] adminAuthorities;
+    private final OktaAuthenticationConverter authenticationConverter;
+    private final PolicyAuthorizationManager policyAuthorizationManager;
+    private final JwtDecoder jwtDecoder;
+    private final RateLimiter rateLimiter;
+    private final ConcurrencyLimits concurrencyLimits;
+    private final AccessAuditLog accessAuditLog;
 
-    public SecurityConfig(JwtAuthenticationConverter jwtAuthenticationConverter, @Qualifier("adminAuthorities") String[] adminAuthorities) {
-        this.jwtAuthenticationConverter = jwtAuthenticationConverter;
-        this.adminAuthorities = adminAuthorities;
+    public SecurityConfig(OktaAuthenticationConverter authenticationConverter, PolicyAuthorizationManager policyAuthorizationManager,
+            JwtDecoder jwtDecoder, VerifiedJwtCache verifiedJwtCache, JwtPrevalidator jwtPrevalidator,
+            TokenRevocations tokenRevocations, RateLimiter rateLimiter, ConcurrencyLimits concurrencyLimits,
+            AccessAuditLog accessAuditLog) {
+        this.authenticationConverter = authenticationConverter;
+        this.policyAuthorizationManager = policyAuthorizationManager;
+        JwtDecoder decoder = jwtPrevalidator.isEnabled() ? new PrevalidatingJwtDecoder(jwtDecoder, jwtPrevalidator) : jwtDecoder;
+        decoder = verifiedJwtCache.isEnabled() ? new CachingJwtDecoder(decoder, verifiedJwtCache) : decoder;
+        this.jwtDecoder = tokenRevocations.isEnabled() ? new RevokingJwtDecoder(decoder, tokenRevocations) : decoder;
+        this.rateLimiter = rateLimiter;
+        this.concurrencyLimits = concurrencyLimits;
+        this.accessAuditLog = accessAuditLog;
     }
    
     @Bean
@@ -65,15 +136,47 @@ public class SecurityConfig {
             .authorizeHttpRequests(authorize -> authorize
                 .requestMatchers("/api/public/**").permitAll()
                 .requestMatchers("/api/private/**").authenticated()
-                .requestMatchers("/api/admin/**").hasAnyAuthority(this.adminAuthorities)
+                .requestMatchers("/api/admin/**").access(this.policyAuthorizationManager.requiring(Policies.ADMIN))
                 .anyRequest().authenticated()
             )
+            .addFilterBefore(StageBoundaryFilter.before(PipelineStage.URL_AUTHORIZATION), AuthorizationFilter.class)
+            .addFilterAfter(StageBoundaryFilter.after(PipelineStage.URL_AUTHORIZATION), AuthorizationFilter.class)
             .oauth2ResourceServer(oauth2 -> oauth2
+                .bearerTokenResolver(new TimedBearerTokenResolver(new DefaultBearerTokenResolver()))
                 .jwt(jwt -> jwt
-                    .jwtAuthenticationConverter(this.jwtAuthenticationConverter)
+                    .decoder(new TimedJwtDecoder(this.jwtDecoder))
                 )
+                .withObjectPostProcessor(jwtAuthenticationConverter(new TimedAuthenticationConverter(this.authenticationConverter)))
             );
+        if (this.accessAuditLog.isEnabled()) {
+            http.addFilterAfter(new AccessAuditFilter(this.accessAuditLog), SecurityContextHolderFilter.class);
+        }
+        if (this.concurrencyLimits.isEnabled()) {
+            http.addFilterBefore(new ConcurrencyLimitFilter(this.concurrencyLimits), BearerTokenAuthenticationFilter.class);
+        }
+        if (this.rateLimiter.isEnabled()) {
+            http.addFilterAfter(new RateLimitFilter(this.rateLimiter), BearerTokenAuthenticationFilter.class);
+        }
 
         return http.build();
     }
+
+    /**
+     * Sets the JWT authentication converter on the resource server's authentication provider.
+     *
+     * <p>The Okta starter registers a configurer with every {@link HttpSecurity} that replaces the
+     * converter passed to {@code jwtAuthenticationConverter(...)} with one that only maps the
+     * groups claim, so the converter is set on the provider after it is built instead.</p>
+     */
+    private static ObjectPostProcessor<JwtAuthenticationProvider> jwtAuthenticationConverter(
+            Converter<Jwt, ? extends AbstractAuthenticationToken> converter) {
+        return new ObjectPostProcessor<>() {
+
+            @Override
+            public <O extends JwtAuthenticationProvider> O postProcess(O provider) {
+                provider.setJwtAuthenticationConverter(converter);
+                return provider;
+            }
+        };
+    }
 }
@@ -0,0 +1,44 @@
+package com.example.oktaapi.config;
+
+import com.example.oktaapi.controller.TokenInfoCache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * <p>Configuration class for the cache of serialized token-info bodies.</p>
+ *
+ * <p>This class binds properties prefixed with "app.token-info.cache" from the application's
+ * configuration. See application.yml for the available settings.</p>
+ *
+ * @see TokenInfoCache
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.token-info.cache")
+public class TokenInfoConfig {
+    private boolean enabled = true;
+    private int maxSize = 2_000;
+
+    @Bean
+    public TokenInfoCache tokenInfoCache() {
+        return new TokenInfoCache(enabled, maxSize);
+    }
+
+    // Getters and setters required for property binding
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+}
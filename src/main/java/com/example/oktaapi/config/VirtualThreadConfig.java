@@ -0,0 +1,50 @@
+package com.example.oktaapi.config;
+
+import java.time.Duration;
+
+import com.example.oktaapi.metrics.VirtualThreadMetrics;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * <p>Configuration class for diagnostics that apply when requests run on virtual threads, i.e.
+ * when {@code spring.threads.virtual.enabled} is {@code true}.</p>
+ *
+ * <p>This class binds properties prefixed with "app.threads.virtual" from the application's
+ * configuration. See application.yml for the available settings.</p>
+ *
+ * @see VirtualThreadMetrics
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+@ConfigurationProperties(prefix = "app.threads.virtual")
+public class VirtualThreadConfig {
+    private Duration pinnedThreshold = Duration.ofMillis(20);
+    private int maxLoggedPinningSites = 64;
+
+    @Bean
+    public VirtualThreadMetrics virtualThreadMetrics() {
+        return new VirtualThreadMetrics(pinnedThreshold, maxLoggedPinningSites);
+    }
+
+    // Getters and setters required for property binding
+    public Duration getPinnedThreshold() {
+        return pinnedThreshold;
+    }
+
+    public void setPinnedThreshold(Duration pinnedThreshold) {
+        this.pinnedThreshold = pinnedThreshold;
+    }
+
+    public int getMaxLoggedPinningSites() {
+        return maxLoggedPinningSites;
+    }
+
+    public void setMaxLoggedPinningSites(int maxLoggedPinningSites) {
+        this.maxLoggedPinningSites = maxLoggedPinningSites;
+    }
+}
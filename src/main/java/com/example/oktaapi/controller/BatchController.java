@@ -0,0 +1,73 @@
+package com.example.oktaapi.controller;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import com.example.oktaapi.model.BatchOperation;
+import com.example.oktaapi.model.BatchResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * A controller class that runs several secured operations in one request.
+ * See {@link ReactiveBatchController} for the same endpoint on the reactive stack.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class BatchController {
+
+    private static final byte[] NEWLINE = { '\n' };
+
+    private final BatchExecutor batchExecutor;
+    private final ObjectWriter writer;
+
+    public BatchController(BatchExecutor batchExecutor, ObjectMapper objectMapper) {
+        this.batchExecutor = batchExecutor;
+        this.writer = objectMapper.writerFor(BatchResult.class);
+    }
+
+    /**
+     * Handles POST requests to the "/api/private/batch" endpoint.
+     * <p>
+     * The body is a JSON array of operations, e.g.
+     * {@code [{"operation":"private"},{"operation":"token-info","fields":"subject,email"}]}. The
+     * bearer token is authenticated once for the whole batch, and each operation is authorized
+     * with the policy of its own endpoint (see {@link BatchExecutor}). The operations run
+     * concurrently.
+     * </p>
+     * <p>
+     * The response is {@code application/x-ndjson}: one {@link BatchResult} per line, in the
+     * order of the operations, each with its own status code. A line is written as soon as its
+     * operation and all the ones before it have completed.
+     * </p>
+     *
+     * @param jwt the JWT token of the authenticated caller, injected by Spring Security
+     * @param authentication the caller's authentication, against which each operation is authorized
+     * @param operations the operations to run
+     * @return the results, streamed
+     */
+    @PostMapping(path = "/api/private/batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> batch(@AuthenticationPrincipal Jwt jwt, Authentication authentication,
+            @RequestBody List<BatchOperation> operations) {
+        List<CompletableFuture<BatchResult>> results = batchExecutor.submit(operations, jwt, authentication);
+        StreamingResponseBody body = out -> {
+            for (CompletableFuture<BatchResult> result : results) {
+                out.write(writer.writeValueAsBytes(result.join()));
+                out.write(NEWLINE);
+                out.flush();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.oktaapi.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.lang.Nullable;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.example.oktaapi.audit.AccessAuditLog;
+import com.example.oktaapi.model.BatchOperation;
+import com.example.oktaapi.model.BatchResult;
+import com.example.oktaapi.model.TokenInfo;
+import com.example.oktaapi.model.TokenInfo.Projection;
+import com.example.oktaapi.security.policy.Policies;
+import com.example.oktaapi.security.policy.PolicyAuthorizationManager;
+import com.example.oktaapi.security.ratelimit.RateLimitDecision;
+import com.example.oktaapi.security.ratelimit.RateLimiter;
+
+/**
+ * Runs the sub-operations of a batch request against the caller's already-resolved
+ * authentication.
+ *
+ * <p>The bearer token is decoded and authenticated once, by the security filter chain, for the
+ * batch request as a whole. Each sub-operation is then authorized with the same compiled policy
+ * that guards its own endpoint (see {@link Operation}), so a batch grants nothing that the
+ * individual requests would not, and produces the body its endpoint would have produced. A
+ * sub-operation that is denied or fails gets its own status code; it does not fail the batch.</p>
+ *
+ * <p>Each sub-operation is also counted against the caller's rate limit, as the request to its
+ * own endpoint would have been, so a batch cannot be used to get around the {@link RateLimiter}.
+ * The limit is charged in the order of the operations, before any of them runs; the ones over the
+ * limit get {@code 429 Too Many Requests}.</p>
+ *
+ * <p>Every sub-operation, including the rejected ones, is recorded in the {@link AccessAuditLog}
+ * as a request to {@code /api/private/batch/<operation>}, next to the record of the batch request
+ * itself.</p>
+ */
+public class BatchExecutor implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchExecutor.class);
+
+    private static final String AUDIT_PATH = "/api/private/batch/";
+
+    private final PolicyAuthorizationManager authorizationManager;
+    private final RateLimiter rateLimiter;
+    private final AccessAuditLog auditLog;
+    private final int maxOperations;
+    private final ExecutorService executor;
+
+    /**
+     * @param executor runs the operations passed to {@link #submit}; shut down by {@link #close}
+     */
+    public BatchExecutor(PolicyAuthorizationManager authorizationManager, RateLimiter rateLimiter,
+            AccessAuditLog auditLog, int maxOperations, ExecutorService executor) {
+        this.authorizationManager = authorizationManager;
+        this.rateLimiter = rateLimiter;
+        this.auditLog = auditLog;
+        this.maxOperations = maxOperations;
+        this.executor = executor;
+    }
+
+    /**
+     * Checks that a batch is neither empty nor larger than the configured maximum.
+     *
+     * @throws ResponseStatusException with {@code 400 Bad Request} otherwise
+     */
+    public void validate(@Nullable List<BatchOperation> operations) {
+        if (operations == null || operations.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A batch needs at least one operation");
+        }
+        if (operations.size() > maxOperations) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "A batch can have at most " + maxOperations + " operations");
+        }
+    }
+
+    /**
+     * Validates a batch and starts all of its operations concurrently. The returned futures are in
+     * the order of the operations and always complete normally.
+     */
+    public List<CompletableFuture<BatchResult>> submit(List<BatchOperation> operations, Jwt jwt,
+            Authentication authentication) {
+        validate(operations);
+        List<CompletableFuture<BatchResult>> results = new ArrayList<>(operations.size());
+        for (int i = 0; i < operations.size(); i++) {
+            int index = i;
+            BatchResult limited = rateLimit(index, operations.get(index), authentication);
+            results.add(limited != null ? CompletableFuture.completedFuture(limited) : CompletableFuture.supplyAsync(
+                () -> execute(index, operations.get(index), jwt, authentication), executor));
+        }
+        return results;
+    }
+
+    /**
+     * Counts one operation against the caller's rate limit. Must be called for each operation, in
+     * order, before it is {@linkplain #execute executed}.
+     *
+     * @return {@code null} if the operation may run, otherwise its {@code 429 Too Many Requests}
+     *         result
+     */
+    @Nullable
+    public BatchResult rateLimit(int index, @Nullable BatchOperation operation, Authentication authentication) {
+        if (!rateLimiter.isEnabled()) {
+            return null;
+        }
+        long start = System.nanoTime();
+        RateLimitDecision decision = rateLimiter.tryAcquire(authentication);
+        if (decision == null || decision.allowed()) {
+            return null;
+        }
+        return audit(start, failure(index, operation == null ? null : operation.operation(),
+            HttpStatus.TOO_MANY_REQUESTS, HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase()), authentication);
+    }
+
+    /**
+     * Authorizes and runs one operation, and records its outcome in the audit log.
+     */
+    public BatchResult execute(int index, BatchOperation operation, Jwt jwt, Authentication authentication) {
+        long start = System.nanoTime();
+        return audit(start, run(index, operation, jwt, authentication), authentication);
+    }
+
+    private BatchResult run(int index, BatchOperation operation, Jwt jwt, Authentication authentication) {
+        String name = operation == null ? null : operation.operation();
+        try {
+            Operation type = Operation.of(name);
+            if (type == null) {
+                return failure(index, name, HttpStatus.BAD_REQUEST, "Unknown operation");
+            }
+            if (type.policy != null && !authorizationManager.isGranted(type.policy, authentication)) {
+                return failure(index, name, HttpStatus.FORBIDDEN, HttpStatus.FORBIDDEN.getReasonPhrase());
+            }
+            return new BatchResult(index, name, HttpStatus.OK.value(), type.body.apply(new Request(operation, jwt)), null);
+        } catch (ResponseStatusException e) {
+            return failure(index, name, e.getStatusCode(), e.getReason());
+        } catch (RuntimeException e) {
+            logger.warn("Batch operation '{}' failed", name, e);
+            return failure(index, name, HttpStatus.INTERNAL_SERVER_ERROR,
+                HttpStatus.INTERNAL_SERVER_ERROR.getReasonPhrase());
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.close();
+    }
+
+    private BatchResult audit(long startNanos, BatchResult result, Authentication authentication) {
+        // Only known operation names are recorded; anything else is the client's free text
+        Operation type = Operation.of(result.operation());
+        auditLog.record(startNanos, AUDIT_PATH + (type != null ? type.name : "unknown"), result.status(),
+            authentication);
+        return result;
+    }
+
+    private static BatchResult failure(int index, String operation, HttpStatusCode status, String error) {
+        return new BatchResult(index, operation, status.value(), null, error);
+    }
+
+    private record Request(BatchOperation operation, Jwt jwt) {
+    }
+
+    /**
+     * The operations a batch can contain, each with the policy of the endpoint it stands for.
+     */
+    enum Operation {
+
+        /** {@code GET /api/private}, guarded by {@code @RequirePolicy(Policies.PRIVATE_READ)}. */
+        PRIVATE("private", Policies.PRIVATE_READ, request -> SecuredController.privateMessage()),
+
+        /** {@code GET /api/admin}, restricted to the admin authorities by the URL rules. */
+        ADMIN("admin", Policies.ADMIN, request -> SecuredController.adminMessage()),
+
+        /** {@code GET /api/token-info}, open to any authenticated caller. */
+        TOKEN_INFO("token-info", null, request -> new TokenInfo(request.jwt(), projection(request.operation())));
+
+        private final String name;
+        private final String policy;
+        private final Function<Request, Object> body;
+
+        Operation(String name, String policy, Function<Request, Object> body) {
+            this.name = name;
+            this.policy = policy;
+            this.body = body;
+        }
+
+        @Nullable
+        static Operation of(@Nullable String name) {
+            for (Operation operation : values()) {
+                if (operation.name.equals(name)) {
+                    return operation;
+                }
+            }
+            return null;
+        }
+
+        private static Projection projection(BatchOperation operation) {
+            try {
+                return Projection.parse(operation.fields(), operation.claims() == null || operation.claims());
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+            }
+        }
+    }
+}
@@ -1,31 +1,104 @@
 package com.example.oktaapi.controller;
 
 import com.example.oktaapi.model.Message;
+import com.example.oktaapi.model.ResponseFormat;
+import com.example.oktaapi.model.TimestampFormat;
+import com.example.oktaapi.util.CoarseClock;
+import com.example.oktaapi.util.TimestampedJson;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
  * A controller class that defines public endpoints for the application.
+ * See {@link ReactivePublicController} for the same endpoints on the reactive stack.
+ *
+ * <p>These endpoints are polled heavily by load balancers and uptime monitors, so their bodies
+ * are pre-encoded {@link TimestampedJson} templates: the JSON is the same as serializing
+ * {@link #publicMessage()} and {@link #status()}, with the timestamp taken from the shared
+ * {@link CoarseClock}, in the {@link TimestampFormat} the client asked for. A request whose
+ * {@code If-None-Match} matches the current body is answered with {@code 304 Not Modified}.</p>
+ *
+ * <p>Clients that prefer a binary {@link ResponseFormat} get the same bodies serialized by the
+ * message converters instead. A request that accepts none of the formats is answered with
+ * {@code 406 Not Acceptable}.</p>
  */
 @RestController
 @RequestMapping("/api/public")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class PublicController {
 
-    @GetMapping
-    public Message getPublicMessage() {
+    private final TimestampedJson publicMessage;
+    private final TimestampedJson publicMessageEpochMillis;
+    private final TimestampedJson status;
+
+    public PublicController(ObjectMapper objectMapper) {
+        this.publicMessage = publicMessageTemplate(objectMapper, TimestampFormat.ISO);
+        this.publicMessageEpochMillis = publicMessageTemplate(objectMapper, TimestampFormat.EPOCH_MILLIS);
+        this.status = statusTemplate(objectMapper);
+    }
+
+    @GetMapping(produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+        ResponseFormat.SMILE_VALUE })
+    public ResponseEntity<?> getPublicMessage(@RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+        if (ResponseFormat.negotiate(accept) != ResponseFormat.JSON) {
+            return binary(publicMessage());
+        }
+        TimestampFormat format = TimestampFormat.ofAcceptHeader(accept);
+        return (format == TimestampFormat.EPOCH_MILLIS ? publicMessageEpochMillis : publicMessage).toResponseEntity();
+    }
+
+    @GetMapping(path = "/status", produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+        ResponseFormat.SMILE_VALUE })
+    public ResponseEntity<?> getStatus(@RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+        if (ResponseFormat.negotiate(accept) != ResponseFormat.JSON) {
+            return binary(status());
+        }
+        return status.toResponseEntity();
+    }
+
+    /**
+     * Returns a body for the message converters to serialize in the negotiated binary format.
+     */
+    static ResponseEntity<Object> binary(Object body) {
+        return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(body);
+    }
+
+    static Message publicMessage() {
         return new Message("This is a public endpoint that doesn't require authentication");
     }
 
-    @GetMapping("/status")
-    public Map<String, Object> getStatus() {
+    static Map<String, Object> status() {
         Map<String, Object> status = new HashMap<>();
         status.put("status", "UP");
         status.put("message", "API is running normally");
         status.put("timestamp", System.currentTimeMillis());
         return status;
     }
+
+    static TimestampedJson publicMessageTemplate(ObjectMapper objectMapper, TimestampFormat format) {
+        if (format == TimestampFormat.EPOCH_MILLIS) {
+            return TimestampedJson.of(objectMapper, publicMessage(), "timestamp", Long::valueOf, CoarseClock.system(),
+                TimestampFormat.APPLICATION_JSON_EPOCH_MILLIS);
+        }
+        return TimestampedJson.of(objectMapper, publicMessage(), "timestamp",
+            millis -> LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault()), CoarseClock.system());
+    }
+
+    static TimestampedJson statusTemplate(ObjectMapper objectMapper) {
+        return TimestampedJson.of(objectMapper, status(), "timestamp", Long::valueOf, CoarseClock.system());
+    }
 }
@@ -0,0 +1,50 @@
+package com.example.oktaapi.controller;
+
+import java.util.List;
+
+import com.example.oktaapi.model.BatchOperation;
+import com.example.oktaapi.model.BatchResult;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * The batch endpoint of {@link BatchController}, for the reactive (WebFlux) stack.
+ *
+ * <p>The operations run concurrently on the parallel scheduler and are emitted in order. The
+ * caller's authentication is passed to each of them explicitly, so no security context needs to be
+ * propagated.</p>
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveBatchController {
+
+    private final BatchExecutor batchExecutor;
+
+    public ReactiveBatchController(BatchExecutor batchExecutor) {
+        this.batchExecutor = batchExecutor;
+    }
+
+    @PostMapping(path = "/api/private/batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BatchResult> batch(@AuthenticationPrincipal Jwt jwt, Authentication authentication,
+            @RequestBody List<BatchOperation> operations) {
+        batchExecutor.validate(operations);
+        return Flux.range(0, operations.size())
+            .flatMapSequential(index -> {
+                BatchResult limited = batchExecutor.rateLimit(index, operations.get(index), authentication);
+                return limited != null ? Mono.just(limited) : Mono.fromSupplier(
+                        () -> batchExecutor.execute(index, operations.get(index), jwt, authentication))
+                    .subscribeOn(Schedulers.parallel());
+            });
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.oktaapi.controller;
+
+import com.example.oktaapi.model.ResponseFormat;
+import com.example.oktaapi.model.TimestampFormat;
+import com.example.oktaapi.util.TimestampedJson;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * The public endpoints of {@link PublicController}, for the reactive (WebFlux) stack.
+ */
+@RestController
+@RequestMapping("/api/public")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePublicController {
+
+    private final TimestampedJson publicMessage;
+    private final TimestampedJson publicMessageEpochMillis;
+    private final TimestampedJson status;
+
+    public ReactivePublicController(ObjectMapper objectMapper) {
+        this.publicMessage = PublicController.publicMessageTemplate(objectMapper, TimestampFormat.ISO);
+        this.publicMessageEpochMillis = PublicController.publicMessageTemplate(objectMapper, TimestampFormat.EPOCH_MILLIS);
+        this.status = PublicController.statusTemplate(objectMapper);
+    }
+
+    @GetMapping(produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+        ResponseFormat.SMILE_VALUE })
+    public Mono<ResponseEntity<?>> getPublicMessage(
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+        if (ResponseFormat.negotiate(accept) != ResponseFormat.JSON) {
+            return Mono.fromSupplier(() -> PublicController.binary(PublicController.publicMessage()));
+        }
+        TimestampedJson template = TimestampFormat.ofAcceptHeader(accept) == TimestampFormat.EPOCH_MILLIS
+            ? publicMessageEpochMillis : publicMessage;
+        return Mono.fromSupplier(template::toResponseEntity);
+    }
+
+    @GetMapping(path = "/status", produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+        ResponseFormat.SMILE_VALUE })
+    public Mono<ResponseEntity<?>> getStatus(@RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+        if (ResponseFormat.negotiate(accept) != ResponseFormat.JSON) {
+            return Mono.fromSupplier(() -> PublicController.binary(PublicController.status()));
+        }
+        return Mono.fromSupplier(status::toResponseEntity);
+    }
+}
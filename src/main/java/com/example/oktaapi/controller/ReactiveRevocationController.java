@@ -0,0 +1,59 @@
+package com.example.oktaapi.controller;
+
+import java.util.List;
+
+import com.example.oktaapi.security.revocation.Revocation;
+import com.example.oktaapi.security.revocation.TokenRevocations;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * The endpoints of {@link RevocationController}, for the reactive (WebFlux) stack.
+ *
+ * <p>Changes write the deny-list file, so they run on the bounded elastic scheduler rather than on
+ * the event loop.</p>
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveRevocationController {
+
+    private final TokenRevocations revocations;
+
+    public ReactiveRevocationController(TokenRevocations revocations) {
+        this.revocations = revocations;
+    }
+
+    @GetMapping("/api/admin/revocations")
+    public List<Revocation> getRevocations() {
+        return RevocationController.list(revocations);
+    }
+
+    @PostMapping("/api/admin/revocations")
+    public Mono<ResponseEntity<Revocation>> revoke(@RequestBody Revocation revocation) {
+        return Mono.fromCallable(() -> RevocationController.revoke(revocations, revocation))
+            .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @DeleteMapping("/api/admin/revocations")
+    public Mono<ResponseEntity<Void>> remove(@RequestParam(name = "jti", required = false) String jti,
+            @RequestParam(name = "subject", required = false) String subject) {
+        return Mono.fromCallable(() -> RevocationController.remove(revocations, jti, subject))
+            .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @PostMapping("/api/admin/revocations/reload")
+    public Mono<List<Revocation>> reload() {
+        return Mono.fromCallable(() -> RevocationController.reload(revocations))
+            .subscribeOn(Schedulers.boundedElastic());
+    }
+}
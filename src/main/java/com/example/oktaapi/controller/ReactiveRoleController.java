@@ -0,0 +1,52 @@
+package com.example.oktaapi.controller;
+
+import java.util.List;
+import java.util.Map;
+
+import com.example.oktaapi.security.policy.RoleRegistry;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * The endpoints of {@link RoleController}, for the reactive (WebFlux) stack.
+ *
+ * <p>Changes read or write the role mappings file, so they run on the bounded elastic scheduler
+ * rather than on the event loop.</p>
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveRoleController {
+
+    private final RoleRegistry roleRegistry;
+
+    public ReactiveRoleController(RoleRegistry roleRegistry) {
+        this.roleRegistry = roleRegistry;
+    }
+
+    @GetMapping("/api/admin/roles")
+    public RoleRegistry.Snapshot getRoles() {
+        return roleRegistry.current();
+    }
+
+    @PutMapping("/api/admin/roles")
+    public Mono<RoleRegistry.Snapshot> update(@RequestBody Map<String, List<String>> roleGroups,
+            Authentication authentication) {
+        return Mono.fromCallable(() -> RoleController.update(roleRegistry, roleGroups, authentication))
+            .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @PostMapping("/api/admin/roles/reload")
+    public Mono<RoleRegistry.Snapshot> reload(Authentication authentication) {
+        return Mono.fromCallable(() -> RoleController.reload(roleRegistry, authentication))
+            .subscribeOn(Schedulers.boundedElastic());
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.oktaapi.controller;
+
+import com.example.oktaapi.model.Message;
+import com.example.oktaapi.model.ResponseFormat;
+import com.example.oktaapi.model.ResponseMappers;
+import com.example.oktaapi.security.policy.Policies;
+import com.example.oktaapi.security.policy.RequirePolicy;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * The secured endpoints of {@link SecuredController}, for the reactive (WebFlux) stack.
+ * <p>
+ * Authorization is identical to the servlet stack: {@code /api/private} requires the
+ * {@link Policies#PRIVATE_READ} policy, evaluated reactively before the method is invoked (see
+ * {@link com.example.oktaapi.config.AuthorizationPolicyConfig}), and {@code /api/admin} is
+ * restricted to admin authorities by {@link com.example.oktaapi.config.ReactiveSecurityConfig}.
+ * </p>
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveSecuredController {
+
+    private final ResponseMappers responseMappers;
+    private final TokenInfoCache tokenInfoCache;
+
+    public ReactiveSecuredController(ResponseMappers responseMappers, TokenInfoCache tokenInfoCache) {
+        this.responseMappers = responseMappers;
+        this.tokenInfoCache = tokenInfoCache;
+    }
+
+    @GetMapping("/api/private")
+    @RequirePolicy(Policies.PRIVATE_READ)
+    public Mono<Message> getPrivateMessage(@AuthenticationPrincipal Jwt jwt) {
+        return Mono.fromSupplier(SecuredController::privateMessage);
+    }
+
+    @GetMapping("/api/admin")
+    public Mono<Message> getAdminMessage(@AuthenticationPrincipal Jwt jwt) {
+        return Mono.fromSupplier(SecuredController::adminMessage);
+    }
+
+    @GetMapping(path = "/api/token-info", produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+        ResponseFormat.SMILE_VALUE })
+    public Mono<ResponseEntity<byte[]>> getTokenInfo(@AuthenticationPrincipal Jwt jwt,
+            @RequestParam(name = "fields", required = false) String fields,
+            @RequestParam(name = "claims", defaultValue = "true") boolean includeClaims,
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+        return Mono.fromSupplier(() -> SecuredController.tokenInfo(jwt, fields, includeClaims,
+            ResponseFormat.negotiate(accept), responseMappers, tokenInfoCache));
+    }
+}
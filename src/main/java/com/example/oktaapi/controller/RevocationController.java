@@ -0,0 +1,135 @@
+package com.example.oktaapi.controller;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+import com.example.oktaapi.security.revocation.Revocation;
+import com.example.oktaapi.security.revocation.TokenRevocations;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * A controller class for managing the token deny-list (see {@link TokenRevocations}).
+ * See {@link ReactiveRevocationController} for the same endpoints on the reactive stack.
+ * <p>
+ * The endpoints are under "/api/admin/**", so SecurityConfig only lets callers that satisfy the
+ * admin policy through. They answer {@code 404 Not Found} while revocation is disabled.
+ * </p>
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class RevocationController {
+
+    private final TokenRevocations revocations;
+
+    public RevocationController(TokenRevocations revocations) {
+        this.revocations = revocations;
+    }
+
+    /**
+     * Handles GET requests to the "/api/admin/revocations" endpoint.
+     *
+     * @return the revoked tokens and subjects, soonest to expire first
+     */
+    @GetMapping("/api/admin/revocations")
+    public List<Revocation> getRevocations() {
+        return list(revocations);
+    }
+
+    /**
+     * Handles POST requests to the "/api/admin/revocations" endpoint.
+     * <p>
+     * The body names either a token, e.g. {@code {"jti":"AT.abc","expiresAt":"2025-01-01T01:00:00Z"}},
+     * or a subject, e.g. {@code {"subject":"00u1a2b3c4"}}. Revoking a subject revokes the tokens
+     * issued to it up to {@code revokedAt} (now, by default). {@code expiresAt} should be the
+     * token's {@code exp}; it defaults to {@code app.security.revocation.subject-ttl} from now.
+     * The revocation takes effect for the very next request.
+     * </p>
+     *
+     * @param revocation the token or subject to revoke
+     * @return the entry as stored, with {@code 201 Created}
+     */
+    @PostMapping("/api/admin/revocations")
+    public ResponseEntity<Revocation> revoke(@RequestBody Revocation revocation) {
+        return revoke(revocations, revocation);
+    }
+
+    /**
+     * Handles DELETE requests to the "/api/admin/revocations" endpoint, lifting the revocation of
+     * a token or a subject.
+     *
+     * @param jti the ID of the token to lift the revocation of
+     * @param subject the subject to lift the revocation of
+     * @return {@code 204 No Content}, or {@code 404 Not Found} if there was no such revocation
+     */
+    @DeleteMapping("/api/admin/revocations")
+    public ResponseEntity<Void> remove(@RequestParam(name = "jti", required = false) String jti,
+            @RequestParam(name = "subject", required = false) String subject) {
+        return remove(revocations, jti, subject);
+    }
+
+    /**
+     * Handles POST requests to the "/api/admin/revocations/reload" endpoint, replacing the
+     * deny-list with the contents of {@code app.security.revocation.file}.
+     *
+     * @return the revoked tokens and subjects
+     */
+    @PostMapping("/api/admin/revocations/reload")
+    public List<Revocation> reload() {
+        return reload(revocations);
+    }
+
+    static List<Revocation> list(TokenRevocations revocations) {
+        requireEnabled(revocations);
+        return revocations.entries();
+    }
+
+    static ResponseEntity<Revocation> revoke(TokenRevocations revocations, Revocation revocation) {
+        requireEnabled(revocations);
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(revocations.revoke(revocation));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static ResponseEntity<Void> remove(TokenRevocations revocations, String jti, String subject) {
+        requireEnabled(revocations);
+        try {
+            return revocations.remove(jti, subject) ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static List<Revocation> reload(TokenRevocations revocations) {
+        requireEnabled(revocations);
+        try {
+            revocations.reload();
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage(), e);
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, e.getMessage(), e);
+        }
+        return revocations.entries();
+    }
+
+    private static void requireEnabled(TokenRevocations revocations) {
+        if (!revocations.isEnabled()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Token revocation is disabled");
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.oktaapi.controller;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+
+import com.example.oktaapi.security.policy.RoleRegistry;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * A controller class for viewing and replacing the role-to-group mappings (see
+ * {@link RoleRegistry}). See {@link ReactiveRoleController} for the same endpoints on the reactive
+ * stack.
+ * <p>
+ * The endpoints are under "/api/admin/**", so SecurityConfig only lets callers that satisfy the
+ * admin policy through. Every change is written to the audit log under the caller's name.
+ * </p>
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class RoleController {
+
+    private final RoleRegistry roleRegistry;
+
+    public RoleController(RoleRegistry roleRegistry) {
+        this.roleRegistry = roleRegistry;
+    }
+
+    /**
+     * Handles GET requests to the "/api/admin/roles" endpoint.
+     *
+     * @return the current version of the mappings
+     */
+    @GetMapping("/api/admin/roles")
+    public RoleRegistry.Snapshot getRoles() {
+        return roleRegistry.current();
+    }
+
+    /**
+     * Handles PUT requests to the "/api/admin/roles" endpoint.
+     * <p>
+     * The body maps each logical role to its Okta groups, e.g.
+     * {@code {"user":["Everyone"],"admin":["Admins","Ops"]}}, and replaces all of the current
+     * mappings. The change takes effect for the very next request, and is saved to
+     * {@code app.role-registry.file} if one is configured.
+     * </p>
+     *
+     * @param roleGroups the Okta groups to bind to each logical role
+     * @return the new version of the mappings, or {@code 400 Bad Request} if a policy refers to
+     *         a role the mappings leave out, or a role has no groups or a blank one
+     */
+    @PutMapping("/api/admin/roles")
+    public RoleRegistry.Snapshot update(@RequestBody Map<String, List<String>> roleGroups,
+            Authentication authentication) {
+        return update(roleRegistry, roleGroups, authentication);
+    }
+
+    /**
+     * Handles POST requests to the "/api/admin/roles/reload" endpoint, replacing the mappings
+     * with the contents of {@code app.role-registry.file}.
+     *
+     * @return the new version of the mappings
+     */
+    @PostMapping("/api/admin/roles/reload")
+    public RoleRegistry.Snapshot reload(Authentication authentication) {
+        return reload(roleRegistry, authentication);
+    }
+
+    static RoleRegistry.Snapshot update(RoleRegistry roleRegistry, Map<String, List<String>> roleGroups,
+            Authentication authentication) {
+        try {
+            return roleRegistry.update(roleGroups, authentication.getName());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static RoleRegistry.Snapshot reload(RoleRegistry roleRegistry, Authentication authentication) {
+        try {
+            return roleRegistry.reload(authentication.getName());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage(), e);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, e.getMessage(), e);
+        }
+    }
+}
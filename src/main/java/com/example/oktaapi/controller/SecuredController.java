@@ -2,27 +2,41 @@ package com.example.oktaapi.controller;
 
 import com.example.oktaapi.config.AppAuthoritiesConfig;
 import com.example.oktaapi.model.Message;
+import com.example.oktaapi.model.ResponseFormat;
+import com.example.oktaapi.model.ResponseMappers;
+import com.example.oktaapi.model.TokenInfo;
+import com.example.oktaapi.model.TokenInfo.Projection;
+import com.example.oktaapi.security.policy.Policies;
+import com.example.oktaapi.security.policy.RequirePolicy;
 
-import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.context.SecurityContext;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-
-import java.util.HashMap;
-import java.util.Map;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.springframework.web.server.ResponseStatusException;
 
 /**
  * A controller class that defines secured endpoints for the application.
+ * See {@link ReactiveSecuredController} for the same endpoints on the reactive stack.
  */
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class SecuredController {
 
-    private static final Logger logger = LoggerFactory.getLogger(SecuredController.class);
+    private final ResponseMappers responseMappers;
+    private final TokenInfoCache tokenInfoCache;
+
+    public SecuredController(ResponseMappers responseMappers, TokenInfoCache tokenInfoCache) {
+        this.responseMappers = responseMappers;
+        this.tokenInfoCache = tokenInfoCache;
+    }
 
     /**
      * Handles GET requests to the "/api/private" endpoint.
@@ -36,30 +50,29 @@ public class SecuredController {
      *   <li>Additionally, one of two conditions must be met:
      *     <ul>
      *       <li>The token must be a client credentials token as determined by
-     *           the '@jwtUtils.isClientCredentials()' method.</li>
-     *       <li>OR the caller must have one of the authorities defined in the '@userAuthorities'
-     *           bean, which holds an array of the Okta group(s) that are bound to the logical
+     *           the {@link com.example.oktaapi.security.JwtUtils#isClientCredentials()} method.</li>
+     *       <li>OR the caller must have one of the Okta group(s) that are bound to the logical
      *           'user' role in the application. See the {@link AppAuthoritiesConfig} class and the
      *           application.yml config file for more details on how these authorities are
      *           configured.</li>
      *     </ul>
      *   </li>
      * </ul>
+     * <p>
+     * These rules are the {@link Policies#PRIVATE_READ} policy, which is defined in
+     * {@link com.example.oktaapi.config.AuthorizationPolicyConfig} and compiled whenever the role
+     * mappings change. With the sample mappings, it is equivalent to the SpEL expression
+     * {@code hasAuthority('SCOPE_data.read') and (hasAnyAuthority('SampleUserGroup', 'SampleAdminGroup') or @jwtUtils.isClientCredentials())}
+     * but is evaluated without parsing expressions or looking up beans on each request.
+     * </p>
      * 
      * @param jwt the JWT token of the authenticated user, injected by Spring Security.
      * @return a {@link Message} object containing a simple message.
      */
     @GetMapping("/api/private")
-    @PreAuthorize("hasAuthority('SCOPE_data.read') and (hasAnyAuthority(@userAuthorities) or @jwtUtils.isClientCredentials())")
+    @RequirePolicy(Policies.PRIVATE_READ)
     public Message getPrivateMessage(@AuthenticationPrincipal Jwt jwt) {
-        if (logger.isDebugEnabled()) {
-            SecurityContext securityContext = SecurityContextHolder.getContext();
-            securityContext.getAuthentication().getAuthorities().forEach(
-                authority -> logger.debug("Authority: " + authority.getAuthority())
-            );
-        }
-
-        return new Message("This is a private endpoint that requires authentication");
+        return privateMessage();
     }
 
     /**
@@ -67,11 +80,11 @@ public class SecuredController {
      * This endpoint is secured and requires an authenticated admin user.
      * <p>
      * For this endpoint, there is no @PreAuthorize annotation, but the SecurityConfig
-     * class specifies that requests to "/api/admin/**" must have one of the authorities
-     * defined in the {@code @adminAuthorities} bean. Like the {@code @userAuthorities} bean, 
-     * this bean is an array of strings representing the Okta group(s) that are granted admin
-     * authority. These groups are listed in the {@code app.roles.admin} property in the
-     * application configuration file (application.yml).
+     * class specifies that requests to "/api/admin/**" must satisfy the {@link Policies#ADMIN}
+     * policy, i.e. the caller must have one of the Okta group(s) bound to the logical 'admin'
+     * role. These groups are listed in the {@code app.roles.admin} property in the
+     * application configuration file (application.yml), and can be changed at runtime through
+     * the "/api/admin/roles" endpoint (see {@link RoleController}).
      * </p>
      * <p>
      * Client credentials tokens are not supported by this endpoint.
@@ -84,7 +97,7 @@ public class SecuredController {
      */
     @GetMapping("/api/admin")
     public Message getAdminMessage(@AuthenticationPrincipal Jwt jwt) {
-        return new Message("This is an admin endpoint that requires an admin user");
+        return adminMessage();
     }
 
     /**
@@ -94,24 +107,46 @@ public class SecuredController {
      * No particular authorities are required, but a valid Okta token is expected. Supports
      * tokens generated with both the Authorization Code flow and Client Credentials flow.
      * </p>
+     * <p>
+     * The body is streamed from the token's claims (see {@link TokenInfo}) and cached per token
+     * by {@link TokenInfoCache}, so repeated calls with the same token are served from memory.
+     * It is JSON unless the {@code Accept} header prefers a binary {@link ResponseFormat}.
+     * </p>
      * 
      * @param jwt the JSON Web Token (JWT) containing user claims, injected via @AuthenticationPrincipal
-     * @return a map containing token information such as subject, name, email, and all claims
+     * @param fields the fields to include, e.g. {@code subject,email,claims.groups}; all by default
+     * @param includeClaims {@code false} to leave out the token's claims
+     * @param accept the request's {@code Accept} header
+     * @return the token information such as subject, name, email, and all claims
      */
-    @GetMapping("/api/token-info")
-    public Map<String, Object> getTokenInfo(@AuthenticationPrincipal Jwt jwt) {
-        Map<String, Object> tokenInfo = new HashMap<>();
-        
-        // Extract claims from the JWT
-        String subject = jwt.getSubject();
-        String name = jwt.getClaimAsString("name");
-        String email = jwt.getClaimAsString("email");
-        
-        tokenInfo.put("subject", subject);
-        tokenInfo.put("name", name);
-        tokenInfo.put("email", email);
-        tokenInfo.put("claims", jwt.getClaims());
-        
-        return tokenInfo;
+    @GetMapping(path = "/api/token-info", produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+        ResponseFormat.SMILE_VALUE })
+    public ResponseEntity<byte[]> getTokenInfo(@AuthenticationPrincipal Jwt jwt,
+            @RequestParam(name = "fields", required = false) String fields,
+            @RequestParam(name = "claims", defaultValue = "true") boolean includeClaims,
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+        return tokenInfo(jwt, fields, includeClaims, ResponseFormat.negotiate(accept), responseMappers, tokenInfoCache);
+    }
+
+    static Message privateMessage() {
+        return new Message("This is a private endpoint that requires authentication");
+    }
+
+    static Message adminMessage() {
+        return new Message("This is an admin endpoint that requires an admin user");
+    }
+
+    static ResponseEntity<byte[]> tokenInfo(Jwt jwt, String fields, boolean includeClaims, ResponseFormat format,
+            ResponseMappers responseMappers, TokenInfoCache tokenInfoCache) {
+        Projection projection;
+        try {
+            projection = Projection.parse(fields, includeClaims);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        return ResponseEntity.ok()
+            .contentType(format.getMediaType())
+            .varyBy(HttpHeaders.ACCEPT)
+            .body(tokenInfoCache.getOrSerialize(jwt, projection, format, responseMappers));
     }
 }
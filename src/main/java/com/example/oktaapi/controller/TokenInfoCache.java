@@ -0,0 +1,92 @@
+package com.example.oktaapi.controller;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import com.example.oktaapi.model.ResponseFormat;
+import com.example.oktaapi.model.ResponseMappers;
+import com.example.oktaapi.model.TokenInfo;
+import com.example.oktaapi.model.TokenInfo.Projection;
+import com.example.oktaapi.util.ExpiringCache;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Serializes {@link TokenInfo} bodies and caches them per token, keyed by the token's issuer and
+ * {@code jti} claim, the requested projection and the {@link ResponseFormat}.
+ *
+ * <p>Clients tend to call the token-info endpoint repeatedly with the same token, so the
+ * serialized bytes are kept until the token's {@code exp} claim and served from memory after the
+ * first call. Tokens without a {@code jti} or {@code exp} claim are serialized on every call.</p>
+ *
+ * <p>Hit, miss and eviction counts are published as the standard Micrometer cache meters tagged
+ * with {@code cache=tokenInfo}.</p>
+ */
+public class TokenInfoCache implements MeterBinder {
+
+    private static final String CACHE_NAME = "tokenInfo";
+
+    private final boolean enabled;
+    private final ExpiringCache<Key, byte[]> cache;
+
+    public TokenInfoCache(boolean enabled, int maxSize) {
+        this.enabled = enabled;
+        this.cache = new ExpiringCache<>(maxSize);
+    }
+
+    /**
+     * Returns the token-info body for a token serialized in the given format, from the cache if
+     * possible. The returned array is shared and must not be modified.
+     */
+    public byte[] getOrSerialize(Jwt jwt, Projection projection, ResponseFormat format, ResponseMappers mappers) {
+        ObjectMapper objectMapper = mappers.get(format);
+        String jti = jwt.getId();
+        if (!enabled || jti == null) {
+            return serialize(jwt, projection, objectMapper);
+        }
+        Key key = new Key(jwt.getClaimAsString("iss"), jti, projection, format);
+        byte[] body = cache.get(key);
+        if (body == null) {
+            body = serialize(jwt, projection, objectMapper);
+            cache.put(key, body, jwt.getExpiresAt());
+        }
+        return body;
+    }
+
+    private static byte[] serialize(Jwt jwt, Projection projection, ObjectMapper objectMapper) {
+        try {
+            return objectMapper.writeValueAsBytes(new TokenInfo(jwt, projection));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize token info", e);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", cache, ExpiringCache::hitCount)
+            .tag("cache", CACHE_NAME)
+            .tag("result", "hit")
+            .description("The number of times a token-info body was served from the cache")
+            .register(registry);
+        FunctionCounter.builder("cache.gets", cache, ExpiringCache::missCount)
+            .tag("cache", CACHE_NAME)
+            .tag("result", "miss")
+            .description("The number of times a token-info body had to be serialized")
+            .register(registry);
+        FunctionCounter.builder("cache.evictions", cache, ExpiringCache::evictionCount)
+            .tag("cache", CACHE_NAME)
+            .description("The number of live entries evicted because the cache was full")
+            .register(registry);
+        Gauge.builder("cache.size", cache, ExpiringCache::size)
+            .tag("cache", CACHE_NAME)
+            .description("The number of token-info bodies currently cached")
+            .register(registry);
+    }
+
+    private record Key(String issuer, String jti, Projection projection, ResponseFormat format) {
+    }
+}
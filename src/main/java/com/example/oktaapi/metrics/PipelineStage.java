@@ -0,0 +1,34 @@
+package com.example.oktaapi.metrics;
+
+/**
+ * The stages of an authenticated request that are timed by {@link SecurityPipelineMetrics}.
+ */
+public enum PipelineStage {
+
+    /** Reading the bearer token from the Authorization header. */
+    TOKEN_EXTRACTION("token_extraction"),
+    /** Decoding and verifying the JWT (including any wait for signing keys, see {@link #JWKS_FETCH}). */
+    JWT_DECODE("jwt_decode"),
+    /** Waiting for signing keys to be fetched from the issuer because the token's kid was unknown. */
+    JWKS_FETCH("jwks_fetch"),
+    /** Converting the JWT's claims into an authentication with granted authorities. */
+    AUTHORITY_CONVERSION("authority_conversion"),
+    /** URL-based authorization in the security filter chain. */
+    URL_AUTHORIZATION("url_authorization"),
+    /** {@code @RequirePolicy} method authorization on the controller. */
+    METHOD_AUTHORIZATION("method_authorization"),
+    /** The controller method itself. */
+    CONTROLLER("controller"),
+    /** Writing the response body. */
+    SERIALIZATION("serialization");
+
+    private final String tagValue;
+
+    PipelineStage(String tagValue) {
+        this.tagValue = tagValue;
+    }
+
+    public String getTagValue() {
+        return tagValue;
+    }
+}
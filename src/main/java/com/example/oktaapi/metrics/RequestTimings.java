@@ -0,0 +1,97 @@
+package com.example.oktaapi.metrics;
+
+import com.example.oktaapi.security.TokenType;
+
+/**
+ * Accumulates the time spent in each {@link PipelineStage} while the current thread handles a
+ * request, along with the type of the request's token.
+ *
+ * <p>{@link SecurityPipelineMetricsFilter} opens the timings at the start of the request and
+ * records them once the response status is known. Components along the request path report into
+ * them with the static methods, which do nothing when no request is in progress on the calling
+ * thread (e.g., during a background key refresh).</p>
+ */
+public final class RequestTimings {
+
+    private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+    private static final int STAGES = PipelineStage.values().length;
+
+    private final long[] nanos = new long[STAGES];
+    private final long[] startedAt = new long[STAGES];
+    private int recorded;
+    private int running;
+    private TokenType tokenType;
+
+    RequestTimings() {
+    }
+
+    static RequestTimings open() {
+        RequestTimings timings = new RequestTimings();
+        CURRENT.set(timings);
+        return timings;
+    }
+
+    static void close() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Adds time spent in a stage to the current request's timings.
+     */
+    public static void record(PipelineStage stage, long elapsedNanos) {
+        RequestTimings timings = CURRENT.get();
+        if (timings != null) {
+            timings.add(stage, elapsedNanos);
+        }
+    }
+
+    /**
+     * Marks the start of a stage that begins and ends in different components.
+     */
+    public static void start(PipelineStage stage) {
+        RequestTimings timings = CURRENT.get();
+        if (timings != null) {
+            timings.startedAt[stage.ordinal()] = System.nanoTime();
+            timings.running |= 1 << stage.ordinal();
+        }
+    }
+
+    /**
+     * Marks the end of a stage started with {@link #start}. Does nothing if the stage is not running,
+     * so it is safe to call from more than one place.
+     */
+    public static void stop(PipelineStage stage) {
+        RequestTimings timings = CURRENT.get();
+        if (timings != null && (timings.running & (1 << stage.ordinal())) != 0) {
+            timings.running &= ~(1 << stage.ordinal());
+            timings.add(stage, System.nanoTime() - timings.startedAt[stage.ordinal()]);
+        }
+    }
+
+    /**
+     * Records the type of the current request's token.
+     */
+    public static void tokenType(TokenType tokenType) {
+        RequestTimings timings = CURRENT.get();
+        if (timings != null) {
+            timings.tokenType = tokenType;
+        }
+    }
+
+    void add(PipelineStage stage, long elapsedNanos) {
+        nanos[stage.ordinal()] += elapsedNanos;
+        recorded |= 1 << stage.ordinal();
+    }
+
+    boolean isRecorded(PipelineStage stage) {
+        return (recorded & (1 << stage.ordinal())) != 0;
+    }
+
+    long nanos(PipelineStage stage) {
+        return nanos[stage.ordinal()];
+    }
+
+    TokenType tokenType() {
+        return tokenType;
+    }
+}
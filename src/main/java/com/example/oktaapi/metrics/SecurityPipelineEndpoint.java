@@ -0,0 +1,99 @@
+package com.example.oktaapi.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+
+/**
+ * An actuator endpoint ({@code /actuator/securitypipeline}) summarizing where time goes on
+ * requests through the security pipeline.
+ *
+ * <p>The endpoint lists one entry per combination of stage, endpoint, token type and outcome,
+ * with the count, mean, max and any configured percentiles in milliseconds, plus the request
+ * counts. {@code /actuator/securitypipeline/{stage}} narrows the list to one stage.</p>
+ *
+ * @see SecurityPipelineMetrics
+ */
+@Endpoint(id = "securitypipeline")
+public class SecurityPipelineEndpoint {
+
+    private final MeterRegistry registry;
+
+    public SecurityPipelineEndpoint(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @ReadOperation
+    public Map<String, Object> pipeline() {
+        Map<String, Object> pipeline = new LinkedHashMap<>();
+        pipeline.put("requests", requests());
+        pipeline.put("stages", stages(null));
+        return pipeline;
+    }
+
+    @ReadOperation
+    public List<Map<String, Object>> stage(@Selector String stage) {
+        return stages(stage);
+    }
+
+    private List<Map<String, Object>> requests() {
+        List<Map<String, Object>> requests = new ArrayList<>();
+        for (Counter counter : registry.find(SecurityPipelineMetrics.REQUEST_COUNTER).counters()) {
+            Map<String, Object> entry = tags(counter.getId().getTag("endpoint"), counter.getId().getTag("token.type"),
+                counter.getId().getTag("outcome"));
+            entry.put("count", (long) counter.count());
+            requests.add(entry);
+        }
+        return requests;
+    }
+
+    private List<Map<String, Object>> stages(String stage) {
+        List<Map<String, Object>> stages = new ArrayList<>();
+        for (Timer timer : registry.find(SecurityPipelineMetrics.STAGE_TIMER).timers()) {
+            String timerStage = timer.getId().getTag("stage");
+            if (stage != null && !stage.equals(timerStage)) {
+                continue;
+            }
+            HistogramSnapshot snapshot = timer.takeSnapshot();
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("stage", timerStage);
+            entry.putAll(tags(timer.getId().getTag("endpoint"), timer.getId().getTag("token.type"),
+                timer.getId().getTag("outcome")));
+            entry.put("count", snapshot.count());
+            entry.put("meanMs", snapshot.mean(TimeUnit.MILLISECONDS));
+            entry.put("maxMs", snapshot.max(TimeUnit.MILLISECONDS));
+            Map<String, Double> percentiles = new LinkedHashMap<>();
+            for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+                percentiles.put(String.valueOf(percentile.percentile()), percentile.value(TimeUnit.MILLISECONDS));
+            }
+            if (!percentiles.isEmpty()) {
+                entry.put("percentilesMs", percentiles);
+            }
+            stages.add(entry);
+        }
+        stages.sort(Comparator.comparing((Map<String, Object> entry) -> (String) entry.get("stage"))
+            .thenComparing(entry -> (String) entry.get("endpoint")));
+        return stages;
+    }
+
+    private static Map<String, Object> tags(String endpoint, String tokenType, String outcome) {
+        Map<String, Object> tags = new LinkedHashMap<>();
+        tags.put("endpoint", endpoint);
+        tags.put("tokenType", tokenType);
+        tags.put("outcome", outcome);
+        return tags;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.oktaapi.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import com.example.oktaapi.security.TokenType;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Publishes the per-stage timings of each request through the security pipeline.
+ *
+ * <p>Every request is counted in {@code security.pipeline.requests}, and the time spent in each
+ * {@link PipelineStage} it went through is recorded in the {@code security.pipeline.stage} timer.
+ * Both are tagged with:</p>
+ * <ul>
+ *   <li>{@code endpoint} - the request mapping pattern, or {@code other}</li>
+ *   <li>{@code token.type} - {@code user}, {@code client_credentials}, or {@code none} for
+ *       anonymous requests and tokens that failed validation</li>
+ *   <li>{@code outcome} - {@code ok}, {@code 401}, {@code 403}, or {@code error}</li>
+ * </ul>
+ * <p>and the timer additionally with {@code stage}. Percentiles and histograms for the timer are
+ * configured with the standard {@code management.metrics.distribution.*} properties.</p>
+ */
+public class SecurityPipelineMetrics implements MeterBinder {
+
+    public static final String STAGE_TIMER = "security.pipeline.stage";
+    public static final String REQUEST_COUNTER = "security.pipeline.requests";
+
+    private static final String NO_TOKEN = "none";
+
+    private final Map<MeterKey, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<MeterKey, Timer> timers = new ConcurrentHashMap<>();
+
+    private volatile MeterRegistry registry;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Records a completed request.
+     */
+    public void record(String endpoint, RequestTimings timings, String outcome) {
+        MeterRegistry registry = this.registry;
+        if (registry == null) {
+            return;
+        }
+        TokenType tokenType = timings.tokenType();
+        String tokenTag = tokenType == null ? NO_TOKEN : tokenType.getValue();
+
+        counters.computeIfAbsent(new MeterKey(endpoint, tokenTag, outcome, null), key -> Counter.builder(REQUEST_COUNTER)
+            .description("Requests through the security pipeline")
+            .tag("endpoint", key.endpoint())
+            .tag("token.type", key.tokenType())
+            .tag("outcome", key.outcome())
+            .register(registry))
+            .increment();
+
+        for (PipelineStage stage : PipelineStage.values()) {
+            if (timings.isRecorded(stage)) {
+                timers.computeIfAbsent(new MeterKey(endpoint, tokenTag, outcome, stage), key -> Timer.builder(STAGE_TIMER)
+                    .description("Time spent in each stage of the security pipeline")
+                    .tag("stage", key.stage().getTagValue())
+                    .tag("endpoint", key.endpoint())
+                    .tag("token.type", key.tokenType())
+                    .tag("outcome", key.outcome())
+                    .register(registry))
+                    .record(timings.nanos(stage), TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * Maps a response status to the {@code outcome} tag.
+     */
+    public static String outcome(int status) {
+        if (status == 401) {
+            return "401";
+        }
+        if (status == 403) {
+            return "403";
+        }
+        return status < 400 ? "ok" : "error";
+    }
+
+    private record MeterKey(String endpoint, String tokenType, String outcome, PipelineStage stage) {
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.oktaapi.metrics;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Opens the {@link RequestTimings} for each request and, once the response status is known,
+ * records them with {@link SecurityPipelineMetrics}.
+ *
+ * <p>This filter must run before the rest of the security filter chain so that the timings are
+ * open while the token is extracted, decoded and authorized, and so that requests rejected with
+ * 401 or 403 are recorded too.</p>
+ */
+public class SecurityPipelineMetricsFilter extends OncePerRequestFilter {
+
+    private static final String OTHER_ENDPOINT = "other";
+
+    private final SecurityPipelineMetrics metrics;
+    private final Supplier<Set<String>> endpoints;
+
+    /**
+     * @param metrics where completed requests are recorded
+     * @param endpoints supplies the application's request mapping patterns, used to tag requests
+     *        that are rejected before they reach a controller
+     */
+    public SecurityPipelineMetricsFilter(SecurityPipelineMetrics metrics, Supplier<Set<String>> endpoints) {
+        this.metrics = metrics;
+        this.endpoints = endpoints;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestTimings timings = RequestTimings.open();
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = false;
+        } finally {
+            RequestTimings.close();
+            String outcome = failed ? "error" : SecurityPipelineMetrics.outcome(response.getStatus());
+            metrics.record(endpoint(request), timings, outcome);
+        }
+    }
+
+    private String endpoint(HttpServletRequest request) {
+        if (request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE) instanceof String pattern) {
+            return pattern;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return endpoints.get().contains(path) ? path : OTHER_ENDPOINT;
+    }
+}
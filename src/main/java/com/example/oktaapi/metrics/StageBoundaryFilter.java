@@ -0,0 +1,52 @@
+package com.example.oktaapi.metrics;
+
+import java.io.IOException;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+
+/**
+ * A pair of marker filters placed on either side of a filter to time it as a {@link PipelineStage}.
+ *
+ * <p>The {@linkplain #before before} marker starts the stage and the {@linkplain #after after}
+ * marker stops it. If the timed filter rejects the request (e.g., by throwing
+ * {@code AccessDeniedException}) the after marker is never reached, so the before marker also
+ * stops the stage on the way back out.</p>
+ */
+public final class StageBoundaryFilter implements Filter {
+
+    private final PipelineStage stage;
+    private final boolean start;
+
+    private StageBoundaryFilter(PipelineStage stage, boolean start) {
+        this.stage = stage;
+        this.start = start;
+    }
+
+    public static StageBoundaryFilter before(PipelineStage stage) {
+        return new StageBoundaryFilter(stage, true);
+    }
+
+    public static StageBoundaryFilter after(PipelineStage stage) {
+        return new StageBoundaryFilter(stage, false);
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        if (!start) {
+            RequestTimings.stop(stage);
+            chain.doFilter(request, response);
+            return;
+        }
+        RequestTimings.start(stage);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestTimings.stop(stage);
+        }
+    }
+}
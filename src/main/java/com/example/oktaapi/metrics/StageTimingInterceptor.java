@@ -0,0 +1,26 @@
+package com.example.oktaapi.metrics;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Times method invocations as a {@link PipelineStage}.
+ */
+public class StageTimingInterceptor implements MethodInterceptor {
+
+    private final PipelineStage stage;
+
+    public StageTimingInterceptor(PipelineStage stage) {
+        this.stage = stage;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        long start = System.nanoTime();
+        try {
+            return invocation.proceed();
+        } finally {
+            RequestTimings.record(stage, System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.oktaapi.metrics;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import com.example.oktaapi.security.OktaAuthenticationConverter;
+import com.example.oktaapi.security.OktaAuthenticationToken;
+import com.example.oktaapi.tracing.RequestTrace;
+import com.example.oktaapi.tracing.TraceEvent;
+
+/**
+ * Times an {@link OktaAuthenticationConverter} as the {@link PipelineStage#AUTHORITY_CONVERSION}
+ * stage, and records the token type of the resulting authentication for the request's metrics and
+ * its authorities for the request's trace.
+ */
+public class TimedAuthenticationConverter implements Converter<Jwt, AbstractAuthenticationToken> {
+
+    private final OktaAuthenticationConverter delegate;
+
+    public TimedAuthenticationConverter(OktaAuthenticationConverter delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public AbstractAuthenticationToken convert(Jwt jwt) {
+        long start = System.nanoTime();
+        OktaAuthenticationToken authentication = delegate.convert(jwt);
+        RequestTimings.record(PipelineStage.AUTHORITY_CONVERSION, System.nanoTime() - start);
+        RequestTimings.tokenType(authentication.getTokenType());
+        RequestTrace.event(TraceEvent.AUTHENTICATED, authentication.getAuthorityMask().cardinality(),
+            authentication.getTokenType().getValue());
+        RequestTrace.event(TraceEvent.AUTHORITIES, authentication.getAuthorities().size(),
+            authentication.getAuthorities());
+        return authentication;
+    }
+}
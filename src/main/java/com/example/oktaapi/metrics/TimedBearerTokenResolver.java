@@ -0,0 +1,36 @@
+package com.example.oktaapi.metrics;
+
+import org.springframework.security.oauth2.server.resource.web.BearerTokenResolver;
+
+import com.example.oktaapi.tracing.RequestTrace;
+import com.example.oktaapi.tracing.TraceEvent;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Times a {@link BearerTokenResolver} as the {@link PipelineStage#TOKEN_EXTRACTION} stage, and traces
+ * the token it finds.
+ */
+public class TimedBearerTokenResolver implements BearerTokenResolver {
+
+    private final BearerTokenResolver delegate;
+
+    public TimedBearerTokenResolver(BearerTokenResolver delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String resolve(HttpServletRequest request) {
+        long start = System.nanoTime();
+        String token;
+        try {
+            token = delegate.resolve(request);
+        } finally {
+            RequestTimings.record(PipelineStage.TOKEN_EXTRACTION, System.nanoTime() - start);
+        }
+        if (token != null) {
+            RequestTrace.event(TraceEvent.TOKEN_RESOLVED, token.length(), null);
+        }
+        return token;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.oktaapi.metrics;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimNames;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import com.example.oktaapi.tracing.RequestTrace;
+import com.example.oktaapi.tracing.TraceEvent;
+
+/**
+ * Times a {@link JwtDecoder} as the {@link PipelineStage#JWT_DECODE} stage, and traces whether the
+ * token was accepted.
+ */
+public class TimedJwtDecoder implements JwtDecoder {
+
+    private final JwtDecoder delegate;
+
+    public TimedJwtDecoder(JwtDecoder delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        long start = System.nanoTime();
+        try {
+            Jwt jwt = delegate.decode(token);
+            long elapsed = System.nanoTime() - start;
+            RequestTimings.record(PipelineStage.JWT_DECODE, elapsed);
+            RequestTrace.event(TraceEvent.JWT_DECODED, elapsed, jwt.getClaims().get(JwtClaimNames.ISS));
+            return jwt;
+        } catch (RuntimeException e) {
+            long elapsed = System.nanoTime() - start;
+            RequestTimings.record(PipelineStage.JWT_DECODE, elapsed);
+            RequestTrace.event(TraceEvent.JWT_REJECTED, elapsed, e);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.oktaapi.metrics;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.lang.Nullable;
+
+import com.example.oktaapi.model.TimestampFormat;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * Spring MVC's JSON message converter, timed as the {@link PipelineStage#SERIALIZATION} stage.
+ *
+ * <p>As the application's JSON converter, it also passes the negotiated {@link TimestampFormat}
+ * on to the serializers.</p>
+ */
+public class TimedMappingJackson2HttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    public TimedMappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        long start = System.nanoTime();
+        try {
+            super.writeInternal(object, type, outputMessage);
+        } finally {
+            RequestTimings.record(PipelineStage.SERIALIZATION, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    protected ObjectWriter customizeWriter(ObjectWriter writer, JavaType javaType, @Nullable MediaType contentType) {
+        return TimestampFormat.customize(super.customizeWriter(writer, javaType, contentType), contentType);
+    }
+}
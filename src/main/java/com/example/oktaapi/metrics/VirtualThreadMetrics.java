@@ -0,0 +1,157 @@
+package com.example.oktaapi.metrics;
+
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Publishes virtual-thread pinning and carrier-thread metrics.
+ *
+ * <p>A virtual thread that blocks while it is pinned to its carrier thread (on Java 21, typically
+ * while holding a monitor inside a {@code synchronized} block, or inside a native frame) keeps that
+ * carrier busy, and with only as many carriers as CPUs a few pinned threads can stall every request.
+ * Pinning is observed through the JDK Flight Recorder's {@code jdk.VirtualThreadPinned} event,
+ * streamed in-process, and published as:</p>
+ * <ul>
+ *   <li>{@code jvm.threads.virtual.pinned} - a timer of pinned blocking operations longer than the
+ *       configured threshold. The first time each distinct call site pins, its stack is logged at
+ *       WARN.</li>
+ *   <li>{@code jvm.threads.virtual.submit.failed} - virtual threads that could not be scheduled on
+ *       a carrier.</li>
+ * </ul>
+ * <p>Carrier threads are described by {@code jvm.threads.virtual.carrier.parallelism}. When the JVM
+ * is started with {@code --add-opens java.base/java.lang=ALL-UNNAMED}, the virtual-thread scheduler
+ * itself is also observed: {@code jvm.threads.virtual.carrier.threads} (carriers started),
+ * {@code jvm.threads.virtual.carrier.active} (carriers running a virtual thread) and
+ * {@code jvm.threads.virtual.carrier.queued} (virtual threads waiting for a carrier).</p>
+ */
+public class VirtualThreadMetrics implements MeterBinder, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadMetrics.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String SUBMIT_FAILED_EVENT = "jdk.VirtualThreadSubmitFailed";
+    private static final int PINNING_SITE_FRAMES = 8;
+
+    private final Duration pinnedThreshold;
+    private final int maxLoggedPinningSites;
+    private final Set<String> loggedPinningSites = ConcurrentHashMap.newKeySet();
+
+    private RecordingStream recordingStream;
+
+    /**
+     * @param pinnedThreshold pinned blocking operations shorter than this are not recorded
+     * @param maxLoggedPinningSites the maximum number of distinct pinning call sites to log
+     */
+    public VirtualThreadMetrics(Duration pinnedThreshold, int maxLoggedPinningSites) {
+        this.pinnedThreshold = pinnedThreshold;
+        this.maxLoggedPinningSites = maxLoggedPinningSites;
+    }
+
+    @Override
+    public synchronized void bindTo(MeterRegistry registry) {
+        if (recordingStream != null) {
+            return;
+        }
+
+        Timer pinned = Timer.builder("jvm.threads.virtual.pinned")
+            .description("Blocking operations during which a virtual thread was pinned to its carrier thread")
+            .register(registry);
+        Counter submitFailed = Counter.builder("jvm.threads.virtual.submit.failed")
+            .description("Virtual threads that could not be started or unparked")
+            .register(registry);
+
+        ForkJoinPool scheduler = defaultScheduler();
+        if (scheduler != null) {
+            Gauge.builder("jvm.threads.virtual.carrier.parallelism", scheduler, ForkJoinPool::getParallelism)
+                .description("The target number of carrier threads")
+                .register(registry);
+            Gauge.builder("jvm.threads.virtual.carrier.threads", scheduler, ForkJoinPool::getPoolSize)
+                .description("The number of carrier threads started")
+                .register(registry);
+            Gauge.builder("jvm.threads.virtual.carrier.active", scheduler, ForkJoinPool::getActiveThreadCount)
+                .description("The number of carrier threads running a virtual thread")
+                .register(registry);
+            Gauge.builder("jvm.threads.virtual.carrier.queued", scheduler,
+                    pool -> pool.getQueuedSubmissionCount() + pool.getQueuedTaskCount())
+                .description("The number of virtual threads waiting for a carrier thread")
+                .register(registry);
+        } else {
+            int parallelism = Integer.getInteger("jdk.virtualThreadScheduler.parallelism",
+                Runtime.getRuntime().availableProcessors());
+            Gauge.builder("jvm.threads.virtual.carrier.parallelism", () -> parallelism)
+                .description("The target number of carrier threads")
+                .register(registry);
+        }
+
+        recordingStream = new RecordingStream();
+        recordingStream.enable(PINNED_EVENT).withThreshold(pinnedThreshold).withStackTrace();
+        recordingStream.enable(SUBMIT_FAILED_EVENT);
+        recordingStream.onEvent(PINNED_EVENT, event -> {
+            pinned.record(event.getDuration());
+            logPinningSite(event);
+        });
+        recordingStream.onEvent(SUBMIT_FAILED_EVENT, event -> submitFailed.increment());
+        recordingStream.startAsync();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (recordingStream != null) {
+            recordingStream.close();
+            recordingStream = null;
+        }
+    }
+
+    private void logPinningSite(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        if (stackTrace == null || loggedPinningSites.size() >= maxLoggedPinningSites) {
+            return;
+        }
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        String site = frames.stream()
+            .limit(PINNING_SITE_FRAMES)
+            .map(VirtualThreadMetrics::format)
+            .collect(Collectors.joining("\n\tat "));
+        if (loggedPinningSites.add(site)) {
+            logger.warn("Virtual thread pinned for {} ms\n\tat {}", event.getDuration().toMillis(), site);
+        }
+    }
+
+    private static String format(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+
+    /**
+     * Returns the JDK's virtual-thread scheduler, or {@code null} if {@code java.lang} is not open
+     * to this module.
+     */
+    private static ForkJoinPool defaultScheduler() {
+        try {
+            Field field = Class.forName("java.lang.VirtualThread").getDeclaredField("DEFAULT_SCHEDULER");
+            field.setAccessible(true);
+            return (ForkJoinPool) field.get(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logger.info("Carrier thread pool metrics are unavailable; start the JVM with "
+                + "--add-opens java.base/java.lang=ALL-UNNAMED to enable them");
+            return null;
+        }
+    }
+}
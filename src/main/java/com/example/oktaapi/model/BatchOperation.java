@@ -0,0 +1,17 @@
+package com.example.oktaapi.model;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * One sub-operation of a request to the batch endpoint.
+ *
+ * @param operation the name of the operation: {@code private}, {@code admin} or {@code token-info}
+ * @param fields for {@code token-info}, the {@code fields} request parameter of that endpoint
+ * @param claims for {@code token-info}, the {@code claims} request parameter of that endpoint
+ */
+public record BatchOperation(String operation, @Nullable String fields, @Nullable Boolean claims) {
+
+    public BatchOperation(String operation) {
+        this(operation, null, null);
+    }
+}
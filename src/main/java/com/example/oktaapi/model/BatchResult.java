@@ -0,0 +1,17 @@
+package com.example.oktaapi.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * The outcome of one {@link BatchOperation}, written as one line of the batch endpoint's
+ * {@code application/x-ndjson} response.
+ *
+ * @param index the position of the operation in the request
+ * @param operation the name of the operation
+ * @param status the HTTP status code the operation's own endpoint would have responded with
+ * @param body the response body, if the operation succeeded
+ * @param error the reason phrase, if it did not
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchResult(int index, String operation, int status, Object body, String error) {
+}
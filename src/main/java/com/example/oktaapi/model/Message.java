@@ -1,44 +1,24 @@
 package com.example.oktaapi.model;
 
-import java.time.LocalDateTime;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 
 /**
- * The {@code Message} class represents a message with content and a timestamp.
- * 
+ * The {@code Message} record represents a message with content and a timestamp.
+ *
  * <p>
- * The timestamp is automatically set to the current date and time when a
- * {@code Message} object is created.
+ * The timestamp is held as milliseconds since the epoch and is set to the current time when a
+ * {@code Message} is created with {@link #Message(String)}. It is serialized by
+ * {@link MessageSerializer}, as an ISO-8601 local date-time by default or as epoch milliseconds
+ * when the client asks for it (see {@link TimestampFormat}).
  * </p>
+ *
+ * @param content the message text
+ * @param timestamp the time the message was created, in milliseconds since the epoch
  */
-public class Message {
-    private String content;
-    private LocalDateTime timestamp;
+@JsonSerialize(using = MessageSerializer.class)
+public record Message(String content, long timestamp) {
 
-    // Default constructor
-    public Message() {
-        this.timestamp = LocalDateTime.now();
-    }
-
-    // Constructor with content
     public Message(String content) {
-        this.content = content;
-        this.timestamp = LocalDateTime.now();
-    }
-
-    // Getters and setters
-    public String getContent() {
-        return content;
-    }
-
-    public void setContent(String content) {
-        this.content = content;
-    }
-
-    public LocalDateTime getTimestamp() {
-        return timestamp;
-    }
-
-    public void setTimestamp(LocalDateTime timestamp) {
-        this.timestamp = timestamp;
+        this(content, System.currentTimeMillis());
     }
 }
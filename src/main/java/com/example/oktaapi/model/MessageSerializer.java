@@ -0,0 +1,157 @@
+package com.example.oktaapi.model;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * Writes a {@link Message} directly to the JSON generator, without bean introspection or the
+ * {@code java.time} formatters.
+ *
+ * <p>The output is the same as the application's {@code ObjectMapper} (which, as configured by
+ * Spring Boot, does not write dates as timestamps) produced for the original {@code Message} bean:
+ * {@code {"content":...,"timestamp":...}}, with the timestamp formatted as
+ * {@link DateTimeFormatter#ISO_LOCAL_DATE_TIME} in the server's time zone (seconds always
+ * present, trailing zeros of the fraction dropped). The date and time fields are computed from the
+ * epoch milliseconds and written as characters into a small buffer that is passed straight to the
+ * generator, and the field names are pre-encoded. With {@link TimestampFormat#EPOCH_MILLIS} the
+ * timestamp is written as a number instead.</p>
+ *
+ * <p>The time zone's offset is cached until its next transition, so the server's default time
+ * zone is read once per transition rather than on every message.</p>
+ */
+public class MessageSerializer extends StdSerializer<Message> {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final SerializableString CONTENT = new SerializedString("content");
+    private static final SerializableString TIMESTAMP = new SerializedString("timestamp");
+
+    private static final int MAX_LENGTH = "yyyy-MM-ddTHH:mm:ss.SSS".length();
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private static volatile Offset offset;
+
+    public MessageSerializer() {
+        super(Message.class);
+    }
+
+    @Override
+    public void serialize(Message message, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject(message);
+        generator.writeFieldName(CONTENT);
+        generator.writeString(message.content());
+        generator.writeFieldName(TIMESTAMP);
+        if (TimestampFormat.of(provider) == TimestampFormat.EPOCH_MILLIS) {
+            generator.writeNumber(message.timestamp());
+        } else {
+            writeIsoLocalDateTime(message.timestamp(), generator);
+        }
+        generator.writeEndObject();
+    }
+
+    /**
+     * Writes epoch milliseconds as an ISO-8601 local date-time in the server's time zone.
+     */
+    static void writeIsoLocalDateTime(long epochMillis, JsonGenerator generator) throws IOException {
+        long local = epochMillis + offsetMillis(epochMillis);
+        long epochDay = Math.floorDiv(local, MILLIS_PER_DAY);
+        int millisOfDay = (int) Math.floorMod(local, MILLIS_PER_DAY);
+
+        // Civil date from days since 1970-01-01 (proleptic Gregorian), per H. Hinnant's algorithm
+        long z = epochDay + 719_468;
+        long era = Math.floorDiv(z, 146_097);
+        int dayOfEra = (int) (z - era * 146_097);
+        int yearOfEra = (dayOfEra - dayOfEra / 1_460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+        int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+        if (year < 0 || year > 9_999) {
+            // ISO_LOCAL_DATE_TIME signs and widens these years; leave them to the formatter
+            generator.writeString(LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault())
+                .format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+            return;
+        }
+
+        char[] buffer = new char[MAX_LENGTH];
+        write4(buffer, 0, (int) year);
+        buffer[4] = '-';
+        write2(buffer, 5, month);
+        buffer[7] = '-';
+        write2(buffer, 8, day);
+        buffer[10] = 'T';
+        write2(buffer, 11, millisOfDay / 3_600_000);
+        buffer[13] = ':';
+        write2(buffer, 14, millisOfDay / 60_000 % 60);
+        buffer[16] = ':';
+        write2(buffer, 17, millisOfDay / 1_000 % 60);
+        int length = 19;
+
+        int millis = millisOfDay % 1_000;
+        if (millis != 0) {
+            buffer[length++] = '.';
+            buffer[length++] = (char) ('0' + millis / 100);
+            if (millis % 100 != 0) {
+                buffer[length++] = (char) ('0' + millis / 10 % 10);
+                if (millis % 10 != 0) {
+                    buffer[length++] = (char) ('0' + millis % 10);
+                }
+            }
+        }
+        generator.writeString(buffer, 0, length);
+    }
+
+    private static void write2(char[] buffer, int index, int value) {
+        buffer[index] = (char) ('0' + value / 10);
+        buffer[index + 1] = (char) ('0' + value % 10);
+    }
+
+    private static void write4(char[] buffer, int index, int value) {
+        write2(buffer, index, value / 100);
+        write2(buffer, index + 2, value % 100);
+    }
+
+    private static long offsetMillis(long epochMillis) {
+        Offset current = offset;
+        if (current == null || epochMillis < current.fromMillis() || epochMillis >= current.untilMillis()) {
+            current = Offset.at(epochMillis);
+            offset = current;
+        }
+        return current.offsetMillis();
+    }
+
+    /**
+     * The default time zone's UTC offset over the interval between two of its transitions.
+     */
+    private record Offset(long fromMillis, long untilMillis, long offsetMillis) {
+
+        static Offset at(long epochMillis) {
+            Instant instant = Instant.ofEpochMilli(epochMillis);
+            ZoneRules rules = ZoneId.systemDefault().getRules();
+            ZoneOffsetTransition previous = rules.previousTransition(instant);
+            ZoneOffsetTransition next = rules.nextTransition(instant);
+            ZoneOffset offset = rules.getOffset(instant);
+            long fromMillis = Long.MIN_VALUE;
+            if (previous != null) {
+                // At the exact instant of a transition, the previous one ends before the interval starts
+                fromMillis = previous.getOffsetAfter().equals(offset) ? previous.toEpochSecond() * 1_000 : epochMillis;
+            }
+            return new Offset(fromMillis, next != null ? next.toEpochSecond() * 1_000 : Long.MAX_VALUE,
+                offset.getTotalSeconds() * 1_000L);
+        }
+    }
+}
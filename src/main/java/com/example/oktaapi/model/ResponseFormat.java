@@ -0,0 +1,66 @@
+package com.example.oktaapi.model;
+
+import org.springframework.http.MediaType;
+import org.springframework.lang.Nullable;
+
+/**
+ * The encodings the API can respond in. All of them carry the same schema: {@link Message} and
+ * {@link TokenInfo} are written by the same serializers whatever the format.
+ *
+ * <p>JSON is the default. Callers that parse responses in tight loops can ask for one of the
+ * binary Jackson formats instead, with {@code Accept: application/cbor} or
+ * {@code Accept: application/x-jackson-smile}.</p>
+ */
+public enum ResponseFormat {
+
+    JSON(MediaType.APPLICATION_JSON),
+
+    CBOR(MediaType.APPLICATION_CBOR),
+
+    SMILE(MediaType.parseMediaType(ResponseFormat.SMILE_VALUE));
+
+    /** The Smile media type, for {@code produces} attributes. */
+    public static final String SMILE_VALUE = "application/x-jackson-smile";
+
+    private final MediaType mediaType;
+
+    ResponseFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Returns the format a request's {@code Accept} header prefers: the one with the highest
+     * quality value, with ties going to the one listed first, and JSON for wildcards. Media types
+     * with a quality value of 0 are not acceptable and are ignored. Headers that don't mention a
+     * binary format are not parsed.
+     */
+    public static ResponseFormat negotiate(@Nullable String accept) {
+        if (accept == null || !(accept.contains("cbor") || accept.contains("smile"))) {
+            return JSON;
+        }
+        ResponseFormat best = JSON;
+        double bestQuality = 0;
+        for (MediaType mediaType : MediaType.parseMediaTypes(accept)) {
+            ResponseFormat format = of(mediaType);
+            if (format != null && mediaType.getQualityValue() > bestQuality) {
+                best = format;
+                bestQuality = mediaType.getQualityValue();
+            }
+        }
+        return best;
+    }
+
+    @Nullable
+    private static ResponseFormat of(MediaType mediaType) {
+        for (ResponseFormat format : values()) {
+            if (format.mediaType.equalsTypeAndSubtype(mediaType)) {
+                return format;
+            }
+        }
+        return mediaType.includes(MediaType.APPLICATION_JSON) ? JSON : null;
+    }
+}
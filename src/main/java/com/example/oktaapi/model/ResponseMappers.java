@@ -0,0 +1,25 @@
+package com.example.oktaapi.model;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * The {@link ObjectMapper} for each {@link ResponseFormat}, for code that serializes response
+ * bodies itself rather than through the message converters.
+ */
+public class ResponseMappers {
+
+    private final Map<ResponseFormat, ObjectMapper> mappers = new EnumMap<>(ResponseFormat.class);
+
+    public ResponseMappers(ObjectMapper json, ObjectMapper cbor, ObjectMapper smile) {
+        mappers.put(ResponseFormat.JSON, json);
+        mappers.put(ResponseFormat.CBOR, cbor);
+        mappers.put(ResponseFormat.SMILE, smile);
+    }
+
+    public ObjectMapper get(ResponseFormat format) {
+        return mappers.get(format);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.oktaapi.model;
+
+import java.util.Map;
+
+import org.springframework.http.MediaType;
+import org.springframework.lang.Nullable;
+import org.springframework.util.MimeType;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+/**
+ * How {@link MessageSerializer} writes a message's timestamp.
+ *
+ * <p>Clients choose the format through content negotiation, with a {@code timestamp} parameter
+ * on the JSON media type:</p>
+ * <pre>
+ * Accept: application/json                          -&gt; "timestamp": "2025-04-10T09:15:30.25"
+ * Accept: application/json;timestamp=epoch-millis   -&gt; "timestamp": 1744276530250
+ * </pre>
+ * <p>The JSON message writers pass the negotiated format to the serializer as an
+ * {@link ObjectWriter} attribute (see {@link #customize}).</p>
+ */
+public enum TimestampFormat {
+
+    /** An ISO-8601 local date-time in the server's time zone, e.g. {@code 2025-04-10T09:15:30.25}. */
+    ISO("iso"),
+
+    /** Milliseconds since the epoch, as a JSON number. */
+    EPOCH_MILLIS("epoch-millis");
+
+    /** The media type parameter that selects the format. */
+    public static final String PARAMETER = "timestamp";
+
+    /** {@code application/json} with the epoch-millis timestamp format. */
+    public static final MediaType APPLICATION_JSON_EPOCH_MILLIS =
+        new MediaType(MediaType.APPLICATION_JSON, Map.of(PARAMETER, EPOCH_MILLIS.value));
+
+    private final String value;
+
+    TimestampFormat(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Returns the format requested by a media type's {@code timestamp} parameter, defaulting to
+     * {@link #ISO}.
+     */
+    public static TimestampFormat of(@Nullable MimeType mimeType) {
+        String parameter = mimeType != null ? mimeType.getParameter(PARAMETER) : null;
+        return EPOCH_MILLIS.value.equalsIgnoreCase(parameter) ? EPOCH_MILLIS : ISO;
+    }
+
+    /**
+     * Returns the format to use for a request's {@code Accept} header value, defaulting to
+     * {@link #ISO}. Headers that don't mention the parameter are not parsed.
+     */
+    public static TimestampFormat ofAcceptHeader(@Nullable String accept) {
+        if (accept == null || !accept.contains(PARAMETER)) {
+            return ISO;
+        }
+        for (MediaType mediaType : MediaType.parseMediaTypes(accept)) {
+            if (mediaType.isCompatibleWith(MediaType.APPLICATION_JSON) && mediaType.getParameter(PARAMETER) != null) {
+                return of(mediaType);
+            }
+        }
+        return ISO;
+    }
+
+    /**
+     * Returns the format that a serializer should use, as set on the writer by {@link #customize}.
+     */
+    public static TimestampFormat of(SerializerProvider provider) {
+        return provider.getAttribute(TimestampFormat.class) == EPOCH_MILLIS ? EPOCH_MILLIS : ISO;
+    }
+
+    /**
+     * Configures a writer with the format requested by the negotiated media type. Writers for the
+     * default format are returned unchanged.
+     */
+    public static ObjectWriter customize(ObjectWriter writer, @Nullable MimeType mimeType) {
+        TimestampFormat format = of(mimeType);
+        return format == ISO ? writer : writer.withAttribute(TimestampFormat.class, format);
+    }
+}
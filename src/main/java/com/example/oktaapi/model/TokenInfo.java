@@ -0,0 +1,97 @@
+package com.example.oktaapi.model;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.springframework.lang.Nullable;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.util.StringUtils;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+/**
+ * The body of the token-info endpoint: a view of a {@link Jwt} that {@link TokenInfoSerializer}
+ * writes directly from the token's claims.
+ *
+ * <p>The full body has the token's {@code subject}, {@code name} and {@code email}, and all of its
+ * {@code claims}. A {@link Projection} selects a subset.</p>
+ *
+ * @param jwt the token to describe
+ * @param projection the fields to include
+ */
+@JsonSerialize(using = TokenInfoSerializer.class)
+public record TokenInfo(Jwt jwt, Projection projection) {
+
+    public static final String SUBJECT = "subject";
+    public static final String NAME = "name";
+    public static final String EMAIL = "email";
+    public static final String CLAIMS = "claims";
+
+    private static final String CLAIM_PREFIX = CLAIMS + ".";
+
+    public TokenInfo(Jwt jwt) {
+        this(jwt, Projection.ALL);
+    }
+
+    /**
+     * The fields of a token-info body to include.
+     *
+     * @param subject whether to include {@code subject}
+     * @param name whether to include {@code name}
+     * @param claims whether to include {@code claims}
+     * @param email whether to include {@code email}
+     * @param claimNames the claims to include in {@code claims}, or {@code null} for all of them
+     */
+    public record Projection(boolean subject, boolean name, boolean claims, boolean email,
+            @Nullable Set<String> claimNames) {
+
+        /** All fields and all claims. */
+        public static final Projection ALL = new Projection(true, true, true, true, null);
+
+        /** All fields except {@code claims}. */
+        public static final Projection WITHOUT_CLAIMS = new Projection(true, true, false, true, null);
+
+        /**
+         * Parses a {@code fields} request parameter: a comma-separated list of {@code subject},
+         * {@code name}, {@code email} and {@code claims}, where {@code claims.<name>} selects
+         * individual claims (e.g., {@code fields=subject,claims.groups}).
+         *
+         * @param fields the parameter value, or {@code null} (or blank) for all fields
+         * @param includeClaims {@code false} to leave out {@code claims} whatever {@code fields} says
+         * @throws IllegalArgumentException if {@code fields} names an unknown field
+         */
+        public static Projection parse(@Nullable String fields, boolean includeClaims) {
+            if (!StringUtils.hasText(fields)) {
+                return includeClaims ? ALL : WITHOUT_CLAIMS;
+            }
+            boolean subject = false;
+            boolean name = false;
+            boolean email = false;
+            boolean allClaims = false;
+            Set<String> claimNames = new LinkedHashSet<>();
+            for (String field : StringUtils.tokenizeToStringArray(fields, ",")) {
+                switch (field) {
+                    case SUBJECT -> subject = true;
+                    case NAME -> name = true;
+                    case EMAIL -> email = true;
+                    case CLAIMS -> allClaims = true;
+                    default -> {
+                        if (!field.startsWith(CLAIM_PREFIX) || field.length() == CLAIM_PREFIX.length()) {
+                            throw new IllegalArgumentException("Unknown field: " + field);
+                        }
+                        claimNames.add(field.substring(CLAIM_PREFIX.length()));
+                    }
+                }
+            }
+            boolean claims = includeClaims && (allClaims || !claimNames.isEmpty());
+            return new Projection(subject, name, claims, email, allClaims || !claims ? null : Set.copyOf(claimNames));
+        }
+
+        /**
+         * Returns whether {@code claims} includes the given claim.
+         */
+        public boolean includesClaim(String claimName) {
+            return claimNames == null || claimNames.contains(claimName);
+        }
+    }
+}
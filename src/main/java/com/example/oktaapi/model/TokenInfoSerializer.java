@@ -0,0 +1,68 @@
+package com.example.oktaapi.model;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import com.example.oktaapi.model.TokenInfo.Projection;
+
+/**
+ * Streams a {@link TokenInfo} from its token's claims to the JSON generator, without first
+ * copying them into a map.
+ *
+ * <p>With the full projection the output is the same as the original map-based body: the fields
+ * in the order that body's {@code HashMap} iterated them ({@code subject}, {@code name},
+ * {@code claims}, {@code email}), and each claim written by the {@code ObjectMapper}'s own
+ * serializer for its value (so, e.g., {@code iat} and {@code exp} are still ISO instants).</p>
+ */
+public class TokenInfoSerializer extends StdSerializer<TokenInfo> {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final SerializableString SUBJECT = new SerializedString(TokenInfo.SUBJECT);
+    private static final SerializableString NAME = new SerializedString(TokenInfo.NAME);
+    private static final SerializableString EMAIL = new SerializedString(TokenInfo.EMAIL);
+    private static final SerializableString CLAIMS = new SerializedString(TokenInfo.CLAIMS);
+
+    public TokenInfoSerializer() {
+        super(TokenInfo.class);
+    }
+
+    @Override
+    public void serialize(TokenInfo tokenInfo, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        Jwt jwt = tokenInfo.jwt();
+        Projection projection = tokenInfo.projection();
+
+        generator.writeStartObject(tokenInfo);
+        if (projection.subject()) {
+            generator.writeFieldName(SUBJECT);
+            generator.writeString(jwt.getSubject());
+        }
+        if (projection.name()) {
+            generator.writeFieldName(NAME);
+            generator.writeString(jwt.getClaimAsString(TokenInfo.NAME));
+        }
+        if (projection.claims()) {
+            generator.writeFieldName(CLAIMS);
+            generator.writeStartObject();
+            for (Map.Entry<String, Object> claim : jwt.getClaims().entrySet()) {
+                if (projection.includesClaim(claim.getKey())) {
+                    provider.defaultSerializeField(claim.getKey(), claim.getValue(), generator);
+                }
+            }
+            generator.writeEndObject();
+        }
+        if (projection.email()) {
+            generator.writeFieldName(EMAIL);
+            generator.writeString(jwt.getClaimAsString(TokenInfo.EMAIL));
+        }
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.oktaapi.security;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+/**
+ * A {@link JwtDecoder} that serves previously verified tokens from a {@link VerifiedJwtCache}
+ * and only delegates to the wrapped decoder (parsing plus RSA signature verification) on a miss.
+ *
+ * <p>Clients typically reuse the same access token for its whole lifetime, so in steady state
+ * almost every request is answered from the cache. Failed decodes are never cached.</p>
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+
+    private final JwtDecoder delegate;
+    private final VerifiedJwtCache cache;
+
+    public CachingJwtDecoder(JwtDecoder delegate, VerifiedJwtCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        Jwt jwt = cache.get(token);
+        if (jwt != null) {
+            return jwt;
+        }
+        jwt = delegate.decode(token);
+        cache.put(token, jwt);
+        return jwt;
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.oktaapi.security;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import com.example.oktaapi.security.policy.AuthorityMask;
+import com.example.oktaapi.security.policy.AuthorizationPolicies;
+import com.example.oktaapi.security.policy.PolicyResolver;
+
+/**
+ * Converts the scopes and groups claims of an Okta token into granted authorities, memoizing the
+ * result for each distinct combination of claims.
+ *
+ * <p>The authorities produced are the same as those of the Okta starter's converter: one
+ * {@code SCOPE_}-prefixed authority per scope, followed by one authority per group. However:</p>
+ * <ul>
+ *   <li>{@link GrantedAuthority} instances are interned, so every token with the same group shares
+ *       the same authority object.</li>
+ *   <li>The immutable authority list for each distinct (scopes, groups) combination is kept in a
+ *       bounded map. In practice a handful of combinations covers nearly all traffic, so in steady
+ *       state conversion is a single map lookup with no allocation.</li>
+ *   <li>In the same pass, the authorities are resolved to the logical roles from
+ *       {@code AppAuthoritiesConfig} and to the compiled policies' authority mask (see
+ *       {@link ResolvedAuthorities}), so these are memoized as well. Tokens from a tenant with role
+ *       mappings of its own are resolved against that tenant's policies, and memoized
+ *       separately.</li>
+ * </ul>
+ * <p>When either bound is reached, further results are computed but not cached.</p>
+ */
+public class CachingJwtGrantedAuthoritiesConverter implements Converter<Jwt, Collection<GrantedAuthority>> {
+
+    private static final String SCOPE_PREFIX = "SCOPE_";
+
+    private final String scopesClaim;
+    private final String groupsClaim;
+    private final int maxCombinations;
+    private final int maxInternedAuthorities;
+    private final PolicyResolver policies;
+
+    private final Map<String, GrantedAuthority> internedAuthorities = new ConcurrentHashMap<>();
+    private volatile Memo memo;
+
+    /**
+     * @param scopesClaim the name of the claim holding the token's scopes (Okta uses "scp")
+     * @param groupsClaim the name of the claim holding the user's groups (Okta uses "groups")
+     * @param maxCombinations the maximum number of (scopes, groups) combinations to memoize
+     * @param maxInternedAuthorities the maximum number of distinct authorities to intern
+     * @param policies supplies the compiled policies used to resolve roles and authority masks
+     */
+    public CachingJwtGrantedAuthoritiesConverter(String scopesClaim, String groupsClaim, int maxCombinations,
+            int maxInternedAuthorities, PolicyResolver policies) {
+        this.scopesClaim = scopesClaim;
+        this.groupsClaim = groupsClaim;
+        this.maxCombinations = maxCombinations;
+        this.maxInternedAuthorities = maxInternedAuthorities;
+        this.policies = policies;
+        this.memo = new Memo(null);
+    }
+
+    @Override
+    public Collection<GrantedAuthority> convert(Jwt jwt) {
+        return resolve(jwt).authorities();
+    }
+
+    /**
+     * Returns the authorities, roles and authority mask for a token.
+     */
+    public ResolvedAuthorities resolve(Jwt jwt) {
+        AuthorizationPolicies defaults = policies.get();
+        Memo memo = this.memo;
+        if (memo.policies != defaults) {
+            // Roles or policies have changed; everything memoized so far is stale
+            memo = new Memo(defaults);
+            this.memo = memo;
+        }
+
+        // Tenants' own policies never change, so only the default ones can make an entry stale
+        AuthorizationPolicies current = policies.forJwt(jwt);
+        ClaimsKey key = new ClaimsKey(current, jwt.getClaims().get(scopesClaim), jwt.getClaims().get(groupsClaim));
+        ResolvedAuthorities resolved = memo.entries.get(key);
+        if (resolved == null) {
+            resolved = compute(key, current);
+            if (memo.entries.size() < maxCombinations) {
+                memo.entries.putIfAbsent(key, resolved);
+            }
+        }
+        return resolved;
+    }
+
+    private ResolvedAuthorities compute(ClaimsKey key, AuthorizationPolicies current) {
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        for (String scope : claimValues(key.scopes())) {
+            authorities.add(intern(SCOPE_PREFIX + scope));
+        }
+        for (String group : claimValues(key.groups())) {
+            authorities.add(intern(group));
+        }
+        AuthorityMask mask = current.authorityIndex().grantedMask(authorities);
+        return new ResolvedAuthorities(List.copyOf(authorities), current.rolesFor(mask), mask, current);
+    }
+
+    private GrantedAuthority intern(String authority) {
+        GrantedAuthority interned = internedAuthorities.get(authority);
+        if (interned != null) {
+            return interned;
+        }
+        if (internedAuthorities.size() >= maxInternedAuthorities) {
+            return new SimpleGrantedAuthority(authority);
+        }
+        return internedAuthorities.computeIfAbsent(authority, SimpleGrantedAuthority::new);
+    }
+
+    /**
+     * Returns the distinct values of a claim that is either a list or a space-separated string.
+     */
+    private static Collection<String> claimValues(Object claim) {
+        Set<String> values = new LinkedHashSet<>();
+        if (claim instanceof Collection<?> collection) {
+            for (Object value : collection) {
+                if (value != null) {
+                    values.add(value.toString());
+                }
+            }
+        } else if (claim instanceof String string) {
+            for (String value : string.split(" ")) {
+                if (!value.isEmpty()) {
+                    values.add(value);
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * The authorities granted by a token, together with the application roles and policy mask
+     * they resolve to, and the policies the mask was computed against.
+     */
+    public record ResolvedAuthorities(List<GrantedAuthority> authorities, Set<String> roles, AuthorityMask authorityMask,
+            AuthorizationPolicies policies) {
+    }
+
+    private record ClaimsKey(AuthorizationPolicies policies, Object scopes, Object groups) {
+    }
+
+    private static final class Memo {
+        private final AuthorizationPolicies policies;
+        private final Map<ClaimsKey, ResolvedAuthorities> entries = new ConcurrentHashMap<>();
+
+        private Memo(AuthorizationPolicies policies) {
+            this.policies = policies;
+        }
+    }
+}
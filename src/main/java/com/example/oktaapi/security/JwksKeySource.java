@@ -0,0 +1,308 @@
+package com.example.oktaapi.security;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.client.RestOperations;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import com.example.oktaapi.metrics.PipelineStage;
+import com.example.oktaapi.metrics.RequestTimings;
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+
+/**
+ * A {@link JWKSource} for the issuer's signing keys that never makes request threads wait on the
+ * issuer unless it has to.
+ *
+ * <p>Key Features:
+ * <ul>
+ *   <li>The key set is refreshed in the background at a fixed interval, so keys are normally
+ *       replaced well before a rotated key is needed.</li>
+ *   <li>When a token arrives with an unknown {@code kid}, all concurrent lookups share a single
+ *       in-flight fetch (single-flight). Unknown-{@code kid} fetches are additionally limited to
+ *       one per {@code minKidMissInterval}, so a burst of forged tokens cannot flood the issuer.</li>
+ *   <li>Fetches always run on the dedicated refresh thread. Request threads only wait (for at most
+ *       {@code fetchTimeout}) on a future, which a virtual thread can do without pinning its
+ *       carrier thread.</li>
+ *   <li>If a fetch fails, the last good key set keeps being served.</li>
+ *   <li>Every successfully fetched key set is written to a local snapshot file, which is loaded
+ *       on startup so that tokens can be verified immediately after a restart, even while the
+ *       issuer is unreachable.</li>
+ *   <li>Keys are normally first fetched on startup. With {@code fetchOnStart} off, nothing is
+ *       fetched (and no refresh is scheduled) until the first key lookup, i.e. the first request
+ *       with a token, so that startup does not wait for the keys.</li>
+ *   <li>Fetch times are published as the {@code jwks.fetch} timer (tagged with {@code outcome}),
+ *       and time that requests spend waiting for keys as the {@code jwks_fetch} pipeline stage.</li>
+ * </ul>
+ * </p>
+ */
+public class JwksKeySource implements JWKSource<SecurityContext>, MeterBinder, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwksKeySource.class);
+
+    private final URI jwksUri;
+    private final RestOperations restOperations;
+    private final Path snapshotFile;
+    private final Duration refreshInterval;
+    private final Duration minKidMissInterval;
+    private final Duration fetchTimeout;
+    private final boolean fetchOnStart;
+
+    private final AtomicBoolean refreshScheduled = new AtomicBoolean();
+    private volatile boolean deferred;
+    private final AtomicReference<CompletableFuture<JWKSet>> inFlight = new AtomicReference<>();
+    private final ScheduledExecutorService scheduler;
+
+    private volatile JWKSet keys = new JWKSet();
+    private volatile long lastFetchStartedMillis;
+    private volatile Timer fetchSuccess;
+    private volatile Timer fetchFailure;
+
+    public JwksKeySource(URI jwksUri, RestOperations restOperations, Path snapshotFile, Duration refreshInterval,
+            Duration minKidMissInterval, Duration fetchTimeout) {
+        this(jwksUri, restOperations, snapshotFile, refreshInterval, minKidMissInterval, fetchTimeout, true);
+    }
+
+    /**
+     * @param fetchOnStart whether {@link #start()} fetches the keys right away, or leaves that to
+     *        the first key lookup
+     */
+    public JwksKeySource(URI jwksUri, RestOperations restOperations, Path snapshotFile, Duration refreshInterval,
+            Duration minKidMissInterval, Duration fetchTimeout, boolean fetchOnStart) {
+        this.jwksUri = jwksUri;
+        this.restOperations = restOperations;
+        this.snapshotFile = snapshotFile;
+        this.refreshInterval = refreshInterval;
+        this.minKidMissInterval = minKidMissInterval;
+        this.fetchTimeout = fetchTimeout;
+        this.fetchOnStart = fetchOnStart;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jwks-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Loads the on-disk snapshot (if any) and, unless the first fetch is deferred to the first key
+     * lookup, schedules the background refresh. The first refresh runs immediately but
+     * asynchronously, so startup never blocks on the issuer.
+     */
+    public void start() {
+        loadSnapshot();
+        if (fetchOnStart) {
+            scheduleRefresh(0);
+        } else {
+            deferred = true;
+        }
+    }
+
+    private void scheduleRefresh(long initialDelayMillis) {
+        if (!refreshScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            scheduler.scheduleWithFixedDelay(() -> {
+                try {
+                    // Already on the refresh thread, so fetch inline. If a fetch is already queued
+                    // behind this task, leave it be rather than wait for it here.
+                    refresh(Runnable::run);
+                } catch (RuntimeException e) {
+                    logger.warn("Background JWKS refresh failed", e);
+                }
+            }, initialDelayMillis, refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Closed
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    @Override
+    public List<JWK> get(JWKSelector jwkSelector, SecurityContext context) throws KeySourceException {
+        if (deferred) {
+            deferred = false;
+            // Without keys, this lookup fetches them itself below
+            scheduleRefresh(keys.getKeys().isEmpty() ? refreshInterval.toMillis() : 0);
+        }
+        List<JWK> matches = jwkSelector.select(keys);
+        if (!matches.isEmpty()) {
+            return matches;
+        }
+
+        // Unknown kid: either the issuer rotated its keys or the token is bogus. Only go back to the
+        // issuer if we have no keys at all or have not asked it recently.
+        boolean recentlyFetched = System.currentTimeMillis() - lastFetchStartedMillis < minKidMissInterval.toMillis();
+        if (recentlyFetched && !keys.getKeys().isEmpty()) {
+            return jwkSelector.select(keys);
+        }
+        long start = System.nanoTime();
+        try {
+            return jwkSelector.select(refresh().get(fetchTimeout.toMillis(), TimeUnit.MILLISECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KeySourceException("Interrupted while waiting for JWKS from " + jwksUri, e);
+        } catch (TimeoutException | ExecutionException e) {
+            throw new KeySourceException("Unable to retrieve JWKS from " + jwksUri, e);
+        } finally {
+            RequestTimings.record(PipelineStage.JWKS_FETCH, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Fetches the key set from the issuer, joining a fetch that is already in flight if there is
+     * one. The fetch runs on the refresh thread, so callers only ever wait on the returned future
+     * (and can bound that wait). The future always completes normally: on failure it completes
+     * with the last good key set.
+     */
+    public CompletableFuture<JWKSet> refresh() {
+        return refresh(scheduler);
+    }
+
+    private CompletableFuture<JWKSet> refresh(Executor executor) {
+        CompletableFuture<JWKSet> fetch;
+        while (true) {
+            CompletableFuture<JWKSet> existing = inFlight.get();
+            if (existing != null) {
+                return existing;
+            }
+            fetch = new CompletableFuture<>();
+            if (inFlight.compareAndSet(null, fetch)) {
+                break;
+            }
+        }
+
+        lastFetchStartedMillis = System.currentTimeMillis();
+        CompletableFuture<JWKSet> started = fetch;
+        try {
+            executor.execute(() -> fetchInto(started));
+        } catch (RejectedExecutionException e) {
+            // Closed; keep serving what we have
+            inFlight.set(null);
+            fetch.complete(keys);
+        }
+        return fetch;
+    }
+
+    private void fetchInto(CompletableFuture<JWKSet> fetch) {
+        long start = System.nanoTime();
+        try {
+            JWKSet fetched = fetch();
+            recordFetch(fetchSuccess, start);
+            keys = fetched;
+            saveSnapshot(fetched);
+            fetch.complete(fetched);
+        } catch (RuntimeException | ParseException e) {
+            recordFetch(fetchFailure, start);
+            logger.warn("Unable to refresh JWKS from {}; continuing with {} cached key(s)", jwksUri, keys.getKeys().size(), e);
+            fetch.complete(keys);
+        } finally {
+            inFlight.set(null);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        fetchSuccess = fetchTimer(registry, "success");
+        fetchFailure = fetchTimer(registry, "failure");
+        Gauge.builder("jwks.keys", this, source -> source.keys.getKeys().size())
+            .description("The number of signing keys currently in use")
+            .register(registry);
+    }
+
+    private static Timer fetchTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("jwks.fetch")
+            .description("Fetches of the issuer's signing keys")
+            .tag("outcome", outcome)
+            .register(registry);
+    }
+
+    private static void recordFetch(Timer timer, long startNanos) {
+        if (timer != null) {
+            timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Returns whether the key set currently in use contains a key with the given ID.
+     */
+    public boolean hasKey(String keyId) {
+        return keys.getKeyByKeyId(keyId) != null;
+    }
+
+    /**
+     * Returns the key set currently in use.
+     */
+    public JWKSet currentKeys() {
+        return keys;
+    }
+
+    private JWKSet fetch() throws ParseException {
+        String body = restOperations.getForObject(jwksUri, String.class);
+        if (body == null) {
+            throw new IllegalStateException("Empty JWKS response from " + jwksUri);
+        }
+        JWKSet fetched = JWKSet.parse(body);
+        logger.debug("Fetched {} key(s) from {}", fetched.getKeys().size(), jwksUri);
+        return fetched;
+    }
+
+    private void loadSnapshot() {
+        if (snapshotFile == null || !Files.isRegularFile(snapshotFile)) {
+            return;
+        }
+        try {
+            keys = JWKSet.parse(Files.readString(snapshotFile, StandardCharsets.UTF_8));
+            logger.info("Loaded {} signing key(s) from JWKS snapshot {}", keys.getKeys().size(), snapshotFile);
+        } catch (IOException | ParseException e) {
+            logger.warn("Ignoring unreadable JWKS snapshot {}", snapshotFile, e);
+        }
+    }
+
+    private void saveSnapshot(JWKSet jwkSet) {
+        if (snapshotFile == null) {
+            return;
+        }
+        try {
+            Path parent = snapshotFile.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, "jwks", ".tmp");
+            // JWKSet.toString() only includes public key material
+            Files.writeString(temp, jwkSet.toString(), StandardCharsets.UTF_8);
+            Files.move(temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Unable to write JWKS snapshot {}", snapshotFile, e);
+        }
+    }
+}
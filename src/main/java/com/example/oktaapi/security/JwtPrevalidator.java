@@ -0,0 +1,250 @@
+package com.example.oktaapi.security;
+
+import java.text.ParseException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+
+import com.example.oktaapi.util.ExpiringCache;
+import com.example.oktaapi.util.TokenDigest;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.springframework.security.oauth2.jwt.BadJwtException;
+
+/**
+ * Rejects bearer tokens that are bound to fail verification using only their header and payload,
+ * i.e. without any RSA work, and remembers recently rejected tokens.
+ *
+ * <p>A token is rejected if it is not a signed JWT, if it is not signed with the expected
+ * algorithm or names no {@code kid}, if its {@code iss} is not one of the configured issuers, if
+ * its {@code aud} does not include that issuer's audience, or if it is outside its
+ * {@code exp}/{@code nbf} window (allowing the same clock skew as the decoder's validators).
+ * An unknown {@code kid} is not grounds for rejection: the issuer may have rotated its keys, which
+ * {@link JwksKeySource} handles.</p>
+ *
+ * <p>The SHA-256 digests of rejected tokens are kept in a bounded negative cache for a short time,
+ * so a bad token that is replayed is rejected with a single lookup. Tokens that fail full
+ * verification are added too, but only when their {@code kid} is known, so that a valid token
+ * signed with a key that has yet to be fetched is never remembered as bad. Tokens that are not
+ * valid <em>yet</em> are never cached.</p>
+ *
+ * <p>Rejections are counted as {@code security.jwt.prevalidation.rejections}, tagged with the
+ * reason, and the negative cache publishes the standard cache meters tagged with
+ * {@code cache=rejectedJwt}.</p>
+ *
+ * @see PrevalidatingJwtDecoder
+ */
+public class JwtPrevalidator implements MeterBinder {
+
+    private static final String CACHE_NAME = "rejectedJwt";
+
+    /**
+     * Why a token was rejected.
+     */
+    public enum Reason {
+        MALFORMED("malformed", "Malformed token"),
+        ALGORITHM("algorithm", "Unsupported signing algorithm"),
+        KEY_ID("key_id", "Missing key ID"),
+        ISSUER("issuer", "The iss claim is not valid"),
+        AUDIENCE("audience", "The aud claim is not valid"),
+        EXPIRED("expired", "Jwt expired"),
+        NOT_YET_VALID("not_yet_valid", "Jwt used before nbf"),
+        VERIFICATION("verification", "Jwt failed verification");
+
+        private final String tagValue;
+        private final String message;
+
+        Reason(String tagValue, String message) {
+            this.tagValue = tagValue;
+            this.message = message;
+        }
+
+        public String getTagValue() {
+            return tagValue;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    private final boolean enabled;
+    private final Map<String, String> audiences;
+    private final JWSAlgorithm algorithm;
+    private final Duration clockSkew;
+    private final Duration negativeCacheTtl;
+    private final BiPredicate<String, String> knownKey;
+    private final ExpiringCache<String, Reason> rejected;
+    private final Clock clock;
+    private final Map<Reason, LongAdder> rejections = new EnumMap<>(Reason.class);
+
+    /**
+     * @param enabled whether tokens are pre-validated at all
+     * @param issuer the expected {@code iss} claim
+     * @param audience a value the {@code aud} claim must contain
+     * @param algorithm the algorithm tokens must be signed with
+     * @param clockSkew the leeway allowed on {@code exp} and {@code nbf}
+     * @param negativeCacheSize the maximum number of rejected tokens remembered
+     * @param negativeCacheTtl how long a rejected token is remembered
+     * @param knownKey tells whether the key with a given ID is held locally
+     */
+    public JwtPrevalidator(boolean enabled, String issuer, String audience, JWSAlgorithm algorithm,
+            Duration clockSkew, int negativeCacheSize, Duration negativeCacheTtl, Predicate<String> knownKey) {
+        this(enabled, Map.of(issuer, audience), algorithm, clockSkew, negativeCacheSize, negativeCacheTtl,
+            (tokenIssuer, keyId) -> knownKey.test(keyId));
+    }
+
+    /**
+     * @param enabled whether tokens are pre-validated at all
+     * @param audiences the accepted {@code iss} claims, each mapped to a value the {@code aud}
+     *        claim of that issuer's tokens must contain
+     * @param algorithm the algorithm tokens must be signed with
+     * @param clockSkew the leeway allowed on {@code exp} and {@code nbf}
+     * @param negativeCacheSize the maximum number of rejected tokens remembered
+     * @param negativeCacheTtl how long a rejected token is remembered
+     * @param knownKey tells whether the key with a given ID is held locally for a given issuer
+     */
+    public JwtPrevalidator(boolean enabled, Map<String, String> audiences, JWSAlgorithm algorithm,
+            Duration clockSkew, int negativeCacheSize, Duration negativeCacheTtl,
+            BiPredicate<String, String> knownKey) {
+        this(enabled, audiences, algorithm, clockSkew, new ExpiringCache<>(negativeCacheSize), negativeCacheTtl,
+            knownKey, Clock.systemUTC());
+    }
+
+    JwtPrevalidator(boolean enabled, Map<String, String> audiences, JWSAlgorithm algorithm, Duration clockSkew,
+            ExpiringCache<String, Reason> rejected, Duration negativeCacheTtl, BiPredicate<String, String> knownKey,
+            Clock clock) {
+        this.enabled = enabled;
+        // A HashMap, unlike Map.of, can be asked about tokens without an issuer
+        this.audiences = new HashMap<>(audiences);
+        this.algorithm = algorithm;
+        this.clockSkew = clockSkew;
+        this.rejected = rejected;
+        this.negativeCacheTtl = negativeCacheTtl;
+        this.knownKey = knownKey;
+        this.clock = clock;
+        for (Reason reason : Reason.values()) {
+            rejections.put(reason, new LongAdder());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Checks a token before its signature is verified.
+     *
+     * @return the token's key ID
+     * @throws BadJwtException if the token was recently rejected or cannot pass verification
+     */
+    public String check(String token) throws BadJwtException {
+        String digest = TokenDigest.sha256(token);
+        Reason cached = rejected.get(digest);
+        if (cached != null) {
+            throw new BadJwtException(cached.getMessage());
+        }
+
+        SignedJWT jwt;
+        JWTClaimsSet claims;
+        try {
+            jwt = SignedJWT.parse(token);
+            claims = jwt.getJWTClaimsSet();
+        } catch (ParseException e) {
+            throw reject(digest, Reason.MALFORMED);
+        }
+        JWSHeader header = jwt.getHeader();
+        if (!algorithm.equals(header.getAlgorithm())) {
+            throw reject(digest, Reason.ALGORITHM);
+        }
+        if (header.getKeyID() == null) {
+            throw reject(digest, Reason.KEY_ID);
+        }
+        String audience = audiences.get(claims.getIssuer());
+        if (audience == null) {
+            throw reject(digest, Reason.ISSUER);
+        }
+        List<String> aud = claims.getAudience();
+        if (aud == null || !aud.contains(audience)) {
+            throw reject(digest, Reason.AUDIENCE);
+        }
+        Instant now = clock.instant();
+        Date exp = claims.getExpirationTime();
+        if (exp != null && now.minus(clockSkew).isAfter(exp.toInstant())) {
+            throw reject(digest, Reason.EXPIRED);
+        }
+        Date nbf = claims.getNotBeforeTime();
+        if (nbf != null && now.plus(clockSkew).isBefore(nbf.toInstant())) {
+            throw reject(digest, Reason.NOT_YET_VALID);
+        }
+        return header.getKeyID();
+    }
+
+    /**
+     * Records that a token which passed {@link #check} failed full verification.
+     *
+     * @param keyId the key ID returned by {@link #check}
+     */
+    public void verificationFailed(String token, String keyId) {
+        rejections.get(Reason.VERIFICATION).increment();
+        if (knownKey.test(MultiIssuerJwtDecoder.issuerOf(token), keyId)) {
+            remember(TokenDigest.sha256(token), Reason.VERIFICATION);
+        }
+    }
+
+    private BadJwtException reject(String digest, Reason reason) {
+        rejections.get(reason).increment();
+        if (reason != Reason.NOT_YET_VALID) {
+            remember(digest, reason);
+        }
+        return new BadJwtException(reason.getMessage());
+    }
+
+    private void remember(String digest, Reason reason) {
+        rejected.put(digest, reason, clock.instant().plus(negativeCacheTtl));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Map.Entry<Reason, LongAdder> entry : rejections.entrySet()) {
+            FunctionCounter.builder("security.jwt.prevalidation.rejections", entry.getValue(), LongAdder::sum)
+                .tag("reason", entry.getKey().getTagValue())
+                .description("The number of bearer tokens rejected, by reason, not counting replays")
+                .register(registry);
+        }
+        FunctionCounter.builder("cache.gets", rejected, ExpiringCache::hitCount)
+            .tag("cache", CACHE_NAME)
+            .tag("result", "hit")
+            .description("The number of times a replayed token was rejected from the cache")
+            .register(registry);
+        FunctionCounter.builder("cache.gets", rejected, ExpiringCache::missCount)
+            .tag("cache", CACHE_NAME)
+            .tag("result", "miss")
+            .description("The number of times a token had to be pre-validated")
+            .register(registry);
+        FunctionCounter.builder("cache.evictions", rejected, ExpiringCache::evictionCount)
+            .tag("cache", CACHE_NAME)
+            .description("The number of live entries evicted because the cache was full")
+            .register(registry);
+        Gauge.builder("cache.size", rejected, ExpiringCache::size)
+            .tag("cache", CACHE_NAME)
+            .description("The number of recently rejected tokens currently cached")
+            .register(registry);
+    }
+}
@@ -1,10 +1,9 @@
 package com.example.oktaapi.security;
 
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Component;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 /**
  * A utility Spring bean for handling JWT (JSON Web Token) related operations.
@@ -13,7 +12,9 @@ import org.slf4j.LoggerFactory;
  * if the current authentication token represents a client credentials flow.</p>
  * 
  * <p>It relies on Spring Security's {@link SecurityContextHolder} to access the
- * current authentication context and extract JWT details.</p>
+ * current authentication context. The token type itself is worked out once, when the
+ * token is authenticated, and stored on the {@link OktaAuthenticationToken}; see
+ * {@link OktaAuthenticationConverter}.</p>
  * 
  * <p>The bean is useful in method-level security annotations (e.g., {@code @PreAuthorize})
  * to implement custom security logic based on JWT claims. For example, it can be used
@@ -21,34 +22,40 @@ import org.slf4j.LoggerFactory;
  * 
  * <pre>
  * {@code
- * @PreAuthorize("hasAuthority('SCOPE_data.read') and (hasAnyAuthority(@userAuthorities) or @jwtUtils.isClientCredentials())")
+ * @PreAuthorize("hasAuthority('SCOPE_data.read') and (hasAnyAuthority('SampleUserGroup') or @jwtUtils.isClientCredentials())")
  * }
  * </pre>
  */
 @Component
 public class JwtUtils {
-    private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
     
     /**
      * Determines if the current authentication token represents a client credentials flow.
      * 
-     * <p>This method checks the authentication object from the security context to determine
-     * if it is a JWT token. If it is, it compares the token's subject with the client ID
-     * ("cid" claim) to identify if the token was issued using a client credentials grant type.
-     * 
      * @return {@code true} if the token was geneated using a client credentials grant type, {@code false} otherwise.
+     * @see TokenType#of(Jwt)
      */
     public boolean isClientCredentials() {
-        var authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication != null && authentication.getPrincipal() instanceof Jwt) {
-            Jwt jwt = (Jwt) authentication.getPrincipal();
-            String subject = jwt.getSubject();
-            String clientId = jwt.getClaimAsString("cid");
-            
-            boolean isClientCredentials = subject != null && subject.equals(clientId);
-            logger.debug("Token type: {}", isClientCredentials ? "client_credentials" : "user");
-            return isClientCredentials;
+        return isClientCredentials(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    /**
+     * Determines if the given authentication represents a client credentials flow.
+     * 
+     * <p>For an {@link OktaAuthenticationToken} this is a field read. Other JWT-based
+     * authentications (e.g., those created by Spring Security's test support) are
+     * classified on the fly with {@link TokenType#of(Jwt)}.</p>
+     * 
+     * @param authentication the authentication to inspect; may be {@code null}
+     * @return {@code true} if the token was generated using a client credentials grant type, {@code false} otherwise.
+     */
+    public static boolean isClientCredentials(Authentication authentication) {
+        if (authentication instanceof OktaAuthenticationToken oktaAuthentication) {
+            return oktaAuthentication.isClientCredentials();
+        }
+        if (authentication != null && authentication.getPrincipal() instanceof Jwt jwt) {
+            return TokenType.of(jwt) == TokenType.CLIENT_CREDENTIALS;
         }
         return false;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,303 @@
+package com.example.oktaapi.security;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import org.springframework.lang.Nullable;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.util.StringUtils;
+
+import com.example.oktaapi.util.CoarseClock;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * A {@link JwtDecoder} that accepts tokens from several Okta authorization servers, verifying each
+ * with the keys, issuer and audience of the server that issued it.
+ *
+ * <p>Key Features:
+ * <ul>
+ *   <li>The issuer is read from the token's {@code iss} claim with a streaming parser that stops
+ *       at that claim, so no claims set is built before the token is routed. Routing is only a
+ *       hint: the chosen decoder verifies the signature and validates {@code iss} itself, so a
+ *       token cannot be verified by another issuer's keys.</li>
+ *   <li>Tokens from issuers that are not configured are rejected without any key lookup.</li>
+ *   <li>The default issuer's decoder is built up front and always kept. The decoder for any other
+ *       issuer, with its own {@link JwksKeySource}, is built the first time one of its tokens
+ *       arrives. At most {@code maxDecoders} of these are kept; building one more evicts the
+ *       least recently used, closing its key source.</li>
+ *   <li>Routing a token is one hash lookup whatever the number of issuers, and marking a decoder
+ *       as used writes to it at most once per clock tick.</li>
+ *   <li>Lookups publish the standard cache meters tagged with {@code cache=issuerDecoders}.</li>
+ * </ul>
+ * </p>
+ */
+public class MultiIssuerJwtDecoder implements JwtDecoder, MeterBinder, AutoCloseable {
+
+    private static final String CACHE_NAME = "issuerDecoders";
+    private static final JsonFactory JSON = new JsonFactory();
+
+    /**
+     * An authorization server whose tokens are accepted.
+     *
+     * @param issuer the value of the {@code iss} claim in its tokens
+     * @param audience a value the {@code aud} claim of its tokens must contain
+     * @param jwksUri where its signing keys are published
+     */
+    public record TrustedIssuer(String issuer, String audience, URI jwksUri) {
+    }
+
+    /**
+     * The decoder for one issuer, and the key source it verifies signatures with.
+     */
+    public record IssuerDecoder(JwtDecoder decoder, JwksKeySource keySource) {
+    }
+
+    private final Map<String, Tenant> tenants;
+    private final Map<String, String> audiences;
+    private final Function<TrustedIssuer, IssuerDecoder> factory;
+    private final int maxDecoders;
+    private final LongSupplier clock;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // Guarded by this
+    private int built;
+
+    /**
+     * @param defaultIssuer the issuer configured for the Okta starter
+     * @param defaultDecoder the decoder for the default issuer
+     * @param issuers the other issuers whose tokens are accepted
+     * @param factory builds (and starts) the decoder for one of the other issuers
+     * @param maxDecoders the maximum number of decoders kept for the other issuers
+     * @throws IllegalArgumentException if an issuer is blank or configured twice
+     */
+    public MultiIssuerJwtDecoder(TrustedIssuer defaultIssuer, IssuerDecoder defaultDecoder,
+            Collection<TrustedIssuer> issuers, Function<TrustedIssuer, IssuerDecoder> factory, int maxDecoders) {
+        this(defaultIssuer, defaultDecoder, issuers, factory, maxDecoders, CoarseClock.system());
+    }
+
+    MultiIssuerJwtDecoder(TrustedIssuer defaultIssuer, IssuerDecoder defaultDecoder,
+            Collection<TrustedIssuer> issuers, Function<TrustedIssuer, IssuerDecoder> factory, int maxDecoders,
+            LongSupplier clock) {
+        if (maxDecoders <= 0) {
+            throw new IllegalArgumentException("maxDecoders must be positive");
+        }
+        Map<String, Tenant> tenants = new HashMap<>();
+        Map<String, String> audiences = new LinkedHashMap<>();
+        add(tenants, audiences, new Tenant(defaultIssuer, defaultDecoder));
+        for (TrustedIssuer issuer : issuers) {
+            add(tenants, audiences, new Tenant(issuer, null));
+        }
+        this.tenants = tenants;
+        this.audiences = Collections.unmodifiableMap(audiences);
+        this.factory = factory;
+        this.maxDecoders = maxDecoders;
+        this.clock = clock;
+    }
+
+    private static void add(Map<String, Tenant> tenants, Map<String, String> audiences, Tenant tenant) {
+        String issuer = tenant.issuer.issuer();
+        if (!StringUtils.hasText(issuer)) {
+            throw new IllegalArgumentException("Every tenant needs an issuer");
+        }
+        if (tenants.putIfAbsent(issuer, tenant) != null) {
+            throw new IllegalArgumentException("Issuer '" + issuer + "' is configured more than once");
+        }
+        audiences.put(issuer, tenant.issuer.audience());
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        String issuer = issuerOf(token);
+        Tenant tenant = issuer != null ? tenants.get(issuer) : null;
+        if (tenant == null) {
+            throw new BadJwtException("The iss claim is not valid");
+        }
+        return decoderFor(tenant).decoder().decode(token);
+    }
+
+    /**
+     * Returns the audience expected of each accepted issuer's tokens, keyed by issuer.
+     */
+    public Map<String, String> audiences() {
+        return audiences;
+    }
+
+    /**
+     * Returns whether the keys held for an issuer include the key with the given ID. Keys are
+     * only held for issuers whose decoder has been built.
+     */
+    public boolean hasKey(@Nullable String issuer, String keyId) {
+        Tenant tenant = issuer != null ? tenants.get(issuer) : null;
+        IssuerDecoder decoder = tenant != null ? tenant.decoder : null;
+        return decoder != null && decoder.keySource().hasKey(keyId);
+    }
+
+    /**
+     * Returns whether decoding a token from an issuer, signed with the given key, may have to
+     * wait for the issuer's keys to be fetched. Tokens from unknown issuers never do, as they are
+     * rejected without a key lookup.
+     */
+    public boolean mayFetchKeys(@Nullable String issuer, @Nullable String keyId) {
+        Tenant tenant = issuer != null ? tenants.get(issuer) : null;
+        if (tenant == null) {
+            return false;
+        }
+        IssuerDecoder decoder = tenant.decoder;
+        return decoder == null || keyId == null || !decoder.keySource().hasKey(keyId);
+    }
+
+    /**
+     * Returns the {@code iss} claim of a JWS in compact form, without verifying or fully parsing
+     * it, or {@code null} if it has none or is not a JWS.
+     */
+    @Nullable
+    public static String issuerOf(String token) {
+        int headerEnd = token.indexOf('.');
+        int payloadEnd = headerEnd < 0 ? -1 : token.indexOf('.', headerEnd + 1);
+        if (payloadEnd < 0) {
+            return null;
+        }
+        byte[] payload;
+        try {
+            payload = Base64.getUrlDecoder().decode(token.substring(headerEnd + 1, payloadEnd));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        try (JsonParser parser = JSON.createParser(payload)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("iss".equals(name)) {
+                    return value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                }
+                parser.skipChildren();
+            }
+            return null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private IssuerDecoder decoderFor(Tenant tenant) {
+        IssuerDecoder decoder = tenant.decoder;
+        if (decoder == null) {
+            misses.increment();
+            decoder = build(tenant);
+        } else {
+            hits.increment();
+        }
+        long now = clock.getAsLong();
+        if (tenant.lastUsed != now) {
+            tenant.lastUsed = now;
+        }
+        return decoder;
+    }
+
+    private synchronized IssuerDecoder build(Tenant tenant) {
+        IssuerDecoder decoder = tenant.decoder;
+        if (decoder != null) {
+            return decoder;
+        }
+        if (built >= maxDecoders) {
+            evictLeastRecentlyUsed();
+        }
+        decoder = factory.apply(tenant.issuer);
+        tenant.decoder = decoder;
+        built++;
+        return decoder;
+    }
+
+    private void evictLeastRecentlyUsed() {
+        Tenant eldest = null;
+        for (Tenant tenant : tenants.values()) {
+            if (!tenant.pinned && tenant.decoder != null && (eldest == null || tenant.lastUsed < eldest.lastUsed)) {
+                eldest = tenant;
+            }
+        }
+        if (eldest != null) {
+            // Requests already holding the decoder finish with the keys it has
+            eldest.decoder.keySource().close();
+            eldest.decoder = null;
+            built--;
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Returns the number of decoders currently kept for issuers other than the default one.
+     */
+    public synchronized int size() {
+        return built;
+    }
+
+    @Override
+    public synchronized void close() {
+        for (Tenant tenant : tenants.values()) {
+            if (!tenant.pinned && tenant.decoder != null) {
+                tenant.decoder.keySource().close();
+                tenant.decoder = null;
+            }
+        }
+        built = 0;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+            .tag("cache", CACHE_NAME)
+            .tag("result", "hit")
+            .description("The number of tokens routed to an issuer's existing decoder")
+            .register(registry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+            .tag("cache", CACHE_NAME)
+            .tag("result", "miss")
+            .description("The number of times an issuer's decoder had to be built")
+            .register(registry);
+        FunctionCounter.builder("cache.evictions", evictions, LongAdder::sum)
+            .tag("cache", CACHE_NAME)
+            .description("The number of issuer decoders evicted because the cache was full")
+            .register(registry);
+        Gauge.builder("cache.size", this, MultiIssuerJwtDecoder::size)
+            .tag("cache", CACHE_NAME)
+            .description("The number of decoders kept for issuers other than the default one")
+            .register(registry);
+    }
+
+    private static final class Tenant {
+        private final TrustedIssuer issuer;
+        private final boolean pinned;
+        private volatile IssuerDecoder decoder;
+        private volatile long lastUsed;
+
+        private Tenant(TrustedIssuer issuer, @Nullable IssuerDecoder decoder) {
+            this.issuer = issuer;
+            this.pinned = decoder != null;
+            this.decoder = decoder;
+        }
+    }
+}
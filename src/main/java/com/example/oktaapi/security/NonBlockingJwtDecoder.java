@@ -0,0 +1,65 @@
+package com.example.oktaapi.security;
+
+import java.text.ParseException;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.util.Base64URL;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * A {@link ReactiveJwtDecoder} that reuses the servlet stack's {@link JwtDecoder} without ever
+ * blocking an event-loop thread.
+ *
+ * <p>Decoding a token signed with a key the {@link JwksKeySource} already holds is pure CPU work
+ * (and, with the verified-token cache, usually a map lookup), so it runs inline on the calling
+ * thread. Only a token with an unknown {@code kid}, or from an issuer whose decoder has yet to be
+ * built, which may have to wait for the key set to be fetched from the issuer, is decoded on the
+ * bounded elastic scheduler.</p>
+ */
+public class NonBlockingJwtDecoder implements ReactiveJwtDecoder {
+
+    private final JwtDecoder delegate;
+    private final MultiIssuerJwtDecoder issuers;
+
+    /**
+     * @param delegate the servlet stack's decoder chain
+     * @param issuers the decoder at the end of that chain, which holds each issuer's keys
+     */
+    public NonBlockingJwtDecoder(JwtDecoder delegate, MultiIssuerJwtDecoder issuers) {
+        this.delegate = delegate;
+        this.issuers = issuers;
+    }
+
+    @Override
+    public Mono<Jwt> decode(String token) {
+        if (mayBlock(token)) {
+            return Mono.fromCallable(() -> delegate.decode(token)).subscribeOn(Schedulers.boundedElastic());
+        }
+        try {
+            return Mono.just(delegate.decode(token));
+        } catch (JwtException e) {
+            return Mono.error(e);
+        }
+    }
+
+    private boolean mayBlock(String token) {
+        int headerEnd = token.indexOf('.');
+        if (headerEnd <= 0) {
+            // Not a JWS; the delegate rejects it without looking up keys
+            return false;
+        }
+        try {
+            String keyId = JWSHeader.parse(new Base64URL(token.substring(0, headerEnd))).getKeyID();
+            return issuers.mayFetchKeys(MultiIssuerJwtDecoder.issuerOf(token), keyId);
+        } catch (ParseException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.oktaapi.security;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import com.example.oktaapi.security.CachingJwtGrantedAuthoritiesConverter.ResolvedAuthorities;
+
+/**
+ * Converts a validated {@link Jwt} into an {@link OktaAuthenticationToken}.
+ *
+ * <p>This is the single place where a token is classified (user vs. client credentials), its
+ * groups are resolved to logical roles, and its authorities are reduced to a policy mask. Later
+ * checks, such as {@link JwtUtils#isClientCredentials()} and compiled policy evaluation, just read
+ * the results from the authentication token.</p>
+ */
+public class OktaAuthenticationConverter implements Converter<Jwt, OktaAuthenticationToken> {
+
+    private final CachingJwtGrantedAuthoritiesConverter authoritiesConverter;
+
+    /**
+     * @param authoritiesConverter resolves the granted authorities, roles and policy mask of a token
+     */
+    public OktaAuthenticationConverter(CachingJwtGrantedAuthoritiesConverter authoritiesConverter) {
+        this.authoritiesConverter = authoritiesConverter;
+    }
+
+    @Override
+    public OktaAuthenticationToken convert(Jwt jwt) {
+        ResolvedAuthorities resolved = authoritiesConverter.resolve(jwt);
+        return new OktaAuthenticationToken(jwt, resolved.authorities(), TokenType.of(jwt), resolved.roles(),
+            resolved.authorityMask(), resolved.policies());
+    }
+}
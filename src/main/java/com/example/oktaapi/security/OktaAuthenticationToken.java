@@ -0,0 +1,86 @@
+package com.example.oktaapi.security;
+
+import java.util.Collection;
+import java.util.Set;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import com.example.oktaapi.security.policy.AuthorityMask;
+import com.example.oktaapi.security.policy.AuthorizationPolicies;
+
+/**
+ * A {@link JwtAuthenticationToken} that also carries everything the application needs to know
+ * about the caller, worked out once when the token is authenticated rather than on every check.
+ *
+ * <p>Because this class extends {@link JwtAuthenticationToken}, the principal is still the
+ * {@link Jwt}, so {@code @AuthenticationPrincipal Jwt jwt} controller parameters keep working.</p>
+ *
+ * @see OktaAuthenticationConverter
+ */
+public class OktaAuthenticationToken extends JwtAuthenticationToken {
+
+    private static final long serialVersionUID = 1L;
+
+    private final TokenType tokenType;
+    private final String clientId;
+    private final transient Set<String> roles;
+    private final AuthorityMask authorityMask;
+    private final transient AuthorizationPolicies policies;
+
+    public OktaAuthenticationToken(Jwt jwt, Collection<? extends GrantedAuthority> authorities, TokenType tokenType,
+            Set<String> roles, AuthorityMask authorityMask, AuthorizationPolicies policies) {
+        super(jwt, authorities, jwt.getSubject());
+        this.tokenType = tokenType;
+        this.clientId = jwt.getClaimAsString("cid");
+        this.roles = roles;
+        this.authorityMask = authorityMask;
+        this.policies = policies;
+    }
+
+    public TokenType getTokenType() {
+        return tokenType;
+    }
+
+    public boolean isClientCredentials() {
+        return tokenType == TokenType.CLIENT_CREDENTIALS;
+    }
+
+    /**
+     * Returns the token's subject: the user's ID, or the client ID for client credentials tokens.
+     */
+    public String getSubject() {
+        return getName();
+    }
+
+    /**
+     * Returns the ID of the client the token was issued to ("cid" claim).
+     */
+    public String getClientId() {
+        return clientId;
+    }
+
+    /**
+     * Returns the logical application roles (see AppAuthoritiesConfig) granted by the token's groups.
+     * The roles are not serialized; a deserialized token returns an empty set.
+     */
+    public Set<String> getRoles() {
+        return roles != null ? roles : Set.of();
+    }
+
+    /**
+     * Returns the caller's authorities as a mask over the compiled policies' authority index.
+     */
+    public AuthorityMask getAuthorityMask() {
+        return authorityMask;
+    }
+
+    /**
+     * Returns the compiled policies the authority mask was computed against. The mask is only
+     * meaningful to this version of the policies; the role mappings may have been reloaded since.
+     */
+    public AuthorizationPolicies getPolicies() {
+        return policies;
+    }
+}
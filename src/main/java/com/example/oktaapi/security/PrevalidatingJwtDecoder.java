@@ -0,0 +1,38 @@
+package com.example.oktaapi.security;
+
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+/**
+ * A {@link JwtDecoder} that runs a {@link JwtPrevalidator} before delegating to the wrapped
+ * decoder, so that tokens which cannot pass verification are rejected before any signature is
+ * checked.
+ *
+ * <p>Rejections surface as {@link BadJwtException}s, which the resource server turns into
+ * {@code 401 Unauthorized} responses exactly as it does for failed verification. Tokens the
+ * wrapped decoder rejects are reported back to the pre-validator, so that replaying them is cheap
+ * as well. Other {@link JwtException}s (e.g., the issuer's keys being unavailable) are not.</p>
+ */
+public class PrevalidatingJwtDecoder implements JwtDecoder {
+
+    private final JwtDecoder delegate;
+    private final JwtPrevalidator prevalidator;
+
+    public PrevalidatingJwtDecoder(JwtDecoder delegate, JwtPrevalidator prevalidator) {
+        this.delegate = delegate;
+        this.prevalidator = prevalidator;
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        String keyId = prevalidator.check(token);
+        try {
+            return delegate.decode(token);
+        } catch (BadJwtException e) {
+            prevalidator.verificationFailed(token, keyId);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.oktaapi.security;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+
+/**
+ * The kind of OAuth 2.0 flow an Okta access token was issued for.
+ */
+public enum TokenType {
+
+    /** A token issued to a user, e.g., via the Authorization Code flow. */
+    USER("user"),
+
+    /** A token issued to an application via the Client Credentials flow. */
+    CLIENT_CREDENTIALS("client_credentials");
+
+    private final String value;
+
+    TokenType(String value) {
+        this.value = value;
+    }
+
+    /**
+     * Classifies a token. Okta sets the subject of a client credentials token to the client ID
+     * ("cid" claim), so a token whose subject equals its client ID is a client credentials token.
+     */
+    public static TokenType of(Jwt jwt) {
+        String subject = jwt.getSubject();
+        String clientId = jwt.getClaimAsString("cid");
+        return subject != null && subject.equals(clientId) ? CLIENT_CREDENTIALS : USER;
+    }
+
+    /**
+     * Returns the name of the token type as used in logs and metrics.
+     */
+    public String getValue() {
+        return value;
+    }
+}
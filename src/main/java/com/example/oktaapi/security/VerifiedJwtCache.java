@@ -0,0 +1,76 @@
+package com.example.oktaapi.security;
+
+import com.example.oktaapi.util.ExpiringCache;
+import com.example.oktaapi.util.TokenDigest;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+
+/**
+ * A bounded cache of {@link Jwt} objects that have already passed signature and claim validation,
+ * keyed by a SHA-256 digest of the raw bearer token.
+ *
+ * <p>Each entry is evicted at the token's {@code exp} claim, so a cached token is never accepted
+ * after it would have been rejected by the decoder. Tokens without an {@code exp} claim are never
+ * cached.</p>
+ *
+ * <p>Hit, miss and eviction counts are published as the standard Micrometer cache meters
+ * ({@code cache.gets}, {@code cache.evictions}, {@code cache.size}) tagged with
+ * {@code cache=verifiedJwt}, and are therefore visible through the actuator metrics endpoint.</p>
+ *
+ * @see CachingJwtDecoder
+ */
+public class VerifiedJwtCache implements MeterBinder {
+
+    private static final String CACHE_NAME = "verifiedJwt";
+
+    private final boolean enabled;
+    private final ExpiringCache<String, Jwt> cache;
+
+    public VerifiedJwtCache(boolean enabled, int maxSize) {
+        this(enabled, new ExpiringCache<>(maxSize));
+    }
+
+    VerifiedJwtCache(boolean enabled, ExpiringCache<String, Jwt> cache) {
+        this.enabled = enabled;
+        this.cache = cache;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Jwt get(String token) {
+        return cache.get(TokenDigest.sha256(token));
+    }
+
+    public void put(String token, Jwt jwt) {
+        cache.put(TokenDigest.sha256(token), jwt, jwt.getExpiresAt());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", cache, ExpiringCache::hitCount)
+            .tag("cache", CACHE_NAME)
+            .tag("result", "hit")
+            .description("The number of times a verified JWT was served from the cache")
+            .register(registry);
+        FunctionCounter.builder("cache.gets", cache, ExpiringCache::missCount)
+            .tag("cache", CACHE_NAME)
+            .tag("result", "miss")
+            .description("The number of times a JWT had to be decoded and verified")
+            .register(registry);
+        FunctionCounter.builder("cache.evictions", cache, ExpiringCache::evictionCount)
+            .tag("cache", CACHE_NAME)
+            .description("The number of live entries evicted because the cache was full")
+            .register(registry);
+        Gauge.builder("cache.size", cache, ExpiringCache::size)
+            .tag("cache", CACHE_NAME)
+            .description("The number of verified JWTs currently cached")
+            .register(registry);
+    }
+}
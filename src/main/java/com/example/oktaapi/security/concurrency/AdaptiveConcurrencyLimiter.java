@@ -0,0 +1,194 @@
+package com.example.oktaapi.security.concurrency;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * A limit on the number of requests in flight that adapts to measured latency, using additive
+ * increase and multiplicative decrease (AIMD).
+ *
+ * <p>Each completed request reports its latency. The limiter keeps a smoothed (exponentially
+ * weighted) latency and a baseline: the lowest latency seen over the last window of samples,
+ * i.e. roughly what a request costs when nothing is queued. While the smoothed latency stays
+ * within {@code tolerance} times the baseline and at least half the limit is in use, the limit
+ * grows by one per sample. Once it exceeds that, or a request fails, the limit is multiplied by
+ * {@code backoffRatio}, after which further congestion signals are ignored for one limit's worth
+ * of samples so that a single episode of queueing backs off only once.</p>
+ *
+ * <p>Acquiring and releasing are a compare-and-set and a decrement. The limit is recalculated
+ * by whichever releasing thread wins a {@code tryLock}; samples that arrive while it is held are
+ * skipped rather than waited for.</p>
+ */
+public class AdaptiveConcurrencyLimiter implements MeterBinder {
+
+    private static final double SMOOTHING = 0.2;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double backoffRatio;
+    private final int windowSize;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder shed = new LongAdder();
+    private volatile int limit;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // Guarded by lock
+    private double smoothedRtt;
+    private long windowMinRtt = Long.MAX_VALUE;
+    private int windowSamples;
+    private int cooldown;
+    private volatile long baselineRtt;
+
+    /**
+     * @param name the name of the limiter, as reported in metrics
+     * @param initialLimit the limit to start with
+     * @param minLimit the lowest the limit can go
+     * @param maxLimit the highest the limit can go
+     * @param tolerance how many times the baseline latency the smoothed latency may reach before
+     *        the limit is reduced
+     * @param backoffRatio the factor the limit is multiplied by when it is reduced
+     * @param windowSize the number of samples over which the baseline latency is measured
+     */
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit, double tolerance,
+            double backoffRatio, int windowSize) {
+        if (minLimit <= 0 || minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Concurrency limit '" + name + "' needs 0 < min <= initial <= max");
+        }
+        if (tolerance <= 1.0 || backoffRatio <= 0.0 || backoffRatio >= 1.0 || windowSize <= 0) {
+            throw new IllegalArgumentException("Concurrency limit '" + name
+                + "' needs tolerance > 1, 0 < backoff ratio < 1 and a positive window size");
+        }
+        this.name = name;
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.backoffRatio = backoffRatio;
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * Admits a request if fewer than the limit are in flight. Every admitted request must be
+     * followed by exactly one call to {@link #release} or {@link #releaseWithoutSample}.
+     *
+     * @return {@code false} if the request should be shed
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                shed.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Completes an admitted request and feeds its latency into the limit.
+     *
+     * @param rttNanos how long the request took
+     * @param failed whether the request failed (e.g., with an exception), which is taken as a
+     *        sign of overload regardless of its latency
+     */
+    public void release(long rttNanos, boolean failed) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        if (lock.tryLock()) {
+            try {
+                update(rttNanos, inFlightBefore, failed);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Completes an admitted request whose latency says nothing about the server's load (e.g., one
+     * cancelled by the client).
+     */
+    public void releaseWithoutSample() {
+        inFlight.decrementAndGet();
+    }
+
+    private void update(long rtt, int inFlight, boolean failed) {
+        smoothedRtt = smoothedRtt == 0 ? rtt : smoothedRtt + SMOOTHING * (rtt - smoothedRtt);
+        windowMinRtt = Math.min(windowMinRtt, rtt);
+        if (baselineRtt == 0 || ++windowSamples >= windowSize) {
+            baselineRtt = windowMinRtt;
+            windowMinRtt = Long.MAX_VALUE;
+            windowSamples = 0;
+        }
+
+        int limit = this.limit;
+        boolean congested = failed || smoothedRtt > tolerance * baselineRtt;
+        if (cooldown > 0) {
+            cooldown--;
+        } else if (congested) {
+            limit = Math.max(minLimit, (int) (limit * backoffRatio));
+            cooldown = limit;
+        }
+        if (!congested && inFlight * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1);
+        }
+        this.limit = limit;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getShedCount() {
+        return shed.sum();
+    }
+
+    /**
+     * Returns the current baseline latency in milliseconds, or {@code 0} before the first sample.
+     */
+    public double getBaselineRttMillis() {
+        return (double) baselineRtt / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("security.concurrency.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+            .tag("limiter", name)
+            .description("The current adaptive limit on requests in flight")
+            .register(registry);
+        Gauge.builder("security.concurrency.in.flight", this, AdaptiveConcurrencyLimiter::getInFlight)
+            .tag("limiter", name)
+            .description("The number of requests in flight")
+            .register(registry);
+        FunctionCounter.builder("security.concurrency.shed", shed, LongAdder::sum)
+            .tag("limiter", name)
+            .description("The number of requests rejected with 503 Service Unavailable because the limit was reached")
+            .register(registry);
+    }
+}
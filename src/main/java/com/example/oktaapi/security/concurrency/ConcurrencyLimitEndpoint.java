@@ -0,0 +1,39 @@
+package com.example.oktaapi.security.concurrency;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+/**
+ * An actuator endpoint ({@code /actuator/concurrencylimits}) reporting the current state of the
+ * {@link ConcurrencyLimits}: for each limiter, its adaptive limit and bounds, the requests in
+ * flight, the baseline latency and the number of requests shed so far.
+ */
+@Endpoint(id = "concurrencylimits")
+public class ConcurrencyLimitEndpoint {
+
+    private final ConcurrencyLimits limits;
+
+    public ConcurrencyLimitEndpoint(ConcurrencyLimits limits) {
+        this.limits = limits;
+    }
+
+    @ReadOperation
+    public Map<String, Object> limits() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", limits.isEnabled());
+        for (AdaptiveConcurrencyLimiter limiter : limits.limiters()) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("limit", limiter.getLimit());
+            entry.put("minLimit", limiter.getMinLimit());
+            entry.put("maxLimit", limiter.getMaxLimit());
+            entry.put("inFlight", limiter.getInFlight());
+            entry.put("baselineRttMs", limiter.getBaselineRttMillis());
+            entry.put("shed", limiter.getShedCount());
+            result.put(limiter.getName(), entry);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.oktaapi.security.concurrency;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.example.oktaapi.tracing.RequestTrace;
+import com.example.oktaapi.tracing.TraceEvent;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * A security filter that sheds load once the {@link ConcurrencyLimits} are reached. It runs ahead
+ * of {@code BearerTokenAuthenticationFilter}, so a shed request costs a compare-and-set and a
+ * {@code 503 Service Unavailable} with a {@code Retry-After} header, and no token is parsed or
+ * verified for it.
+ *
+ * <p>Admitted requests are timed until their response is complete, including any asynchronous
+ * processing, and the latency is fed back into the limiter.</p>
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final ConcurrencyLimits limits;
+    private final RequestMatcher publicPaths = new AntPathRequestMatcher(ConcurrencyLimits.PUBLIC_PATHS);
+
+    public ConcurrencyLimitFilter(ConcurrencyLimits limits) {
+        this.limits = limits;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        AdaptiveConcurrencyLimiter limiter = publicPaths.matches(request) ? limits.publicLimiter() : limits.apiLimiter();
+        if (!limiter.tryAcquire()) {
+            RequestTrace.event(TraceEvent.LOAD_SHED);
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, limits.retryAfter());
+            return;
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = false;
+        } finally {
+            if (!failed && request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleasingAsyncListener(limiter, start));
+            } else {
+                limiter.release(System.nanoTime() - start, failed);
+            }
+        }
+    }
+
+    /**
+     * Releases a request that went asynchronous once its response is complete.
+     */
+    private static final class ReleasingAsyncListener implements AsyncListener {
+
+        private final AdaptiveConcurrencyLimiter limiter;
+        private final long start;
+        private volatile boolean failed;
+
+        ReleasingAsyncListener(AdaptiveConcurrencyLimiter limiter, long start) {
+            this.limiter = limiter;
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            limiter.release(System.nanoTime() - start, failed);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            failed = true;
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            failed = true;
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // A new async cycle re-registers listeners; this one still completes with the request
+        }
+    }
+}
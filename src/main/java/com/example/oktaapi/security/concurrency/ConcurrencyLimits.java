@@ -0,0 +1,66 @@
+package com.example.oktaapi.security.concurrency;
+
+import java.time.Duration;
+import java.util.List;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * The application's two {@link AdaptiveConcurrencyLimiter}s: one for the public endpoints
+ * ({@code /api/public/**}) and one for everything else. They are separate so that a flood of
+ * cheap health checks cannot crowd out authenticated traffic, or the other way round.
+ *
+ * @see ConcurrencyLimitFilter
+ * @see ReactiveConcurrencyLimitFilter
+ */
+public class ConcurrencyLimits implements MeterBinder {
+
+    /** The paths limited by {@link #publicLimiter()}, as an Ant-style pattern. */
+    public static final String PUBLIC_PATHS = "/api/public/**";
+
+    private final boolean enabled;
+    private final AdaptiveConcurrencyLimiter publicLimiter;
+    private final AdaptiveConcurrencyLimiter apiLimiter;
+    private final String retryAfter;
+
+    /**
+     * @param retryAfter the {@code Retry-After} sent with shed requests, rounded up to seconds
+     */
+    public ConcurrencyLimits(boolean enabled, AdaptiveConcurrencyLimiter publicLimiter,
+            AdaptiveConcurrencyLimiter apiLimiter, Duration retryAfter) {
+        this.enabled = enabled;
+        this.publicLimiter = publicLimiter;
+        this.apiLimiter = apiLimiter;
+        this.retryAfter = Long.toString(Math.max(1, retryAfter.plusMillis(999).toSeconds()));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public AdaptiveConcurrencyLimiter publicLimiter() {
+        return publicLimiter;
+    }
+
+    public AdaptiveConcurrencyLimiter apiLimiter() {
+        return apiLimiter;
+    }
+
+    public List<AdaptiveConcurrencyLimiter> limiters() {
+        return List.of(publicLimiter, apiLimiter);
+    }
+
+    /**
+     * Returns the value of the {@code Retry-After} header for shed requests.
+     */
+    public String retryAfter() {
+        return retryAfter;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        publicLimiter.bindTo(registry);
+        apiLimiter.bindTo(registry);
+    }
+}
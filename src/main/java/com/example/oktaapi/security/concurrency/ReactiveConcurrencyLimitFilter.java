@@ -0,0 +1,48 @@
+package com.example.oktaapi.security.concurrency;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * The reactive equivalent of {@link ConcurrencyLimitFilter}, for the WebFlux security filter
+ * chain. It must be added before the {@code AUTHENTICATION} filter. Requests cancelled by the
+ * client release their slot without feeding their latency into the limiter.
+ */
+public class ReactiveConcurrencyLimitFilter implements WebFilter {
+
+    private final ConcurrencyLimits limits;
+    private final PathPattern publicPaths = PathPatternParser.defaultInstance.parse(ConcurrencyLimits.PUBLIC_PATHS);
+
+    public ReactiveConcurrencyLimitFilter(ConcurrencyLimits limits) {
+        this.limits = limits;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        AdaptiveConcurrencyLimiter limiter = publicPaths.matches(exchange.getRequest().getPath().pathWithinApplication())
+            ? limits.publicLimiter() : limits.apiLimiter();
+        if (!limiter.tryAcquire()) {
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER, limits.retryAfter());
+            return response.setComplete();
+        }
+        long start = System.nanoTime();
+        return chain.filter(exchange).doFinally(signal -> {
+            if (signal == SignalType.CANCEL) {
+                limiter.releaseWithoutSample();
+            } else {
+                limiter.release(System.nanoTime() - start, signal == SignalType.ON_ERROR);
+            }
+        });
+    }
+}
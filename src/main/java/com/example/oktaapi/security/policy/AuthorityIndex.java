@@ -0,0 +1,66 @@
+package com.example.oktaapi.security.policy;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * An immutable mapping from authority names (scopes and Okta groups) to bit positions in an
+ * {@link AuthorityMask}, built once from every authority that an authorization policy refers to.
+ *
+ * <p>Interning the authorities this way turns "does the caller have any of these groups?" into a
+ * bitwise AND per 64 authorities. Authorities that no policy refers to have no position and are
+ * ignored.</p>
+ */
+public final class AuthorityIndex {
+
+    private final Map<String, Integer> positions;
+    private final int words;
+
+    AuthorityIndex(Collection<String> authorities) {
+        Set<String> distinct = new LinkedHashSet<>(authorities);
+        Map<String, Integer> positions = new HashMap<>();
+        for (String authority : distinct) {
+            positions.put(authority, positions.size());
+        }
+        this.positions = positions;
+        this.words = (positions.size() + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    /**
+     * Returns the mask of the given authority names.
+     */
+    public AuthorityMask mask(Iterable<String> authorities) {
+        long[] mask = new long[words];
+        for (String authority : authorities) {
+            set(mask, authority);
+        }
+        return new AuthorityMask(mask);
+    }
+
+    /**
+     * Returns the mask of the authorities granted to a caller.
+     */
+    public AuthorityMask grantedMask(Collection<? extends GrantedAuthority> authorities) {
+        long[] mask = new long[words];
+        for (GrantedAuthority authority : authorities) {
+            set(mask, authority.getAuthority());
+        }
+        return new AuthorityMask(mask);
+    }
+
+    public int size() {
+        return positions.size();
+    }
+
+    private void set(long[] mask, String authority) {
+        Integer position = positions.get(authority);
+        if (position != null) {
+            mask[position / Long.SIZE] |= 1L << position;
+        }
+    }
+}
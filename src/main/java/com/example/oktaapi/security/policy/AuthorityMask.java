@@ -0,0 +1,125 @@
+package com.example.oktaapi.security.policy;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.StringJoiner;
+
+/**
+ * An immutable set of authorities, as bits over an {@link AuthorityIndex}.
+ *
+ * <p>The bits are packed into {@code long} words, so checking a caller's mask against a policy
+ * takes one bitwise AND per 64 distinct authorities that the policies refer to: a single one in
+ * most deployments, with no upper limit.</p>
+ */
+public final class AuthorityMask implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** The mask of no authorities. */
+    public static final AuthorityMask EMPTY = new AuthorityMask(new long[0]);
+
+    private final long[] words;
+
+    /**
+     * @param words the bits; owned by the new mask, so they must not be modified afterwards
+     */
+    AuthorityMask(long[] words) {
+        this.words = words;
+    }
+
+    /**
+     * Returns whether this mask and another have at least one authority in common.
+     */
+    public boolean intersects(AuthorityMask other) {
+        int length = Math.min(words.length, other.words.length);
+        for (int i = 0; i < length; i++) {
+            if ((words[i] & other.words[i]) != 0L) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether this mask holds every authority of another.
+     */
+    public boolean containsAll(AuthorityMask other) {
+        for (int i = 0; i < other.words.length; i++) {
+            long word = i < words.length ? words[i] : 0L;
+            if ((word & other.words[i]) != other.words[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether the mask holds no authorities.
+     */
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0L) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of authorities in the mask.
+     */
+    public int cardinality() {
+        int cardinality = 0;
+        for (long word : words) {
+            cardinality += Long.bitCount(word);
+        }
+        return cardinality;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof AuthorityMask other)) {
+            return false;
+        }
+        return containsAll(other) && other.containsAll(this);
+    }
+
+    @Override
+    public int hashCode() {
+        long hash = 0L;
+        for (int i = 0; i < words.length; i++) {
+            hash ^= words[i] * (i + 1);
+        }
+        return Long.hashCode(hash);
+    }
+
+    /**
+     * Returns the positions of the mask's authorities in the index, e.g. {@code {0, 3, 70}}.
+     */
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "{", "}");
+        for (int i = 0; i < words.length; i++) {
+            long word = words[i];
+            while (word != 0L) {
+                joiner.add(Integer.toString(i * Long.SIZE + Long.numberOfTrailingZeros(word)));
+                word &= word - 1;
+            }
+        }
+        return joiner.toString();
+    }
+
+    /**
+     * Returns a mask of the authorities in either this mask or another.
+     */
+    AuthorityMask or(AuthorityMask other) {
+        long[] union = Arrays.copyOf(words, Math.max(words.length, other.words.length));
+        for (int i = 0; i < other.words.length; i++) {
+            union[i] |= other.words[i];
+        }
+        return new AuthorityMask(union);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.oktaapi.security.policy;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable, precompiled set of authorization policies together with the role-to-group bindings
+ * they were compiled against.
+ *
+ * <p>Compilation interns every authority that a role or policy refers to into an
+ * {@link AuthorityIndex}, resolves each role to the mask of its Okta groups, and reduces each
+ * {@link PolicyDefinition} to a {@link CompiledPolicy}. All of this happens once, at startup, so
+ * that evaluating a policy on a request involves no expression parsing, bean lookups or scans over
+ * the configured group lists.</p>
+ */
+public final class AuthorizationPolicies {
+
+    private final AuthorityIndex authorityIndex;
+    private final Map<String, AuthorityMask> roleMasks;
+    private final Map<String, CompiledPolicy> policies;
+
+    private AuthorizationPolicies(AuthorityIndex authorityIndex, Map<String, AuthorityMask> roleMasks,
+            Map<String, CompiledPolicy> policies) {
+        this.authorityIndex = authorityIndex;
+        this.roleMasks = roleMasks;
+        this.policies = policies;
+    }
+
+    /**
+     * Compiles the given policy definitions.
+     *
+     * @param roleGroups the Okta groups bound to each logical role (see AppAuthoritiesConfig)
+     * @param definitions the policies to compile
+     * @throws IllegalArgumentException if a policy refers to an unknown role
+     */
+    public static AuthorizationPolicies compile(Map<String, ? extends Collection<String>> roleGroups,
+            Collection<PolicyDefinition> definitions) {
+        List<String> authorities = new ArrayList<>();
+        roleGroups.values().forEach(authorities::addAll);
+        definitions.forEach(definition -> authorities.addAll(definition.getRequiredAuthorities()));
+        AuthorityIndex index = new AuthorityIndex(authorities);
+
+        Map<String, AuthorityMask> roleMasks = new LinkedHashMap<>();
+        roleGroups.forEach((role, groups) -> roleMasks.put(role, index.mask(groups)));
+
+        Map<String, CompiledPolicy> policies = new HashMap<>();
+        for (PolicyDefinition definition : definitions) {
+            AuthorityMask anyOf = AuthorityMask.EMPTY;
+            for (String role : definition.getAnyOfRoles()) {
+                AuthorityMask roleMask = roleMasks.get(role);
+                if (roleMask == null) {
+                    throw new IllegalArgumentException("Policy '" + definition.getName()
+                        + "' refers to unknown role '" + role + "'");
+                }
+                anyOf = anyOf.or(roleMask);
+            }
+            AuthorityMask allOf = index.mask(definition.getRequiredAuthorities());
+            policies.put(definition.getName(),
+                new CompiledPolicy(definition.getName(), allOf, anyOf, definition.isAllowClientCredentials()));
+        }
+
+        return new AuthorizationPolicies(index, Collections.unmodifiableMap(roleMasks),
+            Collections.unmodifiableMap(policies));
+    }
+
+    /**
+     * Returns the compiled policy with the given name.
+     *
+     * @throws IllegalArgumentException if there is no such policy
+     */
+    public CompiledPolicy policy(String name) {
+        CompiledPolicy policy = policies.get(name);
+        if (policy == null) {
+            throw new IllegalArgumentException("Unknown authorization policy '" + name + "'");
+        }
+        return policy;
+    }
+
+    public AuthorityIndex authorityIndex() {
+        return authorityIndex;
+    }
+
+    /**
+     * Returns the logical roles whose groups intersect the given granted-authority mask.
+     */
+    public Set<String> rolesFor(AuthorityMask grantedMask) {
+        Set<String> roles = new LinkedHashSet<>();
+        roleMasks.forEach((role, mask) -> {
+            if (grantedMask.intersects(mask)) {
+                roles.add(role);
+            }
+        });
+        return Collections.unmodifiableSet(roles);
+    }
+
+    public Set<String> roleNames() {
+        return roleMasks.keySet();
+    }
+}
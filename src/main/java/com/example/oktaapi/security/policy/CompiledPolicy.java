@@ -0,0 +1,50 @@
+package com.example.oktaapi.security.policy;
+
+/**
+ * An authorization policy reduced to {@link AuthorityMask}s over an {@link AuthorityIndex}.
+ *
+ * <p>A caller is granted access when they hold every authority in the "all of" mask and, in
+ * addition, either hold at least one authority in the "any of" mask or (if the policy allows it)
+ * authenticated with a client credentials token. A policy whose roles are bound to no groups
+ * therefore only admits client credentials tokens, if it allows them at all. Evaluation is a
+ * few bitwise operations and allocates nothing.</p>
+ */
+public final class CompiledPolicy {
+
+    private final String name;
+    private final AuthorityMask allOf;
+    private final AuthorityMask anyOf;
+    private final boolean allowClientCredentials;
+
+    CompiledPolicy(String name, AuthorityMask allOf, AuthorityMask anyOf, boolean allowClientCredentials) {
+        this.name = name;
+        this.allOf = allOf;
+        this.anyOf = anyOf;
+        this.allowClientCredentials = allowClientCredentials;
+    }
+
+    /**
+     * Evaluates the policy.
+     *
+     * @param grantedMask the caller's authorities, as computed by {@link AuthorityIndex#grantedMask}
+     * @param clientCredentials whether the caller authenticated with a client credentials token
+     * @return {@code true} if access is granted
+     */
+    public boolean isGranted(AuthorityMask grantedMask, boolean clientCredentials) {
+        if (!grantedMask.containsAll(allOf)) {
+            return false;
+        }
+        // An empty "any of" mask (roles bound to no groups) grants nothing, like hasAnyAuthority()
+        return grantedMask.intersects(anyOf)
+            || (allowClientCredentials && clientCredentials);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return "CompiledPolicy[" + name + "]";
+    }
+}
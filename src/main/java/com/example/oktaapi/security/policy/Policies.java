@@ -0,0 +1,22 @@
+package com.example.oktaapi.security.policy;
+
+/**
+ * Names of the authorization policies used by the application. The policies themselves are
+ * defined in {@link com.example.oktaapi.config.AuthorizationPolicyConfig}.
+ */
+public final class Policies {
+
+    /**
+     * Requires the 'data.read' scope, plus either membership in a group bound to the 'user' role
+     * or a client credentials token.
+     */
+    public static final String PRIVATE_READ = "private-read";
+
+    /**
+     * Requires membership in a group bound to the 'admin' role.
+     */
+    public static final String ADMIN = "admin";
+
+    private Policies() {
+    }
+}
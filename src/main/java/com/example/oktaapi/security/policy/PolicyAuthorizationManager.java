@@ -0,0 +1,128 @@
+package com.example.oktaapi.security.policy;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.core.Authentication;
+
+import com.example.oktaapi.security.JwtUtils;
+import com.example.oktaapi.security.OktaAuthenticationToken;
+import com.example.oktaapi.tracing.RequestTrace;
+import com.example.oktaapi.tracing.TraceEvent;
+
+/**
+ * An {@link AuthorizationManager} that evaluates the {@link CompiledPolicy} named by a method's
+ * {@link RequirePolicy} annotation.
+ *
+ * <p>The annotation is looked up once per method and cached. After that, a decision costs one map
+ * lookup and a few bitwise operations: for an {@link OktaAuthenticationToken} the caller's
+ * {@link AuthorityMask} was already computed at authentication time, and for any other
+ * authentication (or one authenticated before the role mappings were last reloaded) it takes one
+ * pass over the caller's authorities. The policies are those of the caller's token issuer (see
+ * {@link PolicyResolver}), so tenants with their own role mappings are authorized against those.
+ * The two possible decisions are shared constants. Each decision is also recorded in the current
+ * {@link RequestTrace}, with the policy name and the size of the mask it was evaluated against.</p>
+ */
+public class PolicyAuthorizationManager implements AuthorizationManager<MethodInvocation> {
+
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+    private final PolicyResolver policies;
+    private final Map<Method, String> policyNames = new ConcurrentHashMap<>();
+
+    /**
+     * @param policies resolves the compiled policies of the caller's token issuer (or of the
+     *        default issuer); called on every decision, so it should be cheap (e.g., a
+     *        {@link RoleRegistry}, which looks tenants up in a hash map)
+     */
+    public PolicyAuthorizationManager(PolicyResolver policies) {
+        this.policies = policies;
+    }
+
+    @Override
+    public AuthorizationResult authorize(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        return decide(authentication, invocation);
+    }
+
+    /**
+     * @deprecated in favor of {@link #authorize}, like the method it implements
+     */
+    @Deprecated
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        return decide(authentication, invocation);
+    }
+
+    /**
+     * Evaluates the current version of a named policy against an authentication.
+     */
+    public boolean isGranted(String policyName, Authentication authentication) {
+        AuthorizationPolicies current = policies.forAuthentication(authentication);
+        return isGranted(policyName, current, current.policy(policyName), authentication);
+    }
+
+    /**
+     * Returns an {@link AuthorizationManager} that requires a named policy, for use in URL-based
+     * rules (e.g., {@code .requestMatchers("/api/admin/**").access(manager.requiring(Policies.ADMIN))}).
+     */
+    public <T> AuthorizationManager<T> requiring(String policyName) {
+        return (authentication, object) -> isGranted(policyName, authentication.get()) ? GRANTED : DENIED;
+    }
+
+    private static boolean isGranted(String policyName, AuthorizationPolicies current, CompiledPolicy policy,
+            Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            RequestTrace.event(TraceEvent.POLICY_DENIED, 0, policyName);
+            return false;
+        }
+        AuthorityMask mask;
+        boolean clientCredentials;
+        // The mask computed at authentication time is only valid for the policies it was computed
+        // against; if the role mappings were reloaded since, compute it again
+        if (authentication instanceof OktaAuthenticationToken oktaAuthentication
+                && oktaAuthentication.getPolicies() == current) {
+            mask = oktaAuthentication.getAuthorityMask();
+            clientCredentials = oktaAuthentication.isClientCredentials();
+        } else {
+            mask = current.authorityIndex().grantedMask(authentication.getAuthorities());
+            clientCredentials = JwtUtils.isClientCredentials(authentication);
+        }
+        boolean granted = policy.isGranted(mask, clientCredentials);
+        RequestTrace.event(granted ? TraceEvent.POLICY_GRANTED : TraceEvent.POLICY_DENIED, mask.cardinality(), policyName);
+        return granted;
+    }
+
+    private AuthorizationDecision decide(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        return isGranted(policyName(invocation), authentication.get()) ? GRANTED : DENIED;
+    }
+
+    private String policyName(MethodInvocation invocation) {
+        Method method = invocation.getMethod();
+        String name = policyNames.get(method);
+        if (name == null) {
+            name = policyNames.computeIfAbsent(method, m -> findPolicyName(invocation));
+        }
+        return name;
+    }
+
+    private static String findPolicyName(MethodInvocation invocation) {
+        Method method = invocation.getMethod();
+        if (invocation.getThis() != null) {
+            method = AopUtils.getMostSpecificMethod(method, AopUtils.getTargetClass(invocation.getThis()));
+        }
+        RequirePolicy annotation = AnnotatedElementUtils.findMergedAnnotation(method, RequirePolicy.class);
+        if (annotation == null) {
+            throw new IllegalStateException("No @RequirePolicy annotation found on " + method);
+        }
+        return annotation.value();
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.oktaapi.security.policy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The declarative form of an authorization policy, expressed in terms of authority names and
+ * logical role names. Definitions are compiled into {@link CompiledPolicy} instances by
+ * {@link AuthorizationPolicies#compile}.
+ *
+ * <p>For example, the policy guarding {@code /api/private} is declared as:</p>
+ *
+ * <pre>
+ * {@code
+ * PolicyDefinition.named(Policies.PRIVATE_READ)
+ *     .requireAuthority("SCOPE_data.read")
+ *     .requireAnyRole("user")
+ *     .orClientCredentials();
+ * }
+ * </pre>
+ */
+public final class PolicyDefinition {
+
+    private final String name;
+    private final List<String> requiredAuthorities = new ArrayList<>();
+    private final List<String> anyOfRoles = new ArrayList<>();
+    private boolean allowClientCredentials;
+
+    private PolicyDefinition(String name) {
+        this.name = name;
+    }
+
+    public static PolicyDefinition named(String name) {
+        return new PolicyDefinition(name);
+    }
+
+    /**
+     * Requires the caller to hold the given authority (e.g., a {@code SCOPE_} authority).
+     */
+    public PolicyDefinition requireAuthority(String authority) {
+        requiredAuthorities.add(authority);
+        return this;
+    }
+
+    /**
+     * Requires the caller to hold at least one of the Okta groups bound to any of the given roles.
+     */
+    public PolicyDefinition requireAnyRole(String... roles) {
+        Collections.addAll(anyOfRoles, roles);
+        return this;
+    }
+
+    /**
+     * Lets client credentials tokens satisfy the role requirement of this policy.
+     */
+    public PolicyDefinition orClientCredentials() {
+        this.allowClientCredentials = true;
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    List<String> getRequiredAuthorities() {
+        return requiredAuthorities;
+    }
+
+    List<String> getAnyOfRoles() {
+        return anyOfRoles;
+    }
+
+    boolean isAllowClientCredentials() {
+        return allowClientCredentials;
+    }
+}
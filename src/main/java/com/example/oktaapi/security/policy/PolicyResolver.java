@@ -0,0 +1,50 @@
+package com.example.oktaapi.security.policy;
+
+import java.util.function.Supplier;
+
+import org.springframework.lang.Nullable;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimNames;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+/**
+ * Supplies the compiled policies that apply to a caller, which depend on the issuer of the
+ * caller's token when tenants have role mappings of their own.
+ *
+ * <p>{@link #get()} returns the policies for the default issuer, and is all a single-issuer
+ * resolver needs to implement, so any {@code Supplier<AuthorizationPolicies>} can be adapted with
+ * a method reference. Both lookups are called on every decision, so they should be cheap (e.g., a
+ * volatile read or a hash lookup).</p>
+ *
+ * @see RoleRegistry
+ */
+@FunctionalInterface
+public interface PolicyResolver extends Supplier<AuthorizationPolicies> {
+
+    /**
+     * Returns the policies for tokens from the given issuer, or those for the default issuer if
+     * the issuer has no mappings of its own.
+     */
+    default AuthorizationPolicies forIssuer(@Nullable String issuer) {
+        return get();
+    }
+
+    /**
+     * Returns the policies for a token's issuer.
+     */
+    default AuthorizationPolicies forJwt(Jwt jwt) {
+        return forIssuer(jwt.getClaimAsString(JwtClaimNames.ISS));
+    }
+
+    /**
+     * Returns the policies for an authentication: those of its token's issuer if it authenticated
+     * with a JWT, otherwise those of the default issuer.
+     */
+    default AuthorizationPolicies forAuthentication(@Nullable Authentication authentication) {
+        if (authentication instanceof JwtAuthenticationToken jwtAuthentication) {
+            return forJwt(jwtAuthentication.getToken());
+        }
+        return get();
+    }
+}
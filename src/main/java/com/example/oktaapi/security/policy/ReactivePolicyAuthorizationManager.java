@@ -0,0 +1,60 @@
+package com.example.oktaapi.security.policy;
+
+import java.util.function.Supplier;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.authorization.ReactiveAuthorizationManager;
+import org.springframework.security.core.Authentication;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * A {@link ReactiveAuthorizationManager} that evaluates {@link RequirePolicy} policies on the
+ * reactive stack.
+ *
+ * <p>Policy evaluation never blocks, so this simply applies the same
+ * {@link PolicyAuthorizationManager} used on the servlet stack to the authentication from the
+ * reactive security context. Both stacks therefore make identical decisions.</p>
+ */
+public class ReactivePolicyAuthorizationManager implements ReactiveAuthorizationManager<MethodInvocation> {
+
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+    private final Supplier<PolicyAuthorizationManager> delegate;
+
+    public ReactivePolicyAuthorizationManager(Supplier<PolicyAuthorizationManager> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Mono<AuthorizationResult> authorize(Mono<Authentication> authentication, MethodInvocation invocation) {
+        return authentication
+            .<AuthorizationResult>map(resolved -> delegate.get().authorize(() -> resolved, invocation))
+            .defaultIfEmpty(DENIED);
+    }
+
+    /**
+     * @deprecated in favor of {@link #authorize}, like the method it implements
+     */
+    @Deprecated
+    @Override
+    public Mono<AuthorizationDecision> check(Mono<Authentication> authentication, MethodInvocation invocation) {
+        return authentication
+            .map(resolved -> delegate.get().check(() -> resolved, invocation))
+            .defaultIfEmpty(DENIED);
+    }
+
+    /**
+     * Returns a {@link ReactiveAuthorizationManager} that requires a named policy, for use in
+     * URL-based rules (e.g., {@code .pathMatchers("/api/admin/**").access(...)}).
+     */
+    public static <T> ReactiveAuthorizationManager<T> requiring(PolicyAuthorizationManager manager,
+            String policyName) {
+        return (authentication, object) -> authentication
+            .map(resolved -> manager.isGranted(policyName, resolved) ? GRANTED : DENIED)
+            .defaultIfEmpty(DENIED);
+    }
+}
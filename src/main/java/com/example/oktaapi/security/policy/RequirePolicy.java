@@ -0,0 +1,34 @@
+package com.example.oktaapi.security.policy;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Guards a controller method with a named, precompiled authorization policy. This is the compiled
+ * equivalent of {@code @PreAuthorize}: the policy is resolved once and evaluated with bitwise
+ * operations rather than a SpEL expression.
+ *
+ * <pre>
+ * {@code
+ * @GetMapping("/api/private")
+ * @RequirePolicy(Policies.PRIVATE_READ)
+ * public Message getPrivateMessage(@AuthenticationPrincipal Jwt jwt) { ... }
+ * }
+ * </pre>
+ *
+ * @see Policies
+ * @see PolicyAuthorizationManager
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RequirePolicy {
+
+    /**
+     * The name of the policy, as registered in {@link AuthorizationPolicies}.
+     */
+    String value();
+}
@@ -0,0 +1,372 @@
+package com.example.oktaapi.security.policy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.util.StringUtils;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Holds the current role-to-group mappings, and the policies compiled against them, and replaces
+ * both without a restart.
+ *
+ * <p>Key Features:
+ * <ul>
+ *   <li>The mappings and their {@link AuthorizationPolicies} are published together as an
+ *       immutable {@link Snapshot} through a volatile reference. Authorization checks read it
+ *       without locking; a reload compiles a new snapshot and swaps it in, so a check sees either
+ *       the old mappings or the new ones, never a mix.</li>
+ *   <li>Reloads are serialized with each other. A mapping that the policies cannot be compiled
+ *       against (e.g., one that leaves out a role a policy refers to), or that binds a role to no
+ *       groups or to a blank one, is rejected, and the current snapshot stays in place.</li>
+ *   <li>When a file is configured, the registry starts from it if it exists, reloads it whenever
+ *       it changes on disk (checked every {@code pollInterval}), and writes every mapping set
+ *       through {@link #update} back to it.</li>
+ *   <li>Every reload is written to the {@value #AUDIT_LOGGER} logger, with who or what made it
+ *       and the groups added to and removed from each role, and is counted as
+ *       {@code security.roles.reloads} (tagged with {@code outcome}).</li>
+ * </ul>
+ * </p>
+ *
+ * <p>Tenants (other issuers) with role mappings of their own have their policies compiled once, at
+ * startup, and looked up by issuer in a hash map, so resolving a caller's policies costs the same
+ * however many tenants there are. These mappings are not part of the snapshots and cannot be
+ * replaced at runtime; tenants without mappings of their own share the current snapshot's.</p>
+ *
+ * <p>The registry is a {@link PolicyResolver}, so it can be handed to everything that takes one.</p>
+ */
+public class RoleRegistry implements PolicyResolver, MeterBinder, AutoCloseable {
+
+    public static final String AUDIT_LOGGER = "com.example.oktaapi.audit.roles";
+
+    private static final Logger logger = LoggerFactory.getLogger(RoleRegistry.class);
+    private static final Logger audit = LoggerFactory.getLogger(AUDIT_LOGGER);
+
+    private static final TypeReference<Map<String, List<String>>> ROLE_GROUPS = new TypeReference<>() { };
+
+    /**
+     * An immutable version of the role-to-group mappings.
+     *
+     * @param version the number of the version, starting at 1
+     * @param roleGroups the Okta groups bound to each logical role
+     * @param loadedAt when the version was published
+     * @param source where the mappings came from: {@code config}, {@code file} or {@code api}
+     * @param actor who or what published the version
+     * @param policies the policies compiled against the mappings
+     */
+    public record Snapshot(long version, Map<String, List<String>> roleGroups, Instant loadedAt, String source,
+            String actor, @JsonIgnore AuthorizationPolicies policies) {
+    }
+
+    private final Collection<PolicyDefinition> definitions;
+    private final Map<String, AuthorizationPolicies> issuerPolicies = new HashMap<>();
+    private final Path file;
+    private final Duration pollInterval;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+    private final ScheduledExecutorService scheduler;
+
+    private final LongAdder successfulReloads = new LongAdder();
+    private final LongAdder failedReloads = new LongAdder();
+
+    private volatile Snapshot snapshot;
+    private FileTime fileModified;
+
+    /**
+     * @param roleGroups the mappings to start with (see AppAuthoritiesConfig)
+     * @param definitions the policies to compile against every version of the mappings
+     * @param file the file to load mappings from and save them to, or {@code null}
+     * @param pollInterval how often to check the file for changes
+     * @param objectMapper reads and writes the file, a JSON object of role names to group lists
+     */
+    public RoleRegistry(Map<String, ? extends Collection<String>> roleGroups,
+            Collection<PolicyDefinition> definitions, @Nullable Path file, Duration pollInterval,
+            ObjectMapper objectMapper) {
+        this(roleGroups, Map.of(), definitions, file, pollInterval, objectMapper);
+    }
+
+    /**
+     * @param roleGroups the mappings to start with (see AppAuthoritiesConfig)
+     * @param issuerRoleGroups the fixed mappings of each tenant that has its own, keyed by issuer
+     * @param definitions the policies to compile against every version of the mappings
+     * @param file the file to load mappings from and save them to, or {@code null}
+     * @param pollInterval how often to check the file for changes
+     * @param objectMapper reads and writes the file, a JSON object of role names to group lists
+     * @throws IllegalArgumentException if the policies cannot be compiled against a tenant's
+     *         mappings
+     */
+    public RoleRegistry(Map<String, ? extends Collection<String>> roleGroups,
+            Map<String, ? extends Map<String, ? extends Collection<String>>> issuerRoleGroups,
+            Collection<PolicyDefinition> definitions, @Nullable Path file, Duration pollInterval,
+            ObjectMapper objectMapper) {
+        this(roleGroups, issuerRoleGroups, definitions, file, pollInterval, objectMapper, Clock.systemUTC());
+    }
+
+    RoleRegistry(Map<String, ? extends Collection<String>> roleGroups,
+            Map<String, ? extends Map<String, ? extends Collection<String>>> issuerRoleGroups,
+            Collection<PolicyDefinition> definitions, @Nullable Path file, Duration pollInterval,
+            ObjectMapper objectMapper, Clock clock) {
+        this.definitions = List.copyOf(definitions);
+        this.file = file;
+        this.pollInterval = pollInterval;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "role-registry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.snapshot = compile(1, roleGroups, "config", "startup");
+        issuerRoleGroups.forEach((issuer, tenantRoleGroups) -> {
+            try {
+                issuerPolicies.put(issuer, compile(1, tenantRoleGroups, "config", "startup").policies());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Role mappings of issuer " + issuer + ": " + e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Loads the file (if one is configured and exists) and starts watching it for changes.
+     */
+    public void start() {
+        if (file == null) {
+            return;
+        }
+        if (Files.isRegularFile(file)) {
+            try {
+                reload("startup");
+            } catch (IOException | IllegalArgumentException e) {
+                logger.warn("Ignoring role mappings in {}; keeping the configured mappings", file, e);
+            }
+        }
+        scheduler.scheduleWithFixedDelay(this::poll, pollInterval.toMillis(), pollInterval.toMillis(),
+            TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Returns the current snapshot.
+     */
+    public Snapshot current() {
+        return snapshot;
+    }
+
+    /**
+     * Returns the policies compiled against the current mappings.
+     */
+    @Override
+    public AuthorizationPolicies get() {
+        return snapshot.policies();
+    }
+
+    /**
+     * Returns the policies compiled against an issuer's own mappings, or against the current
+     * mappings if it has none.
+     */
+    @Override
+    public AuthorizationPolicies forIssuer(@Nullable String issuer) {
+        AuthorizationPolicies policies = issuerPolicies.get(issuer);
+        return policies != null ? policies : snapshot.policies();
+    }
+
+    @Override
+    public AuthorizationPolicies forJwt(Jwt jwt) {
+        // Without tenant mappings, there is no need to read the issuer
+        return issuerPolicies.isEmpty() ? snapshot.policies() : PolicyResolver.super.forJwt(jwt);
+    }
+
+    /**
+     * Replaces the mappings, and saves them to the file if one is configured.
+     *
+     * @param roleGroups the Okta groups to bind to each logical role
+     * @param actor who is making the change, for the audit log
+     * @return the new snapshot
+     * @throws IllegalArgumentException if the policies cannot be compiled against the mappings
+     */
+    public synchronized Snapshot update(Map<String, ? extends Collection<String>> roleGroups, String actor)
+            throws IOException {
+        Snapshot updated = compileOrAudit(roleGroups, "api", actor);
+        save(updated.roleGroups());
+        return publish(updated);
+    }
+
+    /**
+     * Replaces the mappings with the contents of the file.
+     *
+     * @param actor who or what asked for the reload, for the audit log
+     * @return the new snapshot
+     * @throws IllegalStateException if no file is configured
+     * @throws IllegalArgumentException if the policies cannot be compiled against the mappings
+     */
+    public synchronized Snapshot reload(String actor) throws IOException {
+        if (file == null) {
+            throw new IllegalStateException("No role mappings file is configured");
+        }
+        FileTime modified = Files.getLastModifiedTime(file);
+        Map<String, List<String>> roleGroups;
+        try {
+            roleGroups = objectMapper.readValue(file.toFile(), ROLE_GROUPS);
+        } catch (IOException e) {
+            failedReloads.increment();
+            audit.warn("Role mappings in {} rejected, requested by {}: {}", file, actor, e.getMessage());
+            throw e;
+        }
+        Snapshot reloaded = compileOrAudit(roleGroups, "file", actor);
+        fileModified = modified;
+        return publish(reloaded);
+    }
+
+    private synchronized void poll() {
+        try {
+            if (Files.isRegularFile(file) && !Files.getLastModifiedTime(file).equals(fileModified)) {
+                reload("file watcher");
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Unable to reload role mappings from {}", file, e);
+            // Do not retry until the file changes again
+            try {
+                fileModified = Files.getLastModifiedTime(file);
+            } catch (IOException ignored) {
+                // Retried on the next poll
+            }
+        }
+    }
+
+    private Snapshot compileOrAudit(Map<String, ? extends Collection<String>> roleGroups, String source,
+            String actor) {
+        try {
+            return compile(snapshot.version() + 1, roleGroups, source, actor);
+        } catch (IllegalArgumentException e) {
+            failedReloads.increment();
+            audit.warn("Role mappings rejected ({}), requested by {}: {}", source, actor, e.getMessage());
+            throw e;
+        }
+    }
+
+    private Snapshot compile(long version, Map<String, ? extends Collection<String>> roleGroups, String source,
+            String actor) {
+        Map<String, List<String>> copy = new LinkedHashMap<>();
+        roleGroups.forEach((role, groups) -> {
+            if (!StringUtils.hasText(role) || groups == null) {
+                throw new IllegalArgumentException("Role '" + role + "' needs a name and a list of groups");
+            }
+            if (groups.isEmpty()) {
+                throw new IllegalArgumentException("Role '" + role + "' has no groups");
+            }
+            for (String group : groups) {
+                if (!StringUtils.hasText(group)) {
+                    throw new IllegalArgumentException("Role '" + role + "' has a blank group");
+                }
+            }
+            copy.put(role, List.copyOf(groups));
+        });
+        AuthorizationPolicies policies;
+        try {
+            policies = AuthorizationPolicies.compile(copy, definitions);
+        } catch (IllegalStateException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+        return new Snapshot(version, Collections.unmodifiableMap(copy), clock.instant(), source, actor, policies);
+    }
+
+    private Snapshot publish(Snapshot updated) {
+        Snapshot previous = snapshot;
+        snapshot = updated;
+        successfulReloads.increment();
+        audit.info("Role mappings version {} loaded ({}), requested by {}: {}", updated.version(), updated.source(),
+            updated.actor(), changes(previous.roleGroups(), updated.roleGroups()));
+        return updated;
+    }
+
+    private void save(Map<String, List<String>> roleGroups) throws IOException {
+        if (file == null) {
+            return;
+        }
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, "roles", ".tmp");
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(temp.toFile(), roleGroups);
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        // Our own write; the watcher need not reload it
+        fileModified = Files.getLastModifiedTime(file);
+    }
+
+    /**
+     * Describes the difference between two versions of the mappings, e.g.
+     * {@code admin +[OpsGroup] -[OldGroup]; auditor added [AuditGroup]}.
+     */
+    static String changes(Map<String, List<String>> previous, Map<String, List<String>> current) {
+        List<String> changes = new ArrayList<>();
+        Set<String> roles = new LinkedHashSet<>(previous.keySet());
+        roles.addAll(current.keySet());
+        for (String role : roles) {
+            List<String> before = previous.get(role);
+            List<String> after = current.get(role);
+            if (before == null) {
+                changes.add(role + " added " + after);
+            } else if (after == null) {
+                changes.add(role + " removed");
+            } else {
+                Set<String> added = new LinkedHashSet<>(after);
+                added.removeAll(before);
+                Set<String> removed = new LinkedHashSet<>(before);
+                removed.removeAll(after);
+                if (!added.isEmpty() || !removed.isEmpty()) {
+                    changes.add(role + " +" + added + " -" + removed);
+                }
+            }
+        }
+        return changes.isEmpty() ? "no changes" : String.join("; ", changes);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("security.roles.reloads", successfulReloads, LongAdder::sum)
+            .tag("outcome", "success")
+            .description("Role mapping reloads")
+            .register(registry);
+        FunctionCounter.builder("security.roles.reloads", failedReloads, LongAdder::sum)
+            .tag("outcome", "failure")
+            .description("Role mapping reloads")
+            .register(registry);
+        Gauge.builder("security.roles.version", this, roles -> roles.snapshot.version())
+            .description("The version of the role mappings in use")
+            .register(registry);
+    }
+}
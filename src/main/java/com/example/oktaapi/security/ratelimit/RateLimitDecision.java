@@ -0,0 +1,44 @@
+package com.example.oktaapi.security.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import org.springframework.http.HttpHeaders;
+
+/**
+ * The outcome of a {@link RateLimiter#tryAcquire} call.
+ *
+ * @param allowed whether the request may proceed
+ * @param tier the tier the caller was limited by
+ * @param remaining the number of requests the caller could still make right now
+ * @param resetNanos the time until the caller's bucket is full again
+ * @param retryAfterNanos for a rejected request, the time until the next one would be allowed
+ */
+public record RateLimitDecision(boolean allowed, RateLimitTier tier, long remaining, long resetNanos,
+        long retryAfterNanos) {
+
+    public static final String LIMIT_HEADER = "RateLimit-Limit";
+    public static final String REMAINING_HEADER = "RateLimit-Remaining";
+    public static final String RESET_HEADER = "RateLimit-Reset";
+    public static final String POLICY_HEADER = "RateLimit-Policy";
+
+    /**
+     * Writes the {@code RateLimit-*} response headers (IETF httpapi-ratelimit-headers draft)
+     * and, for a rejected request, {@code Retry-After}. Times are rounded up to whole seconds.
+     *
+     * @param headers sets a response header
+     */
+    public void writeHeaders(BiConsumer<String, String> headers) {
+        headers.accept(LIMIT_HEADER, tier.limitHeader());
+        headers.accept(REMAINING_HEADER, Long.toString(remaining));
+        headers.accept(RESET_HEADER, Long.toString(seconds(resetNanos)));
+        headers.accept(POLICY_HEADER, tier.policyHeader());
+        if (!allowed) {
+            headers.accept(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, seconds(retryAfterNanos))));
+        }
+    }
+
+    private static long seconds(long nanos) {
+        return (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.oktaapi.security.ratelimit;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.example.oktaapi.tracing.RequestTrace;
+import com.example.oktaapi.tracing.TraceEvent;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * A security filter that enforces the {@link RateLimiter} on requests authenticated with a bearer
+ * token. It must run after {@code BearerTokenAuthenticationFilter}, so that the caller is known,
+ * and before authorization, so that rejected requests cost as little as possible.
+ *
+ * <p>Rate-limited responses carry the {@code RateLimit-*} headers. Requests over the limit are
+ * answered with {@code 429 Too Many Requests} and a {@code Retry-After} header, and go no further.
+ * Unauthenticated requests (e.g., to the public endpoints) are not limited.</p>
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+
+    public RateLimitFilter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RateLimitDecision decision = rateLimiter.tryAcquire(SecurityContextHolder.getContext().getAuthentication());
+        if (decision != null) {
+            decision.writeHeaders(response::setHeader);
+            if (!decision.allowed()) {
+                RequestTrace.event(TraceEvent.RATE_LIMITED, decision.retryAfterNanos(), decision.tier().getName());
+                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+}
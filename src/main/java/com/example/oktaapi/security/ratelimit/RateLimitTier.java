@@ -0,0 +1,83 @@
+package com.example.oktaapi.security.ratelimit;
+
+import java.time.Duration;
+
+/**
+ * A rate limit: at most {@code limit} requests per {@code period}, with bursts of up to
+ * {@code limit} requests allowed after a quiet period.
+ *
+ * <p>In token-bucket terms the bucket holds {@code limit} tokens and refills at
+ * {@code limit / period}. {@link RateLimiter} implements it as a generic cell rate algorithm
+ * (GCRA), so the tier is kept in that form: one request "costs" the emission interval
+ * ({@code period / limit}), and a caller may run at most one period ahead of real time.</p>
+ */
+public final class RateLimitTier {
+
+    private final String name;
+    private final long limit;
+    private final long periodNanos;
+    private final long emissionIntervalNanos;
+    private final String limitHeader;
+    private final String policyHeader;
+
+    /**
+     * @param name the name of the tier, e.g. the logical role it applies to
+     * @param limit the number of requests allowed per period
+     * @param period the period
+     * @throws IllegalArgumentException if the limit or period is not positive, or the period is
+     *         too short to divide between the requests
+     */
+    public RateLimitTier(String name, long limit, Duration period) {
+        if (limit <= 0 || period == null || period.isNegative() || period.isZero()) {
+            throw new IllegalArgumentException("Rate limit tier '" + name + "' needs a positive limit and period");
+        }
+        this.name = name;
+        this.limit = limit;
+        this.periodNanos = period.toNanos();
+        this.emissionIntervalNanos = periodNanos / limit;
+        if (emissionIntervalNanos == 0) {
+            throw new IllegalArgumentException("Rate limit tier '" + name + "' allows more than one request per nanosecond");
+        }
+        this.limitHeader = Long.toString(limit);
+        this.policyHeader = limit + ";w=" + Math.max(1, period.toSeconds());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getLimit() {
+        return limit;
+    }
+
+    public long getPeriodNanos() {
+        return periodNanos;
+    }
+
+    /**
+     * Returns the time one request takes out of the bucket: {@code period / limit}.
+     */
+    public long getEmissionIntervalNanos() {
+        return emissionIntervalNanos;
+    }
+
+    /**
+     * Returns whether this tier allows requests at a higher sustained rate than another.
+     */
+    public boolean isFasterThan(RateLimitTier other) {
+        return emissionIntervalNanos < other.emissionIntervalNanos;
+    }
+
+    String limitHeader() {
+        return limitHeader;
+    }
+
+    String policyHeader() {
+        return policyHeader;
+    }
+
+    @Override
+    public String toString() {
+        return "RateLimitTier[" + name + ": " + limit + " per " + Duration.ofNanos(periodNanos) + "]";
+    }
+}
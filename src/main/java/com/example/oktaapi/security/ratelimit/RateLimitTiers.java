@@ -0,0 +1,104 @@
+package com.example.oktaapi.security.ratelimit;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.lang.Nullable;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import com.example.oktaapi.security.JwtUtils;
+import com.example.oktaapi.security.OktaAuthenticationToken;
+import com.example.oktaapi.security.policy.AuthorizationPolicies;
+import com.example.oktaapi.security.policy.PolicyResolver;
+
+/**
+ * Works out whom a request counts against and which {@link RateLimitTier} applies to them.
+ *
+ * <p>Callers are identified by the token's {@code sub} claim, or by its {@code cid} claim for
+ * client credentials tokens, so that all the tokens a client obtains share one bucket. A caller
+ * gets the fastest of the tiers configured for their logical roles (see AppAuthoritiesConfig),
+ * and the default tier if none is configured for any of them. Client credentials tokens, which
+ * carry no groups, can be given a tier of their own.</p>
+ */
+public class RateLimitTiers {
+
+    private final Map<String, RateLimitTier> roleTiers;
+    private final RateLimitTier defaultTier;
+    private final RateLimitTier clientCredentialsTier;
+    private final PolicyResolver policies;
+
+    /**
+     * @param roleTiers the tier for each logical role that has one
+     * @param defaultTier the tier for callers without a role that has one
+     * @param clientCredentialsTier the tier for client credentials tokens, or {@code null} to use
+     *        the default tier
+     * @param roleNames the application's logical roles
+     * @param policies supplies the compiled policies, used to work out the roles of
+     *        authentications other than {@link OktaAuthenticationToken} and of those
+     *        authenticated before the role mappings were last reloaded (in both cases, with the
+     *        mappings of the caller's token issuer)
+     * @throws IllegalArgumentException if a tier is configured for an unknown role
+     */
+    public RateLimitTiers(Map<String, RateLimitTier> roleTiers, RateLimitTier defaultTier,
+            @Nullable RateLimitTier clientCredentialsTier, Collection<String> roleNames,
+            PolicyResolver policies) {
+        for (String role : roleTiers.keySet()) {
+            if (!roleNames.contains(role)) {
+                throw new IllegalArgumentException("Rate limit tier configured for unknown role '" + role + "'");
+            }
+        }
+        this.roleTiers = new LinkedHashMap<>(roleTiers);
+        this.defaultTier = defaultTier;
+        this.clientCredentialsTier = clientCredentialsTier != null ? clientCredentialsTier : defaultTier;
+        this.policies = policies;
+    }
+
+    /**
+     * Returns the key a caller's requests are counted under, or {@code null} if the request did
+     * not authenticate with a JWT and is not rate limited.
+     */
+    @Nullable
+    public String principalKey(@Nullable Authentication authentication) {
+        if (!(authentication instanceof JwtAuthenticationToken jwtAuthentication)) {
+            return null;
+        }
+        Jwt jwt = jwtAuthentication.getToken();
+        if (JwtUtils.isClientCredentials(authentication)) {
+            String clientId = jwt.getClaimAsString("cid");
+            if (clientId != null) {
+                return "cid:" + clientId;
+            }
+        }
+        return "sub:" + jwt.getSubject();
+    }
+
+    /**
+     * Returns the tier that applies to an authenticated caller.
+     */
+    public RateLimitTier tierFor(Authentication authentication) {
+        if (JwtUtils.isClientCredentials(authentication)) {
+            return clientCredentialsTier;
+        }
+        RateLimitTier tier = null;
+        for (String role : roles(authentication)) {
+            RateLimitTier roleTier = roleTiers.get(role);
+            if (roleTier != null && (tier == null || roleTier.isFasterThan(tier))) {
+                tier = roleTier;
+            }
+        }
+        return tier != null ? tier : defaultTier;
+    }
+
+    private Set<String> roles(Authentication authentication) {
+        AuthorizationPolicies policies = this.policies.forAuthentication(authentication);
+        if (authentication instanceof OktaAuthenticationToken oktaAuthentication
+                && oktaAuthentication.getPolicies() == policies) {
+            return oktaAuthentication.getRoles();
+        }
+        return policies.rolesFor(policies.authorityIndex().grantedMask(authentication.getAuthorities()));
+    }
+}
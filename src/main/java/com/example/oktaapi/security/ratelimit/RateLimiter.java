@@ -0,0 +1,198 @@
+package com.example.oktaapi.security.ratelimit;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import org.springframework.lang.Nullable;
+import org.springframework.security.core.Authentication;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Per-principal rate limits, enforced without locks.
+ *
+ * <p>Each principal has a bucket holding a single {@code long}: the theoretical arrival time
+ * (TAT) of the generic cell rate algorithm. Admitting a request advances it by the tier's
+ * emission interval with one compare-and-set, and a request is rejected if that would put it more
+ * than one period ahead of the clock. This is equivalent to a token bucket of {@code limit}
+ * tokens refilled continuously, but needs no separate refill step, so concurrent requests from
+ * the same principal contend on one CAS and requests from different principals share nothing but
+ * the map lookup.</p>
+ *
+ * <p>A bucket whose TAT has fallen behind the clock is full, and therefore indistinguishable
+ * from a new one. Such idle buckets are swept out at most once per eviction interval, and when
+ * the number of principals reaches the configured maximum. If the map is still full after that,
+ * arbitrary buckets are evicted, which briefly resets their principals' limits.</p>
+ *
+ * <p>Admitted and rejected requests and evictions are published as the
+ * {@code security.ratelimit.requests} and {@code security.ratelimit.evictions} counters, and the
+ * number of tracked principals as the {@code security.ratelimit.principals} gauge.</p>
+ *
+ * @see RateLimitTiers
+ */
+public class RateLimiter implements MeterBinder {
+
+    private final boolean enabled;
+    private final RateLimitTiers tiers;
+    private final int maxPrincipals;
+    private final long evictionIntervalNanos;
+    private final LongSupplier nanoClock;
+
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweep;
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public RateLimiter(boolean enabled, RateLimitTiers tiers, int maxPrincipals, Duration evictionInterval) {
+        this(enabled, tiers, maxPrincipals, evictionInterval, System::nanoTime);
+    }
+
+    RateLimiter(boolean enabled, RateLimitTiers tiers, int maxPrincipals, Duration evictionInterval,
+            LongSupplier nanoClock) {
+        if (maxPrincipals <= 0) {
+            throw new IllegalArgumentException("maxPrincipals must be positive");
+        }
+        this.enabled = enabled;
+        this.tiers = tiers;
+        this.maxPrincipals = maxPrincipals;
+        this.evictionIntervalNanos = evictionInterval.toNanos();
+        this.nanoClock = nanoClock;
+        this.nextSweep = new AtomicLong(nanoClock.getAsLong() + evictionIntervalNanos);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Counts a request against the authenticated caller's limit.
+     *
+     * @return the decision, or {@code null} if the request is not rate limited (it did not
+     *         authenticate with a JWT)
+     */
+    @Nullable
+    public RateLimitDecision tryAcquire(@Nullable Authentication authentication) {
+        String key = tiers.principalKey(authentication);
+        return key == null ? null : tryAcquire(key, tiers.tierFor(authentication));
+    }
+
+    /**
+     * Counts a request against a principal's limit.
+     *
+     * @param key identifies the principal
+     * @param tier the limit that applies to the principal; if it differs from the tier of the
+     *        principal's existing bucket (e.g., their roles changed), the bucket is replaced
+     */
+    public RateLimitDecision tryAcquire(String key, RateLimitTier tier) {
+        long now = nanoClock.getAsLong();
+        Bucket bucket = buckets.get(key);
+        if (bucket == null || bucket.tier != tier) {
+            bucket = newBucket(key, tier, now);
+        } else if (now - nextSweep.get() >= 0) {
+            sweep(now);
+        }
+        RateLimitDecision decision = bucket.tryAcquire(now);
+        (decision.allowed() ? allowed : rejected).increment();
+        return decision;
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    private Bucket newBucket(String key, RateLimitTier tier, long now) {
+        if (buckets.size() >= maxPrincipals && !buckets.containsKey(key)) {
+            makeRoom(now);
+        }
+        return buckets.compute(key, (k, current) -> current != null && current.tier == tier ? current : new Bucket(tier, now));
+    }
+
+    private void sweep(long now) {
+        long next = nextSweep.get();
+        if (now - next >= 0 && nextSweep.compareAndSet(next, now + evictionIntervalNanos)) {
+            evictIdle(now);
+        }
+    }
+
+    private void evictIdle(long now) {
+        buckets.values().removeIf(bucket -> {
+            boolean idle = bucket.isIdle(now);
+            if (idle) {
+                evictions.increment();
+            }
+            return idle;
+        });
+    }
+
+    private void makeRoom(long now) {
+        evictIdle(now);
+        Iterator<String> keys = buckets.keySet().iterator();
+        while (buckets.size() >= maxPrincipals && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+            evictions.increment();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("security.ratelimit.requests", allowed, LongAdder::sum)
+            .tag("outcome", "allowed")
+            .description("The number of requests admitted by the rate limiter")
+            .register(registry);
+        FunctionCounter.builder("security.ratelimit.requests", rejected, LongAdder::sum)
+            .tag("outcome", "rejected")
+            .description("The number of requests rejected with 429 Too Many Requests")
+            .register(registry);
+        FunctionCounter.builder("security.ratelimit.evictions", evictions, LongAdder::sum)
+            .description("The number of principals' buckets evicted")
+            .register(registry);
+        Gauge.builder("security.ratelimit.principals", buckets, ConcurrentHashMap::size)
+            .description("The number of principals currently tracked by the rate limiter")
+            .register(registry);
+    }
+
+    /**
+     * One principal's bucket: the tier and the GCRA theoretical arrival time, in
+     * {@code System.nanoTime()} terms.
+     */
+    private static final class Bucket {
+
+        private final RateLimitTier tier;
+        private final AtomicLong tat;
+
+        Bucket(RateLimitTier tier, long now) {
+            this.tier = tier;
+            this.tat = new AtomicLong(now);
+        }
+
+        RateLimitDecision tryAcquire(long now) {
+            long interval = tier.getEmissionIntervalNanos();
+            long tolerance = tier.getPeriodNanos();
+            while (true) {
+                long current = tat.get();
+                long next = Math.max(current, now) + interval;
+                long excess = next - now - tolerance;
+                if (excess > 0) {
+                    return new RateLimitDecision(false, tier, 0, Math.max(0, current - now), excess);
+                }
+                if (tat.compareAndSet(current, next)) {
+                    return new RateLimitDecision(true, tier, -excess / interval, next - now, 0);
+                }
+            }
+        }
+
+        boolean isIdle(long now) {
+            return tat.get() - now <= 0;
+        }
+    }
+}
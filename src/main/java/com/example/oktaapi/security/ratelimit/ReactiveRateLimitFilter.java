@@ -0,0 +1,42 @@
+package com.example.oktaapi.security.ratelimit;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * The reactive equivalent of {@link RateLimitFilter}, for the WebFlux security filter chain. It
+ * must be added after the {@code AUTHENTICATION} filter.
+ */
+public class ReactiveRateLimitFilter implements WebFilter {
+
+    private final RateLimiter rateLimiter;
+
+    public ReactiveRateLimitFilter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        return ReactiveSecurityContextHolder.getContext()
+            .mapNotNull(context -> rateLimiter.tryAcquire(context.getAuthentication()))
+            .map(decision -> {
+                decision.writeHeaders(exchange.getResponse().getHeaders()::set);
+                return decision.allowed();
+            })
+            .defaultIfEmpty(true)
+            .flatMap(allowed -> {
+                if (allowed) {
+                    return chain.filter(exchange);
+                }
+                ServerHttpResponse response = exchange.getResponse();
+                response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+                return response.setComplete();
+            });
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.oktaapi.security.revocation;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.lang.Nullable;
+
+import com.example.oktaapi.util.BloomFilter;
+
+/**
+ * An immutable snapshot of the revoked tokens and subjects.
+ *
+ * <p>Lookups go through a {@link BloomFilter} first ({@link #mightContain}), so a token that is not
+ * revoked (almost every token) costs a few bit probes and no map lookup. Only a positive answer
+ * from the filter is confirmed against the exact entries ({@link #find}).</p>
+ */
+final class DenyList {
+
+    static final DenyList EMPTY = new DenyList(Map.of(), 0.01);
+
+    private final Map<String, Revocation> entries;
+    private final BloomFilter filter;
+
+    private DenyList(Map<String, Revocation> entries, double falsePositiveProbability) {
+        this.entries = entries;
+        this.filter = BloomFilter.of(entries.keySet(), falsePositiveProbability);
+    }
+
+    /**
+     * Builds a deny-list from the given entries, leaving out those that have expired. Later
+     * entries replace earlier ones with the same {@code jti} or subject.
+     */
+    static DenyList of(Collection<Revocation> revocations, Instant now, double falsePositiveProbability) {
+        Map<String, Revocation> entries = new HashMap<>();
+        for (Revocation revocation : revocations) {
+            if (revocation.expiresAt().isAfter(now)) {
+                entries.put(revocation.key(), revocation);
+            }
+        }
+        return new DenyList(Collections.unmodifiableMap(entries), falsePositiveProbability);
+    }
+
+    /**
+     * Looks up a token in the exact entries. Callers check {@link #mightContain} first.
+     *
+     * @return the entry that revokes the token, or {@code null} if it is not revoked
+     */
+    @Nullable
+    Revocation find(@Nullable String jti, @Nullable String subject, @Nullable Instant issuedAt, Instant now) {
+        if (jti != null) {
+            Revocation revocation = confirm(jtiKey(jti), now);
+            if (revocation != null) {
+                return revocation;
+            }
+        }
+        if (subject != null) {
+            Revocation revocation = confirm(subjectKey(subject), now);
+            // A token without iat cannot be shown to postdate the revocation
+            if (revocation != null && (issuedAt == null || !issuedAt.isAfter(revocation.revokedAt()))) {
+                return revocation;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns whether the Bloom filter might contain an entry for the token.
+     */
+    boolean mightContain(@Nullable String jti, @Nullable String subject) {
+        return (jti != null && filter.mightContain(jtiKey(jti)))
+            || (subject != null && filter.mightContain(subjectKey(subject)));
+    }
+
+    Collection<Revocation> entries() {
+        return entries.values();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private Revocation confirm(String key, Instant now) {
+        Revocation revocation = entries.get(key);
+        return revocation != null && revocation.expiresAt().isAfter(now) ? revocation : null;
+    }
+
+    static String jtiKey(String jti) {
+        return "jti:" + jti;
+    }
+
+    static String subjectKey(String subject) {
+        return "sub:" + subject;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.oktaapi.security.revocation;
+
+import java.time.Instant;
+
+import org.springframework.lang.Nullable;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * An entry in the token deny-list: either a single token, by its {@code jti}, or every token of a
+ * subject that was issued before the revocation.
+ *
+ * @param jti the ID of the revoked token, or {@code null} for a subject revocation
+ * @param subject the revoked subject, or {@code null} for a token revocation
+ * @param revokedAt when the revocation was made; tokens of a revoked subject issued after this
+ *        are not affected
+ * @param expiresAt when the entry is dropped, i.e. the revoked token's {@code exp}, or the time by
+ *        which every token issued to the subject before the revocation has expired
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record Revocation(@Nullable String jti, @Nullable String subject, @Nullable Instant revokedAt,
+        @Nullable Instant expiresAt) {
+
+    public Revocation {
+        if ((jti == null) == (subject == null)) {
+            throw new IllegalArgumentException("A revocation names either a jti or a subject");
+        }
+    }
+
+    public static Revocation ofToken(String jti, Instant revokedAt, Instant expiresAt) {
+        return new Revocation(jti, null, revokedAt, expiresAt);
+    }
+
+    public static Revocation ofSubject(String subject, Instant revokedAt, Instant expiresAt) {
+        return new Revocation(null, subject, revokedAt, expiresAt);
+    }
+
+    /**
+     * Returns the key under which the entry is stored in the deny-list.
+     */
+    String key() {
+        return jti != null ? DenyList.jtiKey(jti) : DenyList.subjectKey(subject);
+    }
+}
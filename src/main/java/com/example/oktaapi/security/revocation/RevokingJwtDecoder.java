@@ -0,0 +1,33 @@
+package com.example.oktaapi.security.revocation;
+
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+/**
+ * A {@link JwtDecoder} that rejects tokens on the {@link TokenRevocations} deny-list.
+ *
+ * <p>It wraps the whole decoder chain, including the verified-token cache, so a cached token is
+ * rejected as soon as it is revoked. Revoked tokens surface as {@link BadJwtException}s, which the
+ * resource server turns into {@code 401 Unauthorized} responses.</p>
+ */
+public class RevokingJwtDecoder implements JwtDecoder {
+
+    private final JwtDecoder delegate;
+    private final TokenRevocations revocations;
+
+    public RevokingJwtDecoder(JwtDecoder delegate, TokenRevocations revocations) {
+        this.delegate = delegate;
+        this.revocations = revocations;
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        Jwt jwt = delegate.decode(token);
+        if (revocations.find(jwt) != null) {
+            throw new BadJwtException("Jwt has been revoked");
+        }
+        return jwt;
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.oktaapi.security.revocation;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * The token deny-list: revokes individual tokens by {@code jti}, or all the tokens issued to a
+ * subject up to a point in time, without a call to the issuer per request.
+ *
+ * <p>Key Features:
+ * <ul>
+ *   <li>Lookups read a single volatile reference to an immutable {@link DenyList} and, for tokens
+ *       that are not revoked, only probe its Bloom filter. They never block.</li>
+ *   <li>Every change builds a new {@code DenyList} and swaps it in atomically. Changes are
+ *       serialized with each other, but are rare (administrative) compared to lookups.</li>
+ *   <li>Entries expire at the revoked token's {@code exp}; a subject revocation lasts
+ *       {@code subjectTtl}, the longest lifetime of a token issued before it. Expired entries are
+ *       dropped every {@code purgeInterval}.</li>
+ *   <li>The deny-list is loaded from a JSON file on startup (when one is configured), can be
+ *       re-read from it, and is written back to it after every change.</li>
+ *   <li>Lookups are counted as {@code security.revocation.checks}, tagged with
+ *       {@code result=clear} (ruled out by the Bloom filter), {@code result=confirmed_clear}
+ *       (a Bloom filter positive that the exact entries ruled out) or {@code result=revoked}.</li>
+ * </ul>
+ * </p>
+ */
+public class TokenRevocations implements MeterBinder, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocations.class);
+
+    private static final TypeReference<List<Revocation>> ENTRIES = new TypeReference<>() { };
+
+    private final boolean enabled;
+    private final Path file;
+    private final ObjectMapper objectMapper;
+    private final Duration subjectTtl;
+    private final Duration purgeInterval;
+    private final double falsePositiveProbability;
+    private final Clock clock;
+    private final ScheduledExecutorService scheduler;
+
+    private final LongAdder clear = new LongAdder();
+    private final LongAdder confirmedClear = new LongAdder();
+    private final LongAdder revoked = new LongAdder();
+
+    private volatile DenyList denyList = DenyList.EMPTY;
+
+    public TokenRevocations(boolean enabled, @Nullable Path file, ObjectMapper objectMapper, Duration subjectTtl,
+            Duration purgeInterval, double falsePositiveProbability) {
+        this(enabled, file, objectMapper, subjectTtl, purgeInterval, falsePositiveProbability, Clock.systemUTC());
+    }
+
+    TokenRevocations(boolean enabled, @Nullable Path file, ObjectMapper objectMapper, Duration subjectTtl,
+            Duration purgeInterval, double falsePositiveProbability, Clock clock) {
+        this.enabled = enabled;
+        this.file = file;
+        this.objectMapper = objectMapper;
+        this.subjectTtl = subjectTtl;
+        this.purgeInterval = purgeInterval;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.clock = clock;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "revocation-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Loads the deny-list file (if any) and schedules the purge of expired entries.
+     */
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        if (file != null && Files.isRegularFile(file)) {
+            try {
+                reload();
+            } catch (IOException e) {
+                logger.warn("Ignoring unreadable token deny-list {}", file, e);
+            }
+        }
+        scheduler.scheduleWithFixedDelay(this::purge, purgeInterval.toMillis(), purgeInterval.toMillis(),
+            TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Returns the entry that revokes the given token, or {@code null} if it is not revoked.
+     */
+    @Nullable
+    public Revocation find(Jwt jwt) {
+        DenyList denyList = this.denyList;
+        String jti = jwt.getId();
+        String subject = jwt.getSubject();
+        if (!denyList.mightContain(jti, subject)) {
+            clear.increment();
+            return null;
+        }
+        Revocation revocation = denyList.find(jti, subject, jwt.getIssuedAt(), clock.instant());
+        (revocation == null ? confirmedClear : revoked).increment();
+        return revocation;
+    }
+
+    /**
+     * Adds an entry to the deny-list, replacing any entry for the same {@code jti} or subject.
+     * {@code revokedAt} defaults to now. {@code expiresAt} defaults to {@code subjectTtl} after
+     * {@code revokedAt}, which is also the default for a token whose expiry is not known.
+     *
+     * @return the entry as stored
+     */
+    public synchronized Revocation revoke(Revocation revocation) throws IOException {
+        Instant revokedAt = revocation.revokedAt() != null ? revocation.revokedAt() : clock.instant();
+        Instant expiresAt = revocation.expiresAt() != null ? revocation.expiresAt() : revokedAt.plus(subjectTtl);
+        Revocation stored = new Revocation(revocation.jti(), revocation.subject(), revokedAt, expiresAt);
+
+        List<Revocation> entries = new ArrayList<>(denyList.entries());
+        entries.add(stored);
+        update(entries);
+        return stored;
+    }
+
+    /**
+     * Removes the entry for the given {@code jti} or subject.
+     *
+     * @return whether there was such an entry
+     */
+    public synchronized boolean remove(@Nullable String jti, @Nullable String subject) throws IOException {
+        String key = new Revocation(jti, subject, null, null).key();
+        List<Revocation> entries = new ArrayList<>(denyList.entries());
+        if (!entries.removeIf(entry -> entry.key().equals(key))) {
+            return false;
+        }
+        update(entries);
+        return true;
+    }
+
+    /**
+     * Replaces the deny-list with the contents of the file.
+     *
+     * @throws IllegalStateException if no file is configured
+     */
+    public synchronized void reload() throws IOException {
+        if (file == null) {
+            throw new IllegalStateException("No token deny-list file is configured");
+        }
+        List<Revocation> entries = objectMapper.readValue(file.toFile(), ENTRIES);
+        for (Revocation entry : entries) {
+            if (entry.revokedAt() == null || entry.expiresAt() == null) {
+                throw new IOException("Entries in " + file + " need revokedAt and expiresAt: " + entry);
+            }
+        }
+        denyList = DenyList.of(entries, clock.instant(), falsePositiveProbability);
+        logger.info("Loaded {} token revocation(s) from {}", denyList.size(), file);
+    }
+
+    /**
+     * Returns the current entries, soonest to expire first.
+     */
+    public List<Revocation> entries() {
+        List<Revocation> entries = new ArrayList<>(denyList.entries());
+        entries.sort(Comparator.comparing(Revocation::expiresAt));
+        return entries;
+    }
+
+    synchronized void purge() {
+        DenyList purged = DenyList.of(denyList.entries(), clock.instant(), falsePositiveProbability);
+        if (purged.size() != denyList.size()) {
+            denyList = purged;
+        }
+    }
+
+    private void update(List<Revocation> entries) throws IOException {
+        DenyList updated = DenyList.of(entries, clock.instant(), falsePositiveProbability);
+        save(updated);
+        denyList = updated;
+    }
+
+    private void save(DenyList denyList) throws IOException {
+        if (file == null) {
+            return;
+        }
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, "revocations", ".tmp");
+        objectMapper.writerFor(ENTRIES).writeValue(temp.toFile(), new ArrayList<>(denyList.entries()));
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        checkCounter(registry, clear, "clear");
+        checkCounter(registry, confirmedClear, "confirmed_clear");
+        checkCounter(registry, revoked, "revoked");
+        Gauge.builder("security.revocation.entries", this, revocations -> revocations.denyList.size())
+            .description("The number of revoked tokens and subjects")
+            .register(registry);
+    }
+
+    private static void checkCounter(MeterRegistry registry, LongAdder counter, String result) {
+        FunctionCounter.builder("security.revocation.checks", counter, LongAdder::sum)
+            .tag("result", result)
+            .description("Deny-list lookups of authenticated tokens")
+            .register(registry);
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.oktaapi.tracing;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.lang.Nullable;
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * Records the {@link TraceEvent}s of the request the current thread is handling.
+ *
+ * <p>A trace is a buffer of preallocated arrays. {@link RequestTraceFilter} takes one from a
+ * bounded pool for each request, binds it to the handling thread for the duration of the request
+ * and returns it afterwards, so buffers are reused across requests and threads (which matters with
+ * virtual threads, where every request runs on a new thread). Recording an event allocates
+ * nothing: it stores the event, a timestamp, a number and a reference to an object that already
+ * exists (e.g., the policy name or the authorities collection). Nothing is formatted unless
+ * {@link RequestTraceFilter} decides to keep the trace, in which case {@link #toRecord} copies it
+ * into a {@link TraceRecord}. Events that do not fit in the buffer are counted and dropped.</p>
+ *
+ * <p>Components along the request path report with the static {@link #event} methods, which do
+ * nothing when no request is being traced on the calling thread (e.g., on the reactive stack or
+ * during a background key refresh).</p>
+ */
+public final class RequestTrace {
+
+    private static final ThreadLocal<RequestTrace> CURRENT = new ThreadLocal<>();
+
+    private final TraceEvent[] events;
+    private final long[] nanos;
+    private final long[] values;
+    private final Object[] details;
+    private long startNanos;
+    private int size;
+    private int dropped;
+    private boolean open;
+
+    RequestTrace(int maxEvents) {
+        this.events = new TraceEvent[maxEvents];
+        this.nanos = new long[maxEvents];
+        this.values = new long[maxEvents];
+        this.details = new Object[maxEvents];
+    }
+
+    /**
+     * Starts tracing a request on the current thread.
+     */
+    void open() {
+        startNanos = System.nanoTime();
+        open = true;
+        CURRENT.set(this);
+    }
+
+    /**
+     * Stops tracing, unbinds the buffer from the current thread and clears it for its next request,
+     * releasing the references it held.
+     */
+    void close() {
+        open = false;
+        CURRENT.remove();
+        Arrays.fill(details, 0, size, null);
+        size = 0;
+        dropped = 0;
+    }
+
+    /**
+     * Records an event without a value or detail for the current request.
+     */
+    public static void event(TraceEvent event) {
+        event(event, 0, null);
+    }
+
+    /**
+     * Records an event for the current request. The detail is only formatted if the trace is
+     * kept, so it must not be modified afterwards.
+     */
+    public static void event(TraceEvent event, long value, @Nullable Object detail) {
+        RequestTrace trace = current();
+        if (trace != null && trace.open) {
+            trace.add(event, value, detail);
+        }
+    }
+
+    /**
+     * Returns the trace of the request the current thread is handling, if any.
+     */
+    @Nullable
+    static RequestTrace current() {
+        return CURRENT.get();
+    }
+
+    void add(TraceEvent event, long value, @Nullable Object detail) {
+        if (size == events.length) {
+            dropped++;
+            return;
+        }
+        events[size] = event;
+        nanos[size] = System.nanoTime();
+        values[size] = value;
+        details[size] = detail;
+        size++;
+    }
+
+    long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Copies the trace into an immutable record.
+     */
+    TraceRecord toRecord(long id, String method, String path, int status, String outcome) {
+        long elapsedNanos = elapsedNanos();
+        List<TraceRecord.Event> recorded = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            recorded.add(new TraceRecord.Event(TimeUnit.NANOSECONDS.toMicros(nanos[i] - startNanos),
+                events[i].getValue(), values[i], describe(details[i])));
+        }
+        return new TraceRecord(id, Instant.now().minusNanos(elapsedNanos), method, path, status, outcome,
+            elapsedNanos / 1e6, List.copyOf(recorded), dropped);
+    }
+
+    @Nullable
+    static String describe(@Nullable Object detail) {
+        if (detail == null) {
+            return null;
+        }
+        if (detail instanceof Throwable e) {
+            return e.getMessage() != null ? e.getClass().getSimpleName() + ": " + e.getMessage()
+                : e.getClass().getSimpleName();
+        }
+        if (detail instanceof Collection<?> collection) {
+            StringJoiner joiner = new StringJoiner(",");
+            for (Object element : collection) {
+                joiner.add(element instanceof GrantedAuthority authority ? authority.getAuthority()
+                    : String.valueOf(element));
+            }
+            return joiner.toString();
+        }
+        return detail.toString();
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.oktaapi.tracing;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Traces every request with a {@link RequestTrace} and, once the response status is known,
+ * decides whether to keep the trace in the {@link TraceStore}.
+ *
+ * <p>The decision is made at the end of the request, so a trace is kept whenever the request
+ * failed (with an exception or a 4xx or 5xx status) and, for the rest, for a random sample of
+ * {@code sampleRate} of the requests. Only kept traces are formatted and copied; for the others,
+ * tracing costs a few array writes per event.</p>
+ *
+ * <p>The trace buffers are pooled: a request takes one from the pool, or allocates one if the
+ * pool is empty, and gives it back when it completes. At most {@code poolSize} idle buffers are
+ * kept, so the memory held by tracing is bounded however many threads have served requests.</p>
+ *
+ * <p>This filter must run before the rest of the security filter chain, so that requests
+ * rejected with 401, 403 or 429 are traced too. Events recorded by other threads, e.g. while a
+ * request is processed asynchronously, are not part of its trace.</p>
+ */
+public class RequestTraceFilter extends OncePerRequestFilter {
+
+    static final String OK = "ok";
+    private static final String ERROR = "error";
+
+    private final TraceStore store;
+    private final double sampleRate;
+    private final int maxEvents;
+    private final BlockingQueue<RequestTrace> pool;
+
+    /**
+     * @param store where kept traces are added
+     * @param sampleRate the fraction of successful requests whose trace is kept, from 0 to 1
+     * @param maxEvents the number of events recorded per request
+     * @param poolSize the number of idle trace buffers kept for reuse
+     */
+    public RequestTraceFilter(TraceStore store, double sampleRate, int maxEvents, int poolSize) {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("sampleRate must be between 0 and 1");
+        }
+        if (maxEvents <= 0) {
+            throw new IllegalArgumentException("maxEvents must be positive");
+        }
+        if (poolSize <= 0) {
+            throw new IllegalArgumentException("poolSize must be positive");
+        }
+        this.store = store;
+        this.sampleRate = sampleRate;
+        this.maxEvents = maxEvents;
+        this.pool = new ArrayBlockingQueue<>(poolSize);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestTrace trace = pool.poll();
+        if (trace == null) {
+            trace = new RequestTrace(maxEvents);
+        }
+        trace.open();
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = false;
+        } catch (ServletException | IOException | RuntimeException e) {
+            trace.add(TraceEvent.ERROR, 0, e);
+            throw e;
+        } finally {
+            try {
+                int status = response.getStatus();
+                if (failed || status >= 400 || isSampled()) {
+                    String outcome = failed ? ERROR : status < 400 ? OK : Integer.toString(status);
+                    store.add(trace.toRecord(store.nextId(), request.getMethod(), request.getRequestURI(), status,
+                        outcome));
+                } else {
+                    store.discard();
+                }
+            } finally {
+                trace.close();
+                pool.offer(trace);
+            }
+        }
+    }
+
+    private boolean isSampled() {
+        return sampleRate >= 1 || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.oktaapi.tracing;
+
+import java.util.List;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.lang.Nullable;
+
+/**
+ * An actuator endpoint ({@code /actuator/securitytraces}) listing the request traces held by the
+ * {@link TraceStore}, newest first.
+ *
+ * <p>{@code /actuator/securitytraces?outcome=403} narrows the list to one outcome ({@code ok},
+ * {@code error} or a status code), and {@code /actuator/securitytraces/{id}} returns one trace.</p>
+ *
+ * @see RequestTraceFilter
+ */
+@Endpoint(id = "securitytraces")
+public class SecurityTraceEndpoint {
+
+    private final TraceStore store;
+
+    public SecurityTraceEndpoint(TraceStore store) {
+        this.store = store;
+    }
+
+    @ReadOperation
+    public List<TraceRecord> traces(@Nullable String outcome) {
+        return store.recent(outcome);
+    }
+
+    @ReadOperation
+    public TraceRecord trace(@Selector long id) {
+        return store.find(id);
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.oktaapi.tracing;
+
+/**
+ * The security-pipeline events recorded in a {@link RequestTrace}. Each event carries a numeric
+ * value and an optional detail, whose meaning depends on the event.
+ */
+public enum TraceEvent {
+
+    /** A bearer token was found in the request. The value is its length. */
+    TOKEN_RESOLVED("token_resolved"),
+    /** The JWT was decoded and verified. The value is the time taken in nanoseconds, the detail its issuer. */
+    JWT_DECODED("jwt_decoded"),
+    /** The JWT was rejected. The value is the time taken in nanoseconds, the detail the reason. */
+    JWT_REJECTED("jwt_rejected"),
+    /**
+     * The caller was authenticated. The value is the number of its authorities that the policies
+     * refer to (the size of its authority mask), the detail its token type.
+     */
+    AUTHENTICATED("authenticated"),
+    /** The caller's granted authorities. The value is their number, the detail the authorities. */
+    AUTHORITIES("authorities"),
+    /** A policy was satisfied. The value is the size of the authority mask it was evaluated against, the detail its name. */
+    POLICY_GRANTED("policy_granted"),
+    /** A policy was not satisfied. The value is the size of the authority mask it was evaluated against, the detail its name. */
+    POLICY_DENIED("policy_denied"),
+    /** The caller was over its rate limit. The value is the retry delay in nanoseconds, the detail the tier. */
+    RATE_LIMITED("rate_limited"),
+    /** The request was shed because the concurrency limit was reached. */
+    LOAD_SHED("load_shed"),
+    /** The request failed with an exception. The detail is the exception. */
+    ERROR("error");
+
+    private final String value;
+
+    TraceEvent(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+}
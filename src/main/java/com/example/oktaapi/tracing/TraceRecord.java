@@ -0,0 +1,34 @@
+package com.example.oktaapi.tracing;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A request trace kept by {@link RequestTraceFilter}: the request, how it ended, and the
+ * security-pipeline events recorded while it was handled.
+ *
+ * @param id the trace's sequence number, unique within the application's lifetime
+ * @param time when the request started
+ * @param method the request's HTTP method
+ * @param path the request's path, without the query string
+ * @param status the response status
+ * @param outcome {@code ok} for a successful request, {@code error} for one that failed with an
+ *        exception, otherwise the status code
+ * @param durationMs the time taken to handle the request
+ * @param events the recorded events, in order
+ * @param droppedEvents the number of events that did not fit in the trace buffer
+ */
+public record TraceRecord(long id, Instant time, String method, String path, int status, String outcome,
+        double durationMs, List<Event> events, int droppedEvents) {
+
+    /**
+     * One recorded event.
+     *
+     * @param atMicros when the event was recorded, relative to the start of the request
+     * @param type the event's {@link TraceEvent#getValue() value}
+     * @param value the event's numeric value
+     * @param detail the event's detail, if any
+     */
+    public record Event(long atMicros, String type, long value, String detail) {
+    }
+}
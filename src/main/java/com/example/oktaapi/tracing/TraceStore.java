@@ -0,0 +1,118 @@
+package com.example.oktaapi.tracing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.lang.Nullable;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Holds the most recent {@link TraceRecord}s kept by {@link RequestTraceFilter}, up to a fixed
+ * capacity.
+ *
+ * <p>Traces are written to a ring of slots indexed by their ID, so adding one is a single
+ * volatile write that replaces the oldest trace, and request threads never wait for each other or
+ * for readers. The number of traced requests is counted as {@code security.tracing.requests},
+ * tagged with {@code result} ({@code failed}, {@code sampled} or {@code discarded}).</p>
+ */
+public class TraceStore implements MeterBinder {
+
+    private final AtomicReferenceArray<TraceRecord> slots;
+    private final AtomicLong lastId = new AtomicLong();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder sampled = new LongAdder();
+    private final LongAdder discarded = new LongAdder();
+
+    /**
+     * @param capacity the number of traces kept
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public TraceStore(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * Reserves the ID of the next trace to be added.
+     */
+    long nextId() {
+        return lastId.incrementAndGet();
+    }
+
+    /**
+     * Adds a trace, replacing the oldest one if the store is full.
+     */
+    void add(TraceRecord trace) {
+        slots.set(slot(trace.id()), trace);
+        (isFailed(trace) ? failed : sampled).increment();
+    }
+
+    /**
+     * Counts a request whose trace was not kept.
+     */
+    void discard() {
+        discarded.increment();
+    }
+
+    /**
+     * Returns the traces held, newest first.
+     *
+     * @param outcome only return traces with this outcome, if not {@code null}
+     */
+    public List<TraceRecord> recent(@Nullable String outcome) {
+        List<TraceRecord> traces = new ArrayList<>();
+        long newest = lastId.get();
+        for (long id = newest; id > 0 && id > newest - slots.length(); id--) {
+            TraceRecord trace = find(id);
+            if (trace != null && (outcome == null || outcome.equals(trace.outcome()))) {
+                traces.add(trace);
+            }
+        }
+        return traces;
+    }
+
+    /**
+     * Returns the trace with the given ID, or {@code null} if it has been replaced (or its request
+     * is still being recorded).
+     */
+    @Nullable
+    public TraceRecord find(long id) {
+        if (id <= 0) {
+            return null;
+        }
+        TraceRecord trace = slots.get(slot(id));
+        return trace != null && trace.id() == id ? trace : null;
+    }
+
+    private int slot(long id) {
+        return (int) ((id - 1) % slots.length());
+    }
+
+    private static boolean isFailed(TraceRecord trace) {
+        return !RequestTraceFilter.OK.equals(trace.outcome());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("security.tracing.requests", failed, LongAdder::sum)
+            .tag("result", "failed")
+            .description("Requests whose trace was kept because they failed")
+            .register(registry);
+        FunctionCounter.builder("security.tracing.requests", sampled, LongAdder::sum)
+            .tag("result", "sampled")
+            .description("Successful requests whose trace was kept because they were sampled")
+            .register(registry);
+        FunctionCounter.builder("security.tracing.requests", discarded, LongAdder::sum)
+            .tag("result", "discarded")
+            .description("Requests whose trace was discarded")
+            .register(registry);
+    }
+}
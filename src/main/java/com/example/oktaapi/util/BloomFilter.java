@@ -0,0 +1,105 @@
+package com.example.oktaapi.util;
+
+import java.util.Collection;
+
+/**
+ * An immutable Bloom filter over strings: a compact set that may report false positives but never
+ * false negatives.
+ *
+ * <p>The filter is sized for a number of elements and a target false-positive probability when it
+ * is built, and cannot be added to afterwards, so lookups are plain reads of a {@code long[]} and
+ * need no synchronization. Each string is hashed once (64-bit FNV-1a, finalized with the
+ * MurmurHash3 mixer); the probe positions are derived from the two halves of that hash by double
+ * hashing.</p>
+ */
+public final class BloomFilter {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final long[] words;
+    private final long bits;
+    private final int hashes;
+
+    private BloomFilter(long[] words, int hashes) {
+        this.words = words;
+        this.bits = (long) words.length * Long.SIZE;
+        this.hashes = hashes;
+    }
+
+    /**
+     * Builds a filter containing the given elements.
+     *
+     * @param elements the elements
+     * @param falsePositiveProbability the target probability that {@link #mightContain} returns
+     *        {@code true} for an element that is not in the filter, e.g. {@code 0.01}
+     */
+    public static BloomFilter of(Collection<String> elements, double falsePositiveProbability) {
+        if (falsePositiveProbability <= 0.0 || falsePositiveProbability >= 1.0) {
+            throw new IllegalArgumentException("falsePositiveProbability must be between 0 and 1");
+        }
+        int n = Math.max(1, elements.size());
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+        int k = Math.max(1, (int) Math.round((double) m / n * Math.log(2)));
+        BloomFilter filter = new BloomFilter(new long[(int) ((m + Long.SIZE - 1) / Long.SIZE)], k);
+        for (String element : elements) {
+            filter.add(element);
+        }
+        return filter;
+    }
+
+    /**
+     * Returns {@code false} if the element is definitely not in the filter, and {@code true} if it
+     * might be.
+     */
+    public boolean mightContain(String element) {
+        long hash = hash(element);
+        long h1 = hash;
+        long h2 = hash >>> 32 | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bits);
+            if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the size of the filter in bits.
+     */
+    public long bitSize() {
+        return bits;
+    }
+
+    /**
+     * Returns the number of bits probed per element.
+     */
+    public int hashCount() {
+        return hashes;
+    }
+
+    private void add(String element) {
+        long hash = hash(element);
+        long h1 = hash;
+        long h2 = hash >>> 32 | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bits);
+            words[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    private static long hash(String element) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < element.length(); i++) {
+            hash ^= element.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
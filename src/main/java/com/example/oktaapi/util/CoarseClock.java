@@ -0,0 +1,59 @@
+package com.example.oktaapi.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * A wall clock with millisecond resolution that is read from a volatile field rather than from
+ * the operating system.
+ *
+ * <p>A single daemon thread advances the clock about once per millisecond, so reading it costs a
+ * volatile load and readers can tell that the time has not moved on since their last read (see
+ * {@link TimestampedJson}, which re-renders a response at most once per tick).</p>
+ */
+public final class CoarseClock implements LongSupplier {
+
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private volatile long millis = System.currentTimeMillis();
+
+    private CoarseClock() {
+    }
+
+    /**
+     * Returns the shared clock, starting its thread on first use.
+     */
+    public static CoarseClock system() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Returns the current time in milliseconds since the epoch, as of the last tick.
+     */
+    public long millis() {
+        return millis;
+    }
+
+    @Override
+    public long getAsLong() {
+        return millis;
+    }
+
+    private void tick() {
+        while (true) {
+            LockSupport.parkNanos(TICK_NANOS);
+            millis = System.currentTimeMillis();
+        }
+    }
+
+    private static final class Holder {
+        private static final CoarseClock INSTANCE = start();
+
+        private static CoarseClock start() {
+            CoarseClock clock = new CoarseClock();
+            Thread.ofPlatform().name("coarse-clock").daemon().start(clock::tick);
+            return clock;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.oktaapi.util;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded, thread-safe cache whose entries each carry their own expiry time.
+ *
+ * <p>Entries are never returned once their expiry time has passed; they are removed lazily on
+ * lookup, and in bulk when the cache is full (at most once per {@value #PURGE_INTERVAL_MILLIS} ms,
+ * so that a full cache does not scan every entry on every insert). If the cache is still full,
+ * the oldest entries are evicted in insertion order to make room, which takes constant time per
+ * eviction. The size bound is therefore approximate under heavy concurrent writes, but it is never
+ * exceeded by more than the number of concurrent writers.</p>
+ *
+ * <p>Hit, miss and eviction counts are kept in {@link LongAdder}s so they can be exported as
+ * metrics without adding contention to the lookup path.</p>
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class ExpiringCache<K, V> {
+
+    static final long PURGE_INTERVAL_MILLIS = 1_000;
+
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    // Keys in insertion order. Keys of entries that have since been removed stay until they are
+    // polled for eviction or dropped when the queue is compacted.
+    private final Queue<K> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong nextPurgeMillis = new AtomicLong(Long.MIN_VALUE);
+    private final int maxSize;
+    private final Clock clock;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ExpiringCache(int maxSize) {
+        this(maxSize, Clock.systemUTC());
+    }
+
+    public ExpiringCache(int maxSize, Clock clock) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.maxSize = maxSize;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the value cached for the given key, or {@code null} if there is no live entry.
+     */
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.expiresAtMillis() <= clock.millis()) {
+            entries.remove(key, entry);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value();
+    }
+
+    /**
+     * Caches a value until the given instant. Values that are already expired (or that have no
+     * expiry at all) are not cached.
+     */
+    public void put(K key, V value, Instant expiresAt) {
+        if (expiresAt == null) {
+            return;
+        }
+        long expiresAtMillis = expiresAt.toEpochMilli();
+        if (expiresAtMillis <= clock.millis()) {
+            return;
+        }
+        if (entries.size() >= maxSize && !entries.containsKey(key)) {
+            makeRoom();
+        }
+        if (entries.put(key, new Entry<>(value, expiresAtMillis)) == null) {
+            insertionOrder.offer(key);
+            if (queued.incrementAndGet() > 2 * maxSize) {
+                compactInsertionOrder();
+            }
+        }
+    }
+
+    public void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public void clear() {
+        entries.clear();
+        insertionOrder.clear();
+        queued.set(0);
+    }
+
+    /**
+     * Removes every entry whose expiry time has passed.
+     */
+    public void purgeExpired() {
+        long now = clock.millis();
+        entries.values().removeIf(entry -> entry.expiresAtMillis() <= now);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public int maxSize() {
+        return maxSize;
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    private void makeRoom() {
+        long now = clock.millis();
+        long nextPurge = nextPurgeMillis.get();
+        if (now >= nextPurge && nextPurgeMillis.compareAndSet(nextPurge, now + PURGE_INTERVAL_MILLIS)) {
+            purgeExpired();
+        }
+        while (entries.size() >= maxSize) {
+            K oldest = insertionOrder.poll();
+            if (oldest == null) {
+                return;
+            }
+            queued.decrementAndGet();
+            if (entries.remove(oldest) != null) {
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * Drops the keys of removed entries (and repeats of re-inserted keys) from the insertion
+     * order, so that it does not grow without bound while entries expire or are invalidated faster
+     * than the cache fills up. Runs at most once per {@code maxSize} inserts.
+     */
+    private void compactInsertionOrder() {
+        Set<K> seen = new HashSet<>();
+        insertionOrder.removeIf(key -> !entries.containsKey(key) || !seen.add(key));
+        queued.set(insertionOrder.size());
+    }
+
+    private record Entry<V>(V value, long expiresAtMillis) {
+    }
+}
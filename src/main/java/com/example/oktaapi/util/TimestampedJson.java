@@ -0,0 +1,167 @@
+package com.example.oktaapi.util;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongFunction;
+import java.util.function.LongSupplier;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * A JSON response body whose only varying part is a timestamp, pre-encoded once so that serving
+ * it does not go through Jackson.
+ *
+ * <p>The body is serialized by the application's {@link ObjectMapper} once, with the timestamp
+ * replaced by a placeholder, and split into the bytes before and after it. On each request the
+ * current time of a (coarse) clock is encoded by the same {@code ObjectMapper} and spliced in
+ * between. The rendered body is kept until the clock ticks, so at most one body is built per
+ * millisecond however many requests are served, and the output is byte-for-byte what serializing
+ * the original object at that time would produce.</p>
+ *
+ * <p>Responses carry {@code Cache-Control: no-cache}, {@code Vary: Accept} and a strong
+ * {@code ETag} that identifies the whole response: a digest of the content type and the fixed
+ * part of the body, computed once, followed by the time that was spliced in. Clients therefore
+ * revalidate every time and receive {@code 304 Not Modified} only when they already have the
+ * current body. Spring MVC and WebFlux both evaluate {@code If-None-Match} against it. No
+ * {@code Last-Modified} is sent: it has one-second resolution, while the body changes every
+ * millisecond.</p>
+ */
+public final class TimestampedJson {
+
+    private static final String PLACEHOLDER = "\u0000timestamp\u0000";
+
+    private final ObjectMapper objectMapper;
+    private final LongFunction<?> timestamp;
+    private final LongSupplier clock;
+    private final byte[] prefix;
+    private final byte[] suffix;
+    private final MediaType contentType;
+    private final String etagPrefix;
+
+    private volatile Rendered rendered = new Rendered(Long.MIN_VALUE, null, null);
+
+    private TimestampedJson(ObjectMapper objectMapper, LongFunction<?> timestamp, LongSupplier clock, byte[] prefix,
+            byte[] suffix, MediaType contentType) {
+        this.objectMapper = objectMapper;
+        this.timestamp = timestamp;
+        this.clock = clock;
+        this.prefix = prefix;
+        this.suffix = suffix;
+        this.contentType = contentType;
+        byte[] representation = concat(contentType.toString().getBytes(StandardCharsets.UTF_8), prefix, suffix);
+        this.etagPrefix = "\"" + DigestUtils.md5DigestAsHex(representation) + "-";
+    }
+
+    /**
+     * Creates a template from a response body.
+     *
+     * @param objectMapper the mapper that would otherwise serialize the body
+     * @param body an instance of the body; the value of its timestamp field is ignored
+     * @param field the name of the body's timestamp field
+     * @param timestamp converts the clock's time in epoch milliseconds to the value the body
+     *        holds in its timestamp field (e.g., a {@code LocalDateTime})
+     * @param clock supplies the current time in epoch milliseconds
+     */
+    public static TimestampedJson of(ObjectMapper objectMapper, Object body, String field, LongFunction<?> timestamp,
+            LongSupplier clock) {
+        return of(objectMapper, body, field, timestamp, clock, MediaType.APPLICATION_JSON);
+    }
+
+    /**
+     * Creates a template from a response body, for a variant of {@code application/json}
+     * (e.g., one that formats the timestamp differently).
+     *
+     * @param contentType the content type of the responses; also distinguishes their {@code ETag}
+     *        from other variants of the same body
+     * @see #of(ObjectMapper, Object, String, LongFunction, LongSupplier)
+     */
+    public static TimestampedJson of(ObjectMapper objectMapper, Object body, String field, LongFunction<?> timestamp,
+            LongSupplier clock, MediaType contentType) {
+        ObjectNode tree = objectMapper.valueToTree(body);
+        if (!tree.has(field)) {
+            throw new IllegalArgumentException("No field '" + field + "' in " + tree);
+        }
+        tree.put(field, PLACEHOLDER);
+
+        byte[] template = write(objectMapper, tree);
+        byte[] placeholder = write(objectMapper, PLACEHOLDER);
+        int index = indexOf(template, placeholder);
+        return new TimestampedJson(objectMapper, timestamp, clock, Arrays.copyOfRange(template, 0, index),
+            Arrays.copyOfRange(template, index + placeholder.length, template.length), contentType);
+    }
+
+    /**
+     * Returns the body as of the clock's current time. The returned array is shared and must not
+     * be modified.
+     */
+    public byte[] render() {
+        return current().body();
+    }
+
+    /**
+     * Returns a {@code 200 OK} response with the current body and the caching headers.
+     */
+    public ResponseEntity<byte[]> toResponseEntity() {
+        Rendered current = current();
+        return new ResponseEntity<>(current.body(), current.headers(), HttpStatus.OK);
+    }
+
+    private Rendered current() {
+        long now = clock.getAsLong();
+        Rendered rendered = this.rendered;
+        if (rendered.millis() != now) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(contentType);
+            headers.setETag(etagPrefix + Long.toHexString(now) + "\"");
+            headers.setCacheControl(CacheControl.noCache());
+            headers.setVary(List.of(HttpHeaders.ACCEPT));
+            rendered = new Rendered(now, concat(prefix, write(objectMapper, timestamp.apply(now)), suffix),
+                HttpHeaders.readOnlyHttpHeaders(headers));
+            this.rendered = rendered;
+        }
+        return rendered;
+    }
+
+    private static byte[] write(ObjectMapper objectMapper, Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize " + value, e);
+        }
+    }
+
+    private static int indexOf(byte[] bytes, byte[] target) {
+        outer:
+        for (int i = 0; i <= bytes.length - target.length; i++) {
+            for (int j = 0; j < target.length; j++) {
+                if (bytes[i + j] != target[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        throw new IllegalStateException("Timestamp placeholder not found in the serialized body");
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.writeBytes(part);
+        }
+        return out.toByteArray();
+    }
+
+    private record Rendered(long millis, byte[] body, HttpHeaders headers) {
+    }
+}
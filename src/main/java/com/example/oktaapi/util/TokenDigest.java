@@ -0,0 +1,72 @@
+package com.example.oktaapi.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * Computes compact, fixed-size digests of bearer tokens so they can be used as cache keys
+ * without keeping the raw token strings in memory.
+ */
+public final class TokenDigest {
+
+    private static final MessageDigest PROTOTYPE = newSha256();
+
+    /**
+     * Reused by pooled (platform) threads. A virtual thread runs a single request and is then
+     * discarded, so a thread-local would only add a map entry per request; virtual threads clone
+     * the prototype instead, which skips the provider lookup.
+     */
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(TokenDigest::newSha256);
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private TokenDigest() {
+    }
+
+    /**
+     * Returns the URL-safe Base64 encoding of the SHA-256 digest of the given token.
+     */
+    public static String sha256(String token) {
+        return ENCODER.encodeToString(sha256().digest(token.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    /**
+     * Returns the first 64 bits of the SHA-256 digest of the given value (e.g., a token subject),
+     * for records that identify a caller without storing who it is.
+     */
+    public static long sha256Prefix(String value) {
+        byte[] hash = sha256().digest(value.getBytes(StandardCharsets.UTF_8));
+        long prefix = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            prefix = (prefix << 8) | (hash[i] & 0xFF);
+        }
+        return prefix;
+    }
+
+    private static MessageDigest sha256() {
+        if (Thread.currentThread().isVirtual()) {
+            return cloneSha256();
+        }
+        MessageDigest digest = SHA_256.get();
+        digest.reset();
+        return digest;
+    }
+
+    private static MessageDigest cloneSha256() {
+        try {
+            return (MessageDigest) PROTOTYPE.clone();
+        } catch (CloneNotSupportedException e) {
+            return newSha256();
+        }
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.oktaapi.audit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import com.example.oktaapi.security.OktaAuthenticationToken;
+import com.example.oktaapi.security.TokenType;
+import com.example.oktaapi.security.policy.AuthorityMask;
+import com.example.oktaapi.util.TokenDigest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AccessAuditLogTest {
+
+    private static final long NOW = Instant.parse("2025-01-01T00:00:00Z").toEpochMilli();
+
+    @TempDir
+    Path directory;
+
+    private AccessAuditLog auditLog;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (auditLog != null) {
+            auditLog.close();
+        }
+    }
+
+    @Test
+    void whenDecisionsAreFlushed_thenReaderDecodesThem() throws Exception {
+        auditLog = auditLog(1024, 1024 * 1024, 4);
+
+        auditLog.record(System.nanoTime() - 5_000, "/api/private", 200, authentication("00u123"));
+        auditLog.record(System.nanoTime(), "/api/admin", 401, null);
+        auditLog.flush();
+
+        List<Path> segments = AuditSegmentReader.segments(directory);
+        assertThat(segments).hasSize(1);
+        List<AccessRecord> records = AuditSegmentReader.read(segments.get(0));
+        assertThat(records).hasSize(2);
+
+        AccessRecord allowed = records.get(0);
+        assertThat(allowed.timestamp()).isEqualTo(Instant.ofEpochMilli(NOW));
+        assertThat(allowed.endpoint()).isEqualTo("/api/private");
+        assertThat(allowed.status()).isEqualTo(200);
+        assertThat(allowed.decision()).isEqualTo(AccessDecision.ALLOW);
+        assertThat(allowed.tokenType()).isEqualTo(TokenType.USER);
+        assertThat(allowed.subjectHash()).isEqualTo(TokenDigest.sha256Prefix("00u123"));
+        assertThat(allowed.latencyNanos()).isGreaterThanOrEqualTo(5_000);
+
+        AccessRecord denied = records.get(1);
+        assertThat(denied.decision()).isEqualTo(AccessDecision.DENY);
+        assertThat(denied.tokenType()).isNull();
+        assertThat(denied.subjectHash()).isZero();
+    }
+
+    @Test
+    void whenSegmentIsFull_thenNextOneIsStartedAndOldestAreDeleted() throws Exception {
+        // Room for two records per segment, and three segments kept
+        auditLog = auditLog(1024, AuditSegmentWriter.HEADER_SIZE + 2 * AccessRecord.SIZE, 3);
+
+        for (int i = 0; i < 7; i++) {
+            auditLog.record(System.nanoTime(), "/api/public/" + i, 200, null);
+        }
+        auditLog.flush();
+
+        List<Path> segments = AuditSegmentReader.segments(directory);
+        assertThat(segments).hasSize(3);
+        List<String> endpoints = new ArrayList<>();
+        for (Path segment : segments) {
+            AuditSegmentReader.read(segment).forEach(record -> endpoints.add(record.endpoint()));
+        }
+        assertThat(endpoints).containsExactly("/api/public/2", "/api/public/3", "/api/public/4", "/api/public/5",
+            "/api/public/6");
+    }
+
+    @Test
+    void whenBufferIsFull_thenDecisionsAreDroppedAndCounted() throws Exception {
+        auditLog = auditLog(4, 1024 * 1024, 4);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        auditLog.bindTo(registry);
+
+        for (int i = 0; i < 6; i++) {
+            auditLog.record(System.nanoTime(), "/api/public", 200, null);
+        }
+        auditLog.flush();
+
+        assertThat(registry.get("security.audit.records").tag("result", "written").functionCounter().count())
+            .isEqualTo(4);
+        assertThat(registry.get("security.audit.records").tag("result", "dropped").functionCounter().count())
+            .isEqualTo(2);
+    }
+
+    @Test
+    void whenManyThreadsRecord_thenEveryRecordIsDrainedOnce() throws Exception {
+        AuditRingBuffer buffer = new AuditRingBuffer(8192);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> producers = new ArrayList<>();
+        for (int thread = 0; thread < 4; thread++) {
+            long base = thread * 1000L;
+            producers.add(executor.submit(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    buffer.offer(NOW, base + i, 0, 200, AccessDecision.ALLOW, null, new byte[0]);
+                }
+            }));
+        }
+        for (Future<?> producer : producers) {
+            producer.get();
+        }
+        executor.shutdown();
+
+        ByteBuffer target = ByteBuffer.allocate(8192 * AccessRecord.SIZE);
+        assertThat(buffer.drainTo(target)).isEqualTo(4000);
+        Set<Long> latencies = new HashSet<>();
+        for (int i = 0; i < 4000; i++) {
+            latencies.add(AccessRecord.read(target, i * AccessRecord.SIZE).latencyNanos());
+        }
+        assertThat(latencies).hasSize(4000);
+        assertThat(buffer.size()).isZero();
+    }
+
+    @Test
+    void whenEndpointIsTooLong_thenItIsTruncatedOnACharacterBoundary() {
+        String endpoint = "/api/" + "é".repeat(100);
+
+        byte[] encoded = AccessRecord.encodeEndpoint(endpoint);
+
+        assertThat(encoded.length).isLessThanOrEqualTo(AccessRecord.MAX_ENDPOINT_BYTES);
+        assertThat(endpoint).startsWith(new String(encoded, StandardCharsets.UTF_8));
+    }
+
+    private AccessAuditLog auditLog(int bufferCapacity, long segmentSize, int maxSegments) {
+        return new AccessAuditLog(true, directory, bufferCapacity, segmentSize, maxSegments, Duration.ofHours(1),
+            () -> NOW);
+    }
+
+    private static OktaAuthenticationToken authentication(String subject) {
+        Jwt jwt = Jwt.withTokenValue("token")
+            .header("alg", "RS256")
+            .subject(subject)
+            .claim("cid", "0oa123")
+            .build();
+        return new OktaAuthenticationToken(jwt, AuthorityUtils.NO_AUTHORITIES, TokenType.USER, Set.of(), AuthorityMask.EMPTY, null);
+    }
+}
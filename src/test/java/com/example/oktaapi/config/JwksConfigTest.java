@@ -0,0 +1,40 @@
+package com.example.oktaapi.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+class JwksConfigTest {
+
+    @Test
+    void whenIssuerIsACustomAuthorizationServer_thenKeysAreUnderTheIssuer() {
+        assertThat(JwksConfig.oktaJwksUri("https://example.okta.com/oauth2/default"))
+            .isEqualTo("https://example.okta.com/oauth2/default/v1/keys");
+    }
+
+    @Test
+    void whenIssuerIsTheOrgAuthorizationServer_thenKeysAreUnderOAuth2() {
+        assertThat(JwksConfig.oktaJwksUri("https://example.okta.com"))
+            .isEqualTo("https://example.okta.com/oauth2/v1/keys");
+        assertThat(JwksConfig.oktaJwksUri("https://example.okta.com/"))
+            .isEqualTo("https://example.okta.com/oauth2/v1/keys");
+    }
+
+    @Test
+    void whenIssuerIsNotAnOktaAuthorizationServer_thenNoUriIsDerived() {
+        assertThat(JwksConfig.oktaJwksUri("https://idp.example.com/realms/api")).isNull();
+    }
+
+    @Test
+    void whenTenantHasNoJwksUri_thenItIsDerivedFromItsIssuer() {
+        AppAuthoritiesConfig.Tenant tenant = new AppAuthoritiesConfig.Tenant();
+        tenant.setIssuer("https://acme.okta.com");
+        assertThat(tenant.jwksUriOrDefault()).isEqualTo("https://acme.okta.com/oauth2/v1/keys");
+
+        tenant.setIssuer("https://idp.example.com/realms/api");
+        assertThatThrownBy(tenant::jwksUriOrDefault)
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("jwks-uri");
+    }
+}
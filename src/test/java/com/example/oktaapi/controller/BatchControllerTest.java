@@ -0,0 +1,132 @@
+package com.example.oktaapi.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.example.oktaapi.audit.AccessAuditLog;
+import com.example.oktaapi.config.AppAuthoritiesConfig;
+import com.example.oktaapi.config.AuthorizationPolicyConfig;
+import com.example.oktaapi.config.BatchConfig;
+import com.example.oktaapi.config.RateLimitConfig;
+import com.example.oktaapi.config.TestSecurityConfig;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@WebMvcTest(controllers = BatchController.class)
+@Import({
+    AppAuthoritiesConfig.class,
+    AuthorizationPolicyConfig.class,
+    BatchConfig.class,
+    RateLimitConfig.class,
+    TestSecurityConfig.class
+})
+@ActiveProfiles("test")
+@TestPropertySource(properties = "app.security.rate-limit.default-tier.limit=2")
+class BatchControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockitoBean
+    private JwtDecoder jwtDecoder;
+
+    @MockitoBean
+    private AccessAuditLog accessAuditLog;
+
+    @Test
+    void whenOperationsHaveDifferentPolicies_thenEachIsAuthorizedSeparately() throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/private/batch")
+                .with(jwt().jwt(jwt -> jwt.subject("user123"))
+                    .authorities(
+                        new SimpleGrantedAuthority("SCOPE_data.read"),
+                        new SimpleGrantedAuthority("TestUserGroup")
+                    ))
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                    [{"operation":"private"},{"operation":"admin"},
+                     {"operation":"token-info","fields":"subject"},{"operation":"unknown"}]
+                    """))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult();
+
+        List<JsonNode> lines = result.getResponse().getContentAsString().lines()
+            .map(this::readTree)
+            .toList();
+        assertThat(lines).extracting(line -> line.get("index").asInt()).containsExactly(0, 1, 2, 3);
+        assertThat(lines).extracting(line -> line.get("status").asInt()).containsExactly(200, 403, 200, 400);
+        assertThat(lines.get(0).get("body").get("content").asText()).contains("private endpoint");
+        assertThat(lines.get(2).get("body").get("subject").asText()).isEqualTo("user123");
+        assertThat(lines.get(2).get("body").has("claims")).isFalse();
+        verify(accessAuditLog).record(anyLong(), eq("/api/private/batch/private"), eq(200), any());
+        verify(accessAuditLog).record(anyLong(), eq("/api/private/batch/admin"), eq(403), any());
+        verify(accessAuditLog).record(anyLong(), eq("/api/private/batch/token-info"), eq(200), any());
+        verify(accessAuditLog).record(anyLong(), eq("/api/private/batch/unknown"), eq(400), any());
+    }
+
+    @Test
+    void whenOperationsExceedTheRateLimit_thenTheRestAreRejected() throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/private/batch")
+                .with(jwt().jwt(jwt -> jwt.subject("limited")))
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                    [{"operation":"token-info"},{"operation":"token-info"},{"operation":"token-info"}]
+                    """))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult();
+
+        List<JsonNode> lines = result.getResponse().getContentAsString().lines()
+            .map(this::readTree)
+            .toList();
+        assertThat(lines).extracting(line -> line.get("status").asInt()).containsExactly(200, 200, 429);
+        assertThat(lines.get(2).has("body")).isFalse();
+        verify(accessAuditLog).record(anyLong(), eq("/api/private/batch/token-info"), eq(429), any());
+    }
+
+    @Test
+    void whenBatchIsEmpty_thenBadRequest() throws Exception {
+        mockMvc.perform(post("/api/private/batch")
+                .with(jwt())
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private JsonNode readTree(String line) {
+        try {
+            return objectMapper.readTree(line);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.oktaapi.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.oktaapi.config.AppAuthoritiesConfig;
+import com.example.oktaapi.config.AuthorizationPolicyConfig;
+import com.example.oktaapi.config.TestSecurityConfig;
+import com.example.oktaapi.model.TimestampFormat;
+
+@WebMvcTest(controllers = PublicController.class)
+@AutoConfigureMockMvc(addFilters = false)
+@Import({
+    AppAuthoritiesConfig.class,
+    AuthorizationPolicyConfig.class,
+    TestSecurityConfig.class
+})
+@ActiveProfiles("test")
+class PublicControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private JwtDecoder jwtDecoder;
+
+    @Test
+    void whenStatusIsRequested_thenJsonIsReturnedWithETag() throws Exception {
+        mockMvc.perform(get("/api/public/status"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andExpect(jsonPath("$.status").value("UP"))
+            .andExpect(jsonPath("$.timestamp").isNumber())
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED));
+    }
+
+    @Test
+    void whenIfNoneMatchIsStale_thenFullBodyIsReturned() throws Exception {
+        mockMvc.perform(get("/api/public").header(HttpHeaders.IF_NONE_MATCH, "\"stale\""))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content").exists());
+    }
+
+    @Test
+    void whenEpochMillisTimestampIsRequested_thenTimestampIsANumber() throws Exception {
+        mockMvc.perform(get("/api/public").accept(TimestampFormat.APPLICATION_JSON_EPOCH_MILLIS))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(TimestampFormat.APPLICATION_JSON_EPOCH_MILLIS))
+            .andExpect(jsonPath("$.timestamp").isNumber());
+    }
+
+    @Test
+    void whenJsonIsNotAcceptable_thenReturnNotAcceptable() throws Exception {
+        mockMvc.perform(get("/api/public/status").accept(MediaType.TEXT_HTML))
+            .andExpect(status().isNotAcceptable());
+    }
+}
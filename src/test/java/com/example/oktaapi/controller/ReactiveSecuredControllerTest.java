@@ -0,0 +1,133 @@
+package com.example.oktaapi.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.mockJwt;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.config.annotation.method.configuration.EnableReactiveMethodSecurity;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.example.oktaapi.config.AppAuthoritiesConfig;
+import com.example.oktaapi.config.AuthorizationPolicyConfig;
+import com.example.oktaapi.config.BinaryFormatConfig;
+import com.example.oktaapi.config.ReactiveCodecConfig;
+import com.example.oktaapi.config.TokenInfoConfig;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+
+/**
+ * Checks that the reactive controllers enforce the same authorization rules as
+ * {@link SecuredControllerTest} does for the servlet stack.
+ */
+@WebFluxTest(controllers = ReactiveSecuredController.class)
+@Import({
+    AppAuthoritiesConfig.class,
+    AuthorizationPolicyConfig.class,
+    TokenInfoConfig.class,
+    BinaryFormatConfig.class,
+    ReactiveCodecConfig.class,
+    ReactiveSecuredControllerTest.ReactiveMethodSecurityConfig.class
+})
+@ActiveProfiles("test")
+class ReactiveSecuredControllerTest {
+
+    private static final String SCOPE_AUTHORITY = "SCOPE_data.read";
+    private static final String TEST_USER_GROUP = "TestUserGroup";
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockitoBean
+    private ReactiveJwtDecoder reactiveJwtDecoder;
+
+    @Test
+    void whenUserHasRequiredGroupAndScope_thenAllowAccess() {
+        webTestClient
+            .mutateWith(mockJwt().jwt(createJwt("user123", "client123"))
+                .authorities(new SimpleGrantedAuthority(SCOPE_AUTHORITY), new SimpleGrantedAuthority(TEST_USER_GROUP)))
+            .get().uri("/api/private")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody().jsonPath("$.content").isEqualTo("This is a private endpoint that requires authentication");
+    }
+
+    @Test
+    void whenAnyTypeIsAccepted_thenRespondWithJsonUnlessCborIsRequested() throws Exception {
+        webTestClient
+            .mutateWith(mockJwt().jwt(createJwt("user123", "client123"))
+                .authorities(new SimpleGrantedAuthority(SCOPE_AUTHORITY), new SimpleGrantedAuthority(TEST_USER_GROUP)))
+            .get().uri("/api/private")
+            .accept(MediaType.ALL)
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON);
+
+        byte[] body = webTestClient
+            .mutateWith(mockJwt().jwt(createJwt("user123", "client123"))
+                .authorities(new SimpleGrantedAuthority(SCOPE_AUTHORITY), new SimpleGrantedAuthority(TEST_USER_GROUP)))
+            .get().uri("/api/private")
+            .accept(MediaType.APPLICATION_CBOR)
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR)
+            .expectBody(byte[].class).returnResult().getResponseBody();
+
+        assertThat(new CBORMapper().readTree(body).get("content").asText())
+            .isEqualTo("This is a private endpoint that requires authentication");
+    }
+
+    @Test
+    void whenUserLacksRequiredGroup_thenDisallowAccess() {
+        webTestClient
+            .mutateWith(mockJwt().jwt(createJwt("user123", "client123"))
+                .authorities(new SimpleGrantedAuthority(SCOPE_AUTHORITY), new SimpleGrantedAuthority("Some Group")))
+            .get().uri("/api/private")
+            .exchange()
+            .expectStatus().isForbidden();
+    }
+
+    @Test
+    void whenClientHasRequiredScope_thenAllowAccess() {
+        webTestClient
+            .mutateWith(mockJwt().jwt(createJwt("client123", "client123"))
+                .authorities(new SimpleGrantedAuthority(SCOPE_AUTHORITY)))
+            .get().uri("/api/private")
+            .exchange()
+            .expectStatus().isOk();
+    }
+
+    @Test
+    void whenClientLacksRequiredScope_thenDisallowAccess() {
+        webTestClient
+            .mutateWith(mockJwt().jwt(createJwt("client123", "client123"))
+                .authorities(new SimpleGrantedAuthority("SCOPE_other.scope")))
+            .get().uri("/api/private")
+            .exchange()
+            .expectStatus().isForbidden();
+    }
+
+    private static Jwt createJwt(String subject, String clientId) {
+        return Jwt.withTokenValue("token")
+            .header("alg", "none")
+            .subject(subject)
+            .claim("cid", clientId)
+            .claim("scp", List.of("data.read"))
+            .build();
+    }
+
+    @TestConfiguration
+    @EnableReactiveMethodSecurity
+    static class ReactiveMethodSecurityConfig {
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.oktaapi.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.example.oktaapi.config.AppAuthoritiesConfig;
+import com.example.oktaapi.config.AuthorizationPolicyConfig;
+import com.example.oktaapi.config.TestSecurityConfig;
+import com.example.oktaapi.security.policy.RoleRegistry;
+
+@WebMvcTest(controllers = RoleController.class)
+@Import({
+    AppAuthoritiesConfig.class,
+    AuthorizationPolicyConfig.class,
+    TestSecurityConfig.class
+})
+@ActiveProfiles("test")
+@DirtiesContext
+class RoleControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RoleRegistry roleRegistry;
+
+    @MockitoBean
+    private JwtDecoder jwtDecoder;
+
+    @Test
+    void whenARoleHasNoGroups_thenBadRequest() throws Exception {
+        RoleRegistry.Snapshot before = roleRegistry.current();
+
+        mockMvc.perform(putRoles("""
+                {"user":["TestUserGroup"],"admin":[]}
+                """))
+            .andExpect(status().isBadRequest());
+
+        assertThat(roleRegistry.current()).isSameAs(before);
+    }
+
+    @Test
+    void whenMappingsAreValid_thenTheyAreApplied() throws Exception {
+        mockMvc.perform(putRoles("""
+                {"user":["TestUserGroup"],"admin":["OpsGroup"]}
+                """))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.roleGroups.admin[0]").value("OpsGroup"))
+            .andExpect(jsonPath("$.actor").value("admin123"));
+    }
+
+    private static MockHttpServletRequestBuilder putRoles(String body) {
+        return put("/api/admin/roles")
+            .with(jwt().jwt(jwt -> jwt.subject("admin123"))
+                .authorities(new SimpleGrantedAuthority("TestAdminGroup")))
+            .with(csrf())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(body);
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.oktaapi.controller;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.util.List;
@@ -10,6 +12,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
@@ -19,11 +22,20 @@ import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import com.example.oktaapi.config.AppAuthoritiesConfig;
+import com.example.oktaapi.config.AuthorizationPolicyConfig;
+import com.example.oktaapi.config.BinaryFormatConfig;
+import com.example.oktaapi.config.TokenInfoConfig;
 import com.example.oktaapi.config.TestSecurityConfig;
+import com.example.oktaapi.model.ResponseFormat;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 
 @WebMvcTest(controllers = SecuredController.class)
 @Import({
     AppAuthoritiesConfig.class, 
+    AuthorizationPolicyConfig.class,
+    TokenInfoConfig.class,
+    BinaryFormatConfig.class,
     TestSecurityConfig.class
 })
 @ActiveProfiles("test")
@@ -143,4 +155,34 @@ class SecuredControllerTest {
                 .build();
         }
     }
+
+    @Nested
+    class ResponseFormatTests {
+
+        @Test
+        void whenCborIsAccepted_thenMessageIsCbor() throws Exception {
+            mockMvc.perform(get("/api/private")
+                    .header(HttpHeaders.ACCEPT, "application/cbor")
+                    .with(SecurityMockMvcRequestPostProcessors.jwt()
+                        .authorities(
+                            new SimpleGrantedAuthority(SCOPE_AUTHORITY),
+                            new SimpleGrantedAuthority(TEST_USER_GROUP)
+                        )))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(ResponseFormat.CBOR.getMediaType()));
+        }
+
+        @Test
+        void whenCborIsPreferred_thenTokenInfoIsCbor() throws Exception {
+            byte[] body = mockMvc.perform(get("/api/token-info")
+                    .header(HttpHeaders.ACCEPT, "application/json;q=0.5, application/cbor")
+                    .with(SecurityMockMvcRequestPostProcessors.jwt().jwt(jwt -> jwt.subject("user123"))))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(ResponseFormat.CBOR.getMediaType()))
+                    .andReturn().getResponse().getContentAsByteArray();
+
+            JsonNode tokenInfo = new CBORMapper().readTree(body);
+            assertThat(tokenInfo.get("subject").asText()).isEqualTo("user123");
+        }
+    }
 }
@@ -0,0 +1,67 @@
+package com.example.oktaapi.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import com.example.oktaapi.model.ResponseFormat;
+import com.example.oktaapi.model.ResponseMappers;
+import com.example.oktaapi.model.TokenInfo.Projection;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+class TokenInfoCacheTest {
+
+    // Shared by every token, so that tokens with the same claims serialize to the same bytes
+    private static final Instant EXPIRES_AT = Instant.now().plus(1, ChronoUnit.HOURS);
+
+    private final ResponseMappers mappers = new ResponseMappers(Jackson2ObjectMapperBuilder.json().build(),
+        Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build(),
+        Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build());
+    private final TokenInfoCache cache = new TokenInfoCache(true, 16);
+
+    @Test
+    void whenTokenIsRepeated_thenBodyIsServedFromCache() {
+        byte[] first = cache.getOrSerialize(createJwt("jti-1"), Projection.ALL, ResponseFormat.JSON, mappers);
+
+        assertThat(cache.getOrSerialize(createJwt("jti-1"), Projection.ALL, ResponseFormat.JSON, mappers)).isSameAs(first);
+        assertThat(cache.getOrSerialize(createJwt("jti-1"), Projection.WITHOUT_CLAIMS, ResponseFormat.JSON, mappers)).isNotSameAs(first);
+        assertThat(cache.getOrSerialize(createJwt("jti-2"), Projection.ALL, ResponseFormat.JSON, mappers)).isNotSameAs(first);
+    }
+
+    @Test
+    void whenFormatsDiffer_thenBodiesAreCachedSeparately() {
+        byte[] json = cache.getOrSerialize(createJwt("jti-1"), Projection.ALL, ResponseFormat.JSON, mappers);
+        byte[] cbor = cache.getOrSerialize(createJwt("jti-1"), Projection.ALL, ResponseFormat.CBOR, mappers);
+
+        assertThat(cbor).isNotEqualTo(json);
+        assertThat(cache.getOrSerialize(createJwt("jti-1"), Projection.ALL, ResponseFormat.CBOR, mappers)).isSameAs(cbor);
+        assertThat(cache.getOrSerialize(createJwt("jti-1"), Projection.ALL, ResponseFormat.JSON, mappers)).isSameAs(json);
+    }
+
+    @Test
+    void whenTokenHasNoJti_thenBodyIsNotCached() {
+        byte[] first = cache.getOrSerialize(createJwt(null), Projection.ALL, ResponseFormat.JSON, mappers);
+
+        assertThat(cache.getOrSerialize(createJwt(null), Projection.ALL, ResponseFormat.JSON, mappers))
+            .isNotSameAs(first)
+            .isEqualTo(first);
+    }
+
+    private static Jwt createJwt(String jti) {
+        Jwt.Builder builder = Jwt.withTokenValue("token")
+            .header("alg", "none")
+            .subject("user123")
+            .issuer("https://example.okta.com/oauth2/default")
+            .expiresAt(EXPIRES_AT);
+        if (jti != null) {
+            builder.jti(jti);
+        }
+        return builder.build();
+    }
+}
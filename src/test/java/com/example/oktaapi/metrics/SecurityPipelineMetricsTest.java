@@ -0,0 +1,77 @@
+package com.example.oktaapi.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.oktaapi.security.TokenType;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SecurityPipelineMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SecurityPipelineMetrics metrics = new SecurityPipelineMetrics();
+
+    SecurityPipelineMetricsTest() {
+        metrics.bindTo(registry);
+    }
+
+    @AfterEach
+    void closeTimings() {
+        RequestTimings.close();
+    }
+
+    @Test
+    void whenRequestCompletes_thenEachRecordedStageIsTimed() {
+        RequestTimings timings = RequestTimings.open();
+        RequestTimings.record(PipelineStage.JWT_DECODE, TimeUnit.MILLISECONDS.toNanos(3));
+        RequestTimings.record(PipelineStage.JWT_DECODE, TimeUnit.MILLISECONDS.toNanos(2));
+        RequestTimings.record(PipelineStage.CONTROLLER, TimeUnit.MILLISECONDS.toNanos(1));
+        RequestTimings.tokenType(TokenType.USER);
+        RequestTimings.close();
+
+        metrics.record("/api/private", timings, "ok");
+
+        Timer decode = registry.get(SecurityPipelineMetrics.STAGE_TIMER)
+            .tags("stage", PipelineStage.JWT_DECODE.getTagValue(), "endpoint", "/api/private",
+                "token.type", TokenType.USER.getValue(), "outcome", "ok")
+            .timer();
+        assertThat(decode.count()).isEqualTo(1);
+        assertThat(decode.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(5);
+        assertThat(registry.find(SecurityPipelineMetrics.STAGE_TIMER)
+            .tag("stage", PipelineStage.METHOD_AUTHORIZATION.getTagValue()).timer()).isNull();
+        assertThat(registry.get(SecurityPipelineMetrics.REQUEST_COUNTER).tag("outcome", "ok").counter().count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void whenStageIsStoppedTwice_thenItIsRecordedOnce() {
+        RequestTimings timings = RequestTimings.open();
+        RequestTimings.start(PipelineStage.URL_AUTHORIZATION);
+        RequestTimings.stop(PipelineStage.URL_AUTHORIZATION);
+        RequestTimings.stop(PipelineStage.URL_AUTHORIZATION);
+        RequestTimings.close();
+
+        metrics.record("/api/admin", timings, SecurityPipelineMetrics.outcome(403));
+
+        assertThat(registry.get(SecurityPipelineMetrics.STAGE_TIMER)
+            .tags("stage", PipelineStage.URL_AUTHORIZATION.getTagValue(), "token.type", "none", "outcome", "403")
+            .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void whenNoRequestIsOpen_thenTimingsAreIgnored() {
+        RequestTimings.record(PipelineStage.JWKS_FETCH, 1);
+        RequestTimings timings = RequestTimings.open();
+        RequestTimings.close();
+
+        metrics.record("other", timings, "ok");
+
+        assertThat(registry.find(SecurityPipelineMetrics.STAGE_TIMER).timers()).isEmpty();
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.oktaapi.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnJre;
+import org.junit.jupiter.api.condition.JRE;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class VirtualThreadMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void whenBound_thenCarrierParallelismIsPublished() {
+        try (VirtualThreadMetrics metrics = new VirtualThreadMetrics(Duration.ofMillis(20), 16)) {
+            metrics.bindTo(registry);
+
+            assertThat(registry.get("jvm.threads.virtual.carrier.parallelism").gauge().value()).isPositive();
+        }
+    }
+
+    // Java 24 and later no longer pin virtual threads that block inside synchronized blocks
+    @Test
+    @EnabledOnJre(JRE.JAVA_21)
+    void whenVirtualThreadBlocksWhilePinned_thenPinningIsRecorded() {
+        try (VirtualThreadMetrics metrics = new VirtualThreadMetrics(Duration.ofMillis(1), 16)) {
+            metrics.bindTo(registry);
+
+            // The recording stream starts asynchronously, so keep pinning until an event arrives
+            await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> {
+                blockWhilePinned();
+                assertThat(registry.get("jvm.threads.virtual.pinned").timer().count()).isPositive();
+            });
+        }
+    }
+
+    private static void blockWhilePinned() throws InterruptedException {
+        Object monitor = new Object();
+        Thread.ofVirtual().start(() -> {
+            synchronized (monitor) {
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }).join();
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.oktaapi.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+class MessageSerializerTest {
+
+    // Configured like Spring Boot's ObjectMapper, which writes dates as ISO-8601 strings
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+        .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .build();
+
+    @ParameterizedTest
+    @ValueSource(longs = { 0L, 1L, 10L, 100L, 120L, 999L, 1_000L, 951_782_400_000L, 1_712_345_678_901L,
+        1_712_345_678_900L, 1_712_345_678_000L, 4_102_444_799_999L, -1L, -86_400_001L })
+    void whenTimestampIsIso_thenOutputMatchesBeanSerialization(long timestamp) throws Exception {
+        Message message = new Message("Hello \"world\"", timestamp);
+
+        assertThat(objectMapper.writeValueAsString(message)).isEqualTo(beanJson(message.content(),
+            LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneId.systemDefault())));
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = { 0L, 1_712_345_678_901L })
+    void whenEpochMillisIsNegotiated_thenTimestampIsANumber(long timestamp) throws Exception {
+        Message message = new Message(null, timestamp);
+
+        String json = TimestampFormat.customize(objectMapper.writer(), TimestampFormat.APPLICATION_JSON_EPOCH_MILLIS)
+            .writeValueAsString(message);
+
+        assertThat(json).isEqualTo("{\"content\":null,\"timestamp\":" + timestamp + "}");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "application/json", "application/json;timestamp=iso", "*/*" })
+    void whenEpochMillisIsNotRequested_thenWriterIsUnchanged(String mediaType) {
+        assertThat(TimestampFormat.customize(objectMapper.writer(), MediaType.parseMediaType(mediaType)).getConfig()
+            .getAttributes().getAttribute(TimestampFormat.class)).isNull();
+        assertThat(TimestampFormat.ofAcceptHeader(mediaType)).isEqualTo(TimestampFormat.ISO);
+    }
+
+    /**
+     * Serializes the fields the way Jackson serialized the original {@code Message} bean.
+     */
+    private String beanJson(String content, LocalDateTime timestamp) throws Exception {
+        Map<String, Object> bean = new LinkedHashMap<>();
+        bean.put("content", content);
+        bean.put("timestamp", timestamp);
+        return objectMapper.writeValueAsString(bean);
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.oktaapi.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class ResponseFormatTest {
+
+    @Test
+    void whenAcceptIsMissingOrJsonOnly_thenJsonIsNegotiated() {
+        assertThat(ResponseFormat.negotiate(null)).isEqualTo(ResponseFormat.JSON);
+        assertThat(ResponseFormat.negotiate("application/json")).isEqualTo(ResponseFormat.JSON);
+    }
+
+    @Test
+    void whenBinaryFormatHasHighestQuality_thenItIsNegotiated() {
+        assertThat(ResponseFormat.negotiate("application/json;q=0.5, application/cbor")).isEqualTo(ResponseFormat.CBOR);
+        assertThat(ResponseFormat.negotiate("application/x-jackson-smile, application/cbor"))
+            .isEqualTo(ResponseFormat.SMILE);
+    }
+
+    @Test
+    void whenFormatHasQualityZero_thenItIsNotNegotiated() {
+        assertThat(ResponseFormat.negotiate("application/cbor;q=0, application/json;q=0.1"))
+            .isEqualTo(ResponseFormat.JSON);
+        assertThat(ResponseFormat.negotiate("application/cbor;q=0")).isEqualTo(ResponseFormat.JSON);
+    }
+}
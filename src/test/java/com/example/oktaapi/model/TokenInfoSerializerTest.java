@@ -0,0 +1,68 @@
+package com.example.oktaapi.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import com.example.oktaapi.model.TokenInfo.Projection;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class TokenInfoSerializerTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private final Jwt jwt = Jwt.withTokenValue("token")
+        .header("alg", "none")
+        .subject("user123")
+        .issuer("https://example.okta.com/oauth2/default")
+        .audience(List.of("api://default"))
+        .issuedAt(Instant.parse("2025-04-10T09:00:00Z"))
+        .expiresAt(Instant.parse("2025-04-10T10:00:00Z"))
+        .jti("jti-1")
+        .claim("cid", "client123")
+        .claim("scp", List.of("data.read"))
+        .claim("groups", List.of("TestUserGroup", "TestAdminGroup"))
+        .claim("email", "user@example.com")
+        .build();
+
+    @Test
+    void whenAllFieldsAreIncluded_thenOutputMatchesMapBasedBody() throws Exception {
+        Map<String, Object> tokenInfo = new HashMap<>();
+        tokenInfo.put("subject", jwt.getSubject());
+        tokenInfo.put("name", jwt.getClaimAsString("name"));
+        tokenInfo.put("email", jwt.getClaimAsString("email"));
+        tokenInfo.put("claims", jwt.getClaims());
+
+        assertThat(objectMapper.writeValueAsString(new TokenInfo(jwt))).isEqualTo(objectMapper.writeValueAsString(tokenInfo));
+    }
+
+    @Test
+    void whenFieldsAreProjected_thenOnlyThoseAreWritten() throws Exception {
+        Projection projection = Projection.parse("email, claims.groups,subject", true);
+
+        assertThat(objectMapper.writeValueAsString(new TokenInfo(jwt, projection))).isEqualTo(
+            "{\"subject\":\"user123\",\"claims\":{\"groups\":[\"TestUserGroup\",\"TestAdminGroup\"]},"
+                + "\"email\":\"user@example.com\"}");
+    }
+
+    @Test
+    void whenClaimsAreOmitted_thenClaimsAreNotWritten() throws Exception {
+        assertThat(objectMapper.writeValueAsString(new TokenInfo(jwt, Projection.parse(null, false))))
+            .isEqualTo("{\"subject\":\"user123\",\"name\":null,\"email\":\"user@example.com\"}");
+        assertThat(Projection.parse("subject,claims", false).claims()).isFalse();
+    }
+
+    @Test
+    void whenFieldIsUnknown_thenParsingFails() {
+        assertThatIllegalArgumentException().isThrownBy(() -> Projection.parse("subject,password", true));
+        assertThatIllegalArgumentException().isThrownBy(() -> Projection.parse("claims.", true));
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.oktaapi.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import com.example.oktaapi.util.ExpiringCache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CachingJwtDecoderTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T00:00:00Z");
+
+    private MutableClock clock;
+    private JwtDecoder delegate;
+    private VerifiedJwtCache cache;
+    private CachingJwtDecoder decoder;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(NOW);
+        delegate = mock(JwtDecoder.class);
+        cache = new VerifiedJwtCache(true, new ExpiringCache<>(2, clock));
+        decoder = new CachingJwtDecoder(delegate, cache);
+    }
+
+    @Test
+    void whenSameTokenIsDecodedTwice_thenDelegateIsCalledOnce() {
+        Jwt jwt = createJwt(NOW.plus(Duration.ofHours(1)));
+        when(delegate.decode("token-a")).thenReturn(jwt);
+
+        assertThat(decoder.decode("token-a")).isSameAs(jwt);
+        assertThat(decoder.decode("token-a")).isSameAs(jwt);
+
+        verify(delegate, times(1)).decode("token-a");
+    }
+
+    @Test
+    void whenTokenExpires_thenItIsNoLongerServedFromCache() {
+        Jwt jwt = createJwt(NOW.plus(Duration.ofMinutes(5)));
+        when(delegate.decode("token-a")).thenReturn(jwt);
+
+        decoder.decode("token-a");
+        clock.advance(Duration.ofMinutes(5));
+        decoder.decode("token-a");
+
+        verify(delegate, times(2)).decode("token-a");
+    }
+
+    @Test
+    void whenDecodeFails_thenFailureIsNotCached() {
+        when(delegate.decode("bad")).thenThrow(new BadJwtException("bad signature"));
+
+        assertThatThrownBy(() -> decoder.decode("bad")).isInstanceOf(BadJwtException.class);
+        assertThatThrownBy(() -> decoder.decode("bad")).isInstanceOf(BadJwtException.class);
+
+        verify(delegate, times(2)).decode("bad");
+    }
+
+    @Test
+    void whenCacheIsFull_thenSizeStaysBounded() {
+        for (String token : new String[] {"a", "b", "c", "d"}) {
+            when(delegate.decode(token)).thenReturn(createJwt(NOW.plus(Duration.ofHours(1))));
+            decoder.decode(token);
+        }
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+        assertThat(registry.get("cache.size").gauge().value()).isLessThanOrEqualTo(2);
+        assertThat(registry.get("cache.evictions").functionCounter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void whenCacheIsFull_thenOldestTokenIsEvictedFirst() {
+        for (String token : new String[] {"a", "b", "c"}) {
+            when(delegate.decode(token)).thenReturn(createJwt(NOW.plus(Duration.ofHours(1))));
+            decoder.decode(token);
+        }
+        decoder.decode("b");
+        decoder.decode("c");
+        decoder.decode("a");
+
+        verify(delegate, times(1)).decode("b");
+        verify(delegate, times(1)).decode("c");
+        verify(delegate, times(2)).decode("a");
+    }
+
+    @Test
+    void whenCacheIsFull_thenExpiredTokensAreRemovedBeforeLiveOnesAreEvicted() {
+        when(delegate.decode("a")).thenReturn(createJwt(NOW.plus(Duration.ofMinutes(5))));
+        when(delegate.decode("b")).thenReturn(createJwt(NOW.plus(Duration.ofHours(1))));
+        when(delegate.decode("c")).thenReturn(createJwt(NOW.plus(Duration.ofHours(1))));
+        decoder.decode("b");
+        decoder.decode("a");
+        clock.advance(Duration.ofMinutes(5));
+        decoder.decode("c");
+        decoder.decode("b");
+
+        verify(delegate, times(1)).decode("b");
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+        assertThat(registry.get("cache.evictions").functionCounter().count()).isZero();
+    }
+
+    private Jwt createJwt(Instant expiresAt) {
+        return Jwt.withTokenValue("token")
+            .header("alg", "none")
+            .subject("user123")
+            .issuedAt(expiresAt.minus(Duration.ofHours(1)))
+            .expiresAt(expiresAt)
+            .build();
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.oktaapi.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import com.example.oktaapi.security.CachingJwtGrantedAuthoritiesConverter.ResolvedAuthorities;
+import com.example.oktaapi.security.policy.AuthorizationPolicies;
+
+class CachingJwtGrantedAuthoritiesConverterTest {
+
+    private final AtomicReference<AuthorizationPolicies> policies = new AtomicReference<>(
+        compile(Map.of("user", List.of("TestUserGroup", "TestAdminGroup"), "admin", List.of("TestAdminGroup"))));
+
+    private final CachingJwtGrantedAuthoritiesConverter converter =
+        new CachingJwtGrantedAuthoritiesConverter("scp", "groups", 2, 64, policies::get);
+
+    @Test
+    void whenTokenIsConverted_thenScopesAndGroupsBecomeAuthorities() {
+        Collection<GrantedAuthority> authorities = converter.convert(
+            createJwt(List.of("data.read", "data.write"), List.of("TestUserGroup")));
+
+        assertThat(AuthorityUtils.authorityListToSet(authorities))
+            .containsExactly("SCOPE_data.read", "SCOPE_data.write", "TestUserGroup");
+    }
+
+    @Test
+    void whenTokensShareClaims_thenResultIsMemoized() {
+        ResolvedAuthorities first = converter.resolve(createJwt(List.of("data.read"), List.of("TestAdminGroup")));
+        ResolvedAuthorities second = converter.resolve(createJwt(List.of("data.read"), List.of("TestAdminGroup")));
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.roles()).containsExactlyInAnyOrder("user", "admin");
+    }
+
+    @Test
+    void whenCombinationsDiffer_thenAuthorityInstancesAreShared() {
+        ResolvedAuthorities user = converter.resolve(createJwt(List.of("data.read"), List.of("TestUserGroup")));
+        ResolvedAuthorities admin = converter.resolve(createJwt(List.of("data.read"), List.of("TestAdminGroup")));
+
+        assertThat(admin.authorities().get(0)).isSameAs(user.authorities().get(0));
+    }
+
+    @Test
+    void whenMemoIsFull_thenResultsAreStillCorrect() {
+        converter.resolve(createJwt(List.of("a"), List.of()));
+        converter.resolve(createJwt(List.of("b"), List.of()));
+
+        ResolvedAuthorities third = converter.resolve(createJwt(List.of("data.read"), List.of("TestUserGroup")));
+
+        assertThat(third.roles()).containsExactly("user");
+        assertThat(converter.resolve(createJwt(List.of("data.read"), List.of("TestUserGroup")))).isNotSameAs(third);
+    }
+
+    @Test
+    void whenPoliciesChange_thenRolesAreResolvedAgain() {
+        Jwt jwt = createJwt(List.of("data.read"), List.of("TestUserGroup"));
+        assertThat(converter.resolve(jwt).roles()).containsExactly("user");
+
+        policies.set(compile(Map.of("user", List.of("OtherGroup"), "admin", List.of("TestUserGroup"))));
+
+        assertThat(converter.resolve(jwt).roles()).containsExactly("admin");
+    }
+
+    private static AuthorizationPolicies compile(Map<String, List<String>> roleGroups) {
+        return AuthorizationPolicies.compile(roleGroups, List.of());
+    }
+
+    private static Jwt createJwt(List<String> scopes, List<String> groups) {
+        return Jwt.withTokenValue("token")
+            .header("alg", "none")
+            .subject("user123")
+            .claim("scp", scopes)
+            .claim("groups", groups)
+            .build();
+    }
+}
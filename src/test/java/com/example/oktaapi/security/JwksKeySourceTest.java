@@ -0,0 +1,153 @@
+package com.example.oktaapi.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.client.RestTemplate;
+
+import com.example.oktaapi.support.MockOktaIssuer;
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+
+class JwksKeySourceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private MockOktaIssuer issuer;
+
+    @BeforeEach
+    void setUp() {
+        issuer = MockOktaIssuer.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        issuer.close();
+    }
+
+    @Test
+    void whenManyThreadsMissTheSameKid_thenOnlyOneFetchIsMade() throws Exception {
+        issuer.setJwksDelay(Duration.ofMillis(300));
+        JwksKeySource keySource = createKeySource(null);
+        JWKSelector selector = selectorFor(issuer.signingKey().getKeyID());
+
+        int threads = 16;
+        CountDownLatch ready = new CountDownLatch(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<JWK>>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    ready.countDown();
+                    ready.await();
+                    return keySource.get(selector, null);
+                }));
+            }
+            for (Future<List<JWK>> result : results) {
+                assertThat(result.get()).hasSize(1);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(issuer.jwksRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    void whenFetchIsSlowerThanTimeout_thenCallerStopsWaiting() {
+        issuer.setJwksDelay(Duration.ofSeconds(2));
+        JwksKeySource keySource = new JwksKeySource(issuer.jwksUri(), new RestTemplate(), null, Duration.ofHours(1),
+            Duration.ofMinutes(1), Duration.ofMillis(200));
+        try {
+            long start = System.nanoTime();
+            assertThatThrownBy(() -> keySource.get(selectorFor(issuer.signingKey().getKeyID()), null))
+                .isInstanceOf(KeySourceException.class);
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+        } finally {
+            keySource.close();
+        }
+    }
+
+    @Test
+    void whenIssuerIsDown_thenLastGoodKeysAreServed() throws Exception {
+        JwksKeySource keySource = createKeySource(null);
+        keySource.refresh().get();
+
+        issuer.setFailing(true);
+        keySource.refresh().get();
+
+        assertThat(keySource.get(selectorFor(issuer.signingKey().getKeyID()), null)).hasSize(1);
+    }
+
+    @Test
+    void whenUnknownKidWasRecentlyFetched_thenIssuerIsNotAskedAgain() throws Exception {
+        JwksKeySource keySource = createKeySource(null);
+        keySource.refresh().get();
+
+        assertThat(keySource.get(selectorFor("forged-kid"), null)).isEmpty();
+        assertThat(keySource.get(selectorFor("another-forged-kid"), null)).isEmpty();
+
+        assertThat(issuer.jwksRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    void whenRestartedWithSnapshot_thenKeysAreAvailableWithoutIssuer() throws Exception {
+        Path snapshot = tempDir.resolve("jwks.json");
+        String kid = issuer.signingKey().getKeyID();
+
+        JwksKeySource first = createKeySource(snapshot);
+        first.refresh().get();
+        first.close();
+        issuer.setFailing(true);
+
+        JwksKeySource restarted = createKeySource(snapshot);
+        restarted.start();
+        try {
+            assertThat(restarted.get(selectorFor(kid), null)).hasSize(1);
+        } finally {
+            restarted.close();
+        }
+    }
+
+    @Test
+    void whenFetchIsDeferred_thenIssuerIsFirstAskedByTheFirstLookup() throws Exception {
+        JwksKeySource keySource = new JwksKeySource(issuer.jwksUri(), new RestTemplate(), null, Duration.ofHours(1),
+            Duration.ofMinutes(1), Duration.ofSeconds(5), false);
+        keySource.start();
+        try {
+            Thread.sleep(200);
+            assertThat(issuer.jwksRequestCount()).isZero();
+
+            assertThat(keySource.get(selectorFor(issuer.signingKey().getKeyID()), null)).hasSize(1);
+            assertThat(keySource.get(selectorFor(issuer.signingKey().getKeyID()), null)).hasSize(1);
+            assertThat(issuer.jwksRequestCount()).isEqualTo(1);
+        } finally {
+            keySource.close();
+        }
+    }
+
+    private JwksKeySource createKeySource(Path snapshot) {
+        return new JwksKeySource(issuer.jwksUri(), new RestTemplate(), snapshot, Duration.ofHours(1),
+            Duration.ofMinutes(1), Duration.ofSeconds(5));
+    }
+
+    private static JWKSelector selectorFor(String kid) {
+        return new JWKSelector(new JWKMatcher.Builder().keyID(kid).build());
+    }
+}
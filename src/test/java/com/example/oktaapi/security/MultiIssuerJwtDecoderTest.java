@@ -0,0 +1,160 @@
+package com.example.oktaapi.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.web.client.RestTemplate;
+
+import com.example.oktaapi.config.AppAuthoritiesConfig;
+import com.example.oktaapi.config.JwksConfig;
+import com.example.oktaapi.security.MultiIssuerJwtDecoder.IssuerDecoder;
+import com.example.oktaapi.security.MultiIssuerJwtDecoder.TrustedIssuer;
+import com.example.oktaapi.support.MockOktaIssuer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class MultiIssuerJwtDecoderTest {
+
+    private MockOktaIssuer defaultIssuer;
+    private MockOktaIssuer tenantIssuer;
+    private JwksKeySource keySource;
+    private MultiIssuerJwtDecoder decoder;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        defaultIssuer = MockOktaIssuer.start();
+        tenantIssuer = MockOktaIssuer.start();
+        keySource = new JwksKeySource(defaultIssuer.jwksUri(), new RestTemplate(), null, Duration.ofHours(1),
+            Duration.ofSeconds(30), Duration.ofSeconds(5));
+        keySource.refresh().get();
+
+        AppAuthoritiesConfig.Tenant tenant = new AppAuthoritiesConfig.Tenant();
+        tenant.setIssuer(tenantIssuer.issuer());
+        AppAuthoritiesConfig config = new AppAuthoritiesConfig();
+        config.setTenants(Map.of("acme", tenant));
+        decoder = new JwksConfig().jwtDecoder(keySource, defaultIssuer.issuer(), MockOktaIssuer.AUDIENCE, config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        decoder.close();
+        keySource.close();
+        defaultIssuer.close();
+        tenantIssuer.close();
+    }
+
+    @Test
+    void whenTokensComeFromEitherIssuer_thenEachIsVerifiedWithItsIssuersKeys() {
+        String token = defaultIssuer.mintUserToken("user123", List.of("openid"), List.of());
+        String tenantToken = tenantIssuer.mintUserToken("user456", List.of("openid"), List.of());
+
+        assertThat(decoder.decode(token).getSubject()).isEqualTo("user123");
+        assertThat(decoder.decode(tenantToken).getSubject()).isEqualTo("user456");
+        assertThat(decoder.size()).isEqualTo(1);
+        assertThat(decoder.hasKey(tenantIssuer.issuer(), tenantIssuer.signingKey().getKeyID())).isTrue();
+        assertThat(decoder.hasKey(defaultIssuer.issuer(), tenantIssuer.signingKey().getKeyID())).isFalse();
+        assertThat(decoder.audiences()).containsOnlyKeys(defaultIssuer.issuer(), tenantIssuer.issuer());
+    }
+
+    @Test
+    void whenIssuerIsNotConfigured_thenTokenIsRejectedWithoutFetchingKeys() {
+        String token = defaultIssuer.mint(defaultIssuer.claims("user123", "client123")
+            .issuer("https://evil.example.com").build());
+
+        assertThatThrownBy(() -> decoder.decode(token)).isInstanceOf(BadJwtException.class)
+            .hasMessage("The iss claim is not valid");
+        assertThat(decoder.size()).isZero();
+        assertThat(defaultIssuer.jwksRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    void whenTokenClaimsATenantButIsSignedByAnotherIssuer_thenItIsRejected() {
+        String token = defaultIssuer.mint(defaultIssuer.claims("user123", "client123")
+            .issuer(tenantIssuer.issuer()).build());
+
+        assertThatThrownBy(() -> decoder.decode(token)).isInstanceOf(BadJwtException.class);
+    }
+
+    @Test
+    void whenMoreTenantsAreUsedThanDecodersAreKept_thenLeastRecentlyUsedIsEvicted() {
+        AtomicLong clock = new AtomicLong();
+        List<String> built = new ArrayList<>();
+        List<TrustedIssuer> tenants = List.of(trusted("https://a.example.com"), trusted("https://b.example.com"),
+            trusted("https://c.example.com"));
+        MultiIssuerJwtDecoder lru = new MultiIssuerJwtDecoder(trusted(defaultIssuer.issuer()),
+            new IssuerDecoder(this::stub, keySource), tenants, tenant -> {
+                built.add(tenant.issuer());
+                return new IssuerDecoder(this::stub, unstartedKeySource());
+            }, 2, clock::get);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        lru.bindTo(registry);
+
+        lru.decode(token("https://a.example.com"));
+        clock.incrementAndGet();
+        lru.decode(token("https://b.example.com"));
+        clock.incrementAndGet();
+        lru.decode(token("https://a.example.com"));
+        clock.incrementAndGet();
+        lru.decode(token("https://c.example.com"));
+        clock.incrementAndGet();
+        lru.decode(token("https://a.example.com"));
+        lru.decode(token(defaultIssuer.issuer()));
+
+        assertThat(built).containsExactly("https://a.example.com", "https://b.example.com", "https://c.example.com");
+        assertThat(lru.size()).isEqualTo(2);
+        assertThat(registry.get("cache.evictions").tag("cache", "issuerDecoders").functionCounter().count())
+            .isEqualTo(1);
+        assertThat(registry.get("cache.gets").tags("cache", "issuerDecoders", "result", "miss").functionCounter()
+            .count()).isEqualTo(3);
+        lru.close();
+    }
+
+    @Test
+    void whenPayloadIsInspected_thenOnlyTheTopLevelIssuerIsRead() {
+        assertThat(MultiIssuerJwtDecoder.issuerOf(token("https://a.example.com"))).isEqualTo("https://a.example.com");
+        assertThat(MultiIssuerJwtDecoder.issuerOf(unsigned("{\"act\":{\"iss\":\"https://a.example.com\"},"
+            + "\"iss\":\"https://b.example.com\"}"))).isEqualTo("https://b.example.com");
+        assertThat(MultiIssuerJwtDecoder.issuerOf(unsigned("{\"iss\":42}"))).isNull();
+        assertThat(MultiIssuerJwtDecoder.issuerOf(unsigned("[\"iss\"]"))).isNull();
+        assertThat(MultiIssuerJwtDecoder.issuerOf("not-a-jwt")).isNull();
+        assertThat(MultiIssuerJwtDecoder.issuerOf("e30.!!!.sig")).isNull();
+    }
+
+    private Jwt stub(String token) {
+        return Jwt.withTokenValue(token).header("alg", "RS256").issuer(MultiIssuerJwtDecoder.issuerOf(token))
+            .build();
+    }
+
+    private JwksKeySource unstartedKeySource() {
+        return new JwksKeySource(defaultIssuer.jwksUri(), new RestTemplate(), null, Duration.ofHours(1),
+            Duration.ofSeconds(30), Duration.ofSeconds(5));
+    }
+
+    private static TrustedIssuer trusted(String issuer) {
+        return new TrustedIssuer(issuer, MockOktaIssuer.AUDIENCE, null);
+    }
+
+    private static String token(String issuer) {
+        return unsigned("{\"sub\":\"user123\",\"iss\":\"" + issuer + "\"}");
+    }
+
+    private static String unsigned(String payload) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString("{\"alg\":\"RS256\"}".getBytes(StandardCharsets.UTF_8)) + "."
+            + encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + ".sig";
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.oktaapi.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import com.example.oktaapi.security.policy.AuthorizationPolicies;
+import com.example.oktaapi.security.policy.Policies;
+import com.example.oktaapi.security.policy.PolicyDefinition;
+
+class OktaAuthenticationConverterTest {
+
+    private final AuthorizationPolicies policies = AuthorizationPolicies.compile(
+        Map.of(
+            "user", List.of("TestUserGroup", "TestAdminGroup"),
+            "admin", List.of("TestAdminGroup")),
+        List.of(
+            PolicyDefinition.named(Policies.PRIVATE_READ)
+                .requireAuthority("SCOPE_data.read")
+                .requireAnyRole("user")
+                .orClientCredentials()));
+
+    private final OktaAuthenticationConverter converter = new OktaAuthenticationConverter(
+        new CachingJwtGrantedAuthoritiesConverter("scp", "groups", 16, 64, () -> policies));
+
+    static Stream<Arguments> tokens() {
+        return Stream.of(
+            Arguments.of("user token", createJwt("user123", "client123", List.of("TestUserGroup"))),
+            Arguments.of("client credentials token", createJwt("client123", "client123", null)),
+            Arguments.of("token without cid", createJwt("user123", null, List.of("TestAdminGroup"))),
+            Arguments.of("token without subject", createJwt(null, "client123", null)));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("tokens")
+    void whenTokenIsConverted_thenClassificationMatchesOriginalLogic(String description, Jwt jwt) {
+        OktaAuthenticationToken authentication = converter.convert(jwt);
+
+        assertThat(authentication.isClientCredentials()).isEqualTo(originalIsClientCredentials(jwt));
+        assertThat(JwtUtils.isClientCredentials(authentication)).isEqualTo(originalIsClientCredentials(jwt));
+        assertThat(JwtUtils.isClientCredentials(new JwtAuthenticationToken(jwt, authorities(jwt))))
+            .isEqualTo(originalIsClientCredentials(jwt));
+        assertThat(authentication.getSubject()).isEqualTo(jwt.getSubject());
+        assertThat(authentication.getClientId()).isEqualTo(jwt.getClaimAsString("cid"));
+        assertThat(authentication.getPrincipal()).isSameAs(jwt);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("tokens")
+    void whenTokenIsConverted_thenRolesAreResolvedFromGroups(String description, Jwt jwt) {
+        OktaAuthenticationToken authentication = converter.convert(jwt);
+
+        List<String> groups = jwt.getClaimAsStringList("groups");
+        List<String> expectedRoles = new ArrayList<>();
+        if (groups != null && (groups.contains("TestUserGroup") || groups.contains("TestAdminGroup"))) {
+            expectedRoles.add("user");
+        }
+        if (groups != null && groups.contains("TestAdminGroup")) {
+            expectedRoles.add("admin");
+        }
+        assertThat(authentication.getRoles()).containsExactlyInAnyOrderElementsOf(expectedRoles);
+    }
+
+    /**
+     * The classification performed by JwtUtils.isClientCredentials() before token types were
+     * computed at authentication time.
+     */
+    private static boolean originalIsClientCredentials(Jwt jwt) {
+        String subject = jwt.getSubject();
+        String clientId = jwt.getClaimAsString("cid");
+        return subject != null && subject.equals(clientId);
+    }
+
+    private static Collection<GrantedAuthority> authorities(Jwt jwt) {
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        authorities.add(new SimpleGrantedAuthority("SCOPE_data.read"));
+        List<String> groups = jwt.getClaimAsStringList("groups");
+        if (groups != null) {
+            groups.forEach(group -> authorities.add(new SimpleGrantedAuthority(group)));
+        }
+        return authorities;
+    }
+
+    private static Jwt createJwt(String subject, String clientId, List<String> groups) {
+        Jwt.Builder builder = Jwt.withTokenValue("token")
+            .header("alg", "none")
+            .claim("scp", List.of("data.read"));
+        if (subject != null) {
+            builder.subject(subject);
+        }
+        if (clientId != null) {
+            builder.claim("cid", clientId);
+        }
+        if (groups != null) {
+            builder.claim("groups", groups);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.oktaapi.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import com.example.oktaapi.support.MockOktaIssuer;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jwt.SignedJWT;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PrevalidatingJwtDecoderTest {
+
+    private MockOktaIssuer issuer;
+    private JwtDecoder delegate;
+    private Set<String> knownKeys;
+    private JwtPrevalidator prevalidator;
+    private PrevalidatingJwtDecoder decoder;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        issuer = MockOktaIssuer.start();
+        delegate = mock(JwtDecoder.class);
+        knownKeys = new HashSet<>(Set.of(issuer.signingKey().getKeyID()));
+        prevalidator = new JwtPrevalidator(true, issuer.issuer(), MockOktaIssuer.AUDIENCE, JWSAlgorithm.RS256,
+            Duration.ofSeconds(60), 100, Duration.ofMinutes(5), knownKeys::contains);
+        decoder = new PrevalidatingJwtDecoder(delegate, prevalidator);
+        registry = new SimpleMeterRegistry();
+        prevalidator.bindTo(registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        issuer.close();
+    }
+
+    @Test
+    void whenTokenIsPlausible_thenItIsVerifiedByTheDelegate() {
+        String token = issuer.mintUserToken("user123", List.of("openid"), List.of());
+        Jwt jwt = mock(Jwt.class);
+        when(delegate.decode(token)).thenReturn(jwt);
+
+        assertThat(decoder.decode(token)).isSameAs(jwt);
+    }
+
+    @Test
+    void whenIssuerIsForeign_thenTokenIsRejectedWithoutVerification() {
+        String token = issuer.mint(issuer.claims("user123", "client123").issuer("https://evil.example.com").build());
+
+        assertThatThrownBy(() -> decoder.decode(token)).isInstanceOf(BadJwtException.class)
+            .hasMessage(JwtPrevalidator.Reason.ISSUER.getMessage());
+        verify(delegate, never()).decode(anyString());
+        assertThat(rejections(JwtPrevalidator.Reason.ISSUER)).isEqualTo(1);
+    }
+
+    @Test
+    void whenAudienceDoesNotMatch_thenTokenIsRejectedWithoutVerification() {
+        String token = issuer.mint(issuer.claims("user123", "client123").audience("api://other").build());
+
+        assertThatThrownBy(() -> decoder.decode(token)).isInstanceOf(BadJwtException.class);
+        verify(delegate, never()).decode(anyString());
+        assertThat(rejections(JwtPrevalidator.Reason.AUDIENCE)).isEqualTo(1);
+    }
+
+    @Test
+    void whenTokenIsExpired_thenItIsRejectedWithoutVerification() {
+        Instant past = Instant.now().minus(Duration.ofHours(2));
+        String token = issuer.mint(issuer.claims("user123", "client123")
+            .issueTime(Date.from(past.minus(Duration.ofHours(1)))).expirationTime(Date.from(past)).build());
+
+        assertThatThrownBy(() -> decoder.decode(token)).isInstanceOf(BadJwtException.class);
+        verify(delegate, never()).decode(anyString());
+        assertThat(rejections(JwtPrevalidator.Reason.EXPIRED)).isEqualTo(1);
+    }
+
+    @Test
+    void whenTokenIsMalformedOrUsesAnotherAlgorithm_thenItIsRejectedWithoutVerification() throws Exception {
+        SignedJWT hmac = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.HS256).keyID("k1").build(),
+            issuer.claims("user123", "client123").build());
+        hmac.sign(new MACSigner(new byte[32]));
+
+        assertThatThrownBy(() -> decoder.decode("not-a-jwt")).isInstanceOf(BadJwtException.class);
+        assertThatThrownBy(() -> decoder.decode(hmac.serialize())).isInstanceOf(BadJwtException.class);
+        verify(delegate, never()).decode(anyString());
+        assertThat(rejections(JwtPrevalidator.Reason.MALFORMED)).isEqualTo(1);
+        assertThat(rejections(JwtPrevalidator.Reason.ALGORITHM)).isEqualTo(1);
+    }
+
+    @Test
+    void whenRejectedTokenIsReplayed_thenItIsRejectedFromTheCache() {
+        String token = issuer.mint(issuer.claims("user123", "client123").issuer("https://evil.example.com").build());
+
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> decoder.decode(token)).isInstanceOf(BadJwtException.class)
+                .hasMessage(JwtPrevalidator.Reason.ISSUER.getMessage());
+        }
+
+        assertThat(rejections(JwtPrevalidator.Reason.ISSUER)).isEqualTo(1);
+        assertThat(registry.get("cache.gets").tags("cache", "rejectedJwt", "result", "hit").functionCounter()
+            .count()).isEqualTo(2);
+    }
+
+    @Test
+    void whenTokenIsNotValidYet_thenRejectionIsNotCached() {
+        Instant future = Instant.now().plus(Duration.ofHours(1));
+        String token = issuer.mint(issuer.claims("user123", "client123").notBeforeTime(Date.from(future))
+            .expirationTime(Date.from(future.plus(Duration.ofHours(1)))).build());
+
+        assertThatThrownBy(() -> decoder.decode(token)).isInstanceOf(BadJwtException.class);
+        assertThatThrownBy(() -> decoder.decode(token)).isInstanceOf(BadJwtException.class);
+
+        assertThat(rejections(JwtPrevalidator.Reason.NOT_YET_VALID)).isEqualTo(2);
+    }
+
+    @Test
+    void whenVerificationFailsWithAKnownKey_thenReplaysSkipTheDelegate() {
+        String token = issuer.mintUserToken("user123", List.of("openid"), List.of());
+        when(delegate.decode(token)).thenThrow(new BadJwtException("Signed JWT rejected: Invalid signature"));
+
+        assertThatThrownBy(() -> decoder.decode(token)).hasMessageContaining("Invalid signature");
+        assertThatThrownBy(() -> decoder.decode(token)).isInstanceOf(BadJwtException.class)
+            .hasMessage(JwtPrevalidator.Reason.VERIFICATION.getMessage());
+
+        verify(delegate, times(1)).decode(token);
+    }
+
+    @Test
+    void whenVerificationFailsWithAnUnknownKey_thenTokenIsNotCached() {
+        knownKeys.clear();
+        String token = issuer.mintUserToken("user123", List.of("openid"), List.of());
+        when(delegate.decode(token)).thenThrow(new BadJwtException("No matching key(s) found"));
+
+        assertThatThrownBy(() -> decoder.decode(token)).isInstanceOf(BadJwtException.class);
+        assertThatThrownBy(() -> decoder.decode(token)).isInstanceOf(BadJwtException.class);
+
+        verify(delegate, times(2)).decode(token);
+    }
+
+    @Test
+    void whenDelegateFailsForOtherReasons_thenTokenIsNotCached() {
+        String token = issuer.mintUserToken("user123", List.of("openid"), List.of());
+        when(delegate.decode(token)).thenThrow(new JwtException("Couldn't retrieve remote JWK set"));
+
+        assertThatThrownBy(() -> decoder.decode(token)).isInstanceOf(JwtException.class);
+        assertThatThrownBy(() -> decoder.decode(token)).isInstanceOf(JwtException.class);
+
+        verify(delegate, times(2)).decode(token);
+    }
+
+    private double rejections(JwtPrevalidator.Reason reason) {
+        return registry.get("security.jwt.prevalidation.rejections").tag("reason", reason.getTagValue())
+            .functionCounter().count();
+    }
+}
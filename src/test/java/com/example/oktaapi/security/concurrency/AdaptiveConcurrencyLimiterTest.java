@@ -0,0 +1,105 @@
+package com.example.oktaapi.security.concurrency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 10, 2, 20, 2.0, 0.5,
+        1_000);
+
+    @Test
+    void whenLimitIsReached_thenRequestsAreShedUntilOneCompletes() {
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+        }
+        assertThat(limiter.tryAcquire()).isFalse();
+        assertThat(limiter.getShedCount()).isEqualTo(1);
+
+        limiter.releaseWithoutSample();
+        assertThat(limiter.getInFlight()).isEqualTo(9);
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void whenLatencyRisesAboveTheBaseline_thenLimitIsReducedOnce() {
+        sequential(FAST, 3);
+
+        sequential(SLOW, 3);
+
+        assertThat(limiter.getBaselineRttMillis()).isEqualTo(1.0);
+        assertThat(limiter.getLimit()).isEqualTo(5);
+    }
+
+    @Test
+    void whenRequestFails_thenLimitIsReduced() {
+        limiter.tryAcquire();
+        limiter.release(FAST, true);
+
+        assertThat(limiter.getLimit()).isEqualTo(5);
+    }
+
+    @Test
+    void whenLimitIsReduced_thenItDoesNotGoBelowTheMinimum() {
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire();
+            limiter.release(FAST, true);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(2);
+    }
+
+    @Test
+    void whenLatencyIsSteadyUnderLoad_thenLimitGrowsUpToTheMaximum() {
+        sequential(FAST, 1);
+        for (int round = 0; round < 30; round++) {
+            int admitted = 0;
+            while (limiter.tryAcquire()) {
+                admitted++;
+            }
+            for (int i = 0; i < admitted; i++) {
+                limiter.release(FAST, false);
+            }
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(20);
+    }
+
+    @Test
+    void whenIdle_thenLimitDoesNotGrow() {
+        sequential(FAST, 50);
+
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void whenBound_thenStateIsPublishedAsMeters() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        limiter.bindTo(registry);
+        limiter.tryAcquire();
+
+        assertThat(registry.get("security.concurrency.limit").tag("limiter", "test").gauge().value()).isEqualTo(10);
+        assertThat(registry.get("security.concurrency.in.flight").tag("limiter", "test").gauge().value())
+            .isEqualTo(1);
+        assertThat(registry.get("security.concurrency.shed").tag("limiter", "test").functionCounter().count())
+            .isZero();
+    }
+
+    /**
+     * Completes requests one at a time, i.e. with a single request in flight.
+     */
+    private void sequential(long rttNanos, int count) {
+        for (int i = 0; i < count; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+            limiter.release(rttNanos, false);
+        }
+    }
+}
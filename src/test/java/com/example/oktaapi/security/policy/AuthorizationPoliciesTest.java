@@ -0,0 +1,107 @@
+package com.example.oktaapi.security.policy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+class AuthorizationPoliciesTest {
+
+    private final AuthorizationPolicies policies = AuthorizationPolicies.compile(
+        Map.of(
+            "user", List.of("TestUserGroup", "TestAdminGroup"),
+            "admin", List.of("TestAdminGroup")),
+        List.of(
+            PolicyDefinition.named(Policies.PRIVATE_READ)
+                .requireAuthority("SCOPE_data.read")
+                .requireAnyRole("user")
+                .orClientCredentials(),
+            PolicyDefinition.named(Policies.ADMIN)
+                .requireAnyRole("admin")));
+
+    @Test
+    void whenUserHasScopeAndGroup_thenPrivateReadIsGranted() {
+        assertThat(isGranted(Policies.PRIVATE_READ, false, "SCOPE_data.read", "TestUserGroup")).isTrue();
+    }
+
+    @Test
+    void whenUserLacksScope_thenPrivateReadIsDenied() {
+        assertThat(isGranted(Policies.PRIVATE_READ, false, "SCOPE_other.scope", "TestUserGroup")).isFalse();
+    }
+
+    @Test
+    void whenUserLacksGroup_thenPrivateReadIsDenied() {
+        assertThat(isGranted(Policies.PRIVATE_READ, false, "SCOPE_data.read", "Some Group")).isFalse();
+    }
+
+    @Test
+    void whenClientCredentialsHasScope_thenPrivateReadIsGranted() {
+        assertThat(isGranted(Policies.PRIVATE_READ, true, "SCOPE_data.read")).isTrue();
+        assertThat(isGranted(Policies.PRIVATE_READ, true, "SCOPE_other.scope")).isFalse();
+    }
+
+    @Test
+    void whenAdminPolicyIsEvaluated_thenOnlyAdminGroupsAreGranted() {
+        assertThat(isGranted(Policies.ADMIN, false, "TestAdminGroup")).isTrue();
+        assertThat(isGranted(Policies.ADMIN, false, "TestUserGroup")).isFalse();
+        assertThat(isGranted(Policies.ADMIN, true, "SCOPE_data.read")).isFalse();
+    }
+
+    @Test
+    void whenGroupsAreGranted_thenRolesAreResolved() {
+        AuthorityMask granted = policies.authorityIndex().grantedMask(AuthorityUtils.createAuthorityList("TestAdminGroup"));
+        assertThat(policies.rolesFor(granted)).containsExactlyInAnyOrder("user", "admin");
+    }
+
+    @Test
+    void whenRoleHasNoGroups_thenPolicyIsDenied() {
+        AuthorizationPolicies empty = AuthorizationPolicies.compile(Map.of("admin", List.of()),
+            List.of(PolicyDefinition.named(Policies.ADMIN).requireAnyRole("admin")));
+
+        AuthorityMask granted = empty.authorityIndex().grantedMask(AuthorityUtils.createAuthorityList("TestAdminGroup"));
+        assertThat(empty.policy(Policies.ADMIN).isGranted(granted, false)).isFalse();
+        assertThat(empty.policy(Policies.ADMIN).isGranted(AuthorityMask.EMPTY, false)).isFalse();
+        assertThat(empty.policy(Policies.ADMIN).isGranted(AuthorityMask.EMPTY, true)).isFalse();
+    }
+
+    @Test
+    void whenPolicyRefersToUnknownRole_thenCompilationFails() {
+        assertThatThrownBy(() -> AuthorizationPolicies.compile(Map.of(),
+                List.of(PolicyDefinition.named("broken").requireAnyRole("nobody"))))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void whenMoreThan64AuthoritiesAreReferenced_thenEveryOneIsIndexed() {
+        List<String> groups = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            groups.add("Group" + i);
+        }
+        AuthorizationPolicies many = AuthorizationPolicies.compile(
+            Map.of("user", groups.subList(0, 100), "admin", groups.subList(130, 200)),
+            List.of(PolicyDefinition.named(Policies.ADMIN).requireAnyRole("admin")));
+
+        assertThat(many.authorityIndex().size()).isEqualTo(170);
+        assertThat(many.rolesFor(many.authorityIndex().grantedMask(AuthorityUtils.createAuthorityList("Group99"))))
+            .containsExactly("user");
+        assertThat(many.rolesFor(many.authorityIndex().grantedMask(AuthorityUtils.createAuthorityList("Group199"))))
+            .containsExactly("admin");
+        assertThat(isGranted(many, Policies.ADMIN, "Group150")).isTrue();
+        assertThat(isGranted(many, Policies.ADMIN, "Group0", "Group99", "Group129")).isFalse();
+    }
+
+    private boolean isGranted(String policy, boolean clientCredentials, String... authorities) {
+        AuthorityMask granted = policies.authorityIndex().grantedMask(AuthorityUtils.createAuthorityList(authorities));
+        return policies.policy(policy).isGranted(granted, clientCredentials);
+    }
+
+    private static boolean isGranted(AuthorizationPolicies policies, String policy, String... authorities) {
+        AuthorityMask granted = policies.authorityIndex().grantedMask(AuthorityUtils.createAuthorityList(authorities));
+        return policies.policy(policy).isGranted(granted, false);
+    }
+}
@@ -0,0 +1,246 @@
+package com.example.oktaapi.security.policy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import com.example.oktaapi.config.AuthorizationPolicyConfig;
+import com.example.oktaapi.security.OktaAuthenticationToken;
+import com.example.oktaapi.security.TokenType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RoleRegistryTest {
+
+    private static final Map<String, List<String>> INITIAL = Map.of(
+        "user", List.of("TestUserGroup", "TestAdminGroup"),
+        "admin", List.of("TestAdminGroup"));
+
+    @TempDir
+    Path tempDir;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private Path file;
+    private RoleRegistry registry;
+    private PolicyAuthorizationManager manager;
+
+    @BeforeEach
+    void setUp() {
+        file = tempDir.resolve("roles.json");
+        registry = new RoleRegistry(INITIAL, AuthorizationPolicyConfig.policyDefinitions(), file,
+            Duration.ofMinutes(1), objectMapper);
+        manager = new PolicyAuthorizationManager(registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        registry.close();
+    }
+
+    @Test
+    void whenMappingsAreUpdated_thenNextDecisionUsesThem() throws Exception {
+        TestingAuthenticationToken ops = new TestingAuthenticationToken("bob", null, "OpsGroup");
+        AuthorizationPolicies before = registry.get();
+        assertThat(manager.isGranted(Policies.ADMIN, ops)).isFalse();
+
+        RoleRegistry.Snapshot updated = registry.update(Map.of(
+            "user", List.of("TestUserGroup"),
+            "admin", List.of("OpsGroup")), "alice");
+
+        assertThat(updated.version()).isEqualTo(2);
+        assertThat(updated.actor()).isEqualTo("alice");
+        assertThat(registry.get()).isSameAs(updated.policies()).isNotSameAs(before);
+        assertThat(manager.isGranted(Policies.ADMIN, ops)).isTrue();
+        assertThat(objectMapper.readTree(file.toFile()).has("admin")).isTrue();
+    }
+
+    @Test
+    void whenTokenWasAuthenticatedBeforeReload_thenItsMaskIsNotTrusted() throws Exception {
+        AuthorizationPolicies before = registry.get();
+        var authorities = AuthorityUtils.createAuthorityList("TestAdminGroup");
+        AuthorityMask mask = before.authorityIndex().grantedMask(authorities);
+        OktaAuthenticationToken admin = new OktaAuthenticationToken(jwt(), authorities, TokenType.USER,
+            before.rolesFor(mask), mask, before);
+        assertThat(manager.isGranted(Policies.ADMIN, admin)).isTrue();
+
+        registry.update(Map.of("user", List.of("TestUserGroup"), "admin", List.of("OpsGroup")), "alice");
+
+        assertThat(manager.isGranted(Policies.ADMIN, admin)).isFalse();
+    }
+
+    @Test
+    void whenMappingsLeaveOutARole_thenTheyAreRejectedAndTheCurrentOnesKept() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        registry.bindTo(meterRegistry);
+        RoleRegistry.Snapshot before = registry.current();
+
+        assertThatThrownBy(() -> registry.update(Map.of("user", List.of("TestUserGroup")), "alice"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("admin");
+
+        assertThat(registry.current()).isSameAs(before);
+        assertThat(Files.exists(file)).isFalse();
+        assertThat(meterRegistry.get("security.roles.reloads").tag("outcome", "failure").functionCounter().count())
+            .isEqualTo(1);
+        assertThat(meterRegistry.get("security.roles.version").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void whenARoleHasNoGroups_thenTheMappingsAreRejected() throws Exception {
+        RoleRegistry.Snapshot before = registry.current();
+
+        assertThatThrownBy(() -> registry.update(Map.of("user", List.of("TestUserGroup"), "admin", List.of()),
+                "alice"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("admin");
+        assertThatThrownBy(() -> registry.update(Map.of("user", List.of("TestUserGroup"), "admin", List.of(" ")),
+                "alice"))
+            .isInstanceOf(IllegalArgumentException.class);
+
+        Files.writeString(file, """
+            {"user": ["TestUserGroup"], "admin": []}
+            """);
+        assertThatThrownBy(() -> registry.reload("test")).isInstanceOf(IllegalArgumentException.class);
+        assertThat(registry.current()).isSameAs(before);
+    }
+
+    @Test
+    void whenFileChanges_thenReloadPublishesItsMappings() throws Exception {
+        Files.writeString(file, """
+            {"user": ["TestUserGroup"], "admin": ["TestAdminGroup"], "auditor": ["AuditGroup"]}
+            """);
+
+        RoleRegistry.Snapshot reloaded = registry.reload("test");
+
+        assertThat(reloaded.source()).isEqualTo("file");
+        assertThat(reloaded.roleGroups()).containsEntry("auditor", List.of("AuditGroup"));
+        assertThat(registry.get().roleNames()).contains("auditor");
+        var authorities = AuthorityUtils.createAuthorityList("AuditGroup");
+        assertThat(registry.get().rolesFor(registry.get().authorityIndex().grantedMask(authorities)))
+            .containsExactly("auditor");
+    }
+
+    @Test
+    void whenARoleHasMoreThan64Groups_thenEveryOneOfThemGrantsIt() throws Exception {
+        List<String> groups = IntStream.range(0, 200).mapToObj(i -> "AdminGroup" + i).toList();
+        Files.writeString(file, objectMapper.writeValueAsString(Map.of(
+            "user", List.of("TestUserGroup"),
+            "admin", groups)));
+
+        registry.reload("test");
+
+        assertThat(registry.get().authorityIndex().size()).isGreaterThan(200);
+        for (String group : List.of("AdminGroup0", "AdminGroup63", "AdminGroup64", "AdminGroup199")) {
+            assertThat(manager.isGranted(Policies.ADMIN, new TestingAuthenticationToken("bob", null, group)))
+                .as(group)
+                .isTrue();
+        }
+        assertThat(manager.isGranted(Policies.ADMIN, new TestingAuthenticationToken("bob", null, "TestUserGroup")))
+            .isFalse();
+    }
+
+    @Test
+    void whenTenantRoleHasMoreThan64Groups_thenEveryOneOfThemGrantsIt() {
+        String tenant = "https://acme.okta.com/oauth2/default";
+        List<String> groups = IntStream.range(0, 100).mapToObj(i -> "AcmeAdmins" + i).toList();
+        try (RoleRegistry withTenant = new RoleRegistry(INITIAL, Map.of(tenant, Map.of(
+                "user", List.of("AcmeUsers"),
+                "admin", groups)), AuthorizationPolicyConfig.policyDefinitions(), null,
+                Duration.ofMinutes(1), objectMapper)) {
+            PolicyAuthorizationManager tenantManager = new PolicyAuthorizationManager(withTenant);
+            for (String group : List.of("AcmeAdmins0", "AcmeAdmins64", "AcmeAdmins99")) {
+                JwtAuthenticationToken acmeAdmin = new JwtAuthenticationToken(
+                    Jwt.withTokenValue("token").header("alg", "RS256").issuer(tenant).build(),
+                    AuthorityUtils.createAuthorityList(group));
+                assertThat(tenantManager.isGranted(Policies.ADMIN, acmeAdmin)).as(group).isTrue();
+            }
+        }
+    }
+
+    @Test
+    void whenFileIsMalformed_thenReloadFailsAndTheCurrentMappingsAreKept() throws Exception {
+        Files.writeString(file, "{\"user\": ");
+        RoleRegistry.Snapshot before = registry.current();
+
+        assertThatThrownBy(() -> registry.reload("test")).isInstanceOf(IOException.class);
+        assertThat(registry.current()).isSameAs(before);
+    }
+
+    @Test
+    void whenNoFileIsConfigured_thenReloadIsRefused() {
+        try (RoleRegistry withoutFile = new RoleRegistry(INITIAL, AuthorizationPolicyConfig.policyDefinitions(),
+                null, Duration.ofMinutes(1), objectMapper)) {
+            assertThatThrownBy(() -> withoutFile.reload("test")).isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Test
+    void whenTenantHasItsOwnMappings_thenItsTokensAreAuthorizedAgainstThem() throws Exception {
+        String tenant = "https://acme.okta.com/oauth2/default";
+        try (RoleRegistry withTenant = new RoleRegistry(INITIAL, Map.of(tenant, Map.of(
+                "user", List.of("AcmeUsers"),
+                "admin", List.of("AcmeAdmins"))), AuthorizationPolicyConfig.policyDefinitions(), null,
+                Duration.ofMinutes(1), objectMapper)) {
+            PolicyAuthorizationManager tenantManager = new PolicyAuthorizationManager(withTenant);
+            JwtAuthenticationToken acmeAdmin = new JwtAuthenticationToken(
+                Jwt.withTokenValue("token").header("alg", "RS256").issuer(tenant).build(),
+                AuthorityUtils.createAuthorityList("AcmeAdmins"));
+            JwtAuthenticationToken defaultAdmin = new JwtAuthenticationToken(jwt(),
+                AuthorityUtils.createAuthorityList("AcmeAdmins"));
+
+            assertThat(tenantManager.isGranted(Policies.ADMIN, acmeAdmin)).isTrue();
+            assertThat(tenantManager.isGranted(Policies.ADMIN, defaultAdmin)).isFalse();
+            assertThat(withTenant.forIssuer("https://other.okta.com")).isSameAs(withTenant.get());
+
+            // Reloading the default mappings leaves the tenant's alone
+            withTenant.update(Map.of("user", List.of("AcmeAdmins"), "admin", List.of("AcmeAdmins")), "test");
+            assertThat(tenantManager.isGranted(Policies.ADMIN, defaultAdmin)).isTrue();
+            assertThat(withTenant.forIssuer(tenant)).isNotSameAs(withTenant.get());
+        }
+    }
+
+    @Test
+    void whenTenantMappingsCannotBeCompiled_thenRegistryIsNotCreated() {
+        assertThatThrownBy(() -> new RoleRegistry(INITIAL, Map.of("https://acme.okta.com", Map.of(
+                "user", List.of("AcmeUsers"))), AuthorizationPolicyConfig.policyDefinitions(), null,
+                Duration.ofMinutes(1), objectMapper))
+            .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("https://acme.okta.com");
+    }
+
+    @Test
+    void whenMappingsChange_thenAuditDescribesAddedAndRemovedGroups() {
+        String changes = RoleRegistry.changes(INITIAL, Map.of(
+            "user", List.of("TestUserGroup", "TestAdminGroup"),
+            "admin", List.of("OpsGroup"),
+            "auditor", List.of("AuditGroup")));
+
+        assertThat(changes).contains("admin +[OpsGroup] -[TestAdminGroup]").contains("auditor added [AuditGroup]")
+            .doesNotContain("user");
+    }
+
+    private static Jwt jwt() {
+        return Jwt.withTokenValue("token")
+            .header("alg", "RS256")
+            .subject("user123")
+            .claim("groups", List.of("TestAdminGroup"))
+            .build();
+    }
+}
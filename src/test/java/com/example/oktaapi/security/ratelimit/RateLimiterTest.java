@@ -0,0 +1,89 @@
+package com.example.oktaapi.security.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import com.example.oktaapi.security.policy.AuthorizationPolicies;
+
+class RateLimiterTest {
+
+    private static final RateLimitTier DEFAULT = new RateLimitTier("default", 2, Duration.ofSeconds(1));
+    private static final RateLimitTier USER = new RateLimitTier("user", 4, Duration.ofSeconds(1));
+    private static final RateLimitTier ADMIN = new RateLimitTier("admin", 10, Duration.ofSeconds(1));
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+    private final AuthorizationPolicies policies = AuthorizationPolicies.compile(
+        Map.of("user", List.of("TestUserGroup", "TestAdminGroup"), "admin", List.of("TestAdminGroup")), List.of());
+    private final RateLimitTiers tiers = new RateLimitTiers(Map.of("user", USER, "admin", ADMIN), DEFAULT, null,
+        policies.roleNames(), () -> policies);
+    private final RateLimiter limiter = new RateLimiter(true, tiers, 2, Duration.ofMinutes(1), clock::get);
+
+    @Test
+    void whenBurstIsExhausted_thenRequestsAreRejectedUntilTheBucketRefills() {
+        assertThat(limiter.tryAcquire("sub:a", USER).remaining()).isEqualTo(3);
+        limiter.tryAcquire("sub:a", USER);
+        limiter.tryAcquire("sub:a", USER);
+        assertThat(limiter.tryAcquire("sub:a", USER).remaining()).isZero();
+
+        RateLimitDecision rejected = limiter.tryAcquire("sub:a", USER);
+        assertThat(rejected.allowed()).isFalse();
+        assertThat(rejected.retryAfterNanos()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(250));
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(250));
+        assertThat(limiter.tryAcquire("sub:a", USER).allowed()).isTrue();
+        assertThat(limiter.tryAcquire("sub:b", USER).remaining()).isEqualTo(3);
+    }
+
+    @Test
+    void whenDecisionIsWritten_thenRateLimitHeadersAreSet() {
+        limiter.tryAcquire("sub:a", DEFAULT);
+        Map<String, String> headers = new HashMap<>();
+        limiter.tryAcquire("sub:a", DEFAULT).writeHeaders(headers::put);
+        limiter.tryAcquire("sub:a", DEFAULT).writeHeaders(headers::put);
+
+        assertThat(headers).containsEntry(RateLimitDecision.LIMIT_HEADER, "2")
+            .containsEntry(RateLimitDecision.REMAINING_HEADER, "0")
+            .containsEntry(RateLimitDecision.RESET_HEADER, "1")
+            .containsEntry(RateLimitDecision.POLICY_HEADER, "2;w=1")
+            .containsEntry("Retry-After", "1");
+    }
+
+    @Test
+    void whenPrincipalsAreIdle_thenTheirBucketsAreEvicted() {
+        limiter.tryAcquire("sub:a", DEFAULT);
+        limiter.tryAcquire("sub:b", DEFAULT);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+
+        limiter.tryAcquire("sub:c", DEFAULT);
+
+        assertThat(limiter.size()).isEqualTo(1);
+    }
+
+    @Test
+    void whenCallerHasSeveralRoles_thenTheFastestTierApplies() {
+        JwtAuthenticationToken admin = authentication(Jwt.withTokenValue("token").header("alg", "none")
+            .subject("user123").claim("cid", "client123"), "TestAdminGroup");
+        JwtAuthenticationToken client = authentication(Jwt.withTokenValue("token").header("alg", "none")
+            .subject("client123").claim("cid", "client123"));
+
+        assertThat(tiers.tierFor(admin)).isSameAs(ADMIN);
+        assertThat(tiers.principalKey(admin)).isEqualTo("sub:user123");
+        assertThat(tiers.tierFor(client)).isSameAs(DEFAULT);
+        assertThat(tiers.principalKey(client)).isEqualTo("cid:client123");
+    }
+
+    private static JwtAuthenticationToken authentication(Jwt.Builder jwt, String... authorities) {
+        return new JwtAuthenticationToken(jwt.build(), AuthorityUtils.createAuthorityList(authorities));
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.oktaapi.security.revocation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import com.example.oktaapi.util.BloomFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class TokenRevocationsTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T00:00:00Z");
+
+    @TempDir
+    Path tempDir;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private MutableClock clock;
+    private Path file;
+    private TokenRevocations revocations;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(NOW);
+        file = tempDir.resolve("revocations.json");
+        revocations = new TokenRevocations(true, file, objectMapper, Duration.ofHours(24), Duration.ofMinutes(1),
+            0.01, clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        revocations.close();
+    }
+
+    @Test
+    void whenTokenIsRevoked_thenOnlyThatTokenIsRejected() throws Exception {
+        revocations.revoke(Revocation.ofToken("jti-1", null, NOW.plus(Duration.ofHours(1))));
+
+        assertThat(revocations.find(jwt("jti-1", "user123", NOW))).isNotNull();
+        assertThat(revocations.find(jwt("jti-2", "user123", NOW))).isNull();
+    }
+
+    @Test
+    void whenSubjectIsRevoked_thenOnlyTokensIssuedBeforeAreRejected() throws Exception {
+        Revocation stored = revocations.revoke(Revocation.ofSubject("user123", null, null));
+
+        assertThat(stored.revokedAt()).isEqualTo(NOW);
+        assertThat(stored.expiresAt()).isEqualTo(NOW.plus(Duration.ofHours(24)));
+        assertThat(revocations.find(jwt("jti-1", "user123", NOW.minusSeconds(60)))).isEqualTo(stored);
+        assertThat(revocations.find(jwt("jti-2", "user123", NOW.plusSeconds(60)))).isNull();
+        assertThat(revocations.find(jwt("jti-3", "user456", NOW.minusSeconds(60)))).isNull();
+    }
+
+    @Test
+    void whenEntryExpires_thenItIsPurged() throws Exception {
+        revocations.revoke(Revocation.ofToken("jti-1", null, NOW.plus(Duration.ofMinutes(5))));
+
+        clock.advance(Duration.ofMinutes(5));
+        assertThat(revocations.find(jwt("jti-1", "user123", NOW))).isNull();
+        revocations.purge();
+
+        assertThat(revocations.entries()).isEmpty();
+    }
+
+    @Test
+    void whenRevocationIsRemoved_thenTokenIsAcceptedAgain() throws Exception {
+        revocations.revoke(Revocation.ofToken("jti-1", null, NOW.plus(Duration.ofHours(1))));
+
+        assertThat(revocations.remove("jti-1", null)).isTrue();
+        assertThat(revocations.remove("jti-1", null)).isFalse();
+        assertThat(revocations.find(jwt("jti-1", "user123", NOW))).isNull();
+        assertThatThrownBy(() -> revocations.remove(null, null)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void whenDenyListIsChanged_thenItIsWrittenToTheFileAndCanBeReloaded() throws Exception {
+        revocations.revoke(Revocation.ofToken("jti-1", null, NOW.plus(Duration.ofHours(1))));
+        revocations.revoke(Revocation.ofSubject("user123", null, null));
+
+        TokenRevocations restarted = new TokenRevocations(true, file, objectMapper, Duration.ofHours(24),
+            Duration.ofMinutes(1), 0.01, clock);
+        try {
+            restarted.start();
+            assertThat(restarted.entries()).containsExactlyInAnyOrderElementsOf(revocations.entries());
+        } finally {
+            restarted.close();
+        }
+    }
+
+    @Test
+    void whenTokenIsRevoked_thenDecoderRejectsIt() throws Exception {
+        Jwt revoked = jwt("jti-1", "user123", NOW);
+        Jwt valid = jwt("jti-2", "user123", NOW);
+        JwtDecoder decoder = new RevokingJwtDecoder(token -> token.equals("revoked") ? revoked : valid, revocations);
+        revocations.revoke(Revocation.ofToken("jti-1", null, NOW.plus(Duration.ofHours(1))));
+
+        assertThatThrownBy(() -> decoder.decode("revoked")).isInstanceOf(BadJwtException.class);
+        assertThat(decoder.decode("valid")).isSameAs(valid);
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        revocations.bindTo(registry);
+        assertThat(registry.get("security.revocation.checks").tag("result", "revoked").functionCounter().count())
+            .isEqualTo(1);
+        assertThat(registry.get("security.revocation.entries").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void whenBloomFilterIsSized_thenFalsePositivesStayNearTheTarget() {
+        List<String> members = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            members.add("jti:member-" + i);
+        }
+        BloomFilter filter = BloomFilter.of(members, 0.01);
+
+        assertThat(members).allMatch(filter::mightContain);
+        long falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("jti:other-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives).isLessThan(2_000);
+    }
+
+    private static Jwt jwt(String jti, String subject, Instant issuedAt) {
+        return Jwt.withTokenValue("token")
+            .header("alg", "none")
+            .jti(jti)
+            .subject(subject)
+            .issuedAt(issuedAt)
+            .expiresAt(issuedAt.plus(Duration.ofHours(1)))
+            .build();
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.oktaapi.support;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.net.ssl.SSLContext;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.util.JSONObjectUtils;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.sun.net.httpserver.HttpsConfigurator;
+import com.sun.net.httpserver.HttpsServer;
+
+/**
+ * An in-process stand-in for an Okta authorization server, for tests that need to exercise real
+ * HTTP key retrieval without a network connection to Okta.
+ *
+ * <p>The issuer serves OpenID Connect discovery metadata at
+ * {@code {issuer}/.well-known/openid-configuration} and its public signing key at
+ * {@code {issuer}/v1/keys}, counts the key requests it receives, and can be told to respond slowly, to fail, or to rotate its signing key. It also mints
+ * RS256 access tokens shaped like Okta's, signed with its current key.</p>
+ *
+ * <p>It is served over plain HTTP unless started with an {@link SSLContext}; the Okta starter only
+ * accepts an {@code https} issuer, so an application configured with {@code okta.oauth2.issuer}
+ * needs the latter.</p>
+ */
+public class MockOktaIssuer implements AutoCloseable {
+
+    public static final String AUDIENCE = "api://default";
+
+    private static final String ISSUER_PATH = "/oauth2/default";
+
+    private final HttpServer server;
+    private final String scheme;
+    private final AtomicInteger jwksRequests = new AtomicInteger();
+
+    private volatile RSAKey signingKey;
+    private volatile Duration jwksDelay = Duration.ZERO;
+    private volatile boolean failing;
+
+    private MockOktaIssuer(HttpServer server, String scheme) {
+        this.server = server;
+        this.scheme = scheme;
+        this.signingKey = generateKey();
+        server.createContext(ISSUER_PATH + "/v1/keys", this::handleJwks);
+        server.createContext(ISSUER_PATH + "/.well-known/openid-configuration", this::handleDiscovery);
+        server.createContext(ISSUER_PATH + "/.well-known/oauth-authorization-server", this::handleDiscovery);
+    }
+
+    public static MockOktaIssuer start() {
+        try {
+            return start(HttpServer.create(new InetSocketAddress("localhost", 0), 0), "http");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Starts an issuer served over HTTPS, with the key and certificate of the given context (whose
+     * certificate must be valid for {@code localhost}).
+     */
+    public static MockOktaIssuer start(SSLContext sslContext) {
+        try {
+            HttpsServer server = HttpsServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.setHttpsConfigurator(new HttpsConfigurator(sslContext));
+            return start(server, "https");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static MockOktaIssuer start(HttpServer server, String scheme) {
+        server.setExecutor(Executors.newCachedThreadPool());
+        MockOktaIssuer issuer = new MockOktaIssuer(server, scheme);
+        server.start();
+        return issuer;
+    }
+
+    public String issuer() {
+        return scheme + "://localhost:" + server.getAddress().getPort() + ISSUER_PATH;
+    }
+
+    public URI jwksUri() {
+        return URI.create(issuer() + "/v1/keys");
+    }
+
+    public RSAKey signingKey() {
+        return signingKey;
+    }
+
+    public int jwksRequestCount() {
+        return jwksRequests.get();
+    }
+
+    public void setJwksDelay(Duration jwksDelay) {
+        this.jwksDelay = jwksDelay;
+    }
+
+    public void setFailing(boolean failing) {
+        this.failing = failing;
+    }
+
+    public void rotateKey() {
+        this.signingKey = generateKey();
+    }
+
+    /**
+     * Returns a claims builder pre-populated with the standard claims of an Okta access token
+     * issued by this issuer: {@code iss}, {@code aud}, {@code sub}, {@code cid}, {@code iat},
+     * {@code exp} (one hour later) and a random {@code jti}.
+     */
+    public JWTClaimsSet.Builder claims(String subject, String clientId) {
+        Instant now = Instant.now();
+        return new JWTClaimsSet.Builder()
+            .issuer(issuer())
+            .audience(AUDIENCE)
+            .subject(subject)
+            .claim("cid", clientId)
+            .issueTime(Date.from(now))
+            .expirationTime(Date.from(now.plus(Duration.ofHours(1))))
+            .jwtID(UUID.randomUUID().toString());
+    }
+
+    /**
+     * Mints a user token with the given scopes and groups.
+     */
+    public String mintUserToken(String subject, List<String> scopes, List<String> groups) {
+        return mint(claims(subject, "client123").claim("scp", scopes).claim("groups", groups).build());
+    }
+
+    /**
+     * Mints a client credentials token (subject equal to the client ID) with the given scopes.
+     */
+    public String mintClientCredentialsToken(String clientId, List<String> scopes) {
+        return mint(claims(clientId, clientId).claim("scp", scopes).build());
+    }
+
+    /**
+     * Signs the given claims with the issuer's current key.
+     */
+    public String mint(JWTClaimsSet claims) {
+        RSAKey key = signingKey;
+        try {
+            SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(), claims);
+            jwt.sign(new RSASSASigner(key));
+            return jwt.serialize();
+        } catch (JOSEException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handleDiscovery(HttpExchange exchange) throws IOException {
+        String issuer = issuer();
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("issuer", issuer);
+        metadata.put("authorization_endpoint", issuer + "/v1/authorize");
+        metadata.put("token_endpoint", issuer + "/v1/token");
+        metadata.put("userinfo_endpoint", issuer + "/v1/userinfo");
+        metadata.put("introspection_endpoint", issuer + "/v1/introspect");
+        metadata.put("jwks_uri", issuer + "/v1/keys");
+        metadata.put("response_types_supported", List.of("code"));
+        metadata.put("subject_types_supported", List.of("public"));
+        metadata.put("id_token_signing_alg_values_supported", List.of("RS256"));
+        metadata.put("grant_types_supported", List.of("authorization_code", "client_credentials"));
+        writeJson(exchange, JSONObjectUtils.toJSONString(metadata));
+    }
+
+    private void handleJwks(HttpExchange exchange) throws IOException {
+        jwksRequests.incrementAndGet();
+        try {
+            Thread.sleep(jwksDelay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (failing) {
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+            return;
+        }
+        writeJson(exchange, new JWKSet(signingKey.toPublicJWK()).toString());
+    }
+
+    private static void writeJson(HttpExchange exchange, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static RSAKey generateKey() {
+        try {
+            return new RSAKeyGenerator(2048).keyID(UUID.randomUUID().toString()).generate();
+        } catch (JOSEException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.oktaapi.tracing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+
+class RequestTraceFilterTest {
+
+    private final TraceStore store = new TraceStore(2);
+
+    @Test
+    void whenRequestIsDenied_thenTraceIsKeptEvenIfNotSampled() throws Exception {
+        RequestTraceFilter filter = new RequestTraceFilter(store, 0, 32, 1);
+
+        perform(filter, "/api/admin", (request, response) -> {
+            RequestTrace.event(TraceEvent.AUTHORITIES, 2,
+                AuthorityUtils.createAuthorityList("SCOPE_openid", "SampleUserGroup"));
+            RequestTrace.event(TraceEvent.POLICY_DENIED, 0b101, "admin");
+            ((HttpServletResponse) response).setStatus(403);
+        });
+
+        List<TraceRecord> traces = store.recent(null);
+        assertThat(traces).hasSize(1);
+        TraceRecord trace = traces.get(0);
+        assertThat(trace.path()).isEqualTo("/api/admin");
+        assertThat(trace.status()).isEqualTo(403);
+        assertThat(trace.outcome()).isEqualTo("403");
+        assertThat(trace.events()).extracting(TraceRecord.Event::type).containsExactly("authorities", "policy_denied");
+        assertThat(trace.events().get(0).detail()).isEqualTo("SCOPE_openid,SampleUserGroup");
+        assertThat(trace.events().get(1).value()).isEqualTo(0b101);
+        assertThat(store.find(trace.id())).isSameAs(trace);
+    }
+
+    @Test
+    void whenRequestSucceeds_thenTraceIsOnlyKeptIfSampled() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        store.bindTo(registry);
+
+        perform(new RequestTraceFilter(store, 0, 32, 1), "/api/private", (request, response) ->
+            RequestTrace.event(TraceEvent.POLICY_GRANTED, 1, "private.read"));
+        assertThat(store.recent(null)).isEmpty();
+
+        perform(new RequestTraceFilter(store, 1, 32, 1), "/api/private", (request, response) ->
+            RequestTrace.event(TraceEvent.POLICY_GRANTED, 1, "private.read"));
+        assertThat(store.recent("ok")).singleElement().satisfies(trace ->
+            assertThat(trace.events()).extracting(TraceRecord.Event::detail).containsExactly("private.read"));
+
+        assertThat(registry.get("security.tracing.requests").tag("result", "discarded").functionCounter().count())
+            .isEqualTo(1);
+        assertThat(registry.get("security.tracing.requests").tag("result", "sampled").functionCounter().count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void whenRequestThrows_thenTraceRecordsTheError() {
+        RequestTraceFilter filter = new RequestTraceFilter(store, 0, 32, 1);
+
+        assertThatThrownBy(() -> perform(filter, "/api/private", (request, response) -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(store.recent("error")).singleElement().satisfies(trace ->
+            assertThat(trace.events()).extracting(TraceRecord.Event::detail)
+                .containsExactly("IllegalStateException: boom"));
+    }
+
+    @Test
+    void whenBufferIsFull_thenFurtherEventsAreCountedAndTheBufferIsClearedAfterwards() throws Exception {
+        RequestTraceFilter filter = new RequestTraceFilter(store, 1, 2, 1);
+
+        perform(filter, "/api/private", (request, response) -> {
+            RequestTrace.event(TraceEvent.TOKEN_RESOLVED);
+            RequestTrace.event(TraceEvent.JWT_DECODED);
+            RequestTrace.event(TraceEvent.AUTHENTICATED);
+        });
+        // Outside of a request, events are ignored
+        RequestTrace.event(TraceEvent.LOAD_SHED);
+        perform(filter, "/api/private", (request, response) -> RequestTrace.event(TraceEvent.RATE_LIMITED));
+
+        List<TraceRecord> traces = store.recent(null);
+        assertThat(traces).extracting(TraceRecord::droppedEvents).containsExactly(0, 1);
+        assertThat(traces.get(0).events()).extracting(TraceRecord.Event::type).containsExactly("rate_limited");
+        assertThat(traces.get(1).events()).hasSize(2);
+    }
+
+    @Test
+    void whenStoreIsFull_thenOldestTraceIsReplaced() throws Exception {
+        RequestTraceFilter filter = new RequestTraceFilter(store, 1, 32, 1);
+
+        for (int i = 0; i < 3; i++) {
+            perform(filter, "/api/private", (request, response) -> { });
+        }
+
+        assertThat(store.recent(null)).extracting(TraceRecord::id).containsExactly(3L, 2L);
+        assertThat(store.find(1)).isNull();
+    }
+
+    @Test
+    void whenRequestsRunOnDifferentThreads_thenTheyReuseThePooledBuffer() throws Exception {
+        RequestTraceFilter filter = new RequestTraceFilter(store, 0, 32, 1);
+        List<RequestTrace> traces = new CopyOnWriteArrayList<>();
+        List<Boolean> unbound = new CopyOnWriteArrayList<>();
+
+        for (int i = 0; i < 2; i++) {
+            Thread.ofVirtual().start(() -> {
+                try {
+                    perform(filter, "/api/private", (request, response) -> traces.add(RequestTrace.current()));
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                unbound.add(RequestTrace.current() == null);
+            }).join();
+        }
+
+        assertThat(traces).hasSize(2).doesNotContainNull();
+        assertThat(traces.get(1)).isSameAs(traces.get(0));
+        // The buffer is unbound from the thread once the request completes
+        assertThat(unbound).containsExactly(true, true);
+    }
+
+    private static void perform(RequestTraceFilter filter, String uri, FilterChain chain) throws Exception {
+        filter.doFilter(new MockHttpServletRequest("GET", uri), new MockHttpServletResponse(), chain);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.oktaapi.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.example.oktaapi.model.Message;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+class TimestampedJsonTest {
+
+    // Configured like Spring Boot's ObjectMapper, which writes dates as ISO-8601 strings
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+        .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .build();
+    private final AtomicLong clock = new AtomicLong(1_712_345_678_901L);
+
+    @Test
+    void whenMessageIsRendered_thenBodyMatchesJacksonSerialization() throws Exception {
+        TimestampedJson template = TimestampedJson.of(objectMapper, new Message("Hello \"world\""), "timestamp",
+            TimestampedJsonTest::localDateTime, clock::get);
+
+        Message expected = new Message("Hello \"world\"", clock.get());
+        assertThat(template.render()).isEqualTo(objectMapper.writeValueAsBytes(expected));
+    }
+
+    @Test
+    void whenMapIsRendered_thenBodyMatchesJacksonSerialization() throws Exception {
+        Map<String, Object> status = new HashMap<>();
+        status.put("status", "UP");
+        status.put("message", "API is running normally");
+        status.put("timestamp", 0L);
+        TimestampedJson template = TimestampedJson.of(objectMapper, status, "timestamp", Long::valueOf, clock::get);
+
+        status.put("timestamp", clock.get());
+        assertThat(template.render()).isEqualTo(objectMapper.writeValueAsBytes(status));
+    }
+
+    @Test
+    void whenClockTicks_thenBodyIsRenderedAgain() throws Exception {
+        TimestampedJson template = TimestampedJson.of(objectMapper, Map.of("timestamp", 0L), "timestamp",
+            Long::valueOf, clock::get);
+
+        byte[] first = template.render();
+        assertThat(template.render()).isSameAs(first);
+
+        clock.incrementAndGet();
+        assertThat(template.render()).isEqualTo(objectMapper.writeValueAsBytes(Map.of("timestamp", clock.get())));
+    }
+
+    @Test
+    void whenResponseIsBuilt_thenETagIdentifiesTheWholeBody() {
+        TimestampedJson template = TimestampedJson.of(objectMapper, Map.of("timestamp", 0L), "timestamp",
+            Long::valueOf, clock::get);
+
+        ResponseEntity<byte[]> first = template.toResponseEntity();
+        ResponseEntity<byte[]> sameTick = template.toResponseEntity();
+        clock.incrementAndGet();
+        ResponseEntity<byte[]> nextTick = template.toResponseEntity();
+
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(first.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(first.getHeaders().getLastModified()).isEqualTo(-1);
+        assertThat(first.getHeaders().getETag()).startsWith("\"").isEqualTo(sameTick.getHeaders().getETag());
+        assertThat(sameTick.getBody()).isSameAs(first.getBody());
+        assertThat(nextTick.getHeaders().getETag()).isNotEqualTo(first.getHeaders().getETag());
+        assertThat(nextTick.getBody()).isNotEqualTo(first.getBody());
+    }
+
+    private static LocalDateTime localDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+}